@@ -9,4 +9,7 @@ object GradlePropertiesKeys {
 
     // you can set this property from your gradle.properties as: forceEnableLogcat = true | false
     const val FORCE_ENABLE_LOGCAT = "forceEnableLogcat"
+
+    // you can set this property from the command line as: -PjmhInclude=<benchmarks regex>
+    const val JMH_INCLUDE = "jmhInclude"
 }
@@ -0,0 +1,116 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.gradle.config
+
+import com.android.build.gradle.LibraryExtension
+import org.gradle.api.JavaVersion
+import org.gradle.api.Project
+import org.gradle.api.artifacts.MinimalExternalModuleDependency
+import org.gradle.api.provider.Provider
+import org.gradle.api.tasks.JavaExec
+import org.gradle.api.tasks.compile.JavaCompile
+import org.gradle.kotlin.dsl.getByType
+import org.gradle.kotlin.dsl.register
+
+/**
+ * Registers the tasks running the JMH benchmarks of a library module.
+ *
+ * The benchmarks are compiled with the unit tests (from the `src/jmh/kotlin` folder), so that
+ * they can reach the internal classes of the module. The JMH harness is then generated from the
+ * compiled classes, and run with: `./gradlew :module:jmh [-PjmhInclude=regex]`.
+ *
+ * Results (throughput, sampled latency percentiles and allocation rate) are written in
+ * `build/reports/jmh/results.json`.
+ *
+ * @param generator the JMH bytecode generator dependency
+ * @param variant the build variant to benchmark
+ */
+fun Project.jmhConfig(
+    generator: Provider<MinimalExternalModuleDependency>,
+    variant: String = "debug"
+) {
+    val jmhGenerator = configurations.create("jmhGenerator")
+    dependencies.addProvider(jmhGenerator.name, generator)
+
+    val androidExtension = extensions.getByType<LibraryExtension>()
+    androidExtension.sourceSets.named("test") {
+        java.srcDir("src/jmh/kotlin")
+    }
+
+    val unitTestVariant = "${variant}UnitTest"
+    val mainClassesDir = layout.buildDirectory.dir("tmp/kotlin-classes/$variant")
+    val benchmarkClassesDir = layout.buildDirectory.dir("tmp/kotlin-classes/$unitTestVariant")
+    val generatedSourcesDir = layout.buildDirectory.dir("generated/jmh/sources")
+    val generatedResourcesDir = layout.buildDirectory.dir("generated/jmh/resources")
+    val generatedClassesDir = layout.buildDirectory.dir("generated/jmh/classes")
+    val reportFile = layout.buildDirectory.file("reports/jmh/results.json")
+
+    // Android classes are only stubs on the JVM, benchmarks must stay on the pure JVM code paths
+    val runtimeClasspath = files(
+        benchmarkClassesDir,
+        mainClassesDir,
+        configurations.named("${unitTestVariant}RuntimeClasspath"),
+        androidExtension.bootClasspath
+    )
+
+    val generateTask = tasks.register<JavaExec>("jmhGenerate") {
+        group = "datadog"
+        description = "Generates the JMH harness for the benchmarks of the module."
+        dependsOn("compile${unitTestVariant.replaceFirstChar { it.uppercase() }}Kotlin")
+
+        mainClass.set("org.openjdk.jmh.generators.bytecode.JmhBytecodeGenerator")
+        classpath = jmhGenerator + runtimeClasspath
+        args(
+            benchmarkClassesDir.get().asFile.absolutePath,
+            generatedSourcesDir.get().asFile.absolutePath,
+            generatedResourcesDir.get().asFile.absolutePath,
+            "default"
+        )
+        outputs.dir(generatedSourcesDir)
+        outputs.dir(generatedResourcesDir)
+
+        doFirst {
+            generatedSourcesDir.get().asFile.deleteRecursively()
+            generatedResourcesDir.get().asFile.deleteRecursively()
+        }
+    }
+
+    val compileTask = tasks.register<JavaCompile>("jmhCompile") {
+        group = "datadog"
+        description = "Compiles the JMH harness for the benchmarks of the module."
+        dependsOn(generateTask)
+
+        source(generatedSourcesDir)
+        classpath = jmhGenerator + runtimeClasspath
+        destinationDirectory.set(generatedClassesDir)
+        sourceCompatibility = JavaVersion.VERSION_11.toString()
+        targetCompatibility = JavaVersion.VERSION_11.toString()
+    }
+
+    tasks.register<JavaExec>("jmh") {
+        group = "datadog"
+        description = "Runs the JMH benchmarks of the module."
+        dependsOn(compileTask)
+
+        mainClass.set("org.openjdk.jmh.Main")
+        classpath = files(generatedClassesDir, generatedResourcesDir) + runtimeClasspath
+        args(
+            findProperty(GradlePropertiesKeys.JMH_INCLUDE) as? String ?: ".*Benchmark.*",
+            "-prof",
+            "gc",
+            "-rf",
+            "json",
+            "-rff",
+            reportFile.get().asFile.absolutePath
+        )
+        outputs.file(reportFile)
+
+        doFirst {
+            reportFile.get().asFile.parentFile.mkdirs()
+        }
+    }
+}
@@ -81,6 +81,7 @@ class ClassGenerator(
         }
 
         typeBuilder.addFunction(generateClassSerializer(definition))
+        typeBuilder.addFunction(generateClassWriter(definition))
 
         typeBuilder.addType(generateCompanionObject(definition, rootTypeName))
 
@@ -309,6 +310,181 @@ class ClassGenerator(
         endControlFlow()
     }
 
+    private fun generateClassWriter(definition: TypeDefinition.Class): FunSpec {
+        val funBuilder = FunSpec.builder(Identifier.FUN_WRITE_TO)
+            .addParameter(Identifier.PARAM_WRITER, ClassNameRef.JsonWriter)
+
+        if (definition.parentType != null) {
+            funBuilder.addModifiers(KModifier.OVERRIDE)
+        }
+
+        funBuilder.addStatement("%L.beginObject()", Identifier.PARAM_WRITER)
+
+        definition.properties.forEach { p ->
+            funBuilder.appendPropertyWriting(
+                property = p,
+                isRequired = definition.required.contains(p.name)
+            )
+        }
+
+        if (definition.additionalProperties != null) {
+            funBuilder.appendAdditionalPropertiesWriting(
+                definition.additionalProperties,
+                definition.properties.isNotEmpty()
+            )
+        }
+
+        funBuilder.addStatement("%L.endObject()", Identifier.PARAM_WRITER)
+
+        return funBuilder.build()
+    }
+
+    private fun FunSpec.Builder.appendPropertyWriting(
+        property: TypeProperty,
+        isRequired: Boolean
+    ) {
+        val propertyName = property.name.variableName()
+        val isNullable =
+            !isRequired && property.type !is TypeDefinition.Constant && property.type !is TypeDefinition.Null
+        val refName = if (isNullable) {
+            beginControlFlow("%L?.let·{·%LNonNull·->", propertyName, propertyName)
+            "${propertyName}NonNull"
+        } else {
+            propertyName
+        }
+
+        when (property.type) {
+            is TypeDefinition.Constant -> {
+                val constantValue = property.type.value
+                if (constantValue is String || constantValue is Number) {
+                    addStatement(
+                        "%L.name(%S).value(%L)",
+                        Identifier.PARAM_WRITER,
+                        property.name,
+                        property.name.variableName()
+                    )
+                } else {
+                    error(
+                        "Unable to generate writer for constant $constantValue with type ${property.type}"
+                    )
+                }
+            }
+
+            is TypeDefinition.Primitive -> addStatement(
+                "%L.name(%S).value(%L)",
+                Identifier.PARAM_WRITER,
+                property.name,
+                refName
+            )
+
+            is TypeDefinition.Null -> addStatement(
+                "%L.name(%S).nullValue()",
+                Identifier.PARAM_WRITER,
+                property.name
+            )
+
+            is TypeDefinition.Array -> appendArrayWriting(property, property.type, refName)
+            is TypeDefinition.Class,
+            is TypeDefinition.OneOfClass,
+            is TypeDefinition.Enum -> {
+                addStatement("%L.name(%S)", Identifier.PARAM_WRITER, property.name)
+                addStatement("%L.%L(%L)", refName, Identifier.FUN_WRITE_TO, Identifier.PARAM_WRITER)
+            }
+        }
+
+        if (isNullable) {
+            endControlFlow()
+        }
+    }
+
+    private fun FunSpec.Builder.appendArrayWriting(
+        property: TypeProperty,
+        propertyType: TypeDefinition.Array,
+        propertyName: String
+    ) {
+        addStatement("%L.name(%S).beginArray()", Identifier.PARAM_WRITER, property.name)
+
+        when (propertyType.items) {
+            is TypeDefinition.Null -> addStatement(
+                "%L.forEach·{·%L.nullValue()·}",
+                propertyName,
+                Identifier.PARAM_WRITER
+            )
+
+            is TypeDefinition.Primitive,
+            is TypeDefinition.Constant -> addStatement(
+                "%L.forEach·{·%L.value(it)·}",
+                propertyName,
+                Identifier.PARAM_WRITER
+            )
+
+            is TypeDefinition.Class,
+            is TypeDefinition.OneOfClass,
+            is TypeDefinition.Enum -> addStatement(
+                "%L.forEach·{·it.%L(%L)·}",
+                propertyName,
+                Identifier.FUN_WRITE_TO,
+                Identifier.PARAM_WRITER
+            )
+
+            is TypeDefinition.Array -> throw UnsupportedOperationException(
+                "Unable to write an array of arrays: $propertyType"
+            )
+        }
+
+        addStatement("%L.endArray()", Identifier.PARAM_WRITER)
+    }
+
+    @Suppress("FunctionMaxLength")
+    private fun FunSpec.Builder.appendAdditionalPropertiesWriting(
+        additionalProperties: TypeProperty,
+        hasKnownProperties: Boolean
+    ) {
+        beginControlFlow("%L.forEach { (k, v) ->", Identifier.PARAM_ADDITIONAL_PROPS)
+
+        if (hasKnownProperties) {
+            beginControlFlow("if (k !in %L)", Identifier.PARAM_RESERVED_PROPS)
+        }
+
+        when (additionalProperties.type) {
+            is TypeDefinition.Primitive -> addStatement("%L.name(k).value(v)", Identifier.PARAM_WRITER)
+            is TypeDefinition.Class -> {
+                addStatement("%L.name(k)", Identifier.PARAM_WRITER)
+                addStatement(
+                    "%T.%L(%L, v)",
+                    ClassName(Identifier.PACKAGE_UTILS, Identifier.OBJECT_JSON_SERIALIZER),
+                    Identifier.FUN_WRITE_JSON_ELT,
+                    Identifier.PARAM_WRITER
+                )
+            }
+
+            is TypeDefinition.Enum -> {
+                addStatement("%L.name(k)", Identifier.PARAM_WRITER)
+                addStatement("v.%L(%L)", Identifier.FUN_WRITE_TO, Identifier.PARAM_WRITER)
+            }
+
+            is TypeDefinition.Null -> addStatement("%L.name(k).nullValue()", Identifier.PARAM_WRITER)
+
+            is TypeDefinition.Array -> error(
+                "Unable to generate custom writer for Array type $additionalProperties"
+            )
+
+            is TypeDefinition.Constant -> error(
+                "Unable to generate custom writer for constant type $additionalProperties"
+            )
+
+            else -> error(
+                "Unable to generate custom writer for unknown type $additionalProperties"
+            )
+        }
+
+        if (hasKnownProperties) {
+            endControlFlow()
+        }
+
+        endControlFlow()
+    }
+
     private fun generateConstructor(
         definition: TypeDefinition.Class,
         rootTypeName: String
@@ -67,6 +67,7 @@ class EnumClassGenerator(
         }
 
         enumBuilder.addFunction(generateEnumSerializer(definition))
+        enumBuilder.addFunction(generateEnumWriter())
 
         enumBuilder.addType(generateCompanionObject(definition, rootTypeName))
 
@@ -119,6 +120,13 @@ class EnumClassGenerator(
         return funBuilder.build()
     }
 
+    private fun generateEnumWriter(): FunSpec {
+        return FunSpec.builder(Identifier.FUN_WRITE_TO)
+            .addParameter(Identifier.PARAM_WRITER, ClassNameRef.JsonWriter)
+            .addStatement("%L.value(%L)", Identifier.PARAM_WRITER, Identifier.PARAM_JSON_VALUE)
+            .build()
+    }
+
     private fun generateEnumDeserializer(
         definition: TypeDefinition.Enum,
         rootTypeName: String
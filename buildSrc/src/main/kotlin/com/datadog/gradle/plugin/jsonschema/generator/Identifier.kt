@@ -11,6 +11,8 @@ object Identifier {
     const val FUN_TO_JSON = "toJson"
     const val OBJECT_JSON_SERIALIZER = "JsonSerializer"
     const val FUN_TO_JSON_ELT = "toJsonElement"
+    const val FUN_WRITE_TO = "writeTo"
+    const val FUN_WRITE_JSON_ELT = "writeJsonElement"
     const val FUN_FROM_JSON = "fromJson"
     const val FUN_FROM_JSON_OBJ = "fromJsonObject"
     const val FUN_FROM_JSON_PRIMITIVE = "fromJsonPrimitive"
@@ -24,6 +26,7 @@ object Identifier {
     const val PARAM_JSON_VALUE = "jsonValue"
     const val PARAM_ADDITIONAL_PROPS = "additionalProperties"
     const val PARAM_COLLECTION = "collection"
+    const val PARAM_WRITER = "writer"
 
     const val PARAM_RESERVED_PROPS = "RESERVED_PROPERTIES"
 
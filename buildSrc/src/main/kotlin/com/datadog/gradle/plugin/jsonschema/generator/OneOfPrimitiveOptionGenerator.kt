@@ -67,6 +67,14 @@ class OneOfPrimitiveOptionGenerator(
                 .build()
         )
 
+        typeBuilder.addFunction(
+            FunSpec.builder(Identifier.FUN_WRITE_TO)
+                .apply { if (definition.parentType != null) addModifiers(KModifier.OVERRIDE) }
+                .addParameter(Identifier.PARAM_WRITER, ClassNameRef.JsonWriter)
+                .addStatement("%L.value(item)", Identifier.PARAM_WRITER)
+                .build()
+        )
+
         typeBuilder.addType(
             TypeSpec.companionObjectBuilder()
                 .addFunction(generateStringDeserializer(className))
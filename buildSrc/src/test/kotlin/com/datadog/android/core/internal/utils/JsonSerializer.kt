@@ -11,6 +11,8 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonNull
 import com.google.gson.JsonObject
 import com.google.gson.JsonPrimitive
+import com.google.gson.internal.Streams
+import com.google.gson.stream.JsonWriter
 import org.json.JSONArray
 import org.json.JSONObject
 import java.util.Date
@@ -41,4 +43,8 @@ object JsonSerializer {
             else -> JsonPrimitive(item.toString())
         }
     }
+
+    fun writeJsonElement(writer: JsonWriter, item: Any?) {
+        Streams.write(toJsonElement(item), writer)
+    }
 }
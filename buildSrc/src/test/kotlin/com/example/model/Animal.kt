@@ -5,6 +5,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -20,6 +21,8 @@ import kotlin.jvm.Throws
 public sealed class Animal {
     public abstract fun toJson(): JsonElement
 
+    public abstract fun writeTo(writer: JsonWriter)
+
     public data class Fish(
         public val water: Water,
         public val size: Long? = null,
@@ -33,6 +36,16 @@ public sealed class Animal {
             return json
         }
 
+        override fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("water")
+            water.writeTo(writer)
+            size?.let { sizeNonNull ->
+                writer.name("size").value(sizeNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -86,6 +99,14 @@ public sealed class Animal {
             return json
         }
 
+        override fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("food")
+            food.writeTo(writer)
+            writer.name("can_fly").value(canFly)
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -191,6 +212,10 @@ public sealed class Animal {
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Water = values().first {
@@ -213,6 +238,10 @@ public sealed class Animal {
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Food = values().first {
@@ -5,6 +5,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -40,6 +41,24 @@ public data class Bike(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("productId").value(productId)
+        writer.name("productName").value(productName)
+        type?.let { typeNonNull ->
+            writer.name("type").value(typeNonNull)
+        }
+        writer.name("price").value(price)
+        frameMaterial?.let { frameMaterialNonNull ->
+            writer.name("frameMaterial")
+            frameMaterialNonNull.writeTo(writer)
+        }
+        writer.name("inStock").value(inStock)
+        writer.name("color")
+        color.writeTo(writer)
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -98,6 +117,10 @@ public data class Bike(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): FrameMaterial = values().first {
@@ -119,6 +142,10 @@ public data class Bike(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Color = values().first {
@@ -4,6 +4,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -28,6 +29,16 @@ public data class Book(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("bookId").value(bookId)
+        writer.name("title").value(title)
+        writer.name("price").value(price)
+        writer.name("author")
+        author.writeTo(writer)
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -86,6 +97,15 @@ public data class Book(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("firstName").value(firstName)
+            writer.name("lastName").value(lastName)
+            writer.name("contact")
+            contact.writeTo(writer)
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -146,6 +166,17 @@ public data class Book(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            phone?.let { phoneNonNull ->
+                writer.name("phone").value(phoneNonNull)
+            }
+            email?.let { emailNonNull ->
+                writer.name("email").value(emailNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
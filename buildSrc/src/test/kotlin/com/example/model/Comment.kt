@@ -4,6 +4,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -39,6 +40,26 @@ public data class Comment(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        message?.let { messageNonNull ->
+            writer.name("message").value(messageNonNull)
+        }
+        ratings?.let { ratingsNonNull ->
+            writer.name("ratings")
+            ratingsNonNull.writeTo(writer)
+        }
+        flags?.let { flagsNonNull ->
+            writer.name("flags")
+            flagsNonNull.writeTo(writer)
+        }
+        tags?.let { tagsNonNull ->
+            writer.name("tags")
+            tagsNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -103,6 +124,17 @@ public data class Comment(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("global").value(global)
+            additionalProperties.forEach { (k, v) ->
+                if (k !in RESERVED_PROPERTIES) {
+                    writer.name(k).value(v)
+                }
+            }
+            writer.endObject()
+        }
+
         public companion object {
             internal val RESERVED_PROPERTIES: Array<String> = arrayOf("global")
 
@@ -163,6 +195,14 @@ public data class Comment(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            additionalProperties.forEach { (k, v) ->
+                writer.name(k).value(v)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -218,6 +258,14 @@ public data class Comment(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            additionalProperties.forEach { (k, v) ->
+                writer.name(k).value(v)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
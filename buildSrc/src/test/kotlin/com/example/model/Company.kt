@@ -5,6 +5,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -41,6 +42,28 @@ public data class Company(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        name?.let { nameNonNull ->
+            writer.name("name").value(nameNonNull)
+        }
+        ratings?.let { ratingsNonNull ->
+            writer.name("ratings")
+            ratingsNonNull.writeTo(writer)
+        }
+        information?.let { informationNonNull ->
+            writer.name("information")
+            informationNonNull.writeTo(writer)
+        }
+        additionalProperties.forEach { (k, v) ->
+            if (k !in RESERVED_PROPERTIES) {
+                writer.name(k)
+                JsonSerializer.writeJsonElement(writer, v)
+            }
+        }
+        writer.endObject()
+    }
+
     public companion object {
         internal val RESERVED_PROPERTIES: Array<String> = arrayOf("name", "ratings", "information")
 
@@ -110,6 +133,17 @@ public data class Company(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("global").value(global)
+            additionalProperties.forEach { (k, v) ->
+                if (k !in RESERVED_PROPERTIES) {
+                    writer.name(k).value(v)
+                }
+            }
+            writer.endObject()
+        }
+
         public companion object {
             internal val RESERVED_PROPERTIES: Array<String> = arrayOf("global")
 
@@ -180,6 +214,23 @@ public data class Company(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            date?.let { dateNonNull ->
+                writer.name("date").value(dateNonNull)
+            }
+            priority?.let { priorityNonNull ->
+                writer.name("priority").value(priorityNonNull)
+            }
+            additionalProperties.forEach { (k, v) ->
+                if (k !in RESERVED_PROPERTIES) {
+                    writer.name(k)
+                    JsonSerializer.writeJsonElement(writer, v)
+                }
+            }
+            writer.endObject()
+        }
+
         public companion object {
             internal val RESERVED_PROPERTIES: Array<String> = arrayOf("date", "priority")
 
@@ -5,6 +5,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -27,6 +28,19 @@ public data class Conflict(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        type?.let { typeNonNull ->
+            writer.name("type")
+            typeNonNull.writeTo(writer)
+        }
+        user?.let { userNonNull ->
+            writer.name("user")
+            userNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -83,6 +97,14 @@ public data class Conflict(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            id?.let { idNonNull ->
+                writer.name("id").value(idNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -139,6 +161,18 @@ public data class Conflict(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            name?.let { nameNonNull ->
+                writer.name("name").value(nameNonNull)
+            }
+            type?.let { typeNonNull ->
+                writer.name("type")
+                typeNonNull.writeTo(writer)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -193,6 +227,10 @@ public data class Conflict(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): UserType = values().first {
@@ -4,6 +4,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -30,6 +31,22 @@ public data class Customer(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        name?.let { nameNonNull ->
+            writer.name("name").value(nameNonNull)
+        }
+        billingAddress?.let { billingAddressNonNull ->
+            writer.name("billing_address")
+            billingAddressNonNull.writeTo(writer)
+        }
+        shippingAddress?.let { shippingAddressNonNull ->
+            writer.name("shipping_address")
+            shippingAddressNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -89,6 +106,14 @@ public data class Customer(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            writer.name("street_address").value(streetAddress)
+            writer.name("city").value(city)
+            writer.name("state").value(state)
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -5,6 +5,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -28,6 +29,19 @@ public data class DateTime(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        date?.let { dateNonNull ->
+            writer.name("date")
+            dateNonNull.writeTo(writer)
+        }
+        time?.let { timeNonNull ->
+            writer.name("time")
+            timeNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -92,6 +106,21 @@ public data class DateTime(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            year?.let { yearNonNull ->
+                writer.name("year").value(yearNonNull)
+            }
+            month?.let { monthNonNull ->
+                writer.name("month")
+                monthNonNull.writeTo(writer)
+            }
+            day?.let { dayNonNull ->
+                writer.name("day").value(dayNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -156,6 +185,20 @@ public data class DateTime(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            hour?.let { hourNonNull ->
+                writer.name("hour").value(hourNonNull)
+            }
+            minute?.let { minuteNonNull ->
+                writer.name("minute").value(minuteNonNull)
+            }
+            seconds?.let { secondsNonNull ->
+                writer.name("seconds").value(secondsNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -218,6 +261,10 @@ public data class DateTime(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Month = values().first {
@@ -5,6 +5,7 @@ import com.google.gson.JsonNull
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -51,6 +52,29 @@ public data class Demo(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("s").value(s)
+        writer.name("i").value(i)
+        writer.name("n").value(n)
+        writer.name("b").value(b)
+        writer.name("l").nullValue()
+        ns?.let { nsNonNull ->
+            writer.name("ns").value(nsNonNull)
+        }
+        ni?.let { niNonNull ->
+            writer.name("ni").value(niNonNull)
+        }
+        nn?.let { nnNonNull ->
+            writer.name("nn").value(nnNonNull)
+        }
+        nb?.let { nbNonNull ->
+            writer.name("nb").value(nbNonNull)
+        }
+        writer.name("nl").nullValue()
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
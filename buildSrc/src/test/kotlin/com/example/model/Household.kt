@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -35,6 +36,20 @@ public data class Household(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        pets?.let { petsNonNull ->
+            writer.name("pets").beginArray()
+            petsNonNull.forEach { it.writeTo(writer) }
+            writer.endArray()
+        }
+        situation?.let { situationNonNull ->
+            writer.name("situation")
+            situationNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -90,6 +105,8 @@ public data class Household(
     public sealed class Animal {
         public abstract fun toJson(): JsonElement
 
+        public abstract fun writeTo(writer: JsonWriter)
+
         public data class Fish(
             public val water: Water,
             public val size: Long? = null,
@@ -103,6 +120,16 @@ public data class Household(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("water")
+                water.writeTo(writer)
+                size?.let { sizeNonNull ->
+                    writer.name("size").value(sizeNonNull)
+                }
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -156,6 +183,14 @@ public data class Household(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("food")
+                food.writeTo(writer)
+                writer.name("can_fly").value(canFly)
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -256,6 +291,8 @@ public data class Household(
     public sealed class Situation {
         public abstract fun toJson(): JsonElement
 
+        public abstract fun writeTo(writer: JsonWriter)
+
         public data class Marriage(
             public val spouses: List<String>,
         ) : Situation() {
@@ -267,6 +304,14 @@ public data class Household(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("spouses").beginArray()
+                spouses.forEach { writer.value(it) }
+                writer.endArray()
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -325,6 +370,14 @@ public data class Household(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("roommates").beginArray()
+                roommates.forEach { writer.value(it) }
+                writer.endArray()
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -377,6 +430,10 @@ public data class Household(
         ) : Situation() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -485,6 +542,10 @@ public data class Household(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Water = values().first {
@@ -507,6 +568,10 @@ public data class Household(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Food = values().first {
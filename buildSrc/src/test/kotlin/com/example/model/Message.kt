@@ -5,6 +5,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -50,6 +51,32 @@ public data class Message(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("destination").beginArray()
+        destination.forEach { writer.value(it) }
+        writer.endArray()
+        writer.name("origin").value(origin)
+        subject?.let { subjectNonNull ->
+            writer.name("subject").value(subjectNonNull)
+        }
+        message?.let { messageNonNull ->
+            writer.name("message").value(messageNonNull)
+        }
+        labels?.let { labelsNonNull ->
+            writer.name("labels").beginArray()
+            labelsNonNull.forEach { writer.value(it) }
+            writer.endArray()
+        }
+        read?.let { readNonNull ->
+            writer.name("read").value(readNonNull)
+        }
+        important?.let { importantNonNull ->
+            writer.name("important").value(importantNonNull)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
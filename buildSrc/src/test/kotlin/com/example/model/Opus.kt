@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -48,6 +49,25 @@ public data class Opus(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        title?.let { titleNonNull ->
+            writer.name("title").value(titleNonNull)
+        }
+        composer?.let { composerNonNull ->
+            writer.name("composer").value(composerNonNull)
+        }
+        artists?.let { artistsNonNull ->
+            writer.name("artists").beginArray()
+            artistsNonNull.forEach { it.writeTo(writer) }
+            writer.endArray()
+        }
+        duration?.let { durationNonNull ->
+            writer.name("duration").value(durationNonNull)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -117,6 +137,18 @@ public data class Opus(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            name?.let { nameNonNull ->
+                writer.name("name").value(nameNonNull)
+            }
+            role?.let { roleNonNull ->
+                writer.name("role")
+                roleNonNull.writeTo(writer)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -180,6 +212,10 @@ public data class Opus(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Role = values().first {
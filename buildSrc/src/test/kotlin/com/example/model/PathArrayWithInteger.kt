@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -27,6 +28,14 @@ public data class PathArrayWithInteger(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("path").beginArray()
+        path.forEach { it.writeTo(writer) }
+        writer.endArray()
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -79,6 +88,8 @@ public data class PathArrayWithInteger(
     public sealed class Path {
         public abstract fun toJson(): JsonElement
 
+        public abstract fun writeTo(writer: JsonWriter)
+
         /**
          * boolean element
          */
@@ -87,6 +98,10 @@ public data class PathArrayWithInteger(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -125,6 +140,10 @@ public data class PathArrayWithInteger(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -163,6 +182,10 @@ public data class PathArrayWithInteger(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -209,6 +232,13 @@ public data class PathArrayWithInteger(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("x").value(x)
+                writer.name("y").value(y)
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
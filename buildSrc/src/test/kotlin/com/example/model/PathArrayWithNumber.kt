@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -28,6 +29,14 @@ public data class PathArrayWithNumber(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("path").beginArray()
+        path.forEach { it.writeTo(writer) }
+        writer.endArray()
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -80,6 +89,8 @@ public data class PathArrayWithNumber(
     public sealed class Path {
         public abstract fun toJson(): JsonElement
 
+        public abstract fun writeTo(writer: JsonWriter)
+
         /**
          * boolean element
          */
@@ -88,6 +99,10 @@ public data class PathArrayWithNumber(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -126,6 +141,10 @@ public data class PathArrayWithNumber(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -164,6 +183,10 @@ public data class PathArrayWithNumber(
         ) : Path() {
             override fun toJson(): JsonElement = JsonPrimitive(item)
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.value(item)
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -210,6 +233,13 @@ public data class PathArrayWithNumber(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("x").value(x)
+                writer.name("y").value(y)
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -4,6 +4,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -31,6 +32,20 @@ public data class Person(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        firstName?.let { firstNameNonNull ->
+            writer.name("firstName").value(firstNameNonNull)
+        }
+        lastName?.let { lastNameNonNull ->
+            writer.name("lastName").value(lastNameNonNull)
+        }
+        age?.let { ageNonNull ->
+            writer.name("age").value(ageNonNull)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -22,6 +23,13 @@ public data class Style(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("color")
+        color.writeTo(writer)
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -87,6 +95,14 @@ public data class Style(
             }
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            if (jsonValue == null) {
+                return JsonNull.INSTANCE
+            } else {
+                return JsonPrimitive(jsonValue)
+            }
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String?): Color = values().first {
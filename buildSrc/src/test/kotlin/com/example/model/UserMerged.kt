@@ -4,6 +4,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -36,6 +37,25 @@ public data class UserMerged(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        email?.let { emailNonNull ->
+            writer.name("email").value(emailNonNull)
+        }
+        phone?.let { phoneNonNull ->
+            writer.name("phone").value(phoneNonNull)
+        }
+        info?.let { infoNonNull ->
+            writer.name("info")
+            infoNonNull.writeTo(writer)
+        }
+        firstname?.let { firstnameNonNull ->
+            writer.name("firstname").value(firstnameNonNull)
+        }
+        writer.name("lastname").value(lastname)
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -97,6 +117,17 @@ public data class UserMerged(
             return json
         }
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.beginObject()
+            notes?.let { notesNonNull ->
+                writer.name("notes").value(notesNonNull)
+            }
+            source?.let { sourceNonNull ->
+                writer.name("source").value(sourceNonNull)
+            }
+            writer.endObject()
+        }
+
         public companion object {
             @JvmStatic
             @Throws(JsonParseException::class)
@@ -5,6 +5,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -35,6 +36,22 @@ public data class Video(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        writer.name("title").value(title)
+        tags?.let { tagsNonNull ->
+            writer.name("tags").beginArray()
+            tagsNonNull.forEach { writer.value(it) }
+            writer.endArray()
+        }
+        links?.let { linksNonNull ->
+            writer.name("links").beginArray()
+            linksNonNull.forEach { writer.value(it) }
+            writer.endArray()
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
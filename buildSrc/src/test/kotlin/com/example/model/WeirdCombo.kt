@@ -6,6 +6,7 @@ import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import java.lang.IllegalStateException
 import java.lang.NullPointerException
 import java.lang.NumberFormatException
@@ -28,6 +29,15 @@ public data class WeirdCombo(
         return json
     }
 
+    public fun writeTo(writer: JsonWriter) {
+        writer.beginObject()
+        anything?.let { anythingNonNull ->
+            writer.name("anything")
+            anythingNonNull.writeTo(writer)
+        }
+        writer.endObject()
+    }
+
     public companion object {
         @JvmStatic
         @Throws(JsonParseException::class)
@@ -73,6 +83,8 @@ public data class WeirdCombo(
     public sealed class Anything {
         public abstract fun toJson(): JsonElement
 
+        public abstract fun writeTo(writer: JsonWriter)
+
         public data class Fish(
             public val water: Water,
             public val size: Long? = null,
@@ -86,6 +98,16 @@ public data class WeirdCombo(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("water")
+                water.writeTo(writer)
+                size?.let { sizeNonNull ->
+                    writer.name("size").value(sizeNonNull)
+                }
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -139,6 +161,14 @@ public data class WeirdCombo(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("food")
+                food.writeTo(writer)
+                writer.name("can_fly").value(canFly)
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -194,6 +224,15 @@ public data class WeirdCombo(
                 return json
             }
 
+            override fun writeTo(writer: JsonWriter) {
+                writer.beginObject()
+                writer.name("title").value(title)
+                writer.name("author").beginArray()
+                author.forEach { writer.value(it) }
+                writer.endArray()
+                writer.endObject()
+            }
+
             public companion object {
                 @JvmStatic
                 @Throws(JsonParseException::class)
@@ -318,6 +357,10 @@ public data class WeirdCombo(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Water = values().first {
@@ -340,6 +383,10 @@ public data class WeirdCombo(
 
         public fun toJson(): JsonElement = JsonPrimitive(jsonValue)
 
+        public fun writeTo(writer: JsonWriter) {
+            writer.value(jsonValue)
+        }
+
         public companion object {
             @JvmStatic
             public fun fromJson(jsonString: String): Food = values().first {
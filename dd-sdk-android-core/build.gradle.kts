@@ -12,6 +12,7 @@ import com.datadog.gradle.config.androidLibraryConfig
 import com.datadog.gradle.config.dependencyUpdateConfig
 import com.datadog.gradle.config.detektCustomConfig
 import com.datadog.gradle.config.javadocConfig
+import com.datadog.gradle.config.jmhConfig
 import com.datadog.gradle.config.junitConfig
 import com.datadog.gradle.config.kotlinConfig
 import com.datadog.gradle.config.publishingConfig
@@ -132,6 +133,7 @@ dependencies {
     testImplementation(testFixtures(project(":dd-sdk-android-internal")))
     testImplementation(libs.bundles.jUnit5)
     testImplementation(libs.bundles.testTools)
+    testImplementation(libs.jmhCore)
     unmock(libs.robolectric)
 
     // Test Fixtures
@@ -166,6 +168,7 @@ unMock {
 kotlinConfig(jvmBytecodeTarget = JvmTarget.JVM_11)
 androidLibraryConfig()
 junitConfig()
+jmhConfig(libs.jmhGeneratorBytecode)
 javadocConfig()
 dependencyUpdateConfig()
 publishingConfig("Datadog monitoring library for Android applications.")
@@ -0,0 +1,47 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.benchmark
+
+import com.datadog.android.api.storage.RawBatchEvent
+import java.io.File
+import java.nio.file.Files
+import java.util.Random
+
+/**
+ * Shared fixtures for the JMH benchmarks. Data is generated from a fixed seed, so that all runs
+ * measure the same content.
+ */
+internal object BenchmarkFixtures {
+
+    private const val SEED = 0x0DD0_0DD0L
+    private const val METADATA_SIZE_RATIO = 16
+    private const val JSON_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789\"{}:,"
+
+    private val random = Random(SEED)
+
+    fun createRootDir(): File {
+        return Files.createTempDirectory("dd-sdk-jmh").toFile()
+    }
+
+    fun fakeEvent(size: Int): RawBatchEvent {
+        return RawBatchEvent(
+            data = fakeData(size),
+            metadata = fakeData(size / METADATA_SIZE_RATIO)
+        )
+    }
+
+    fun fakeEvents(count: Int, size: Int): List<RawBatchEvent> {
+        return List(count) { fakeEvent(size) }
+    }
+
+    /**
+     * @return JSON-like content, compressing the way real events do
+     */
+    fun fakeData(size: Int): ByteArray {
+        return ByteArray(size) { JSON_ALPHABET[random.nextInt(JSON_ALPHABET.length)].code.toByte() }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.NoOpInternalLogger
+import com.datadog.android.core.internal.benchmark.BenchmarkFixtures
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import okio.Buffer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+internal open class GzipRequestInterceptorBenchmark {
+
+    @Param("1024", "524288")
+    var bodySize: Int = 0
+
+    private lateinit var request: Request
+    private lateinit var chain: Interceptor.Chain
+
+    private lateinit var testedInterceptor: GzipRequestInterceptor
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        request = Request.Builder()
+            .url("https://example.com/api/v2/logs")
+            .post(BenchmarkFixtures.fakeData(bodySize).toRequestBody("application/json".toMediaType()))
+            .build()
+        chain = SendingChain(request)
+
+        testedInterceptor = GzipRequestInterceptor(NoOpInternalLogger())
+    }
+
+    @Benchmark
+    fun intercept(): Response {
+        return testedInterceptor.intercept(chain)
+    }
+
+    /**
+     * A chain writing the request body in memory, the way OkHttp would write it on the network.
+     */
+    private class SendingChain(private val request: Request) : Interceptor.Chain {
+
+        override fun request(): Request = request
+
+        override fun proceed(request: Request): Response {
+            val sink = Buffer()
+            request.body?.writeTo(sink)
+            return Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(HTTP_ACCEPTED)
+                .message("Accepted")
+                .header(HEADER_SENT_BYTES, sink.size.toString())
+                .build()
+        }
+
+        override fun connection(): Connection? = null
+
+        override fun call(): Call = throw UnsupportedOperationException()
+
+        override fun connectTimeoutMillis(): Int = 0
+
+        override fun withConnectTimeout(timeout: Int, unit: TimeUnit): Interceptor.Chain = this
+
+        override fun readTimeoutMillis(): Int = 0
+
+        override fun withReadTimeout(timeout: Int, unit: TimeUnit): Interceptor.Chain = this
+
+        override fun writeTimeoutMillis(): Int = 0
+
+        override fun withWriteTimeout(timeout: Int, unit: TimeUnit): Interceptor.Chain = this
+    }
+
+    companion object {
+        private const val HTTP_ACCEPTED = 202
+        private const val HEADER_SENT_BYTES = "X-Sent-Bytes"
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import com.datadog.android.api.NoOpInternalLogger
+import com.datadog.android.core.internal.benchmark.BenchmarkFixtures
+import com.datadog.android.core.internal.metrics.NoOpMetricsDispatcher
+import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
+import com.datadog.android.internal.time.DefaultTimeProvider
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+internal open class BatchFileOrchestratorBenchmark {
+
+    @Param("10", "200")
+    var batchFilesCount: Int = 0
+
+    private lateinit var rootDir: File
+    private lateinit var testedOrchestrator: BatchFileOrchestrator
+
+    @Setup(Level.Iteration)
+    fun setUp() {
+        rootDir = BenchmarkFixtures.createRootDir()
+
+        // batch files are named after their creation timestamp, keep them old enough to be read
+        val oldestTimestamp = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)
+        repeat(batchFilesCount) {
+            File(rootDir, (oldestTimestamp + it).toString())
+                .writeBytes(BenchmarkFixtures.fakeData(BATCH_FILE_SIZE))
+        }
+
+        testedOrchestrator = BatchFileOrchestrator(
+            rootDir,
+            // keep all the files, as deleting them would change what's measured along the way
+            FilePersistenceConfig(oldFileThreshold = Long.MAX_VALUE, maxDiskSpace = Long.MAX_VALUE),
+            NoOpInternalLogger(),
+            NoOpMetricsDispatcher(),
+            DefaultTimeProvider()
+        )
+    }
+
+    @TearDown(Level.Iteration)
+    fun tearDown() {
+        rootDir.deleteRecursively()
+    }
+
+    @Benchmark
+    fun getWritableFile(): File? {
+        return testedOrchestrator.getWritableFile()
+    }
+
+    @Benchmark
+    fun getReadableFile(): File? {
+        return testedOrchestrator.getReadableFile(emptySet())
+    }
+
+    @Benchmark
+    fun getAllFiles(): List<File> {
+        return testedOrchestrator.getAllFiles()
+    }
+
+    @Benchmark
+    fun getCompactableFileGroups(): List<List<File>> {
+        return testedOrchestrator.getCompactableFileGroups(emptySet())
+    }
+
+    companion object {
+        private const val BATCH_FILE_SIZE = 4 * 1024
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import com.datadog.android.api.NoOpInternalLogger
+import com.datadog.android.api.storage.RawBatchEvent
+import com.datadog.android.core.internal.benchmark.BenchmarkFixtures
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+internal open class PlainBatchFileReaderWriterBenchmark {
+
+    @Param("256", "4096")
+    var eventSize: Int = 0
+
+    @Param("100")
+    var eventsCount: Int = 0
+
+    private lateinit var rootDir: File
+    private lateinit var batchFile: File
+    private lateinit var writtenFile: File
+    private lateinit var event: RawBatchEvent
+
+    private lateinit var testedReaderWriter: PlainBatchFileReaderWriter
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        rootDir = BenchmarkFixtures.createRootDir()
+        batchFile = File(rootDir, "batch")
+        writtenFile = File(rootDir, "written")
+        event = BenchmarkFixtures.fakeEvent(eventSize)
+
+        testedReaderWriter = PlainBatchFileReaderWriter(NoOpInternalLogger())
+        testedReaderWriter.appendData(
+            batchFile,
+            BenchmarkFixtures.fakeEvents(eventsCount, eventSize),
+            null
+        )
+    }
+
+    @Setup(Level.Iteration)
+    fun resetWrittenFile() {
+        writtenFile.delete()
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        rootDir.deleteRecursively()
+    }
+
+    @Benchmark
+    fun writeData(): Boolean {
+        return testedReaderWriter.writeData(writtenFile, event, append = true)
+    }
+
+    @Benchmark
+    fun readData(): List<RawBatchEvent> {
+        return testedReaderWriter.readData(batchFile)
+    }
+
+    @Benchmark
+    fun readEvents(blackhole: Blackhole) {
+        testedReaderWriter.readEvents(batchFile) { blackhole.consume(it) }
+    }
+
+    @Benchmark
+    fun readEventsData(blackhole: Blackhole) {
+        testedReaderWriter.readEventsData(batchFile) { blackhole.consume(it) }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.tlvformat
+
+import com.datadog.android.api.NoOpInternalLogger
+import com.datadog.android.core.internal.benchmark.BenchmarkFixtures
+import com.datadog.android.core.internal.persistence.file.PlainFileReaderWriter
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.io.File
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+internal open class TLVBlockFileReaderBenchmark {
+
+    @Param("128", "16384")
+    var dataSize: Int = 0
+
+    private lateinit var rootDir: File
+    private lateinit var datastoreFile: File
+
+    private lateinit var testedReader: TLVBlockFileReader
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        rootDir = BenchmarkFixtures.createRootDir()
+        datastoreFile = File(rootDir, "datastore")
+
+        val internalLogger = NoOpInternalLogger()
+        val fileReaderWriter = PlainFileReaderWriter(internalLogger)
+        val versionBlock = TLVBlock(
+            TLVBlockType.VERSION_CODE,
+            ByteBuffer.allocate(Int.SIZE_BYTES).putInt(1).array(),
+            internalLogger
+        )
+        val dataBlock = TLVBlock(
+            TLVBlockType.DATA,
+            BenchmarkFixtures.fakeData(dataSize),
+            internalLogger
+        )
+        fileReaderWriter.writeData(
+            datastoreFile,
+            checkNotNull(versionBlock.serialize()) + checkNotNull(dataBlock.serialize()),
+            append = false
+        )
+
+        testedReader = TLVBlockFileReader(internalLogger, fileReaderWriter)
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        rootDir.deleteRecursively()
+    }
+
+    @Benchmark
+    fun read(): List<TLVBlock> {
+        return testedReader.read(datastoreFile)
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.thread
+
+import com.datadog.android.api.NoOpInternalLogger
+import com.datadog.android.core.configuration.BackPressureMitigation
+import com.datadog.android.internal.time.DefaultTimeProvider
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Group
+import org.openjdk.jmh.annotations.GroupThreads
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+internal open class BackPressuredBlockingQueueBenchmark {
+
+    @Param("DROP_OLDEST", "IGNORE_NEWEST")
+    var mitigation: BackPressureMitigation = BackPressureMitigation.DROP_OLDEST
+
+    private lateinit var testedQueue: BackPressuredBlockingQueue<Runnable>
+
+    private val task = Runnable { }
+
+    @Setup(Level.Iteration)
+    fun setUp() {
+        testedQueue = BackPressuredBlockingQueue(
+            NoOpInternalLogger(),
+            "benchmark",
+            QUEUE_CAPACITY,
+            QUEUE_CAPACITY,
+            {},
+            {},
+            mitigation,
+            DefaultTimeProvider()
+        )
+    }
+
+    @Benchmark
+    fun offerThenPoll(): Runnable? {
+        testedQueue.offer(task)
+        return testedQueue.poll()
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(PRODUCER_THREADS)
+    fun offer(): Boolean {
+        return testedQueue.offer(task)
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    fun poll(): Runnable? {
+        return testedQueue.poll()
+    }
+
+    companion object {
+        private const val QUEUE_CAPACITY = 1024
+        private const val PRODUCER_THREADS = 3
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.api.net
+
+/**
+ * Request object describing a payload made of the batch events, streamed from the disk as the
+ * request is sent. The payload is built as [payloadPrefix], then each event data separated by
+ * [payloadSeparator], then [payloadSuffix].
+ *
+ * @property id Unique identifier of the request.
+ * @property description Description of the request (ex. "RUM request", "Logs request", etc.).
+ * @property url URL to call.
+ * @property headers Request headers. Note that User Agent header will be ignored.
+ * @property contentType Content type of the request, if needed.
+ * @property payloadPrefix Bytes written before the first event.
+ * @property payloadSeparator Bytes written between two consecutive events.
+ * @property payloadSuffix Bytes written after the last event.
+ */
+data class StreamingRequest(
+    val id: String,
+    val description: String,
+    val url: String,
+    val headers: Map<String, String>,
+    val contentType: String? = null,
+    // won't generate custom equals/hashcode, because ID field is enough to identify the request,
+    // and we don't want to have array content comparison
+    @Suppress("ArrayInDataClass") val payloadPrefix: ByteArray = ByteArray(0),
+    @Suppress("ArrayInDataClass") val payloadSeparator: ByteArray = ByteArray(0),
+    @Suppress("ArrayInDataClass") val payloadSuffix: ByteArray = ByteArray(0)
+)
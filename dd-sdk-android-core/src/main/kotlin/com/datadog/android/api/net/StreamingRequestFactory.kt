@@ -0,0 +1,36 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.api.net
+
+import com.datadog.android.api.context.DatadogContext
+
+/**
+ * A [RequestFactory] able to describe its payload as the batch events joined together, which
+ * lets the SDK stream the batch straight from the disk into the request instead of loading the
+ * whole batch in memory.
+ *
+ * Factories which need to look at the events to build the request (to filter them, or to
+ * compute a hash of the payload for instance) should stick to [RequestFactory].
+ */
+interface StreamingRequestFactory : RequestFactory {
+
+    /**
+     * Creates a streamed request for the given batch.
+     * @param context Datadog SDK context.
+     * @param executionContext Information about the execution context this request in case of a previous retry.
+     * This information is specific to a certain batch and will be reset for the next batch in case of a drop or
+     * a successful request.
+     * @param batchMetadata Raw metadata of the batch.
+     * @return the request to send, or null to fall back on [RequestFactory.create] for this batch.
+     * @throws [Exception] in case the request could not be created.
+     */
+    fun createStreaming(
+        context: DatadogContext,
+        executionContext: RequestExecutionContext,
+        batchMetadata: ByteArray?
+    ): StreamingRequest?
+}
@@ -33,4 +33,31 @@ interface EventBatchWriter {
         batchMetadata: ByteArray?,
         eventType: EventType
     ): Boolean
+
+    /**
+     * Writes the content of the event to the current available batch, replacing the previous
+     * version of the same event (identified by [key]) if it was written in that batch with this
+     * method too. This allows to keep only the latest version of events which are updated
+     * several times (e.g.: a RUM view) in the storage.
+     *
+     * Writers which don't support updating an event in place write it as a new one. The event
+     * data can be read back with trailing whitespaces, so it must be in a format ignoring them
+     * (e.g.: JSON).
+     *
+     * @param event the event to write (content + metadata)
+     * @param batchMetadata the optional updated batch metadata
+     * @param eventType additional information about the event data
+     * @param key the key identifying the successive versions of the event
+     *
+     * @return true if event was written, false otherwise.
+     */
+    @WorkerThread
+    fun writeUpdatable(
+        event: RawBatchEvent,
+        batchMetadata: ByteArray?,
+        eventType: EventType,
+        key: String
+    ): Boolean {
+        return write(event, batchMetadata, eventType)
+    }
 }
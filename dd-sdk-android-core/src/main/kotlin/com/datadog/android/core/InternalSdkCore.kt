@@ -12,6 +12,7 @@ import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.context.NetworkInfo
 import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.api.feature.FeatureSdkCore
+import com.datadog.android.core.configuration.BackPressureStrategy
 import com.datadog.android.core.internal.net.FirstPartyHostHeaderTypeResolver
 import com.datadog.android.lint.InternalApi
 import com.datadog.android.privacy.TrackingConsent
@@ -87,6 +88,13 @@ interface InternalSdkCore : FeatureSdkCore {
     @InternalApi
     val appUptimeNs: Long
 
+    /**
+     * The back pressure strategy applied to the SDK queues, for features holding their own
+     * bounded queues to report the items they drop.
+     */
+    @InternalApi
+    val backPressureStrategy: BackPressureStrategy
+
     /**
      * Writes current RUM view event to the dedicated file for the needs of NDK crash reporting.
      *
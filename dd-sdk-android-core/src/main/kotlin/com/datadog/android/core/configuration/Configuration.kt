@@ -8,6 +8,7 @@ package com.datadog.android.core.configuration
 
 import com.datadog.android.Datadog
 import com.datadog.android.DatadogSite
+import com.datadog.android.core.internal.data.upload.PriorityUploadCoordinator
 import com.datadog.android.core.persistence.PersistenceStrategy
 import com.datadog.android.security.Encryption
 import com.datadog.android.trace.TracingHeaderType
@@ -44,7 +45,9 @@ internal constructor(
         val batchProcessingLevel: BatchProcessingLevel,
         val persistenceStrategyFactory: PersistenceStrategy.Factory?,
         val backpressureStrategy: BackPressureStrategy,
-        val uploadSchedulerStrategy: UploadSchedulerStrategy?
+        val uploadSchedulerStrategy: UploadSchedulerStrategy?,
+        val persistentFileChannelEnabled: Boolean,
+        val uploadFeatureWeights: Map<String, Int>
     )
 
     // region Builder
@@ -274,6 +277,37 @@ internal constructor(
             return this
         }
 
+        /**
+         * Enables keeping the current batch file open between consecutive writes. Events are then
+         * appended through a single file channel, which is synced to the disk and closed only when
+         * the batch is closed or flushed. This reduces the I/O overhead when many events are
+         * written in a short period of time. Default value is `false`.
+         *
+         * @param enabled whether the current batch file is kept open between writes
+         */
+        fun setPersistentFileChannelEnabled(enabled: Boolean): Builder {
+            coreConfig = coreConfig.copy(persistentFileChannelEnabled = enabled)
+            return this
+        }
+
+        /**
+         * Sets the weight of each feature when several features have data to upload at the same
+         * time. Features with a higher weight upload first, and the older the data waiting to be
+         * uploaded, the more urgent its upload gets, whatever the feature weight.
+         * By default, RUM and NDK crash reports have a weight of 4, Logs and Traces a weight of 2.
+         *
+         * @param weights the weight of each feature, by feature name. Features which are not listed
+         * have a weight of 1, and weights lower than 1 are raised to 1.
+         */
+        fun setUploadFeatureWeights(weights: Map<String, Int>): Builder {
+            coreConfig = coreConfig.copy(
+                uploadFeatureWeights = weights.mapValues {
+                    it.value.coerceAtLeast(PriorityUploadCoordinator.DEFAULT_FEATURE_WEIGHT)
+                }
+            )
+            return this
+        }
+
         /**
          * Sets the version name that will be used for all events sent to Datadog.
          * If not provided, the SDK will use the version from the application's package info.
@@ -324,7 +358,9 @@ internal constructor(
             batchProcessingLevel = BatchProcessingLevel.MEDIUM,
             persistenceStrategyFactory = null,
             backpressureStrategy = DEFAULT_BACKPRESSURE_STRATEGY,
-            uploadSchedulerStrategy = null
+            uploadSchedulerStrategy = null,
+            persistentFileChannelEnabled = false,
+            uploadFeatureWeights = PriorityUploadCoordinator.DEFAULT_FEATURE_WEIGHTS
         )
 
         internal const val NETWORK_REQUESTS_TRACKING_FEATURE_NAME = "Network requests"
@@ -7,9 +7,10 @@
 package com.datadog.android.core.constraints
 
 import com.datadog.android.api.InternalLogger
+import com.datadog.android.core.internal.constraints.AsciiCharacterClass
 import com.datadog.android.core.internal.constraints.StringTransform
-import com.datadog.android.core.internal.utils.toMutableMap
 import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Data constraints validator per Datadog requirements.
@@ -60,7 +61,9 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
     ): MutableMap<String, T> {
         // prefix = "a.b" => dotCount = 1+1 ("a.b." + key)
         val prefixDotCount = keyPrefix?.let { it.count { character -> character == '.' } + 1 } ?: 0
-        val convertedAttributes = attributes.mapNotNull {
+        val convertedAttributes = LinkedHashMap<String, T>()
+        var convertedCount = 0
+        attributes.forEach {
             // We need this in case the attributes are added from JAVA code and a null key may be
             // passed.
             @Suppress("SENSELESS_COMPARISON")
@@ -70,14 +73,12 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
                     InternalLogger.Target.USER,
                     { "\"$it\" is an invalid attribute, and was ignored." }
                 )
-                null
             } else if (it.key in reservedKeys) {
                 internalLogger.log(
                     InternalLogger.Level.ERROR,
                     InternalLogger.Target.USER,
                     { "\"$it\" key was in the reservedKeys set, and was dropped." }
                 )
-                null
             } else {
                 val key = convertAttributeKey(it.key, prefixDotCount)
                 if (key != it.key) {
@@ -90,10 +91,14 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
                         }
                     )
                 }
-                key to it.value
+                // the map keeps the first MAX_ATTR_COUNT attributes, like a take() would
+                if (convertedCount < MAX_ATTR_COUNT) {
+                    convertedAttributes[key] = it.value
+                }
+                convertedCount++
             }
         }
-        val discardedCount = convertedAttributes.size - MAX_ATTR_COUNT
+        val discardedCount = convertedCount - MAX_ATTR_COUNT
         if (discardedCount > 0) {
             val warningMessage = resolveDiscardedAttrsWarning(
                 attributesGroupName,
@@ -105,14 +110,14 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
                 { warningMessage }
             )
         }
-        return convertedAttributes.take(MAX_ATTR_COUNT).toMutableMap()
+        return convertedAttributes
     }
 
     /** @inheritdoc */
     override fun validateTimings(timings: Map<String, Long>): MutableMap<String, Long> {
-        return timings.mapKeys { entry ->
-            val sanitizedKey =
-                entry.key.replace(Regex("[^a-zA-Z0-9\\-_.@$]"), "_")
+        val sanitizedTimings = LinkedHashMap<String, Long>()
+        timings.forEach { entry ->
+            val sanitizedKey = timingKeyCharacters.sanitize(entry.key, '_')
             if (sanitizedKey != entry.key) {
                 internalLogger.log(
                     InternalLogger.Level.WARN,
@@ -126,8 +131,9 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
                     }
                 )
             }
-            sanitizedKey
-        }.toMutableMap()
+            sanitizedTimings[sanitizedKey] = entry.value
+        }
+        return sanitizedTimings
     }
 
     private fun resolveDiscardedAttrsWarning(
@@ -154,7 +160,7 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
         // Tags must start with a letter
         { if (it.getOrNull(0) !in 'a'..'z') null else it },
         // Tags convert illegal characters to underscore
-        { it.replace(Regex("[^a-z0-9_:./-]"), "_") },
+        { tagCharacters.sanitize(it, '_') },
         // Tags cannot end with a colon
         { if (it.endsWith(':')) it.substring(0, it.lastIndex) else it },
         // Tags can be up to 200 characters long
@@ -164,6 +170,22 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
     )
 
     private fun convertTag(rawTag: String?): String? {
+        if (rawTag == null) return null
+        // apps reuse the same few tags, no need to run all the transforms each time
+        val cachedTag = convertedTags[rawTag]
+        if (cachedTag != null) {
+            return if (cachedTag == INVALID_TAG) null else cachedTag
+        }
+
+        val tag = applyTagTransforms(rawTag)
+        if (convertedTags.size >= MAX_CACHED_TAGS) {
+            convertedTags.clear()
+        }
+        convertedTags[rawTag] = tag ?: INVALID_TAG
+        return tag
+    }
+
+    private fun applyTagTransforms(rawTag: String?): String? {
         return tagTransforms.fold(rawTag) { tag, transform ->
             @Suppress("UnsafeThirdPartyFunctionCall") // internal safe call
             if (tag == null) null else transform.invoke(tag)
@@ -186,6 +208,11 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
     // region Internal/Attribute
 
     private fun convertAttributeKey(rawKey: String, prefixDotCount: Int): String {
+        // most keys are shallow enough, and don't need to be copied
+        if (prefixDotCount + rawKey.count { it == '.' } <= MAX_DEPTH_LEVEL) {
+            return rawKey
+        }
+
         var dotCount = prefixDotCount
         val mapped = rawKey.map {
             if (it == '.') {
@@ -211,6 +238,23 @@ class DatadogDataConstraints(private val internalLogger: InternalLogger) : DataC
         internal const val CUSTOM_TIMING_KEY_REPLACED_WARNING = "Invalid timing name: %s," +
             " sanitized to: %s"
 
+        // no valid tag is empty, since tags must start with a letter
+        private const val INVALID_TAG = ""
+        private const val MAX_CACHED_TAGS = 1024
+
+        private val tagCharacters = AsciiCharacterClass(
+            ranges = listOf('a'..'z', '0'..'9'),
+            chars = "_:./-"
+        )
+
+        private val timingKeyCharacters = AsciiCharacterClass(
+            ranges = listOf('a'..'z', 'A'..'Z', '0'..'9'),
+            chars = "-_.@$"
+        )
+
+        // tag conversion doesn't depend on the instance, the cache is shared by all the features
+        private val convertedTags = ConcurrentHashMap<String, String>()
+
         private val reservedTagKeys = setOf(
             "host",
             "device",
@@ -30,7 +30,10 @@ import com.datadog.android.core.internal.account.MutableAccountInfoProvider
 import com.datadog.android.core.internal.account.NoOpMutableAccountInfoProvider
 import com.datadog.android.core.internal.data.upload.CurlInterceptor
 import com.datadog.android.core.internal.data.upload.GzipRequestInterceptor
+import com.datadog.android.core.internal.data.upload.PriorityUploadCoordinator
 import com.datadog.android.core.internal.data.upload.RotatingDnsResolver
+import com.datadog.android.core.internal.data.upload.UploadCoordinator
+import com.datadog.android.core.internal.data.upload.UploadThroughputMonitor
 import com.datadog.android.core.internal.net.DefaultFirstPartyHostHeaderTypeResolver
 import com.datadog.android.core.internal.net.info.BroadcastReceiverNetworkInfoProvider
 import com.datadog.android.core.internal.net.info.CallbackNetworkInfoProvider
@@ -199,8 +202,12 @@ internal class CoreFeature(
     @Volatile
     internal var appBuildId: String? = null
     internal var customUploadSchedulerStrategy: UploadSchedulerStrategy? = null
+    internal var persistentFileChannelEnabled: Boolean = false
+    internal var uploadFeatureWeights: Map<String, Int> = PriorityUploadCoordinator.DEFAULT_FEATURE_WEIGHTS
 
     internal lateinit var uploadExecutorService: ScheduledThreadPoolExecutor
+    internal lateinit var uploadCoordinator: UploadCoordinator
+    internal val uploadThroughputMonitor = UploadThroughputMonitor()
     internal lateinit var persistenceExecutorService: FlushableExecutorService
     internal lateinit var contextExecutorService: ThreadPoolExecutor
     internal lateinit var backpressureStrategy: BackPressureStrategy
@@ -324,7 +331,8 @@ internal class CoreFeature(
 
     fun buildFilePersistenceConfig(): FilePersistenceConfig {
         return FilePersistenceConfig(
-            recentDelayMs = batchSize.windowDurationMs
+            recentDelayMs = batchSize.windowDurationMs,
+            persistentFileChannel = persistentFileChannelEnabled
         )
     }
 
@@ -583,6 +591,8 @@ internal class CoreFeature(
         site = configuration.site
         backpressureStrategy = configuration.backpressureStrategy
         customUploadSchedulerStrategy = configuration.uploadSchedulerStrategy
+        persistentFileChannelEnabled = configuration.persistentFileChannelEnabled
+        uploadFeatureWeights = configuration.uploadFeatureWeights
     }
 
     private fun setupInfoProviders(
@@ -653,10 +663,20 @@ internal class CoreFeature(
 
     private fun setupExecutors() {
         uploadExecutorService = LoggingScheduledThreadPoolExecutor(
-            corePoolSize = CORE_DEFAULT_POOL_SIZE,
+            corePoolSize = UPLOAD_POOL_SIZE,
             executorContext = "upload",
             logger = internalLogger,
             backPressureStrategy = backpressureStrategy
+        ).apply {
+            // only keep threads alive while features have data to upload
+            setKeepAliveTime(UPLOAD_THREAD_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS)
+            allowCoreThreadTimeOut(true)
+        }
+        uploadCoordinator = PriorityUploadCoordinator(
+            executor = uploadExecutorService,
+            maxConcurrentUploads = PriorityUploadCoordinator.DEFAULT_MAX_CONCURRENT_UPLOADS,
+            internalLogger = internalLogger,
+            featureWeights = uploadFeatureWeights
         )
         persistenceExecutorService = executorServiceFactory.create(
             internalLogger = internalLogger,
@@ -776,7 +796,8 @@ internal class CoreFeature(
         // region Constants
 
         internal val NETWORK_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(45)
-        private const val CORE_DEFAULT_POOL_SIZE = 1 // Only one thread will be kept alive
+        private const val UPLOAD_POOL_SIZE = PriorityUploadCoordinator.DEFAULT_MAX_CONCURRENT_UPLOADS
+        private val UPLOAD_THREAD_KEEP_ALIVE_MS = TimeUnit.SECONDS.toMillis(30)
         internal const val DATADOG_STORAGE_DIR_NAME = "datadog-%s"
 
         // this is a default source to be used when uploading RUM/Logs/Span data, however there is a
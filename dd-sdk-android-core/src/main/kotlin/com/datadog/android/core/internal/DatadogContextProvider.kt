@@ -10,14 +10,65 @@ import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.context.DeviceInfo
 import com.datadog.android.api.context.LocaleInfo
 import com.datadog.android.api.context.ProcessInfo
+import com.datadog.android.api.context.TimeInfo
+import com.datadog.android.core.internal.system.AndroidInfoProvider
 import com.datadog.android.core.internal.time.composeTimeInfo
+import java.util.concurrent.ConcurrentHashMap
 
+/**
+ * Provides [DatadogContext] as immutable snapshots, shared between the calls until one of their
+ * inputs changes.
+ *
+ * All the inputs (user, account and network info, consent, feature contexts) are immutable
+ * values replaced on change, so the identity of each of them acts as its version: a snapshot is
+ * only rebuilt when one of them has been replaced. Only the time info is fresh on every call.
+ */
 internal class DatadogContextProvider(
     private val coreFeature: CoreFeature,
     private val featureContextProvider: FeatureContextProvider
 ) : ContextProvider {
-    @Suppress("LongMethod")
+
+    // keyed by the requested feature contexts, only a handful of different sets are used
+    private val snapshots = ConcurrentHashMap<Set<String>, DatadogContext>()
+
+    @Volatile
+    private var deviceInfoSnapshot: DeviceInfoSnapshot? = null
+
     override fun getContext(withFeatureContexts: Set<String>): DatadogContext {
+        val time = coreFeature.timeProvider.composeTimeInfo()
+        val snapshot = snapshots[withFeatureContexts]
+        return if (snapshot != null && isUpToDate(snapshot, withFeatureContexts)) {
+            snapshot.copy(time = time)
+        } else {
+            buildContext(time, withFeatureContexts).also {
+                snapshots[withFeatureContexts.toSet()] = it
+            }
+        }
+    }
+
+    // region Internal
+
+    private fun isUpToDate(snapshot: DatadogContext, withFeatureContexts: Set<String>): Boolean {
+        return snapshot.networkInfo === coreFeature.networkInfoProvider.getLatestNetworkInfo() &&
+            snapshot.userInfo === coreFeature.userInfoProvider.getUserInfo() &&
+            snapshot.accountInfo === coreFeature.accountInfoProvider.getAccountInfo() &&
+            snapshot.trackingConsent == coreFeature.trackingConsentProvider.getConsent() &&
+            snapshot.deviceInfo === getDeviceInfo() &&
+            snapshot.version == coreFeature.packageVersionProvider.version &&
+            snapshot.versionCode == coreFeature.packageVersionProvider.versionCode &&
+            withFeatureContexts.all { featureName ->
+                val featureContext = featureContextProvider.getFeatureContext(featureName)
+                val snapshotFeatureContext = snapshot.featuresContext[featureName]
+                if (featureContext.isEmpty()) {
+                    snapshotFeatureContext == null
+                } else {
+                    featureContext === snapshotFeatureContext
+                }
+            }
+    }
+
+    @Suppress("LongMethod")
+    private fun buildContext(time: TimeInfo, withFeatureContexts: Set<String>): DatadogContext {
         // IMPORTANT All properties should be immutable and be frozen at the state
         // of the context construction moment
         return DatadogContext(
@@ -30,35 +81,12 @@ internal class DatadogContextProvider(
             variant = coreFeature.variant,
             sdkVersion = coreFeature.sdkVersion,
             source = coreFeature.sourceName,
-            time = coreFeature.timeProvider.composeTimeInfo(),
+            time = time,
             processInfo = ProcessInfo(
                 isMainProcess = coreFeature.isMainProcess
             ),
             networkInfo = coreFeature.networkInfoProvider.getLatestNetworkInfo(),
-            deviceInfo = with(coreFeature.androidInfoProvider) {
-                DeviceInfo(
-                    deviceName = deviceName,
-                    deviceBrand = deviceBrand,
-                    deviceType = deviceType,
-                    deviceModel = deviceModel,
-                    deviceBuildId = deviceBuildId,
-                    osName = osName,
-                    osVersion = osVersion,
-                    osMajorVersion = osMajorVersion,
-                    architecture = architecture,
-                    numberOfDisplays = numberOfDisplays,
-                    localeInfo = with(coreFeature.androidInfoProvider) {
-                        LocaleInfo(
-                            locales = locales,
-                            currentLocale = currentLocale,
-                            timeZone = timeZone
-                        )
-                    },
-                    logicalCpuCount = logicalCpuCount,
-                    totalRam = totalRam,
-                    isLowRam = isLowRam
-                )
-            },
+            deviceInfo = getDeviceInfo(),
             userInfo = coreFeature.userInfoProvider.getUserInfo(),
             accountInfo = coreFeature.accountInfoProvider.getAccountInfo(),
             trackingConsent = coreFeature.trackingConsentProvider.getConsent(),
@@ -73,4 +101,44 @@ internal class DatadogContextProvider(
             }
         )
     }
+
+    private fun getDeviceInfo(): DeviceInfo {
+        // device properties are computed once by a given provider, no need to build them again
+        val androidInfoProvider = coreFeature.androidInfoProvider
+        val snapshot = deviceInfoSnapshot
+        if (snapshot != null && snapshot.source === androidInfoProvider) {
+            return snapshot.deviceInfo
+        }
+        val deviceInfo = with(androidInfoProvider) {
+            DeviceInfo(
+                deviceName = deviceName,
+                deviceBrand = deviceBrand,
+                deviceType = deviceType,
+                deviceModel = deviceModel,
+                deviceBuildId = deviceBuildId,
+                osName = osName,
+                osVersion = osVersion,
+                osMajorVersion = osMajorVersion,
+                architecture = architecture,
+                numberOfDisplays = numberOfDisplays,
+                localeInfo = LocaleInfo(
+                    locales = locales,
+                    currentLocale = currentLocale,
+                    timeZone = timeZone
+                ),
+                logicalCpuCount = logicalCpuCount,
+                totalRam = totalRam,
+                isLowRam = isLowRam
+            )
+        }
+        deviceInfoSnapshot = DeviceInfoSnapshot(androidInfoProvider, deviceInfo)
+        return deviceInfo
+    }
+
+    private class DeviceInfoSnapshot(
+        val source: AndroidInfoProvider,
+        val deviceInfo: DeviceInfo
+    )
+
+    // endregion
 }
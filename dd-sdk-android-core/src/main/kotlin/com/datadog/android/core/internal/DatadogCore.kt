@@ -24,6 +24,7 @@ import com.datadog.android.api.feature.FeatureEventReceiver
 import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.api.feature.FeatureSdkCore
 import com.datadog.android.core.InternalSdkCore
+import com.datadog.android.core.configuration.BackPressureStrategy
 import com.datadog.android.core.configuration.BatchSize
 import com.datadog.android.core.configuration.Configuration
 import com.datadog.android.core.configuration.UploadFrequency
@@ -234,6 +235,7 @@ internal class DatadogCore(
             feature.featureContextLock.writeLock().safeTryWithLock(1, TimeUnit.SECONDS) {
                 val currentContext = feature.featureContext
                 updateCallback(currentContext)
+                feature.featureContextSnapshot = null
                 featureContextUpdateReceivers.forEach {
                     it.onContextUpdate(featureName, currentContext)
                 }
@@ -258,9 +260,12 @@ internal class DatadogCore(
                 // Creating copy here is VERY important - this will make
                 // independent snapshot of the features context which is not affected by the
                 // changes which can be made later by another thread.
+                // The copy is only made once per update, and shared by the readers until the next one.
                 // Use HashMap instead of .toMutableMap() for faster init
                 @Suppress("UnsafeThirdPartyFunctionCall") // NPE cannot happen here
-                HashMap(feature.featureContext)
+                feature.featureContextSnapshot ?: HashMap(feature.featureContext).also {
+                    feature.featureContextSnapshot = it
+                }
             }.orEmpty()
         }
         return if (useContextThread) {
@@ -385,6 +390,9 @@ internal class DatadogCore(
     override val appUptimeNs: Long
         get() = coreFeature.appUptimeNs
 
+    override val backPressureStrategy: BackPressureStrategy
+        get() = coreFeature.backpressureStrategy
+
     @WorkerThread
     override fun writeLastViewEvent(data: ByteArray) {
         // we need to write it only if we are going to read ApplicationExitInfo (available on
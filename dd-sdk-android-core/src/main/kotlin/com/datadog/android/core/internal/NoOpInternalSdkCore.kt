@@ -16,6 +16,8 @@ import com.datadog.android.api.feature.FeatureContextUpdateReceiver
 import com.datadog.android.api.feature.FeatureEventReceiver
 import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.core.InternalSdkCore
+import com.datadog.android.core.configuration.BackPressureStrategy
+import com.datadog.android.core.configuration.Configuration
 import com.datadog.android.core.internal.logger.SdkInternalLogger
 import com.datadog.android.core.internal.net.DefaultFirstPartyHostHeaderTypeResolver
 import com.datadog.android.core.internal.net.FirstPartyHostHeaderTypeResolver
@@ -85,6 +87,8 @@ internal object NoOpInternalSdkCore : InternalSdkCore {
         get() = 0
     override val appUptimeNs: Long
         get() = 0
+    override val backPressureStrategy: BackPressureStrategy
+        get() = Configuration.DEFAULT_BACKPRESSURE_STRATEGY
 
     // endregion
 
@@ -22,6 +22,7 @@ import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.api.storage.datastore.DataStoreHandler
 import com.datadog.android.core.configuration.UploadSchedulerStrategy
 import com.datadog.android.core.internal.configuration.DataUploadConfiguration
+import com.datadog.android.core.internal.data.upload.AdaptiveUploadPolicy
 import com.datadog.android.core.internal.data.upload.DataFlusher
 import com.datadog.android.core.internal.data.upload.DataOkHttpUploader
 import com.datadog.android.core.internal.data.upload.DataUploadScheduler
@@ -89,6 +90,10 @@ internal class SdkFeature(
     internal val featureContextLock: ReadWriteLock = ReentrantReadWriteLock()
     internal val featureContext: MutableMap<String, Any?> = mutableMapOf()
 
+    // frozen copy of the feature context, shared by all the readers until the next update
+    @Volatile
+    internal var featureContextSnapshot: Map<String, Any?>? = null
+
     // region SdkFeature
 
     fun initialize(context: Context, instanceId: String) {
@@ -104,8 +109,12 @@ internal class SdkFeature(
                 uploadFrequency,
                 batchProcessingLevel.maxBatchesPerUploadJob
             )
+            val adaptiveUploadPolicy = AdaptiveUploadPolicy(
+                coreFeature.networkInfoProvider,
+                coreFeature.uploadThroughputMonitor
+            )
             val uploadSchedulerStrategy = coreFeature.customUploadSchedulerStrategy
-                ?: DefaultUploadSchedulerStrategy(dataUploadConfiguration)
+                ?: DefaultUploadSchedulerStrategy(dataUploadConfiguration, adaptiveUploadPolicy)
             storage = prepareStorage(
                 dataUploadConfiguration,
                 wrappedFeature,
@@ -116,7 +125,12 @@ internal class SdkFeature(
 
             wrappedFeature.onInitialize(context)
 
-            setupUploader(wrappedFeature, uploadSchedulerStrategy, dataUploadConfiguration.maxBatchesPerUploadJob)
+            setupUploader(
+                wrappedFeature,
+                uploadSchedulerStrategy,
+                adaptiveUploadPolicy,
+                dataUploadConfiguration.maxBatchesPerUploadJob
+            )
         } else {
             wrappedFeature.onInitialize(context)
         }
@@ -154,6 +168,7 @@ internal class SdkFeature(
                 coreFeature.trackingConsentProvider.unregisterCallback(wrappedFeature)
             }
             uploadScheduler.stopScheduling()
+            fileOrchestrator.closeWritableFileChannel()
             uploadScheduler = NoOpUploadScheduler()
             storage = NoOpStorage()
             dataStore = NoOpDataStoreHandler()
@@ -164,6 +179,7 @@ internal class SdkFeature(
                 ?.unregisterActivityLifecycleCallbacks(processLifecycleMonitor)
             processLifecycleMonitor = null
             featureContext.clear()
+            featureContextSnapshot = null
             initialized.set(false)
         }
     }
@@ -290,6 +306,7 @@ internal class SdkFeature(
     private fun setupUploader(
         feature: StorageBackedFeature,
         uploadSchedulerStrategy: UploadSchedulerStrategy,
+        adaptiveUploadPolicy: AdaptiveUploadPolicy,
         maxBatchesPerJob: Int
     ) {
         uploadScheduler = if (coreFeature.isMainProcess) {
@@ -304,6 +321,9 @@ internal class SdkFeature(
                 uploadSchedulerStrategy,
                 maxBatchesPerJob,
                 coreFeature.uploadExecutorService,
+                coreFeature.uploadCoordinator,
+                adaptiveUploadPolicy,
+                feature.storageConfiguration,
                 internalLogger
             )
         } else {
@@ -387,7 +407,8 @@ internal class SdkFeature(
             internalLogger = internalLogger,
             filePersistenceConfig = filePersistenceConfig,
             metricsDispatcher = metricsDispatcher,
-            featureName
+            featureName = featureName,
+            timeProvider = coreFeature.timeProvider
         )
     }
 
@@ -401,7 +422,8 @@ internal class SdkFeature(
             executionTimer = GlobalBenchmark.createExecutionTimer(
                 track = wrappedFeature.name,
                 timeProvider = coreFeature.timeProvider
-            )
+            ),
+            uploadThroughputMonitor = coreFeature.uploadThroughputMonitor
         )
     }
 
@@ -451,6 +473,7 @@ internal class SdkFeature(
     // Used for nightly tests only
     @WorkerThread
     internal fun flushStoredData() {
+        fileOrchestrator.closeWritableFileChannel()
         val flusher = DataFlusher(
             contextProvider,
             fileOrchestrator,
@@ -0,0 +1,72 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.attributes
+
+import com.datadog.android.lint.InternalApi
+import java.util.Collections
+
+/**
+ * Holds attributes shared by all the events of a feature (e.g.: global attributes).
+ *
+ * Attributes are written rarely and read for every event: each change publishes a new immutable
+ * snapshot, which readers can keep and merge without copying it first.
+ */
+@InternalApi
+class AttributesStore {
+
+    private val lock = Any()
+
+    @Volatile
+    private var current: Map<String, Any?> = emptyMap()
+
+    /**
+     * @return an immutable snapshot of the current attributes
+     */
+    fun getAttributes(): Map<String, Any?> {
+        return current
+    }
+
+    /**
+     * Adds or replaces an attribute.
+     * @param key the attribute key
+     * @param value the attribute value
+     */
+    fun setAttribute(key: String, value: Any?) {
+        synchronized(lock) {
+            val attributes = LinkedHashMap(current)
+            attributes[key] = value
+            publish(attributes)
+        }
+    }
+
+    /**
+     * Removes an attribute.
+     * @param key the attribute key
+     */
+    fun removeAttribute(key: String) {
+        synchronized(lock) {
+            if (current.containsKey(key)) {
+                val attributes = LinkedHashMap(current)
+                attributes.remove(key)
+                publish(attributes)
+            }
+        }
+    }
+
+    /**
+     * Removes all the attributes.
+     */
+    fun clear() {
+        synchronized(lock) {
+            current = emptyMap()
+        }
+    }
+
+    private fun publish(attributes: Map<String, Any?>) {
+        current = Collections.unmodifiableMap(attributes)
+    }
+}
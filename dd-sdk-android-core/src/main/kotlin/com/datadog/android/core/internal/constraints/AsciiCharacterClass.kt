@@ -0,0 +1,88 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.constraints
+
+/**
+ * A set of allowed ASCII characters, backed by a lookup table. It is the precompiled equivalent
+ * of a negated regex character class (e.g.: `[^a-z0-9_]`) used to replace the characters which
+ * are not allowed.
+ *
+ * @param ranges the ranges of allowed characters
+ * @param chars the other allowed characters
+ */
+internal class AsciiCharacterClass(
+    ranges: List<CharRange>,
+    chars: String = ""
+) {
+
+    private val allowed = BooleanArray(ASCII_SIZE)
+
+    init {
+        ranges.forEach { range ->
+            range.forEach { allow(it) }
+        }
+        chars.forEach { allow(it) }
+    }
+
+    operator fun contains(char: Char): Boolean {
+        return char.code < ASCII_SIZE && allowed[char.code]
+    }
+
+    /**
+     * Replaces every character (or surrogate pair, like a regex would) which is not allowed.
+     * @param value the value to sanitize
+     * @param replacement the replacement character
+     * @return the sanitized value, or the same [value] instance if all its characters are
+     * allowed (in which case nothing is allocated)
+     */
+    @Suppress("UnsafeThirdPartyFunctionCall") // indices are always within bounds
+    fun sanitize(value: String, replacement: Char): String {
+        val firstInvalid = indexOfFirstInvalid(value)
+        if (firstInvalid < 0) {
+            return value
+        }
+
+        val builder = StringBuilder(value.length)
+        builder.append(value, 0, firstInvalid)
+        var index = firstInvalid
+        while (index < value.length) {
+            val char = value[index]
+            if (char in this) {
+                builder.append(char)
+            } else {
+                builder.append(replacement)
+                if (char.isHighSurrogate() &&
+                    index + 1 < value.length &&
+                    value[index + 1].isLowSurrogate()
+                ) {
+                    index++
+                }
+            }
+            index++
+        }
+        return builder.toString()
+    }
+
+    private fun indexOfFirstInvalid(value: String): Int {
+        for (index in value.indices) {
+            if (value[index] !in this) {
+                return index
+            }
+        }
+        return -1
+    }
+
+    private fun allow(char: Char) {
+        if (char.code < ASCII_SIZE) {
+            allowed[char.code] = true
+        }
+    }
+
+    private companion object {
+        private const val ASCII_SIZE = 128
+    }
+}
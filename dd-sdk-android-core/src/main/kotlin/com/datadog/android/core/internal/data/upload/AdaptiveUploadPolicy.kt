@@ -0,0 +1,119 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.context.NetworkInfo
+import com.datadog.android.core.internal.net.info.NetworkInfoProvider
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Adapts the way batches are uploaded to the quality of the current network link, based on the
+ * transport, bandwidth and signal strength reported by the [NetworkInfoProvider] and on the
+ * throughput and latency measured by the [UploadThroughputMonitor]:
+ * - on a fast link, several batches are merged in a single request, and uploads happen as often
+ * as the upload frequency allows;
+ * - on a constrained link (any cellular link, which is metered, or a link reported or measured as
+ * slow, or with a weak signal), even more batches are merged in a single request, and uploads
+ * happen less often, so that the radio wakes up less often to send fewer, bigger requests;
+ * - when the link can't be qualified, batches are uploaded one per request, as usual.
+ *
+ * Merged requests never exceed the max batch size of the feature, whatever the link.
+ */
+internal class AdaptiveUploadPolicy(
+    private val networkInfoProvider: NetworkInfoProvider,
+    private val throughputMonitor: UploadThroughputMonitor
+) {
+
+    /**
+     * @return the maximum number of batches which can be merged in a single request
+     */
+    fun getMaxBatchesPerRequest(): Int {
+        return when (getLinkQuality()) {
+            LinkQuality.FAST -> MAX_MERGED_BATCHES
+            LinkQuality.CONSTRAINED -> CONSTRAINED_MAX_MERGED_BATCHES
+            LinkQuality.UNKNOWN -> 1
+        }
+    }
+
+    /**
+     * @param delayMs the delay until the next upload, as computed by the scheduling strategy
+     * @param maxDelayMs the maximum delay allowed between two uploads
+     * @return the delay until the next upload, adapted to the current network link
+     */
+    fun adjustDelay(delayMs: Long, maxDelayMs: Long): Long {
+        return if (getLinkQuality() == LinkQuality.CONSTRAINED) {
+            // never shorten a delay already longer than the max one (e.g.: after a network error)
+            max(delayMs, min(maxDelayMs, delayMs * CONSTRAINED_DELAY_FACTOR))
+        } else {
+            delayMs
+        }
+    }
+
+    // region Internal
+
+    internal fun getLinkQuality(): LinkQuality {
+        val networkInfo = networkInfoProvider.getLatestNetworkInfo()
+        return when (networkInfo.connectivity) {
+            NetworkInfo.Connectivity.NETWORK_WIFI,
+            NetworkInfo.Connectivity.NETWORK_ETHERNET -> {
+                if (isReportedAsSlow(networkInfo) || isMeasuredAsSlow()) {
+                    LinkQuality.CONSTRAINED
+                } else {
+                    LinkQuality.FAST
+                }
+            }
+
+            // metered links, whatever their speed
+            NetworkInfo.Connectivity.NETWORK_2G,
+            NetworkInfo.Connectivity.NETWORK_3G,
+            NetworkInfo.Connectivity.NETWORK_4G,
+            NetworkInfo.Connectivity.NETWORK_5G,
+            NetworkInfo.Connectivity.NETWORK_MOBILE_OTHER,
+            NetworkInfo.Connectivity.NETWORK_CELLULAR,
+            NetworkInfo.Connectivity.NETWORK_WIMAX -> LinkQuality.CONSTRAINED
+
+            NetworkInfo.Connectivity.NETWORK_BLUETOOTH,
+            NetworkInfo.Connectivity.NETWORK_OTHER,
+            NetworkInfo.Connectivity.NETWORK_NOT_CONNECTED -> LinkQuality.UNKNOWN
+        }
+    }
+
+    private fun isReportedAsSlow(networkInfo: NetworkInfo): Boolean {
+        val upKbps = networkInfo.upKbps
+        val downKbps = networkInfo.downKbps
+        val strength = networkInfo.strength
+        return (upKbps != null && upKbps < SLOW_BANDWIDTH_KBPS) ||
+            (downKbps != null && downKbps < SLOW_BANDWIDTH_KBPS) ||
+            (strength != null && strength < WEAK_SIGNAL_STRENGTH_DBM)
+    }
+
+    private fun isMeasuredAsSlow(): Boolean {
+        val throughput = throughputMonitor.getThroughputBytesPerSecond()
+        val latency = throughputMonitor.getLatencyMs()
+        return (throughput != null && throughput < SLOW_THROUGHPUT_BYTES_PER_SECOND) ||
+            (latency != null && latency > SLOW_LATENCY_MS)
+    }
+
+    internal enum class LinkQuality {
+        FAST,
+        CONSTRAINED,
+        UNKNOWN
+    }
+
+    // endregion
+
+    companion object {
+        internal const val MAX_MERGED_BATCHES = 4
+        internal const val CONSTRAINED_MAX_MERGED_BATCHES = 8
+        internal const val CONSTRAINED_DELAY_FACTOR = 2L
+        internal const val SLOW_THROUGHPUT_BYTES_PER_SECOND = 32.0 * 1024 // 32 KB/s
+        internal const val SLOW_LATENCY_MS = 3000.0
+        internal const val SLOW_BANDWIDTH_KBPS = 256L // same as the slow measured throughput
+        internal const val WEAK_SIGNAL_STRENGTH_DBM = -100L
+    }
+}
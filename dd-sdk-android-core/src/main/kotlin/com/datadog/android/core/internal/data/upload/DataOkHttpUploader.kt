@@ -11,19 +11,22 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.net.RequestExecutionContext
 import com.datadog.android.api.net.RequestFactory
+import com.datadog.android.api.net.StreamingRequestFactory
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.persistence.BatchId
+import com.datadog.android.core.internal.persistence.StreamedBatchData
 import com.datadog.android.core.internal.system.AndroidInfoProvider
 import com.datadog.android.internal.profiler.ExecutionTimer
 import com.datadog.android.internal.utils.safeGetThreadId
 import okhttp3.Call
+import okhttp3.MediaType
 import okhttp3.MediaType.Companion.toMediaTypeOrNull
 import okhttp3.Request
+import okhttp3.RequestBody
 import okhttp3.RequestBody.Companion.toRequestBody
 import java.io.IOException
 import java.net.UnknownHostException
 import java.util.Locale
-import com.datadog.android.api.net.Request as DatadogRequest
 
 internal class DataOkHttpUploader(
     val requestFactory: RequestFactory,
@@ -31,7 +34,8 @@ internal class DataOkHttpUploader(
     val callFactory: Call.Factory,
     val sdkVersion: String,
     val androidInfoProvider: AndroidInfoProvider,
-    val executionTimer: ExecutionTimer
+    val executionTimer: ExecutionTimer,
+    val uploadThroughputMonitor: UploadThroughputMonitor = UploadThroughputMonitor()
 ) : DataUploader {
 
     @Volatile
@@ -45,7 +49,6 @@ internal class DataOkHttpUploader(
 
     // region DataUploader
 
-    @Suppress("TooGenericExceptionCaught", "ReturnCount")
     override fun upload(
         context: DatadogContext,
         batch: List<RawBatchEvent>,
@@ -53,26 +56,95 @@ internal class DataOkHttpUploader(
         batchId: BatchId?
     ): UploadStatus {
         val executionContext = resolveExecutionContext(batchId)
+        return uploadBatch(context, executionContext, batch, batchMeta)
+    }
+
+    override fun supportsStreaming(): Boolean {
+        return requestFactory is StreamingRequestFactory
+    }
+
+    @Suppress("TooGenericExceptionCaught", "ReturnCount")
+    override fun uploadStreamed(
+        context: DatadogContext,
+        batch: StreamedBatchData
+    ): UploadStatus {
+        val executionContext = resolveExecutionContext(batch.id)
+        val request = try {
+            (requestFactory as? StreamingRequestFactory)
+                ?.createStreaming(context, executionContext, batch.metadata)
+        } catch (e: Exception) {
+            logRequestCreationError(e)
+            return UploadStatus.RequestCreationError(e)
+        }
+
+        if (request == null) {
+            // the factory can't stream this batch, let's fall back on a regular request
+            return uploadBatch(context, executionContext, batch.readEvents(), batch.metadata)
+        }
+
+        val body = StreamingBatchRequestBody(
+            batch,
+            request.contentType.toMediaTypeOrNullSafe(),
+            request.payloadPrefix,
+            request.payloadSeparator,
+            request.payloadSuffix
+        )
+        return executeAndLogStatus(
+            context,
+            executionContext,
+            UploadRequest(request.id, request.description, request.url, request.headers, body)
+        ) { batch.eventsSize.toInt() }
+    }
+
+    // endregion
+
+    private val userAgent by lazy {
+        sanitizeHeaderValue(System.getProperty(SYSTEM_UA))
+            .ifBlank {
+                "Datadog/$sdkVersion " +
+                    "(Linux; U; Android ${androidInfoProvider.osVersion}; " +
+                    "${androidInfoProvider.deviceModel} " +
+                    "Build/${androidInfoProvider.deviceBuildId})"
+            }
+    }
+
+    // region Internal
+
+    @Suppress("TooGenericExceptionCaught", "ReturnCount")
+    private fun uploadBatch(
+        context: DatadogContext,
+        executionContext: RequestExecutionContext,
+        batch: List<RawBatchEvent>,
+        batchMeta: ByteArray?
+    ): UploadStatus {
         val request = try {
             requestFactory.create(context, executionContext, batch, batchMeta)
                 ?: return UploadStatus.RequestCreationError(null)
         } catch (e: Exception) {
-            internalLogger.log(
-                InternalLogger.Level.ERROR,
-                listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
-                {
-                    "Unable to create the request, probably due to bad data format." +
-                        " The batch will be dropped."
-                },
-                e
-            )
+            logRequestCreationError(e)
             return UploadStatus.RequestCreationError(e)
         }
 
+        @Suppress("UnsafeThirdPartyFunctionCall") // byte array offset and count are valid
+        val body = request.body.toRequestBody(request.contentType.toMediaTypeOrNullSafe())
+        return executeAndLogStatus(
+            context,
+            executionContext,
+            UploadRequest(request.id, request.description, request.url, request.headers, body)
+        ) { request.body.size }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun executeAndLogStatus(
+        context: DatadogContext,
+        executionContext: RequestExecutionContext,
+        request: UploadRequest,
+        bodySize: () -> Int
+    ): UploadStatus {
         val uploadStatus =
             executionTimer.measure {
                 try {
-                    executeUploadRequest(request)
+                    executeUploadRequest(request, bodySize)
                 } catch (e: UnknownHostException) {
                     internalLogger.log(
                         InternalLogger.Level.ERROR,
@@ -102,7 +174,7 @@ internal class DataOkHttpUploader(
 
         uploadStatus.logStatus(
             request.description,
-            request.body.size,
+            bodySize(),
             internalLogger,
             attempts = executionContext.attemptNumber,
             requestId = request.id
@@ -111,19 +183,18 @@ internal class DataOkHttpUploader(
         return uploadStatus
     }
 
-    // endregion
-
-    private val userAgent by lazy {
-        sanitizeHeaderValue(System.getProperty(SYSTEM_UA))
-            .ifBlank {
-                "Datadog/$sdkVersion " +
-                    "(Linux; U; Android ${androidInfoProvider.osVersion}; " +
-                    "${androidInfoProvider.deviceModel} " +
-                    "Build/${androidInfoProvider.deviceBuildId})"
-            }
+    private fun logRequestCreationError(e: Exception) {
+        internalLogger.log(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            {
+                "Unable to create the request, probably due to bad data format." +
+                    " The batch will be dropped."
+            },
+            e
+        )
     }
 
-    // region Internal
     private fun resolveExecutionContext(batchID: BatchId?): RequestExecutionContext {
         val previousResponseCode: Int?
         if ((batchID != null && previousUploadedBatchId != null) && (previousUploadedBatchId == batchID)) {
@@ -142,7 +213,8 @@ internal class DataOkHttpUploader(
 
     @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
     private fun executeUploadRequest(
-        request: DatadogRequest
+        request: UploadRequest,
+        bodySize: () -> Int
     ): UploadStatus {
         val apiKey = request.headers.entries
             .firstOrNull {
@@ -158,21 +230,22 @@ internal class DataOkHttpUploader(
         val call = callFactory.newCall(okHttpRequest)
         val response = call.execute()
         response.close()
+        if (response.code == HTTP_ACCEPTED) {
+            uploadThroughputMonitor.onRequestCompleted(
+                bodySize().toLong(),
+                response.receivedResponseAtMillis - response.sentRequestAtMillis
+            )
+        }
         return responseCodeToUploadStatus(response.code, request)
     }
 
     @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
     private fun buildOkHttpRequest(
-        request: DatadogRequest
+        request: UploadRequest
     ): Request {
-        val mediaType = if (request.contentType == null) {
-            null
-        } else {
-            request.contentType.toMediaTypeOrNull()
-        }
         val builder = Request.Builder()
             .url(request.url)
-            .post(request.body.toRequestBody(mediaType))
+            .post(request.body)
 
         for ((header, value) in request.headers) {
             if (header.lowercase(Locale.US) == "user-agent") {
@@ -205,7 +278,7 @@ internal class DataOkHttpUploader(
 
     private fun responseCodeToUploadStatus(
         code: Int,
-        request: DatadogRequest
+        request: UploadRequest
     ): UploadStatus {
         return when (code) {
             HTTP_ACCEPTED -> UploadStatus.Success(code)
@@ -236,6 +309,20 @@ internal class DataOkHttpUploader(
         }
     }
 
+    private fun String?.toMediaTypeOrNullSafe(): MediaType? {
+        return this?.toMediaTypeOrNull()
+    }
+
+    private class UploadRequest(
+        val id: String,
+        val description: String,
+        val url: String,
+        val headers: Map<String, String>,
+        val body: RequestBody
+    )
+
+    // endregion
+
     companion object {
 
         const val HTTP_ACCEPTED = 202
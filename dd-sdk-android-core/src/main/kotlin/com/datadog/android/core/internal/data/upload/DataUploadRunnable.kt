@@ -10,14 +10,17 @@ import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.context.NetworkInfo
+import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.configuration.UploadSchedulerStrategy
 import com.datadog.android.core.internal.ContextProvider
 import com.datadog.android.core.internal.metrics.BenchmarkUploads
 import com.datadog.android.core.internal.metrics.RemovalReason
 import com.datadog.android.core.internal.net.info.NetworkInfoProvider
+import com.datadog.android.core.internal.persistence.BatchData
 import com.datadog.android.core.internal.persistence.BatchId
 import com.datadog.android.core.internal.persistence.Storage
+import com.datadog.android.core.internal.persistence.StreamedBatchData
 import com.datadog.android.core.internal.system.SystemInfoProvider
 import com.datadog.android.core.internal.utils.scheduleSafe
 import java.util.concurrent.ScheduledThreadPoolExecutor
@@ -34,6 +37,9 @@ internal class DataUploadRunnable(
     internal val uploadSchedulerStrategy: UploadSchedulerStrategy,
     internal val maxBatchesPerJob: Int,
     private val internalLogger: InternalLogger,
+    private val uploadCoordinator: UploadCoordinator = DirectUploadCoordinator(),
+    private val adaptiveUploadPolicy: AdaptiveUploadPolicy? = null,
+    private val storageConfiguration: FeatureStorageConfiguration = FeatureStorageConfiguration.DEFAULT,
     private val benchmarkUploads: BenchmarkUploads = BenchmarkUploads()
 ) : UploadRunnable {
 
@@ -41,54 +47,104 @@ internal class DataUploadRunnable(
 
     @WorkerThread
     override fun run() {
-        var uploadAttempts = 0
-        var lastBatchUploadStatus: UploadStatus? = null
         if (isNetworkAvailable() && isSystemReady()) {
-            val context = contextProvider.getContext(withFeatureContexts = emptySet())
-            var batchConsumerAvailableAttempts = maxBatchesPerJob
-            do {
-                benchmarkUploads.incrementBenchmarkUploadsCount(
-                    featureName = featureName
-                )
-                batchConsumerAvailableAttempts--
-                lastBatchUploadStatus = handleNextBatch(context)
-                if (lastBatchUploadStatus != null) {
-                    uploadAttempts++
-                }
-            } while (
-                batchConsumerAvailableAttempts > 0 && lastBatchUploadStatus is UploadStatus.Success
-            )
+            uploadCoordinator.submit(featureName, { storage.getOldestBatchTimestamp() }) {
+                uploadBatches()
+            }
+        } else {
+            // batches pile up while uploads are paused, merge them to send fewer requests later
+            storage.compactBatches()
+            scheduleNextUpload(uploadAttempts = 0, lastBatchUploadStatus = null)
         }
-
-        val delayMs = uploadSchedulerStrategy.getMsDelayUntilNextUpload(
-            featureName,
-            uploadAttempts,
-            lastBatchUploadStatus?.code,
-            lastBatchUploadStatus?.throwable
-        )
-        scheduleNextUpload(delayMs)
     }
 
     // endregion
 
     // region Internal
 
+    @WorkerThread
+    private fun uploadBatches() {
+        var uploadAttempts = 0
+        var lastBatchUploadStatus: UploadStatus?
+        val context = contextProvider.getContext(withFeatureContexts = emptySet())
+        var batchConsumerAvailableAttempts = maxBatchesPerJob
+        do {
+            benchmarkUploads.incrementBenchmarkUploadsCount(
+                featureName = featureName
+            )
+            batchConsumerAvailableAttempts--
+            lastBatchUploadStatus = handleNextBatch(context)
+            if (lastBatchUploadStatus != null) {
+                uploadAttempts++
+            }
+        } while (
+            batchConsumerAvailableAttempts > 0 && lastBatchUploadStatus is UploadStatus.Success
+        )
+
+        scheduleNextUpload(uploadAttempts, lastBatchUploadStatus)
+    }
+
     @WorkerThread
     @Suppress("UnsafeThirdPartyFunctionCall") // called inside a dedicated executor
     private fun handleNextBatch(context: DatadogContext): UploadStatus? {
+        if (dataUploader.supportsStreaming()) {
+            return storage.readNextStreamedBatch()?.let {
+                consumeStreamedBatch(context, it)
+            }
+        }
+
         var uploadStatus: UploadStatus? = null
         val nextBatchData = storage.readNextBatch()
         if (nextBatchData != null) {
-            uploadStatus = consumeBatch(
-                context,
-                nextBatchData.id,
-                nextBatchData.data,
-                nextBatchData.metadata
-            )
+            uploadStatus = consumeBatches(context, readMergeableBatches(nextBatchData))
         }
         return uploadStatus
     }
 
+    /**
+     * Reads the batches which can be uploaded in the same request as the given one, according to
+     * the [adaptiveUploadPolicy]. Batches are only merged if they share the same metadata, and as
+     * long as the merged events stay within the feature's batch limits. The size and metadata of
+     * the next batch are checked before reading its events.
+     * @return the given batch followed by the ones to merge with it
+     */
+    @WorkerThread
+    private fun readMergeableBatches(firstBatch: BatchData): List<BatchData> {
+        val maxBatches = adaptiveUploadPolicy?.getMaxBatchesPerRequest() ?: 1
+        if (maxBatches <= 1) {
+            return listOf(firstBatch)
+        }
+
+        val maxRequestSize = storageConfiguration.maxBatchSize
+        val batches = mutableListOf(firstBatch)
+        var totalSize = firstBatch.eventsSize()
+        var totalItems = firstBatch.data.size
+        while (
+            batches.size < maxBatches &&
+            totalSize < maxRequestSize &&
+            totalItems < storageConfiguration.maxItemsPerBatch
+        ) {
+            // the size on disk includes the events framing, so it never underestimates the events size
+            val nextBatch = storage.readNextMergeableBatch(
+                metadata = firstBatch.metadata,
+                maxSize = maxRequestSize - totalSize
+            ) ?: break
+            if (totalItems + nextBatch.data.size > storageConfiguration.maxItemsPerBatch) {
+                // the batch is only unlocked, it will be the first one of the next request
+                storage.confirmBatchRead(nextBatch.id, RemovalReason.Obsolete, deleteBatch = false)
+                break
+            }
+            batches.add(nextBatch)
+            totalSize += nextBatch.eventsSize()
+            totalItems += nextBatch.data.size
+        }
+        return batches
+    }
+
+    private fun BatchData.eventsSize(): Long {
+        return data.sumOf { it.data.size }.toLong()
+    }
+
     private fun isNetworkAvailable(): Boolean {
         val networkInfo = networkInfoProvider.getLatestNetworkInfo()
         return networkInfo.connectivity != NetworkInfo.Connectivity.NETWORK_NOT_CONNECTED
@@ -102,7 +158,13 @@ internal class DataUploadRunnable(
         return hasEnoughPower && !systemInfo.powerSaveMode
     }
 
-    private fun scheduleNextUpload(delayMs: Long) {
+    private fun scheduleNextUpload(uploadAttempts: Int, lastBatchUploadStatus: UploadStatus?) {
+        val delayMs = uploadSchedulerStrategy.getMsDelayUntilNextUpload(
+            featureName,
+            uploadAttempts,
+            lastBatchUploadStatus?.code,
+            lastBatchUploadStatus?.throwable
+        )
         threadPoolExecutor.remove(this)
         threadPoolExecutor.scheduleSafe(
             "$featureName: data upload",
@@ -114,19 +176,39 @@ internal class DataUploadRunnable(
     }
 
     @WorkerThread
-    private fun consumeBatch(
+    private fun consumeBatches(
         context: DatadogContext,
-        batchId: BatchId,
-        batch: List<RawBatchEvent>,
-        batchMeta: ByteArray?
+        batches: List<BatchData>
     ): UploadStatus {
-        val status = dataUploader.upload(context, batch, batchMeta, batchId)
+        val firstBatch = batches.first()
+        val events: List<RawBatchEvent> = if (batches.size == 1) {
+            firstBatch.data
+        } else {
+            batches.flatMap { it.data }
+        }
+        val status = dataUploader.upload(context, events, firstBatch.metadata, firstBatch.id)
+        return onBatchConsumed(batches.map { it.id }, status) { events.sumOf { it.data.size }.toLong() }
+    }
 
+    @WorkerThread
+    private fun consumeStreamedBatch(
+        context: DatadogContext,
+        batch: StreamedBatchData
+    ): UploadStatus {
+        val status = dataUploader.uploadStreamed(context, batch)
+        return onBatchConsumed(listOf(batch.id), status) { batch.eventsSize }
+    }
+
+    @WorkerThread
+    private fun onBatchConsumed(
+        batchIds: List<BatchId>,
+        status: UploadStatus,
+        uploadedBytes: () -> Long
+    ): UploadStatus {
         if (status is UploadStatus.Success) {
-            val uploadedBytes = batch.sumOf { it.data.size }
             benchmarkUploads.sendBenchmarkBytesUploaded(
                 featureName = featureName,
-                value = uploadedBytes.toLong()
+                value = uploadedBytes()
             )
         }
 
@@ -135,7 +217,9 @@ internal class DataUploadRunnable(
         } else {
             RemovalReason.IntakeCode(status.code)
         }
-        storage.confirmBatchRead(batchId, removalReason, deleteBatch = !status.shouldRetry)
+        batchIds.forEach {
+            storage.confirmBatchRead(it, removalReason, deleteBatch = !status.shouldRetry)
+        }
         return status
     }
 
@@ -7,6 +7,7 @@
 package com.datadog.android.core.internal.data.upload
 
 import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.core.configuration.UploadSchedulerStrategy
 import com.datadog.android.core.internal.ContextProvider
 import com.datadog.android.core.internal.net.info.NetworkInfoProvider
@@ -25,6 +26,9 @@ internal class DataUploadScheduler(
     uploadSchedulerStrategy: UploadSchedulerStrategy,
     maxBatchesPerJob: Int,
     private val scheduledThreadPoolExecutor: ScheduledThreadPoolExecutor,
+    private val uploadCoordinator: UploadCoordinator,
+    adaptiveUploadPolicy: AdaptiveUploadPolicy?,
+    storageConfiguration: FeatureStorageConfiguration,
     private val internalLogger: InternalLogger
 ) : UploadScheduler {
 
@@ -38,7 +42,10 @@ internal class DataUploadScheduler(
         systemInfoProvider = systemInfoProvider,
         uploadSchedulerStrategy = uploadSchedulerStrategy,
         maxBatchesPerJob = maxBatchesPerJob,
-        internalLogger = internalLogger
+        internalLogger = internalLogger,
+        uploadCoordinator = uploadCoordinator,
+        adaptiveUploadPolicy = adaptiveUploadPolicy,
+        storageConfiguration = storageConfiguration
     )
 
     override fun startScheduling() {
@@ -51,5 +58,6 @@ internal class DataUploadScheduler(
 
     override fun stopScheduling() {
         scheduledThreadPoolExecutor.remove(runnable)
+        uploadCoordinator.cancel(featureName)
     }
 }
@@ -9,6 +9,7 @@ package com.datadog.android.core.internal.data.upload
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.persistence.BatchId
+import com.datadog.android.core.internal.persistence.StreamedBatchData
 
 internal interface DataUploader {
     fun upload(
@@ -17,4 +18,14 @@ internal interface DataUploader {
         batchMeta: ByteArray?,
         batchId: BatchId? = null
     ): UploadStatus
+
+    /**
+     * @return true if this uploader can send a [StreamedBatchData] without loading it in memory.
+     */
+    fun supportsStreaming(): Boolean
+
+    fun uploadStreamed(
+        context: DatadogContext,
+        batch: StreamedBatchData
+    ): UploadStatus
 }
@@ -16,7 +16,8 @@ import kotlin.math.min
 import kotlin.math.roundToLong
 
 internal class DefaultUploadSchedulerStrategy(
-    internal val uploadConfiguration: DataUploadConfiguration
+    internal val uploadConfiguration: DataUploadConfiguration,
+    private val adaptiveUploadPolicy: AdaptiveUploadPolicy? = null
 ) : UploadSchedulerStrategy {
 
     private val currentDelays = ConcurrentHashMap<String, Long>()
@@ -36,7 +37,9 @@ internal class DefaultUploadSchedulerStrategy(
             increaseInterval(previousDelay, throwable)
         }
         currentDelays[featureName] = updatedDelay
-        return updatedDelay
+        // the network adjustment is not kept, so that it doesn't add up over consecutive uploads
+        return adaptiveUploadPolicy?.adjustDelay(updatedDelay, uploadConfiguration.maxDelayMs)
+            ?: updatedDelay
     }
 
     // endregion
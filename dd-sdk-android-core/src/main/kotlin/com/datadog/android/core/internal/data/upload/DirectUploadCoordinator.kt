@@ -0,0 +1,21 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+/**
+ * An [UploadCoordinator] running every job right away, on the calling thread.
+ */
+internal class DirectUploadCoordinator : UploadCoordinator {
+
+    override fun submit(featureName: String, oldestBatchTimestamp: () -> Long?, job: Runnable) {
+        job.run()
+    }
+
+    override fun cancel(featureName: String) {
+        // jobs run as soon as they're submitted, there is nothing to cancel
+    }
+}
@@ -7,6 +7,7 @@
 package com.datadog.android.core.internal.data.upload
 
 import com.datadog.android.api.InternalLogger
+import com.datadog.android.internal.compression.DeflaterPool
 import okhttp3.Interceptor
 import okhttp3.MediaType
 import okhttp3.MultipartBody
@@ -14,17 +15,22 @@ import okhttp3.Request
 import okhttp3.RequestBody
 import okhttp3.Response
 import okio.BufferedSink
-import okio.GzipSink
 import okio.buffer
 import java.io.IOException
+import java.util.zip.Deflater
 import kotlin.jvm.Throws
 
 /**
  * This interceptor compresses the HTTP request body.
  *
- * This class uses the [GzipSink] to compress the body content.
+ * This class uses a [PooledGzipSink] to compress the body content, so that the native compression
+ * state is reused across requests rather than allocated for each one.
  */
-internal class GzipRequestInterceptor(private val internalLogger: InternalLogger) : Interceptor {
+internal class GzipRequestInterceptor(
+    private val internalLogger: InternalLogger,
+    private val compressionLevel: Int = Deflater.DEFAULT_COMPRESSION,
+    private val deflaterPool: DeflaterPool = DeflaterPool.shared
+) : Interceptor {
 
     // region Interceptor
 
@@ -81,9 +87,9 @@ internal class GzipRequestInterceptor(private val internalLogger: InternalLogger
 
             @Suppress("UnsafeThirdPartyFunctionCall") // write to is expected to throw IOExceptions
             override fun writeTo(sink: BufferedSink) {
-                val gzipSink: BufferedSink = GzipSink(sink).buffer()
-                body.writeTo(gzipSink)
-                gzipSink.close()
+                PooledGzipSink(sink, compressionLevel, deflaterPool).buffer().use {
+                    body.writeTo(it)
+                }
             }
         }
     }
@@ -9,6 +9,7 @@ package com.datadog.android.core.internal.data.upload
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.persistence.BatchId
+import com.datadog.android.core.internal.persistence.StreamedBatchData
 
 internal class NoOpDataUploader : DataUploader {
     override fun upload(
@@ -19,4 +20,15 @@ internal class NoOpDataUploader : DataUploader {
     ): UploadStatus {
         return UploadStatus.UnknownStatus
     }
+
+    override fun supportsStreaming(): Boolean {
+        return false
+    }
+
+    override fun uploadStreamed(
+        context: DatadogContext,
+        batch: StreamedBatchData
+    ): UploadStatus {
+        return UploadStatus.UnknownStatus
+    }
 }
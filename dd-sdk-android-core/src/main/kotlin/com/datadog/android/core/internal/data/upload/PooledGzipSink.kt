@@ -0,0 +1,114 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.internal.compression.DeflaterPool
+import okio.Buffer
+import okio.BufferedSink
+import okio.Sink
+import okio.Timeout
+import java.io.IOException
+import java.util.zip.CRC32
+import java.util.zip.Deflater
+import kotlin.math.min
+
+/**
+ * A [Sink] compressing everything written to it in the GZIP format, like okio's [okio.GzipSink],
+ * but using a [Deflater] and buffers borrowed from a [DeflaterPool] instead of allocating new
+ * ones for every stream. Those are given back to the pool when the sink is closed.
+ */
+@Suppress("UnsafeThirdPartyFunctionCall") // write/close are expected to throw IOExceptions
+internal class PooledGzipSink(
+    private val sink: BufferedSink,
+    compressionLevel: Int,
+    private val deflaterPool: DeflaterPool
+) : Sink {
+
+    private val deflater = deflaterPool.acquireDeflater(compressionLevel, nowrap = true)
+    private val inputBuffer = deflaterPool.acquireBuffer()
+    private val outputBuffer = deflaterPool.acquireBuffer()
+    private val crc = CRC32()
+    private var closed = false
+
+    init {
+        sink.writeShort(GZIP_MAGIC)
+        sink.writeByte(GZIP_METHOD_DEFLATE)
+        sink.writeByte(0) // flags
+        sink.writeInt(0) // modification time
+        sink.writeByte(0) // extra flags
+        sink.writeByte(0) // operating system
+    }
+
+    // region Sink
+
+    @Throws(IOException::class)
+    override fun write(source: Buffer, byteCount: Long) {
+        check(!closed) { "closed" }
+        var remaining = byteCount
+        while (remaining > 0) {
+            val read = source.read(inputBuffer, 0, min(remaining, inputBuffer.size.toLong()).toInt())
+            if (read <= 0) break
+            crc.update(inputBuffer, 0, read)
+            deflater.setInput(inputBuffer, 0, read)
+            while (!deflater.needsInput()) {
+                writeDeflated(deflater.deflate(outputBuffer, 0, outputBuffer.size, Deflater.NO_FLUSH))
+            }
+            remaining -= read
+        }
+    }
+
+    @Throws(IOException::class)
+    override fun flush() {
+        do {
+            val deflated = deflater.deflate(outputBuffer, 0, outputBuffer.size, Deflater.SYNC_FLUSH)
+            writeDeflated(deflated)
+        } while (deflated == outputBuffer.size)
+        sink.flush()
+    }
+
+    override fun timeout(): Timeout {
+        return sink.timeout()
+    }
+
+    @Throws(IOException::class)
+    override fun close() {
+        if (closed) return
+        closed = true
+
+        try {
+            deflater.finish()
+            while (!deflater.finished()) {
+                writeDeflated(deflater.deflate(outputBuffer, 0, outputBuffer.size))
+            }
+            sink.writeIntLe(crc.value.toInt())
+            sink.writeIntLe(deflater.bytesRead.toInt())
+        } finally {
+            deflaterPool.releaseDeflater(deflater)
+            deflaterPool.releaseBuffer(inputBuffer)
+            deflaterPool.releaseBuffer(outputBuffer)
+            sink.close()
+        }
+    }
+
+    // endregion
+
+    // region Internal
+
+    @Throws(IOException::class)
+    private fun writeDeflated(byteCount: Int) {
+        if (byteCount > 0) {
+            sink.write(outputBuffer, 0, byteCount)
+        }
+    }
+
+    // endregion
+
+    companion object {
+        private const val GZIP_MAGIC = 0x1f8b
+        private const val GZIP_METHOD_DEFLATE = 8
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.feature.Feature
+import java.util.Locale
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * An [UploadCoordinator] running at most [maxConcurrentUploads] upload jobs at the same time on
+ * the given [executor]. All the features share the same HTTP client, so concurrent uploads reuse
+ * the pooled connections (multiplexed over a single connection with HTTP/2).
+ *
+ * When more jobs are pending than there are free upload slots, the most urgent one runs first.
+ * The urgency of a job grows with the weight of its feature and the age of its oldest batch, so
+ * that a feature with a low weight still gets its turn once its backlog gets old enough.
+ *
+ * Once the [executor] is shut down (e.g. while the SDK is stopped), the jobs run on the thread
+ * submitting them, since the executor would drop them without running them.
+ */
+internal class PriorityUploadCoordinator(
+    private val executor: ExecutorService,
+    private val maxConcurrentUploads: Int,
+    private val internalLogger: InternalLogger,
+    private val featureWeights: Map<String, Int> = DEFAULT_FEATURE_WEIGHTS,
+    private val wallClock: () -> Long = { System.currentTimeMillis() }
+) : UploadCoordinator {
+
+    private val pendingJobs = mutableListOf<PendingJob>()
+    private var runningJobsCount = 0
+
+    // incremented when a feature's uploads are cancelled, jobs submitted before that are dropped
+    private val featureGenerations = mutableMapOf<String, Int>()
+
+    // region UploadCoordinator
+
+    override fun submit(featureName: String, oldestBatchTimestamp: () -> Long?, job: Runnable) {
+        val oldestTimestamp = oldestBatchTimestamp() ?: wallClock()
+        synchronized(pendingJobs) {
+            // the feature's job already pending will schedule its next upload
+            if (pendingJobs.none { it.featureName == featureName }) {
+                val generation = featureGenerations[featureName] ?: 0
+                pendingJobs.add(PendingJob(featureName, generation, oldestTimestamp, job))
+            }
+        }
+        dispatch()
+    }
+
+    override fun cancel(featureName: String) {
+        synchronized(pendingJobs) {
+            featureGenerations[featureName] = (featureGenerations[featureName] ?: 0) + 1
+            pendingJobs.removeAll { it.featureName == featureName }
+        }
+    }
+
+    // endregion
+
+    // region Internal
+
+    private fun dispatch() {
+        while (true) {
+            val next = pollMostUrgentJob() ?: return
+            val task = DispatchedJob(next)
+            val isDispatched = !executor.isShutdown && tryExecute(task)
+            // the executor's rejection handler drops the tasks without throwing once it is shut
+            // down: unless the executor already started it, the job runs here, which also releases
+            // its upload slot
+            if ((!isDispatched || executor.isShutdown) && task.claim()) {
+                internalLogger.log(
+                    InternalLogger.Level.DEBUG,
+                    InternalLogger.Target.MAINTAINER,
+                    { DEBUG_JOB_RUN_INLINE.format(Locale.US, next.featureName) }
+                )
+                runJob(next)
+            }
+        }
+    }
+
+    private fun tryExecute(task: Runnable): Boolean {
+        return try {
+            @Suppress("UnsafeThirdPartyFunctionCall") // NPE cannot happen here
+            executor.execute(task)
+            true
+        } catch (_: RejectedExecutionException) {
+            false
+        }
+    }
+
+    private fun runJob(pendingJob: PendingJob) {
+        try {
+            // a job dispatched before its feature was stopped would schedule the feature again
+            if (!isCancelled(pendingJob)) {
+                pendingJob.job.run()
+            }
+        } finally {
+            synchronized(pendingJobs) {
+                runningJobsCount--
+            }
+        }
+    }
+
+    private fun pollMostUrgentJob(): PendingJob? {
+        synchronized(pendingJobs) {
+            if (runningJobsCount >= maxConcurrentUploads || pendingJobs.isEmpty()) {
+                return null
+            }
+            val now = wallClock()
+            val mostUrgent = pendingJobs.maxByOrNull { urgency(it, now) } ?: return null
+            pendingJobs.remove(mostUrgent)
+            runningJobsCount++
+            return mostUrgent
+        }
+    }
+
+    private fun isCancelled(pendingJob: PendingJob): Boolean {
+        synchronized(pendingJobs) {
+            return pendingJob.generation != (featureGenerations[pendingJob.featureName] ?: 0)
+        }
+    }
+
+    private fun urgency(pendingJob: PendingJob, now: Long): Double {
+        val weight = featureWeights[pendingJob.featureName] ?: DEFAULT_FEATURE_WEIGHT
+        val ageMs = (now - pendingJob.oldestBatchTimestamp).coerceAtLeast(0L)
+        return weight * (1.0 + ageMs / AGE_URGENCY_STEP_MS)
+    }
+
+    /** A job handed to the executor, which runs at most once, on the executor or inline. */
+    private inner class DispatchedJob(
+        private val pendingJob: PendingJob
+    ) : Runnable {
+
+        private val isClaimed = AtomicBoolean(false)
+
+        fun claim(): Boolean = isClaimed.compareAndSet(false, true)
+
+        override fun run() {
+            if (claim()) {
+                try {
+                    runJob(pendingJob)
+                } finally {
+                    dispatch()
+                }
+            }
+        }
+    }
+
+    private class PendingJob(
+        val featureName: String,
+        val generation: Int,
+        val oldestBatchTimestamp: Long,
+        val job: Runnable
+    )
+
+    // endregion
+
+    companion object {
+        internal const val DEFAULT_MAX_CONCURRENT_UPLOADS = 3
+        internal const val DEFAULT_FEATURE_WEIGHT = 1
+
+        // the urgency of a job with an hour old batch is 61 times its feature's weight
+        internal const val AGE_URGENCY_STEP_MS = 60_000.0
+
+        internal const val DEBUG_JOB_RUN_INLINE =
+            "Unable to dispatch the %s upload job, running it on the current thread."
+
+        internal val DEFAULT_FEATURE_WEIGHTS = mapOf(
+            Feature.RUM_FEATURE_NAME to 4,
+            Feature.LOGS_FEATURE_NAME to 2,
+            Feature.TRACING_FEATURE_NAME to 2,
+            Feature.NDK_CRASH_REPORTS_FEATURE_NAME to 4
+        )
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.core.internal.persistence.StreamedBatchData
+import okhttp3.MediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+import java.io.IOException
+
+/**
+ * A [RequestBody] writing the events of a batch one by one as they're read from the disk, so that
+ * the whole payload never lives in memory. Compression, if any, is applied on the fly by the
+ * [GzipRequestInterceptor].
+ */
+internal class StreamingBatchRequestBody(
+    private val batch: StreamedBatchData,
+    private val mediaType: MediaType?,
+    private val payloadPrefix: ByteArray,
+    private val payloadSeparator: ByteArray,
+    private val payloadSuffix: ByteArray
+) : RequestBody() {
+
+    override fun contentType(): MediaType? {
+        return mediaType
+    }
+
+    override fun contentLength(): Long {
+        return -1 // We don't want to read the whole batch to know its length in advance
+    }
+
+    @Throws(IOException::class)
+    @Suppress("UnsafeThirdPartyFunctionCall") // write to is expected to throw IOExceptions
+    override fun writeTo(sink: BufferedSink) {
+        sink.write(payloadPrefix)
+        var isFirstEvent = true
+        batch.forEachEventData {
+            if (!isFirstEvent) {
+                sink.write(payloadSeparator)
+            }
+            // the event data is a view on the batch file content, written without being copied
+            sink.write(it)
+            isFirstEvent = false
+        }
+        sink.write(payloadSuffix)
+    }
+}
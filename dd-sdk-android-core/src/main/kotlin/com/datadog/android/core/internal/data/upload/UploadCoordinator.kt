@@ -0,0 +1,30 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+/**
+ * Decides when the upload jobs of the different features run, sharing the upload capacity
+ * between them.
+ */
+internal interface UploadCoordinator {
+
+    /**
+     * Submits an upload job for the given feature. The job runs once, as soon as the coordinator
+     * decides so; it is responsible for scheduling the next upload of the feature.
+     * @param featureName the name of the feature uploading data
+     * @param oldestBatchTimestamp provides the creation timestamp of the oldest batch waiting to be
+     * uploaded by the feature, if known
+     * @param job the upload job
+     */
+    fun submit(featureName: String, oldestBatchTimestamp: () -> Long?, job: Runnable)
+
+    /**
+     * Cancels the upload jobs submitted for the given feature which didn't start yet.
+     * @param featureName the name of the feature whose uploads are stopped
+     */
+    fun cancel(featureName: String)
+}
@@ -0,0 +1,72 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import androidx.annotation.AnyThread
+
+/**
+ * Keeps track of the throughput and latency achieved by the successful upload requests, as
+ * exponentially weighted moving averages so that recent requests matter more than older ones.
+ */
+internal class UploadThroughputMonitor {
+
+    private var throughputBytesPerSecond: Double? = null
+    private var latencyMs: Double? = null
+
+    /**
+     * Records a completed upload request.
+     * @param bodySize the size of the uploaded payload, in bytes (before compression)
+     * @param durationMs the time elapsed between sending the request and receiving the response
+     */
+    @AnyThread
+    @Synchronized
+    fun onRequestCompleted(bodySize: Long, durationMs: Long) {
+        if (durationMs <= 0L || bodySize < 0L) return
+
+        latencyMs = movingAverage(latencyMs, durationMs.toDouble())
+        // small payloads are dominated by the round trip time and tell little about the bandwidth
+        if (bodySize >= MIN_THROUGHPUT_SAMPLE_SIZE) {
+            throughputBytesPerSecond = movingAverage(
+                throughputBytesPerSecond,
+                bodySize * MS_IN_SECOND / durationMs
+            )
+        }
+    }
+
+    /**
+     * @return the average throughput achieved by recent requests, in bytes per second, or null if
+     * not known yet
+     */
+    @AnyThread
+    @Synchronized
+    fun getThroughputBytesPerSecond(): Double? = throughputBytesPerSecond
+
+    /**
+     * @return the average duration of recent requests, in milliseconds, or null if not known yet
+     */
+    @AnyThread
+    @Synchronized
+    fun getLatencyMs(): Double? = latencyMs
+
+    // region Internal
+
+    private fun movingAverage(average: Double?, sample: Double): Double {
+        return if (average == null) {
+            sample
+        } else {
+            average + SMOOTHING_FACTOR * (sample - average)
+        }
+    }
+
+    // endregion
+
+    companion object {
+        internal const val SMOOTHING_FACTOR = 0.3
+        internal const val MIN_THROUGHPUT_SAMPLE_SIZE = 16L * 1024 // 16 KB
+        private const val MS_IN_SECOND = 1000.0
+    }
+}
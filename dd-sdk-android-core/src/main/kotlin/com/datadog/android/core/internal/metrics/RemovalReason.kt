@@ -35,6 +35,12 @@ internal sealed class RemovalReason {
         }
     }
 
+    internal object Compacted : RemovalReason() {
+        override fun toString(): String {
+            return "compacted"
+        }
+    }
+
     internal object Flushed : RemovalReason() {
         override fun toString(): String {
             return "flushed"
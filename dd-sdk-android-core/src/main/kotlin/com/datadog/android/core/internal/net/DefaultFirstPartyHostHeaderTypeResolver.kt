@@ -23,14 +23,17 @@ class DefaultFirstPartyHostHeaderTypeResolver(
 ) : FirstPartyHostHeaderTypeResolver {
 
     internal var knownHosts = hosts.entries.associate { it.key.lowercase(Locale.US) to it.value }
-        private set
+        private set(value) {
+            field = value
+            hostMatcher = FirstPartyHostMatcher(value)
+        }
+
+    @Volatile
+    private var hostMatcher = FirstPartyHostMatcher(knownHosts)
 
     /** @inheritdoc */
     override fun isFirstPartyUrl(url: HttpUrl): Boolean {
-        val host = url.host
-        return knownHosts.keys.any {
-            it == "*" || host == it || host.endsWith(".$it")
-        }
+        return hostMatcher.match(url.host) != null
     }
 
     /** @inheritdoc */
@@ -47,12 +50,7 @@ class DefaultFirstPartyHostHeaderTypeResolver(
 
     /** @inheritdoc */
     override fun headerTypesForUrl(url: HttpUrl): Set<TracingHeaderType> {
-        val host = url.host
-
-        return knownHosts[host]
-            ?: knownHosts.entries.firstOrNull { host.endsWith(".${it.key}") }?.value
-            ?: knownHosts["*"]
-            ?: emptySet()
+        return hostMatcher.match(url.host) ?: emptySet()
     }
 
     /** @inheritdoc */
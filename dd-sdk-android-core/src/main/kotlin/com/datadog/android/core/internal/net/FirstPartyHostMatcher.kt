@@ -0,0 +1,100 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.net
+
+import com.datadog.android.trace.TracingHeaderType
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Matches hosts against a fixed set of first party hosts (and their subdomains).
+ *
+ * The known hosts are compiled once in a trie indexed by their labels in reverse order (e.g.:
+ * `api.example.com` is stored as `com` → `example` → `api`), so that matching a host only walks
+ * its own labels, regardless of the number of known hosts. As the same few hosts are requested
+ * over and over, the results are also cached per host.
+ *
+ * @param hosts the known hosts (lowercase) and their associated tracing header types
+ */
+internal class FirstPartyHostMatcher(
+    hosts: Map<String, Set<TracingHeaderType>>
+) {
+
+    private val root = Node()
+
+    private val wildcardHeaderTypes: Set<TracingHeaderType>? = hosts[WILDCARD]
+
+    private val matchesByHost = ConcurrentHashMap<String, Match>()
+
+    init {
+        hosts.forEach { (host, headerTypes) ->
+            if (host != WILDCARD) {
+                insert(host, headerTypes)
+            }
+        }
+    }
+
+    /**
+     * @param host the host to match (lowercase, as provided by [okhttp3.HttpUrl.host])
+     * @return the header types of the most specific known host matching the given host (either
+     * exactly or as a subdomain), the wildcard header types if any, or null if the host is not a
+     * first party host
+     */
+    fun match(host: String): Set<TracingHeaderType>? {
+        matchesByHost[host]?.let { return it.headerTypes }
+
+        val headerTypes = lookup(host) ?: wildcardHeaderTypes
+        if (matchesByHost.size >= MAX_CACHED_HOSTS) {
+            matchesByHost.clear()
+        }
+        matchesByHost[host] = if (headerTypes == null) NO_MATCH else Match(headerTypes)
+        return headerTypes
+    }
+
+    // region Internal
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // label bounds are always within the host
+    private fun insert(host: String, headerTypes: Set<TracingHeaderType>) {
+        var node = root
+        var end = host.length
+        while (end >= 0) {
+            val start = host.lastIndexOf('.', end - 1)
+            node = node.children.getOrPut(host.substring(start + 1, end)) { Node() }
+            end = start
+        }
+        node.headerTypes = headerTypes
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // label bounds are always within the host
+    private fun lookup(host: String): Set<TracingHeaderType>? {
+        var node = root
+        var headerTypes: Set<TracingHeaderType>? = null
+        var end = host.length
+        while (end >= 0) {
+            val start = host.lastIndexOf('.', end - 1)
+            node = node.children[host.substring(start + 1, end)] ?: break
+            headerTypes = node.headerTypes ?: headerTypes
+            end = start
+        }
+        return headerTypes
+    }
+
+    // endregion
+
+    private class Node {
+        val children = mutableMapOf<String, Node>()
+
+        var headerTypes: Set<TracingHeaderType>? = null
+    }
+
+    private class Match(val headerTypes: Set<TracingHeaderType>?)
+
+    private companion object {
+        private const val WILDCARD = "*"
+        private const val MAX_CACHED_HOSTS = 256
+        private val NO_MATCH = Match(null)
+    }
+}
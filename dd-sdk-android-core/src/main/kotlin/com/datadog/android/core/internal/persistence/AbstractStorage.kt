@@ -100,6 +100,41 @@ internal class AbstractStorage(
         }
     }
 
+    @WorkerThread
+    override fun readNextMergeableBatch(metadata: ByteArray?, maxSize: Long): BatchData? {
+        // the persistence strategy can't tell a batch size without reading it
+        return null
+    }
+
+    @WorkerThread
+    override fun readNextStreamedBatch(): StreamedBatchData? {
+        // events are kept by the persistence strategy, we can only read them all at once
+        return readNextBatch()?.let { batch ->
+            StreamedBatchData(
+                id = batch.id,
+                metadata = batch.metadata,
+                eventsSource = object : BatchEventsSource {
+                    override fun forEachEvent(action: (RawBatchEvent) -> Unit) {
+                        batch.data.forEach(action)
+                    }
+
+                    override fun readAll(): List<RawBatchEvent> = batch.data
+                }
+            )
+        }
+    }
+
+    @WorkerThread
+    override fun getOldestBatchTimestamp(): Long? {
+        // the persistence strategy doesn't expose when its batches were created
+        return null
+    }
+
+    @AnyThread
+    override fun compactBatches() {
+        // the persistence strategy is in charge of its own batches
+    }
+
     @WorkerThread
     override fun confirmBatchRead(
         batchId: BatchId,
@@ -0,0 +1,43 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.storage.RawBatchEvent
+import java.io.IOException
+import java.nio.ByteBuffer
+
+/**
+ * Gives access to the events of a batch, either one at a time or all at once.
+ */
+internal interface BatchEventsSource {
+
+    /**
+     * Runs the given action on every event of the batch, in order. Can be called several times.
+     * @throws IOException if the events can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun forEachEvent(action: (RawBatchEvent) -> Unit)
+
+    /**
+     * Runs the given action on the data of every event of the batch, in order. The buffer is only
+     * valid during the call, which lets implementations avoid copying the events.
+     * @throws IOException if the events can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun forEachEventData(action: (ByteBuffer) -> Unit) {
+        forEachEvent { action(ByteBuffer.wrap(it.data)) }
+    }
+
+    /**
+     * @return all the events of the batch
+     */
+    @WorkerThread
+    fun readAll(): List<RawBatchEvent>
+}
@@ -0,0 +1,245 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.storage.EventBatchWriter
+import com.datadog.android.api.storage.EventType
+import com.datadog.android.api.storage.RawBatchEvent
+import com.datadog.android.core.internal.persistence.file.FileOrchestrator
+import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
+import com.datadog.android.core.internal.persistence.file.FileReaderWriter
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderWriter
+import com.datadog.android.core.internal.persistence.file.existsSafe
+import java.io.File
+import java.util.Locale
+
+/**
+ * An [EventBatchWriter] shared by a group of write operations: the writable file is resolved
+ * once for the whole group and the events written are held in memory, to be appended to that
+ * file with a single write operation when [commit] is called, along with the latest batch
+ * metadata.
+ *
+ * A successful [write] means that the event is part of the group's pending append: the written
+ * bytes, the items count and the batch metadata are only updated once that append succeeded.
+ *
+ * Events are committed earlier if the pending data would exceed the max batch size, or before
+ * an updatable event is written (those are written in their own slot).
+ */
+internal class CoalescedFileEventBatchWriter(
+    private val fileOrchestrator: FileOrchestrator,
+    private val eventsWriter: BatchFileReaderWriter,
+    private val metadataReaderWriter: FileReaderWriter,
+    private val filePersistenceConfig: FilePersistenceConfig,
+    private val batchWriteEventListener: BatchWriteEventListener,
+    private val internalLogger: InternalLogger,
+    expectedEventsCount: Int
+) : EventBatchWriter {
+
+    private var remainingEventsCount = expectedEventsCount
+    private var batchFile: File? = null
+
+    private val pendingEvents = mutableListOf<RawBatchEvent>()
+    private var pendingBytes = 0L
+    private var pendingMetadata: ByteArray? = null
+
+    @WorkerThread
+    override fun currentMetadata(): ByteArray? {
+        pendingMetadata?.let { return it }
+
+        val metadataFile = resolveBatchFile()?.let { fileOrchestrator.getMetadataFile(it) }
+        return if (metadataFile == null || !metadataFile.existsSafe(internalLogger)) {
+            null
+        } else {
+            metadataReaderWriter.readData(metadataFile)
+        }
+    }
+
+    @WorkerThread
+    override fun write(
+        event: RawBatchEvent,
+        batchMetadata: ByteArray?,
+        eventType: EventType
+    ): Boolean {
+        val eventSize = event.data.size
+        // prevent useless operation for empty event
+        if (eventSize == 0) {
+            return true
+        } else if (!checkEventSize(eventSize)) {
+            return false
+        }
+
+        if (pendingEvents.isNotEmpty() && pendingBytes + eventSize > filePersistenceConfig.maxBatchSize) {
+            commit()
+        }
+
+        val batchFile = resolveBatchFile()
+        if (batchFile == null) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                targets = listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+                { FileEventBatchWriter.NO_BATCH_FILE_AVAILABLE }
+            )
+            return false
+        }
+
+        pendingEvents.add(event)
+        pendingBytes += eventSize
+        if (batchMetadata?.isNotEmpty() == true) {
+            pendingMetadata = batchMetadata
+        }
+        return true
+    }
+
+    @WorkerThread
+    override fun writeUpdatable(
+        event: RawBatchEvent,
+        batchMetadata: ByteArray?,
+        eventType: EventType,
+        key: String
+    ): Boolean {
+        val eventSize = event.data.size
+        // prevent useless operation for empty event
+        if (eventSize == 0) {
+            return true
+        } else if (!checkEventSize(eventSize)) {
+            return false
+        }
+
+        // the slots are tracked per batch file, release the current one along with its metadata
+        commit()
+
+        // an event replacing its previous version in place doesn't add an item to the batch
+        val currentFile = fileOrchestrator.getWritableFile(0)
+        val currentSlot = currentFile?.let { fileOrchestrator.getUpdatableSlots(it) }?.get(key)
+        val isUpdatedInPlace = currentSlot != null && eventsWriter.fitsSlot(currentSlot, event)
+        val batchFile = if (isUpdatedInPlace) currentFile else resolveBatchFile()
+        if (batchFile == null) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                targets = listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+                { FileEventBatchWriter.NO_BATCH_FILE_AVAILABLE }
+            )
+            return false
+        }
+
+        val slots = fileOrchestrator.getUpdatableSlots(batchFile)
+        val result = if (slots != null) {
+            eventsWriter.writeSlot(batchFile, slots, key, event)
+        } else {
+            eventsWriter.appendData(batchFile, listOf(event), fileOrchestrator.getWritableFileChannel())
+        }
+        if (result) {
+            batchWriteEventListener.onWriteEvent(eventSize.toLong())
+            val metadataFile = fileOrchestrator.getMetadataFile(batchFile)
+            if (batchMetadata?.isNotEmpty() == true && metadataFile != null) {
+                writeBatchMetadata(metadataFile, batchMetadata)
+            }
+        }
+
+        if (!isUpdatedInPlace) {
+            remainingEventsCount = (remainingEventsCount - 1).coerceAtLeast(1)
+        }
+        this.batchFile = null
+        return result
+    }
+
+    /**
+     * Appends the pending events to the batch file with a single write operation, then writes
+     * the latest batch metadata, and releases the batch file so that the next events are
+     * written to the writable file at that time.
+     */
+    @WorkerThread
+    fun commit() {
+        val batchFile = batchFile
+        if (pendingEvents.isEmpty() || batchFile == null) {
+            return
+        }
+
+        val eventsCount = pendingEvents.size
+        val result = eventsWriter.appendData(
+            batchFile,
+            pendingEvents.toList(),
+            fileOrchestrator.getWritableFileChannel()
+        )
+        if (result) {
+            batchWriteEventListener.onWriteEvent(pendingBytes)
+            val metadata = pendingMetadata
+            val metadataFile = fileOrchestrator.getMetadataFile(batchFile)
+            if (metadata != null && metadataFile != null) {
+                writeBatchMetadata(metadataFile, metadata)
+            }
+            remainingEventsCount = (remainingEventsCount - eventsCount).coerceAtLeast(1)
+        } else {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+                { ERROR_APPEND_FAILED.format(Locale.US, eventsCount, batchFile.path) }
+            )
+        }
+
+        pendingEvents.clear()
+        pendingBytes = 0L
+        pendingMetadata = null
+        this.batchFile = null
+    }
+
+    // region Internal
+
+    @WorkerThread
+    private fun resolveBatchFile(): File? {
+        return batchFile ?: fileOrchestrator.getWritableFile(remainingEventsCount).also {
+            batchFile = it
+        }
+    }
+
+    private fun checkEventSize(eventSize: Int): Boolean {
+        if (eventSize > filePersistenceConfig.maxItemSize) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                InternalLogger.Target.USER,
+                {
+                    FileEventBatchWriter.ERROR_LARGE_DATA.format(
+                        Locale.US,
+                        eventSize,
+                        filePersistenceConfig.maxItemSize
+                    )
+                }
+            )
+            return false
+        }
+        return true
+    }
+
+    @WorkerThread
+    private fun writeBatchMetadata(metadataFile: File, metadata: ByteArray) {
+        val result = metadataReaderWriter.writeData(
+            metadataFile,
+            metadata,
+            false
+        )
+        if (!result) {
+            internalLogger.log(
+                InternalLogger.Level.WARN,
+                InternalLogger.Target.USER,
+                {
+                    FileEventBatchWriter.WARNING_METADATA_WRITE_FAILED.format(
+                        Locale.US,
+                        metadataFile.path
+                    )
+                }
+            )
+        }
+    }
+
+    // endregion
+
+    companion object {
+        internal const val ERROR_APPEND_FAILED = "Unable to write %d events to the batch file: %s"
+    }
+}
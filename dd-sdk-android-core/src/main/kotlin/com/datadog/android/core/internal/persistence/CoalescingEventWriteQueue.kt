@@ -0,0 +1,141 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import androidx.annotation.AnyThread
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.storage.EventBatchWriter
+import com.datadog.android.core.internal.persistence.file.FileOrchestrator
+import java.util.Locale
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Holds the write operations of a feature until the persistence executor gets to them. A single
+ * write task is scheduled for a burst of operations and drains all the operations pending at that
+ * time, so that a burst of events resolves the batch file, is appended to it and updates its
+ * metadata once rather than once per event.
+ */
+internal class CoalescingEventWriteQueue(
+    private val maxItemsPerBatch: Int,
+    private val internalLogger: InternalLogger,
+    private val writerFactory: (FileOrchestrator, Int) -> CoalescedFileEventBatchWriter
+) {
+
+    private val pendingWrites = ConcurrentLinkedQueue<PendingWrite>()
+    private val pendingWritesCount = AtomicInteger(0)
+    private val drainScheduledAtNs = AtomicLong(NO_DRAIN_SCHEDULED)
+
+    /**
+     * Adds a write operation to the queue.
+     * @return false if the operation was dropped because the queue is full
+     */
+    @AnyThread
+    fun enqueue(orchestrator: FileOrchestrator, block: (EventBatchWriter) -> Unit): Boolean {
+        if (pendingWritesCount.incrementAndGet() > MAX_PENDING_WRITES) {
+            pendingWritesCount.decrementAndGet()
+            internalLogger.log(
+                InternalLogger.Level.WARN,
+                listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+                { WARNING_QUEUE_FULL.format(Locale.US, MAX_PENDING_WRITES) }
+            )
+            return false
+        }
+        pendingWrites.offer(PendingWrite(orchestrator, block))
+        return true
+    }
+
+    /**
+     * Tells whether the caller must schedule a task running [drain] after enqueueing an
+     * operation, which is the case unless a task is already scheduled. The executor may drop a
+     * task without running it: a task scheduled for longer than [DRAIN_SCHEDULE_TIMEOUT_NS] is
+     * considered lost, and a new one is requested.
+     */
+    @AnyThread
+    fun shouldScheduleDrain(): Boolean {
+        val now = System.nanoTime()
+        val scheduledAt = drainScheduledAtNs.get()
+        val isDrainPending = scheduledAt != NO_DRAIN_SCHEDULED && now - scheduledAt < DRAIN_SCHEDULE_TIMEOUT_NS
+        return !isDrainPending && drainScheduledAtNs.compareAndSet(scheduledAt, now)
+    }
+
+    /**
+     * Runs all the write operations currently pending. Consecutive operations targeting the same
+     * orchestrator share a single [CoalescedFileEventBatchWriter].
+     */
+    @WorkerThread
+    fun drain() {
+        // reset the flag before draining: an operation enqueued after that schedules a new task
+        drainScheduledAtNs.set(NO_DRAIN_SCHEDULED)
+        // only drain what is pending now, operations enqueued meanwhile come with their own task
+        var remaining = pendingWritesCount.get()
+        val group = mutableListOf<PendingWrite>()
+        while (remaining > 0) {
+            val next = poll() ?: break
+            remaining--
+            val previous = group.lastOrNull()
+            if (previous != null &&
+                (previous.orchestrator !== next.orchestrator || group.size >= maxItemsPerBatch)
+            ) {
+                writeGroup(previous.orchestrator, group.toList())
+                group.clear()
+            }
+            group.add(next)
+        }
+        group.firstOrNull()?.let { writeGroup(it.orchestrator, group) }
+    }
+
+    // region Internal
+
+    private fun poll(): PendingWrite? {
+        return pendingWrites.poll()?.also { pendingWritesCount.decrementAndGet() }
+    }
+
+    @WorkerThread
+    private fun writeGroup(orchestrator: FileOrchestrator, group: List<PendingWrite>) {
+        val writer = writerFactory(orchestrator, group.size)
+        try {
+            group.forEach { runSafe(it, writer) }
+        } finally {
+            writer.commit()
+        }
+    }
+
+    @WorkerThread
+    private fun runSafe(pendingWrite: PendingWrite, writer: EventBatchWriter) {
+        try {
+            pendingWrite.block.invoke(writer)
+        } catch (@Suppress("TooGenericExceptionCaught") e: RuntimeException) {
+            // a failing write operation shouldn't prevent the other ones in the group to be written
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+                { ERROR_WRITE_FAILED },
+                e
+            )
+        }
+    }
+
+    private class PendingWrite(
+        val orchestrator: FileOrchestrator,
+        val block: (EventBatchWriter) -> Unit
+    )
+
+    // endregion
+
+    companion object {
+        internal const val MAX_PENDING_WRITES = 1024
+        internal const val DRAIN_SCHEDULE_TIMEOUT_NS = 1_000_000_000L
+        private const val NO_DRAIN_SCHEDULED = Long.MIN_VALUE
+
+        internal const val WARNING_QUEUE_FULL =
+            "Pending write operations reached the limit of %d items, dropping the event."
+        internal const val ERROR_WRITE_FAILED = "Unexpected error while writing an event."
+    }
+}
@@ -11,6 +11,7 @@ import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.feature.EventWriteScope
+import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.data.upload.DataOkHttpUploader.Companion.HTTP_ACCEPTED
 import com.datadog.android.core.internal.metrics.BenchmarkUploads
 import com.datadog.android.core.internal.metrics.MetricsDispatcher
@@ -23,10 +24,15 @@ import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderW
 import com.datadog.android.core.internal.persistence.file.existsSafe
 import com.datadog.android.core.internal.persistence.file.lengthSafe
 import com.datadog.android.core.internal.utils.executeSafe
+import com.datadog.android.internal.time.DefaultTimeProvider
+import com.datadog.android.internal.time.TimeProvider
 import com.datadog.android.privacy.TrackingConsent
 import java.io.File
 import java.util.Locale
 import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
 
 internal class ConsentAwareStorage(
     private val executorService: ExecutorService,
@@ -39,7 +45,8 @@ internal class ConsentAwareStorage(
     internal val filePersistenceConfig: FilePersistenceConfig,
     private val metricsDispatcher: MetricsDispatcher,
     private val featureName: String,
-    private val benchmarkUploads: BenchmarkUploads = BenchmarkUploads()
+    private val benchmarkUploads: BenchmarkUploads = BenchmarkUploads(),
+    private val timeProvider: TimeProvider = DefaultTimeProvider()
 ) : Storage, BatchWriteEventListener {
 
     /**
@@ -49,6 +56,25 @@ internal class ConsentAwareStorage(
 
     private val writeLock = Any()
 
+    private val isCompactionPending = AtomicBoolean(false)
+
+    private val lastCompactionTimestamp = AtomicLong(0L)
+
+    private val writeQueue = CoalescingEventWriteQueue(
+        maxItemsPerBatch = filePersistenceConfig.maxItemsPerBatch,
+        internalLogger = internalLogger
+    ) { orchestrator, expectedEventsCount ->
+        CoalescedFileEventBatchWriter(
+            fileOrchestrator = orchestrator,
+            eventsWriter = batchEventsReaderWriter,
+            metadataReaderWriter = batchMetadataReaderWriter,
+            filePersistenceConfig = filePersistenceConfig,
+            batchWriteEventListener = this,
+            internalLogger = internalLogger,
+            expectedEventsCount = expectedEventsCount
+        )
+    }
+
     /** @inheritdoc */
     @AnyThread
     override fun getEventWriteScope(
@@ -59,38 +85,69 @@ internal class ConsentAwareStorage(
         if (orchestrator == null) {
             return AsyncEventWriteScope(executorService, NoOpEventBatchWriter(), writeLock, featureName, internalLogger)
         }
-        val writer = FileEventBatchWriter(
-            fileOrchestrator = orchestrator,
-            eventsWriter = batchEventsReaderWriter,
-            metadataReaderWriter = batchMetadataReaderWriter,
-            filePersistenceConfig = filePersistenceConfig,
-            batchWriteEventListener = this,
-            internalLogger = internalLogger
+        return CoalescingEventWriteScope(
+            executorService,
+            orchestrator,
+            writeQueue,
+            writeLock,
+            featureName,
+            internalLogger
         )
-        return AsyncEventWriteScope(executorService, writer, writeLock, featureName, internalLogger)
     }
 
     /** @inheritdoc */
     @WorkerThread
     override fun readNextBatch(): BatchData? {
-        val (batchFile, metaFile) = synchronized(lockedReadBatches) {
-            val batchFile = grantedOrchestrator
-                .getReadableFile(lockedReadBatches.map { it.file }.toSet()) ?: return null
+        val batch = lockNextBatch() ?: return null
 
-            val metaFile = grantedOrchestrator.getMetadataFile(batchFile)
-            lockedReadBatches.add(Batch(batchFile, metaFile))
-            batchFile to metaFile
-        }
+        val batchData = batchEventsReaderWriter.readData(batch.file)
 
-        val batchId = BatchId.fromFile(batchFile)
-        val batchMetadata = if (metaFile == null || !metaFile.existsSafe(internalLogger)) {
-            null
-        } else {
-            batchMetadataReaderWriter.readData(metaFile)
+        return BatchData(
+            id = BatchId.fromFile(batch.file),
+            data = batchData,
+            metadata = readBatchMetadata(batch)
+        )
+    }
+
+    /** @inheritdoc */
+    @WorkerThread
+    override fun readNextMergeableBatch(metadata: ByteArray?, maxSize: Long): BatchData? {
+        val batch = lockNextBatch() ?: return null
+
+        val batchMetadata = readBatchMetadata(batch)
+        val isMergeable = batch.file.lengthSafe(internalLogger) <= maxSize &&
+            hasSameMetadata(batchMetadata, metadata)
+        if (!isMergeable) {
+            synchronized(lockedReadBatches) {
+                lockedReadBatches.remove(batch)
+            }
+            return null
         }
-        val batchData = batchEventsReaderWriter.readData(batchFile)
 
-        return BatchData(id = batchId, data = batchData, metadata = batchMetadata)
+        return BatchData(
+            id = BatchId.fromFile(batch.file),
+            data = batchEventsReaderWriter.readData(batch.file),
+            metadata = batchMetadata
+        )
+    }
+
+    /** @inheritdoc */
+    @WorkerThread
+    override fun readNextStreamedBatch(): StreamedBatchData? {
+        val batch = lockNextBatch() ?: return null
+
+        return StreamedBatchData(
+            id = BatchId.fromFile(batch.file),
+            metadata = readBatchMetadata(batch),
+            eventsSource = FileBatchEventsSource(batch.file, batchEventsReaderWriter)
+        )
+    }
+
+    /** @inheritdoc */
+    @WorkerThread
+    override fun getOldestBatchTimestamp(): Long? {
+        // batch files are named after their creation timestamp
+        return grantedOrchestrator.getAllFiles().firstOrNull()?.name?.toLongOrNull()
     }
 
     /** @inheritdoc */
@@ -112,6 +169,27 @@ internal class ConsentAwareStorage(
         }
     }
 
+    /** @inheritdoc */
+    @AnyThread
+    override fun compactBatches() {
+        // batches only change a little between two upload attempts, no need to check them every time
+        val now = timeProvider.getDeviceTimestampMillis()
+        val elapsedMs = now - lastCompactionTimestamp.get()
+        if (elapsedMs in 0 until MIN_COMPACTION_INTERVAL_MS) {
+            return
+        }
+        if (!isCompactionPending.compareAndSet(false, true)) {
+            return
+        }
+        lastCompactionTimestamp.set(now)
+        executorService.executeSafe("ConsentAwareStorage.compactBatches", internalLogger) {
+            isCompactionPending.set(false)
+            arrayOf(grantedOrchestrator, pendingOrchestrator).forEach {
+                compactBatches(it)
+            }
+        }
+    }
+
     /** @inheritdoc */
     @AnyThread
     override fun dropAll() {
@@ -138,6 +216,129 @@ internal class ConsentAwareStorage(
         )
     }
 
+    @WorkerThread
+    private fun lockNextBatch(): Batch? {
+        synchronized(lockedReadBatches) {
+            val batchFile = grantedOrchestrator
+                .getReadableFile(lockedReadBatches.map { it.file }.toSet()) ?: return null
+
+            val metaFile = grantedOrchestrator.getMetadataFile(batchFile)
+            val batch = Batch(batchFile, metaFile)
+            lockedReadBatches.add(batch)
+            return batch
+        }
+    }
+
+    @WorkerThread
+    private fun compactBatches(orchestrator: FileOrchestrator) {
+        // files are locked so that they can't be read for upload while being merged
+        val groups = synchronized(lockedReadBatches) {
+            val groups = orchestrator.getCompactableFileGroups(lockedReadBatches.map { it.file }.toSet())
+            groups.flatten().forEach {
+                lockedReadBatches.add(Batch(it, orchestrator.getMetadataFile(it)))
+            }
+            groups
+        }
+
+        groups.forEach { group ->
+            val batches = group.map { Batch(it, orchestrator.getMetadataFile(it)) }
+            try {
+                compactBatchGroup(orchestrator, batches)
+            } finally {
+                synchronized(lockedReadBatches) {
+                    lockedReadBatches.removeAll(batches.toSet())
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the given adjacent batches into the oldest ones, as long as they share the same
+     * metadata and the merged batch doesn't exceed the max items per batch. The oldest batch name
+     * is kept, so that merged events are never kept longer than their original batch would have.
+     * Items are counted from the blocks headers, so that only the merged batches are read.
+     */
+    @WorkerThread
+    private fun compactBatchGroup(orchestrator: FileOrchestrator, batches: List<Batch>) {
+        var target = batches.first()
+        var targetMetadata = readBatchMetadata(target)
+        var targetItemsCount = batchEventsReaderWriter.countEvents(target.file)
+        val mergedEvents = mutableListOf<RawBatchEvent>()
+        val mergedFiles = mutableListOf<File>()
+
+        for (batch in batches.drop(1)) {
+            val metadata = readBatchMetadata(batch)
+            val itemsCount = batchEventsReaderWriter.countEvents(batch.file)
+            val isMergeable = targetItemsCount != null &&
+                itemsCount != null &&
+                hasSameMetadata(metadata, targetMetadata) &&
+                targetItemsCount + mergedEvents.size + itemsCount <= filePersistenceConfig.maxItemsPerBatch
+            if (isMergeable) {
+                mergedEvents.addAll(batchEventsReaderWriter.readDataForCopy(batch.file))
+                mergedFiles.add(batch.file)
+            } else {
+                mergeBatchFiles(orchestrator, target, targetMetadata, targetItemsCount, mergedEvents, mergedFiles)
+                target = batch
+                targetMetadata = metadata
+                targetItemsCount = itemsCount
+                mergedEvents.clear()
+                mergedFiles.clear()
+            }
+        }
+        mergeBatchFiles(orchestrator, target, targetMetadata, targetItemsCount, mergedEvents, mergedFiles)
+    }
+
+    @Suppress("LongParameterList")
+    @WorkerThread
+    private fun mergeBatchFiles(
+        orchestrator: FileOrchestrator,
+        target: Batch,
+        targetMetadata: ByteArray?,
+        targetItemsCount: Int?,
+        events: List<RawBatchEvent>,
+        mergedFiles: List<File>
+    ) {
+        if (mergedFiles.isEmpty()) {
+            return
+        }
+
+        // merged files are only deleted once their events are safely written in the target
+        val targetFile = target.file
+        if (batchEventsReaderWriter.appendData(targetFile, events, null)) {
+            // the target now holds the merged batches, its metadata must describe all of them
+            val metaFile = target.metaFile
+            if (metaFile != null && targetMetadata != null) {
+                batchMetadataReaderWriter.writeData(metaFile, targetMetadata, append = false)
+            }
+            val eventsCount = (targetItemsCount ?: 0) + events.size
+            orchestrator.onFilesCompacted(targetFile, mergedFiles.toList(), eventsCount.toLong())
+        } else {
+            internalLogger.log(
+                InternalLogger.Level.WARN,
+                InternalLogger.Target.MAINTAINER,
+                { WARNING_COMPACTION_FAILED.format(Locale.US, mergedFiles.size, targetFile.path) }
+            )
+        }
+    }
+
+    @WorkerThread
+    private fun readBatchMetadata(batch: Batch): ByteArray? {
+        val metaFile = batch.metaFile
+        return if (metaFile == null || !metaFile.existsSafe(internalLogger)) {
+            null
+        } else {
+            batchMetadataReaderWriter.readData(metaFile)
+        }
+    }
+
+    private fun hasSameMetadata(metadata: ByteArray?, other: ByteArray?): Boolean {
+        return if (metadata == null || other == null) {
+            metadata == other
+        } else {
+            metadata.contentEquals(other)
+        }
+    }
+
     @AnyThread
     private fun resolveOrchestrator(datadogContext: DatadogContext): FileOrchestrator? {
         return when (datadogContext.trackingConsent) {
@@ -200,5 +401,8 @@ internal class ConsentAwareStorage(
 
     companion object {
         internal const val WARNING_DELETE_FAILED = "Unable to delete file: %s"
+        internal const val WARNING_COMPACTION_FAILED = "Unable to merge %d batches into file: %s"
+
+        internal val MIN_COMPACTION_INTERVAL_MS: Long = TimeUnit.MINUTES.toMillis(5)
     }
 }
@@ -0,0 +1,40 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.storage.RawBatchEvent
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileReader
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+
+/**
+ * A [BatchEventsSource] reading the events from a batch file each time they're needed.
+ */
+internal class FileBatchEventsSource(
+    private val file: File,
+    private val fileReader: BatchFileReader
+) : BatchEventsSource {
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun forEachEvent(action: (RawBatchEvent) -> Unit) {
+        fileReader.readEvents(file, action)
+    }
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun forEachEventData(action: (ByteBuffer) -> Unit) {
+        fileReader.readEventsData(file, action)
+    }
+
+    @WorkerThread
+    override fun readAll(): List<RawBatchEvent> {
+        return fileReader.readData(file)
+    }
+}
@@ -14,14 +14,14 @@ import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.persistence.file.FileOrchestrator
 import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
 import com.datadog.android.core.internal.persistence.file.FileReaderWriter
-import com.datadog.android.core.internal.persistence.file.FileWriter
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderWriter
 import com.datadog.android.core.internal.persistence.file.existsSafe
 import java.io.File
 import java.util.Locale
 
 internal class FileEventBatchWriter(
     private val fileOrchestrator: FileOrchestrator,
-    private val eventsWriter: FileWriter<RawBatchEvent>,
+    private val eventsWriter: BatchFileReaderWriter,
     private val metadataReaderWriter: FileReaderWriter,
     private val filePersistenceConfig: FilePersistenceConfig,
     private val batchWriteEventListener: BatchWriteEventListener,
@@ -73,7 +73,7 @@ internal class FileEventBatchWriter(
             true
         } else if (!checkEventSize(event.data.size)) {
             false
-        } else if (eventsWriter.writeData(batchFile, event, true)) {
+        } else if (writeEvent(batchFile, event)) {
             batchWriteEventListener.onWriteEvent(event.data.size.toLong())
             if (batchMetadata?.isNotEmpty() == true && metadataFile != null) {
                 writeBatchMetadata(metadataFile, batchMetadata)
@@ -84,6 +84,16 @@ internal class FileEventBatchWriter(
         }
     }
 
+    @WorkerThread
+    private fun writeEvent(batchFile: File, event: RawBatchEvent): Boolean {
+        val channel = fileOrchestrator.getWritableFileChannel()
+        return if (channel != null) {
+            eventsWriter.appendData(channel, batchFile, event)
+        } else {
+            eventsWriter.writeData(batchFile, event, true)
+        }
+    }
+
     private fun checkEventSize(eventSize: Int): Boolean {
         if (eventSize > filePersistenceConfig.maxItemSize) {
             internalLogger.log(
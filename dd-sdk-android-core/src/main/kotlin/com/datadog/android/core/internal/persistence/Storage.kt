@@ -34,6 +34,31 @@ internal interface Storage {
     @WorkerThread
     fun readNextBatch(): BatchData?
 
+    /**
+     * Utility to read the next batch, synchronously, only if it can be merged with a batch
+     * already read: its events are not loaded when the batch is too large or when its metadata
+     * differ, and the batch stays readable.
+     * @param metadata the metadata of the batch to merge with
+     * @param maxSize the maximum size of the batch on disk, in bytes
+     * @return the next batch, or null if there's none or if it can't be merged
+     */
+    @WorkerThread
+    fun readNextMergeableBatch(metadata: ByteArray?, maxSize: Long): BatchData?
+
+    /**
+     * Utility to read a batch, synchronously, without loading its events in memory: events are
+     * only read when the returned batch is consumed.
+     */
+    @WorkerThread
+    fun readNextStreamedBatch(): StreamedBatchData?
+
+    /**
+     * Utility to get the creation timestamp of the oldest batch waiting to be read, synchronously.
+     * @return the timestamp (in ms), or null if unknown or if there is no batch
+     */
+    @WorkerThread
+    fun getOldestBatchTimestamp(): Long?
+
     /**
      * Utility to update the state of a batch, synchronously.
      * @param batchId the id of the Batch to confirm
@@ -48,6 +73,13 @@ internal interface Storage {
         deleteBatch: Boolean
     )
 
+    /**
+     * Merges adjacent small batches waiting to be read, so that they can be uploaded with fewer
+     * requests, asynchronously.
+     */
+    @AnyThread
+    fun compactBatches()
+
     /**
      * Removes all the files backed by this storage, synchronously.
      */
@@ -0,0 +1,71 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.storage.RawBatchEvent
+import java.io.IOException
+import java.nio.ByteBuffer
+
+/**
+ * A batch whose events are only read when they are consumed, instead of being loaded in memory
+ * all at once like in [BatchData].
+ */
+internal class StreamedBatchData(
+    val id: BatchId,
+    val metadata: ByteArray?,
+    private val eventsSource: BatchEventsSource
+) {
+
+    /**
+     * The size of the events data read during the last complete read of the batch.
+     */
+    @Volatile
+    var eventsSize: Long = 0L
+        private set
+
+    /**
+     * Runs the given action on every event of the batch, in order.
+     * @throws IOException if the events can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun forEachEvent(action: (RawBatchEvent) -> Unit) {
+        var size = 0L
+        eventsSource.forEachEvent {
+            size += it.data.size
+            action(it)
+        }
+        eventsSize = size
+    }
+
+    /**
+     * Runs the given action on the data of every event of the batch, in order, without copying it
+     * when possible. The buffer is only valid during the call.
+     * @throws IOException if the events can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun forEachEventData(action: (ByteBuffer) -> Unit) {
+        var size = 0L
+        eventsSource.forEachEventData {
+            size += it.remaining()
+            action(it)
+        }
+        eventsSize = size
+    }
+
+    /**
+     * @return all the events of the batch, loaded in memory
+     */
+    @WorkerThread
+    fun readEvents(): List<RawBatchEvent> {
+        return eventsSource.readAll().also { events ->
+            eventsSize = events.sumOf { it.data.size }.toLong()
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.charset.Charset
  * - isDir()
  * - listFiles(…)
  * - length()
+ * - lastModified()
  * The following set of extension make sure that every call to those methods
  * is safeguarded to avoid crashing the customer's app.
  */
@@ -141,6 +142,13 @@ fun File.lengthSafe(internalLogger: InternalLogger): Long {
     }
 }
 
+internal fun File.lastModifiedSafe(internalLogger: InternalLogger): Long {
+    return safeCall(default = 0L, internalLogger) {
+        @Suppress("UnsafeThirdPartyFunctionCall")
+        lastModified()
+    }
+}
+
 internal fun File.mkdirsSafe(internalLogger: InternalLogger): Boolean {
     return safeCall(default = false, internalLogger) {
         @Suppress("UnsafeThirdPartyFunctionCall")
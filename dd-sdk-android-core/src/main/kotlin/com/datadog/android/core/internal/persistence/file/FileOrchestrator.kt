@@ -6,7 +6,10 @@
 
 package com.datadog.android.core.internal.persistence.file
 
+import androidx.annotation.AnyThread
 import androidx.annotation.WorkerThread
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileChannel
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileSlots
 import com.datadog.tools.annotation.NoOpImplementation
 import java.io.File
 
@@ -21,11 +24,12 @@ import java.io.File
 internal interface FileOrchestrator {
 
     /**
+     * @param eventsCount the number of events about to be written in the returned file
      * @return a File with enough space to write data, or null if no space is available
      * or the disk can't be written to.
      */
     @WorkerThread
-    fun getWritableFile(): File?
+    fun getWritableFile(eventsCount: Int = 1): File?
 
     /**
      * @param excludeFiles a set of files to exclude from the readable files
@@ -60,8 +64,47 @@ internal interface FileOrchestrator {
     @WorkerThread
     fun getMetadataFile(file: File): File?
 
+    /**
+     * @param excludeFiles a set of files which must not be compacted (e.g.: files being read)
+     * @return groups of adjacent closed files, each small enough to be merged into a single
+     * file, oldest first.
+     */
+    @WorkerThread
+    fun getCompactableFileGroups(excludeFiles: Set<File>): List<List<File>>
+
+    /**
+     * Notifies that the content of the given files was appended to the target file, so that
+     * they (and their metadata) can be deleted.
+     * @param targetFile the file the content was merged into
+     * @param compactedFiles the files which content was merged
+     * @param eventsCount the number of events in the target file, once merged
+     */
+    @WorkerThread
+    fun onFilesCompacted(targetFile: File, compactedFiles: List<File>, eventsCount: Long)
+
     /**
      * @return the number of pending files in the orchestrator, after decrementing by 1.
      */
     fun decrementAndGetPendingFilesCount(): Int
+
+    /**
+     * @return the channel kept open on the current writable file, or null if each write
+     * should open the file on its own.
+     */
+    @WorkerThread
+    fun getWritableFileChannel(): BatchFileChannel?
+
+    /**
+     * Syncs to the disk and closes the channel kept open on the current writable file, if any.
+     */
+    @AnyThread
+    fun closeWritableFileChannel()
+
+    /**
+     * @param file a file returned by [getWritableFile]
+     * @return the updatable slots written in the given file, or null if the file is not the
+     * current writable file, or if this orchestrator doesn't support updatable slots.
+     */
+    @WorkerThread
+    fun getUpdatableSlots(file: File): BatchFileSlots?
 }
@@ -16,7 +16,8 @@ internal data class FilePersistenceConfig(
     val maxItemsPerBatch: Int = MAX_ITEMS_PER_BATCH,
     val oldFileThreshold: Long = OLD_FILE_THRESHOLD,
     val maxDiskSpace: Long = MAX_DISK_SPACE,
-    val cleanupFrequencyThreshold: Long = CLEANUP_FREQUENCY_THRESHOLD_MS
+    val cleanupFrequencyThreshold: Long = CLEANUP_FREQUENCY_THRESHOLD_MS,
+    val persistentFileChannel: Boolean = false
 ) {
     companion object {
         internal const val MAX_BATCH_SIZE: Long = 4L * 1024 * 1024 // 4 MB
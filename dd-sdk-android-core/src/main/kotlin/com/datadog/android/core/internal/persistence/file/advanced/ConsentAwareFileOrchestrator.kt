@@ -11,6 +11,8 @@ import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.internal.persistence.file.FileOrchestrator
 import com.datadog.android.core.internal.persistence.file.NoOpFileOrchestrator
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileChannel
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileSlots
 import com.datadog.android.core.internal.privacy.ConsentProvider
 import com.datadog.android.core.internal.utils.executeSafe
 import com.datadog.android.privacy.TrackingConsent
@@ -39,8 +41,8 @@ internal open class ConsentAwareFileOrchestrator(
     // region FileOrchestrator
 
     @WorkerThread
-    override fun getWritableFile(): File? {
-        return delegateOrchestrator.getWritableFile()
+    override fun getWritableFile(eventsCount: Int): File? {
+        return delegateOrchestrator.getWritableFile(eventsCount)
     }
 
     @WorkerThread
@@ -68,10 +70,43 @@ internal open class ConsentAwareFileOrchestrator(
         return delegateOrchestrator.getMetadataFile(file)
     }
 
+    @WorkerThread
+    override fun getCompactableFileGroups(excludeFiles: Set<File>): List<List<File>> {
+        // each orchestrator groups its own files, so granted and pending files are never mixed
+        return grantedOrchestrator.getCompactableFileGroups(excludeFiles) +
+            pendingOrchestrator.getCompactableFileGroups(excludeFiles)
+    }
+
+    @WorkerThread
+    override fun onFilesCompacted(targetFile: File, compactedFiles: List<File>, eventsCount: Long) {
+        val orchestrator = if (targetFile.parentFile == pendingOrchestrator.getRootDir()) {
+            pendingOrchestrator
+        } else {
+            grantedOrchestrator
+        }
+        orchestrator.onFilesCompacted(targetFile, compactedFiles, eventsCount)
+    }
+
     override fun decrementAndGetPendingFilesCount(): Int {
         return delegateOrchestrator.decrementAndGetPendingFilesCount()
     }
 
+    @WorkerThread
+    override fun getWritableFileChannel(): BatchFileChannel? {
+        return delegateOrchestrator.getWritableFileChannel()
+    }
+
+    @AnyThread
+    override fun closeWritableFileChannel() {
+        pendingOrchestrator.closeWritableFileChannel()
+        grantedOrchestrator.closeWritableFileChannel()
+    }
+
+    @WorkerThread
+    override fun getUpdatableSlots(file: File): BatchFileSlots? {
+        return delegateOrchestrator.getUpdatableSlots(file)
+    }
+
     // endregion
 
     // region TrackingConsentProviderCallback
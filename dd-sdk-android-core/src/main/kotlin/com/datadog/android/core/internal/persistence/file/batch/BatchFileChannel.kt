@@ -0,0 +1,154 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import androidx.annotation.AnyThread
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.core.internal.utils.use
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.Locale
+
+/**
+ * Keeps a [FileChannel] open on the batch file currently being written, so that consecutive
+ * events can be appended without opening and closing the file for each of them.
+ *
+ * The channel is owned by a [BatchFileOrchestrator], which closes it when the batch is rotated,
+ * handed over for reading, deleted or flushed. The file is still locked for each append, to
+ * stay safe with writers living in other processes.
+ */
+internal class BatchFileChannel(
+    private val internalLogger: InternalLogger
+) {
+
+    private var currentFile: File? = null
+    private var outputStream: FileOutputStream? = null
+    private var channel: FileChannel? = null
+    private var buffer: ByteBuffer? = null
+
+    /**
+     * Appends [size] bytes encoded by [encoder] at the end of the given file, opening a new
+     * channel if the file is not the one currently held open.
+     */
+    @WorkerThread
+    @Synchronized
+    @Throws(IOException::class)
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block by the caller
+    fun append(file: File, size: Int, encoder: (ByteBuffer) -> Unit) {
+        val channel = resolveChannel(file)
+        val buffer = resolveBuffer(size)
+        encoder(buffer)
+        buffer.flip()
+        channel.lock().use {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer)
+            }
+        }
+    }
+
+    /**
+     * @return true if this channel is currently open on the given file.
+     */
+    @AnyThread
+    @Synchronized
+    fun isOpenOn(file: File): Boolean {
+        return currentFile == file
+    }
+
+    /**
+     * Syncs the content written so far to the disk and closes the channel, if any.
+     * @param file if not null, the channel is only closed if it is open on this file.
+     */
+    @AnyThread
+    @Synchronized
+    fun close(file: File? = null) {
+        val openFile = currentFile ?: return
+        if (file != null && file != openFile) return
+
+        try {
+            @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+            channel?.force(false)
+        } catch (e: IOException) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                InternalLogger.Target.MAINTAINER,
+                { ERROR_SYNC.format(Locale.US, openFile.path) },
+                e
+            )
+        } finally {
+            closeStream(openFile)
+        }
+    }
+
+    // region Internal
+
+    @Throws(IOException::class)
+    private fun resolveChannel(file: File): FileChannel {
+        val openChannel = channel
+        if (openChannel != null && currentFile == file && openChannel.isOpen) {
+            return openChannel
+        }
+
+        close()
+        @Suppress("UnsafeThirdPartyFunctionCall") // method declares throwing IOException
+        val newStream = FileOutputStream(file, true)
+        val newChannel = newStream.channel
+        outputStream = newStream
+        channel = newChannel
+        currentFile = file
+        return newChannel
+    }
+
+    private fun resolveBuffer(size: Int): ByteBuffer {
+        val reusableBuffer = buffer
+        return if (reusableBuffer != null && reusableBuffer.capacity() >= size) {
+            reusableBuffer.clear()
+            reusableBuffer
+        } else if (size > MAX_REUSABLE_BUFFER_SIZE_BYTES) {
+            // don't keep big direct buffers around, those are rare (big items only)
+            @Suppress("UnsafeThirdPartyFunctionCall") // allocation size is always positive
+            ByteBuffer.allocate(size)
+        } else {
+            @Suppress("UnsafeThirdPartyFunctionCall") // allocation size is always positive
+            ByteBuffer.allocateDirect(maxOf(size, INITIAL_BUFFER_SIZE_BYTES)).also {
+                buffer = it
+            }
+        }
+    }
+
+    private fun closeStream(file: File) {
+        try {
+            @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+            outputStream?.close()
+        } catch (e: IOException) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                InternalLogger.Target.MAINTAINER,
+                { ERROR_CLOSE.format(Locale.US, file.path) },
+                e
+            )
+        } finally {
+            outputStream = null
+            channel = null
+            currentFile = null
+        }
+    }
+
+    // endregion
+
+    companion object {
+        internal const val INITIAL_BUFFER_SIZE_BYTES: Int = 8 * 1024 // 8 KB
+        internal const val MAX_REUSABLE_BUFFER_SIZE_BYTES: Int = 64 * 1024 // 64 KB
+
+        internal const val ERROR_SYNC = "Unable to sync batch file to disk: %s"
+        internal const val ERROR_CLOSE = "Unable to close batch file channel: %s"
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.core.internal.persistence.file.lastModifiedSafe
+import com.datadog.android.core.internal.persistence.file.lengthSafe
+import com.datadog.android.core.internal.persistence.file.listFilesSafe
+import java.io.File
+import java.io.FileFilter
+import java.util.TreeMap
+
+/**
+ * In-memory index of the batch files living in a folder, sorted by name (i.e.: by creation
+ * timestamp), along with their size once known.
+ *
+ * Batch files are also created, moved and deleted by other components (writers, file movers,
+ * data migrators, other processes…), so the index can't be the only source of truth. Instead of
+ * listing the folder on every lookup, it compares the folder's last modification time with the
+ * one observed when it was last built, and only lists the folder again when it changed. Because
+ * some file systems have a coarse timestamp resolution, the index is also rebuilt as long as the
+ * folder was modified too close to the last listing to tell two changes apart.
+ *
+ * Since a batch file is only appended to while it's the latest one, the size of any other file
+ * is cached the first time it's needed.
+ */
+internal class BatchFileIndex(
+    private val rootDir: File,
+    private val fileFilter: FileFilter,
+    private val internalLogger: InternalLogger,
+    private val wallClock: () -> Long = { System.currentTimeMillis() }
+) {
+
+    // note: since it is using File#compareTo, lexicographical sorting will be used, meaning "10" comes before "9".
+    // but for our needs it is fine, because the moment when Unix timestamp adds one more digit will be in 2286.
+    private val entries = TreeMap<File, Long?>()
+
+    private var isBuilt = false
+    private var lastBuildWallTime: Long = 0L
+    private var lastKnownDirModified: Long = 0L
+
+    /**
+     * @return all the known batch files, sorted by name
+     */
+    @WorkerThread
+    @Synchronized
+    fun getFiles(): List<File> {
+        refreshIfNeeded()
+        return entries.keys.toList()
+    }
+
+    /**
+     * @return the most recent known batch file, if any
+     */
+    @WorkerThread
+    @Synchronized
+    fun getLatestFile(): File? {
+        refreshIfNeeded()
+        return if (entries.isEmpty()) null else entries.lastKey()
+    }
+
+    /**
+     * @return the size of the given file; only the latest file size is read from the disk
+     * every time, other files' sizes are read once and cached.
+     */
+    @WorkerThread
+    @Synchronized
+    fun getFileSize(file: File): Long {
+        val isLatestFile = entries.isNotEmpty() && entries.lastKey() == file
+        val knownSize = entries[file]
+        if (knownSize != null && !isLatestFile) {
+            return knownSize
+        }
+
+        val size = file.lengthSafe(internalLogger)
+        if (entries.containsKey(file) && !isLatestFile) {
+            entries[file] = size
+        }
+        return size
+    }
+
+    /**
+     * Registers a file about to be created by a writer.
+     */
+    @Synchronized
+    fun onFileCreated(file: File) {
+        entries[file] = null
+    }
+
+    /**
+     * Forgets the cached size of a file which was appended to while not being the latest one
+     * (e.g.: when merging batches).
+     */
+    @Synchronized
+    fun onFileUpdated(file: File) {
+        if (entries.containsKey(file)) {
+            entries[file] = null
+        }
+    }
+
+    /**
+     * Unregisters a deleted file.
+     */
+    @Synchronized
+    fun onFileDeleted(file: File) {
+        entries.remove(file)
+    }
+
+    // region Internal
+
+    private fun refreshIfNeeded() {
+        val dirModified = rootDir.lastModifiedSafe(internalLogger)
+        val isStale = !isBuilt || dirModified != lastKnownDirModified
+        val isRacy = lastKnownDirModified >= lastBuildWallTime - RACY_MODIFICATION_WINDOW_MS
+        if (isStale || isRacy) {
+            rebuild(dirModified)
+        }
+    }
+
+    private fun rebuild(dirModified: Long) {
+        val files = rootDir.listFilesSafe(fileFilter, internalLogger).orEmpty()
+        val knownSizes = HashMap(entries)
+        entries.clear()
+        files.forEach { entries[it] = knownSizes[it] }
+        isBuilt = true
+        lastKnownDirModified = dirModified
+        lastBuildWallTime = wallClock()
+    }
+
+    // endregion
+
+    companion object {
+        // covers file systems with a timestamp resolution up to a second, with some margin
+        internal const val RACY_MODIFICATION_WINDOW_MS = 2000L
+    }
+}
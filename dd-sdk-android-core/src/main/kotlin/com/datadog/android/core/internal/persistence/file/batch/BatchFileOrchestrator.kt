@@ -6,6 +6,7 @@
 
 package com.datadog.android.core.internal.persistence.file.batch
 
+import androidx.annotation.AnyThread
 import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.internal.metrics.BatchClosedMetadata
@@ -16,8 +17,7 @@ import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
 import com.datadog.android.core.internal.persistence.file.canWriteSafe
 import com.datadog.android.core.internal.persistence.file.deleteSafe
 import com.datadog.android.core.internal.persistence.file.existsSafe
-import com.datadog.android.core.internal.persistence.file.lengthSafe
-import com.datadog.android.core.internal.persistence.file.listFilesSafe
+import com.datadog.android.core.internal.persistence.file.lastModifiedSafe
 import com.datadog.android.core.internal.persistence.file.mkdirsSafe
 import com.datadog.android.internal.time.TimeProvider
 import java.io.File
@@ -26,8 +26,7 @@ import java.util.Locale
 import java.util.concurrent.atomic.AtomicInteger
 import kotlin.math.roundToLong
 
-// TODO RUM-438 Improve this class: need to make it thread-safe and optimize work with file
-//  system in order to reduce the number of syscalls (which are expensive) for files already seen
+// TODO RUM-438 Improve this class: need to make it thread-safe
 @Suppress("TooManyFunctions")
 internal class BatchFileOrchestrator(
     private val rootDir: File,
@@ -40,6 +39,9 @@ internal class BatchFileOrchestrator(
 
     private val fileFilter = BatchFileFilter()
 
+    // avoids listing the folder and reading the files' size on every lookup
+    private val fileIndex = BatchFileIndex(rootDir, fileFilter, internalLogger)
+
     // Offset the recent threshold for read and write to avoid conflicts
     // Arbitrary offset as ±5% of the threshold
     @Suppress("UnsafeThirdPartyFunctionCall") // rounded Double isn't NaN
@@ -54,22 +56,32 @@ internal class BatchFileOrchestrator(
     private var lastFileAccessTimestamp: Long = 0L
     private var lastCleanupTimestamp: Long = 0L
 
+    // updatable slots written in the last known file
+    private var writableFileSlots: BatchFileSlots? = null
+
+    // channel kept open on the last known file, only used if enabled in the config
+    private val writableFileChannel: BatchFileChannel? = if (config.persistentFileChannel) {
+        BatchFileChannel(internalLogger)
+    } else {
+        null
+    }
+
     // region FileOrchestrator
 
     @WorkerThread
-    override fun getWritableFile(): File? {
+    override fun getWritableFile(eventsCount: Int): File? {
         if (!isRootDirValid()) {
             return null
         }
 
         if (canDoCleanup()) {
-            var files = listBatchFiles()
+            var files = fileIndex.getFiles()
             files = deleteObsoleteFiles(files)
             freeSpaceIfNeeded(files)
             lastCleanupTimestamp = timeProvider.getDeviceTimestampMillis()
         }
 
-        return getReusableWritableFile() ?: createNewFile()
+        return getReusableWritableFile(eventsCount) ?: createNewFile(eventsCount)
     }
 
     @WorkerThread
@@ -78,15 +90,19 @@ internal class BatchFileOrchestrator(
             return null
         }
 
-        val files = listSortedBatchFiles().let {
+        val files = fileIndex.getFiles().let {
             deleteObsoleteFiles(it)
         }
         lastCleanupTimestamp = timeProvider.getDeviceTimestampMillis()
         pendingFiles.set(files.count())
 
-        return files.firstOrNull {
+        val readableFile = files.firstOrNull {
             (it !in excludeFiles) && !isFileRecent(it, recentReadDelayMs)
         }
+        if (readableFile != null) {
+            writableFileChannel?.close(readableFile)
+        }
+        return readableFile
     }
 
     @WorkerThread
@@ -95,7 +111,7 @@ internal class BatchFileOrchestrator(
             return emptyList()
         }
 
-        return listSortedBatchFiles()
+        return fileIndex.getFiles()
     }
 
     @WorkerThread
@@ -138,14 +154,104 @@ internal class BatchFileOrchestrator(
         }
     }
 
-    // endregion
+    @WorkerThread
+    override fun getCompactableFileGroups(excludeFiles: Set<File>): List<List<File>> {
+        if (!isRootDirValid()) {
+            return emptyList()
+        }
 
-    // region Internal
+        @Suppress("UnsafeThirdPartyFunctionCall") // rounded Double isn't NaN
+        val maxSmallFileSize = (config.maxBatchSize * SMALL_FILE_RATIO).roundToLong()
+        val groups = mutableListOf<List<File>>()
+        var currentGroup = mutableListOf<File>()
+        var currentGroupSize = 0L
+        fileIndex.getFiles().forEach { file ->
+            // the last known file is excluded as its closing metric wasn't sent yet
+            val isCompactable = file !in excludeFiles &&
+                file != previousFile &&
+                !isFileRecent(file, recentReadDelayMs)
+            val size = if (isCompactable) fileIndex.getFileSize(file) else 0L
+            val isSmall = isCompactable && size < maxSmallFileSize
+            if (!isSmall || currentGroupSize + size > config.maxBatchSize) {
+                if (currentGroup.size > 1) {
+                    groups.add(currentGroup)
+                }
+                currentGroup = mutableListOf()
+                currentGroupSize = 0L
+            }
+            if (isSmall) {
+                currentGroup.add(file)
+                currentGroupSize += size
+            }
+        }
+        if (currentGroup.size > 1) {
+            groups.add(currentGroup)
+        }
+        return groups
+    }
+
+    @WorkerThread
+    override fun onFilesCompacted(targetFile: File, compactedFiles: List<File>, eventsCount: Long) {
+        // the merged files were already closed, the last one written to is the last use of the target
+        val lastTimeWasUsedInMs = compactedFiles.maxOfOrNull { it.lastModifiedSafe(internalLogger) }
+            ?: timeProvider.getDeviceTimestampMillis()
+        fileIndex.onFileUpdated(targetFile)
+        compactedFiles.forEach {
+            writableFileChannel?.close(it)
+            if (it.deleteSafe(internalLogger)) {
+                fileIndex.onFileDeleted(it)
+                metricsDispatcher.sendBatchDeletedMetric(
+                    batchFile = it,
+                    removalReason = RemovalReason.Compacted,
+                    numPendingBatches = pendingFiles.decrementAndGet()
+                )
+            }
+            if (it.metadata.existsSafe(internalLogger)) {
+                it.metadata.deleteSafe(internalLogger)
+            }
+        }
+        // the target was reported when it was closed, its size and events count changed since
+        metricsDispatcher.sendBatchClosedMetric(
+            targetFile,
+            BatchClosedMetadata(
+                lastTimeWasUsedInMs = lastTimeWasUsedInMs,
+                eventsCount = eventsCount
+            )
+        )
+    }
 
     override fun decrementAndGetPendingFilesCount(): Int {
         return pendingFiles.decrementAndGet()
     }
 
+    @WorkerThread
+    override fun getWritableFileChannel(): BatchFileChannel? {
+        return writableFileChannel
+    }
+
+    @AnyThread
+    override fun closeWritableFileChannel() {
+        writableFileChannel?.close()
+    }
+
+    @WorkerThread
+    override fun getUpdatableSlots(file: File): BatchFileSlots? {
+        if (file != previousFile) {
+            return null
+        }
+
+        val slots = writableFileSlots
+        return if (slots != null && slots.file == file) {
+            slots
+        } else {
+            BatchFileSlots(file).also { writableFileSlots = it }
+        }
+    }
+
+    // endregion
+
+    // region Internal
+
     @Suppress("ReturnCount")
     private fun isRootDirValid(): Boolean {
         if (rootDir.existsSafe(internalLogger)) {
@@ -199,11 +305,12 @@ internal class BatchFileOrchestrator(
         }
     }
 
-    private fun createNewFile(): File {
+    private fun createNewFile(eventsCount: Int): File {
         val newFileName = timeProvider.getDeviceTimestampMillis().toString()
         val newFile = File(rootDir, newFileName)
         val closedFile = previousFile
         val closedFileLastAccessTimestamp = lastFileAccessTimestamp
+        writableFileChannel?.close()
         if (closedFile != null) {
             metricsDispatcher.sendBatchClosedMetric(
                 closedFile,
@@ -213,17 +320,18 @@ internal class BatchFileOrchestrator(
                 )
             )
         }
+        fileIndex.onFileCreated(newFile)
+        writableFileSlots = null
         previousFile = newFile
-        previousFileItemCount = 1
+        previousFileItemCount = eventsCount.toLong()
         lastFileAccessTimestamp = timeProvider.getDeviceTimestampMillis()
         pendingFiles.incrementAndGet()
         return newFile
     }
 
     @Suppress("ReturnCount")
-    private fun getReusableWritableFile(): File? {
-        val files = listBatchFiles()
-        val lastFile = files.latestBatchFile ?: return null
+    private fun getReusableWritableFile(eventsCount: Int): File? {
+        val lastFile = fileIndex.getLatestFile() ?: return null
 
         val lastKnownFile = previousFile
         val lastKnownFileItemCount = previousFileItemCount
@@ -237,11 +345,11 @@ internal class BatchFileOrchestrator(
         }
 
         val isRecentEnough = isFileRecent(lastFile, recentWriteDelayMs)
-        val hasRoomForMore = lastFile.lengthSafe(internalLogger) < config.maxBatchSize
-        val hasSlotForMore = (lastKnownFileItemCount < config.maxItemsPerBatch)
+        val hasRoomForMore = fileIndex.getFileSize(lastFile) < config.maxBatchSize
+        val hasSlotForMore = (lastKnownFileItemCount + eventsCount <= config.maxItemsPerBatch)
 
         return if (isRecentEnough && hasRoomForMore && hasSlotForMore) {
-            previousFileItemCount = lastKnownFileItemCount + 1
+            previousFileItemCount = lastKnownFileItemCount + eventsCount
             lastFileAccessTimestamp = timeProvider.getDeviceTimestampMillis()
             lastFile
         } else {
@@ -261,7 +369,9 @@ internal class BatchFileOrchestrator(
             .mapNotNull {
                 val isOldFile = (it.name.toLongOrNull() ?: 0) < threshold
                 if (isOldFile) {
+                    writableFileChannel?.close(it)
                     if (it.deleteSafe(internalLogger)) {
+                        fileIndex.onFileDeleted(it)
                         metricsDispatcher.sendBatchDeletedMetric(
                             batchFile = it,
                             removalReason = RemovalReason.Obsolete,
@@ -279,7 +389,7 @@ internal class BatchFileOrchestrator(
     }
 
     private fun freeSpaceIfNeeded(files: List<File>) {
-        val sizeOnDisk = files.sumOf { it.lengthSafe(internalLogger) }
+        val sizeOnDisk = files.sumOf { fileIndex.getFileSize(it) }
         val maxDiskSpace = config.maxDiskSpace
         val sizeToFree = sizeOnDisk - maxDiskSpace
         if (sizeToFree > 0) {
@@ -288,7 +398,7 @@ internal class BatchFileOrchestrator(
                 listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
                 { ERROR_DISK_FULL.format(Locale.US, sizeOnDisk, maxDiskSpace, sizeToFree) }
             )
-            files.sorted().fold(sizeToFree) { remainingSizeToFree, file ->
+            files.fold(sizeToFree) { remainingSizeToFree, file ->
                 if (remainingSizeToFree > 0) {
                     val deletedFileSize = deleteFile(file, true)
                     val deletedMetaFileSize = deleteFile(file.metadata)
@@ -303,9 +413,11 @@ internal class BatchFileOrchestrator(
     private fun deleteFile(file: File, sendMetric: Boolean = false): Long {
         if (!file.existsSafe(internalLogger)) return 0
 
-        val size = file.lengthSafe(internalLogger)
+        writableFileChannel?.close(file)
+        val size = fileIndex.getFileSize(file)
         val wasDeleted = file.deleteSafe(internalLogger)
         return if (wasDeleted) {
+            fileIndex.onFileDeleted(file)
             if (sendMetric) {
                 metricsDispatcher.sendBatchDeletedMetric(file, RemovalReason.Purged, pendingFiles.decrementAndGet())
             }
@@ -315,16 +427,6 @@ internal class BatchFileOrchestrator(
         }
     }
 
-    private fun listBatchFiles(): List<File> {
-        return rootDir.listFilesSafe(fileFilter, internalLogger).orEmpty().toList()
-    }
-
-    private fun listSortedBatchFiles(): List<File> {
-        // note: since it is using File#compareTo, lexicographical sorting will be used, meaning "10" comes before "9".
-        // but for our needs it is fine, because the moment when Unix timestamp adds one more digit will be in 2286.
-        return listBatchFiles().sorted()
-    }
-
     private fun canDoCleanup(): Boolean {
         return timeProvider.getDeviceTimestampMillis() - lastCleanupTimestamp > config.cleanupFrequencyThreshold
     }
@@ -335,9 +437,6 @@ internal class BatchFileOrchestrator(
     private val File.isBatchFile: Boolean
         get() = name.toLongOrNull() != null
 
-    private val List<File>.latestBatchFile: File?
-        get() = maxOrNull()
-
     // endregion
 
     // region FileFilter
@@ -358,6 +457,9 @@ internal class BatchFileOrchestrator(
         const val DECREASE_PERCENT = 0.95
         const val INCREASE_PERCENT = 1.05
 
+        // files bigger than this ratio of the max batch size are not worth merging
+        internal const val SMALL_FILE_RATIO = 0.5
+
         internal const val ERROR_ROOT_NOT_WRITABLE = "The provided root dir is not writable: %s"
         internal const val ERROR_ROOT_NOT_DIR = "The provided root file is not a directory: %s"
         internal const val ERROR_CANT_CREATE_ROOT = "The provided root dir can't be created: %s"
@@ -9,6 +9,8 @@ package com.datadog.android.core.internal.persistence.file.batch
 import androidx.annotation.WorkerThread
 import com.datadog.android.api.storage.RawBatchEvent
 import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
 
 internal interface BatchFileReader {
 
@@ -21,4 +23,33 @@ internal interface BatchFileReader {
     fun readData(
         file: File
     ): List<RawBatchEvent>
+
+    /**
+     * Reads data from the given file one event at a time, without keeping the whole content of
+     * the file in memory.
+     *  @param file the file to read from
+     *  @param action the action to run on each event read, in order
+     *  @throws IOException if the file can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun readEvents(
+        file: File,
+        action: (RawBatchEvent) -> Unit
+    )
+
+    /**
+     * Reads the data of the events in the given file one at a time, as read-only views on the
+     * file content whenever possible, to avoid copying the events on the heap.
+     *  @param file the file to read from
+     *  @param action the action to run on the data of each event read, in order. The buffer is
+     *  only valid during the call, and must be copied if it needs to be kept.
+     *  @throws IOException if the file can't be read
+     */
+    @WorkerThread
+    @Throws(IOException::class)
+    fun readEventsData(
+        file: File,
+        action: (ByteBuffer) -> Unit
+    )
 }
@@ -6,13 +6,92 @@
 
 package com.datadog.android.core.internal.persistence.file.batch
 
+import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.persistence.file.FileWriter
 import com.datadog.android.security.Encryption
+import java.io.File
 
 internal interface BatchFileReaderWriter : FileWriter<RawBatchEvent>, BatchFileReader {
 
+    /**
+     * Appends data as a [RawBatchEvent] at the end of a file, through a channel kept open
+     * between consecutive writes.
+     * @param channel the channel to write with
+     * @param file the file to write to
+     * @param data the data to write
+     * @return whether the write operation was successful
+     */
+    @WorkerThread
+    fun appendData(
+        channel: BatchFileChannel,
+        file: File,
+        data: RawBatchEvent
+    ): Boolean
+
+    /**
+     * Appends several [RawBatchEvent] at the end of a file with a single write operation.
+     * @param file the file to write to
+     * @param data the events to write, in order
+     * @param channel the channel kept open on the file, or null to open the file for this
+     * write only
+     * @return whether the write operation was successful
+     */
+    @WorkerThread
+    fun appendData(
+        file: File,
+        data: List<RawBatchEvent>,
+        channel: BatchFileChannel?
+    ): Boolean
+
+    /**
+     * Writes data as a [RawBatchEvent] in the updatable slot identified by [key], replacing the
+     * event previously written in that slot (if any). The slot is overwritten in place if the
+     * new event fits in it, otherwise a bigger slot is appended at the end of the file, and the
+     * previous one is left with the previous version of the event.
+     * @param file the file to write to
+     * @param slots the updatable slots already written in the file
+     * @param key the key identifying the slot
+     * @param data the data to write
+     * @return whether the write operation was successful
+     */
+    @WorkerThread
+    fun writeSlot(
+        file: File,
+        slots: BatchFileSlots,
+        key: String,
+        data: RawBatchEvent
+    ): Boolean
+
+    /**
+     * @param slot an updatable slot written with [writeSlot]
+     * @param data the data to write
+     * @return whether [writeSlot] would replace the event held in the slot in place
+     */
+    fun fitsSlot(
+        slot: BatchFileSlots.Slot,
+        data: RawBatchEvent
+    ): Boolean
+
+    /**
+     * Reads the events of a file to copy them into another file. Unlike [readData], the padding
+     * of the updatable slots (see [writeSlot]) is dropped, as the copies are never updated in place.
+     * @param file the file to read
+     * @return the events of the file, or an empty list if the file can't be read
+     */
+    @WorkerThread
+    fun readDataForCopy(file: File): List<RawBatchEvent>
+
+    /**
+     * Counts the events written in a file from the headers of its blocks, without reading the
+     * events themselves.
+     * @param file the file to read
+     * @return the number of events in the file, or null if the file can't be read
+     */
+    @WorkerThread
+    fun countEvents(file: File): Int?
+
     companion object {
         /**
          * Creates either plain [PlainBatchFileReaderWriter] or [PlainBatchFileReaderWriter] wrapped in
@@ -0,0 +1,52 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import java.io.File
+
+/**
+ * Keeps track of the updatable slots written in a batch file while it's being written.
+ *
+ * A slot is a region of the file holding the latest version of an event identified by a key,
+ * followed by some padding so that later (and usually bigger) versions can overwrite it in place.
+ * Slots are only tracked in memory, which is fine as a batch file stops being written long before
+ * it can be read.
+ *
+ * @param file the batch file the slots are written in
+ */
+internal class BatchFileSlots(
+    val file: File
+) {
+
+    private val slotsByKey = mutableMapOf<String, Slot>()
+
+    /**
+     * @return the slot holding the event with the given key, or null if there's none.
+     */
+    @Synchronized
+    operator fun get(key: String): Slot? {
+        return slotsByKey[key]
+    }
+
+    /**
+     * Registers the slot holding the event with the given key.
+     */
+    @Synchronized
+    operator fun set(key: String, slot: Slot) {
+        slotsByKey[key] = slot
+    }
+
+    /**
+     * A slot in a batch file.
+     * @param offset the position of the slot in the file
+     * @param capacity the size of the slot in bytes
+     */
+    internal data class Slot(
+        val offset: Long,
+        val capacity: Int
+    )
+}
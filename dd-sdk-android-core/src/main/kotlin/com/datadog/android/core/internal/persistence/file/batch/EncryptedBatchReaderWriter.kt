@@ -11,6 +11,8 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.security.Encryption
 import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
 
 internal class EncryptedBatchReaderWriter(
     internal val encryption: Encryption,
@@ -24,19 +26,7 @@ internal class EncryptedBatchReaderWriter(
         data: RawBatchEvent,
         append: Boolean
     ): Boolean {
-        val encryptedRawBatchEvent = RawBatchEvent(
-            data = encryption.encrypt(data.data),
-            metadata = encryption.encrypt(data.metadata)
-        )
-
-        if (data.data.isNotEmpty() && encryptedRawBatchEvent.data.isEmpty()) {
-            internalLogger.log(
-                InternalLogger.Level.ERROR,
-                InternalLogger.Target.USER,
-                { BAD_ENCRYPTION_RESULT_MESSAGE }
-            )
-            return false
-        }
+        val encryptedRawBatchEvent = encrypt(data) ?: return false
 
         return delegate.writeData(
             file,
@@ -45,17 +35,117 @@ internal class EncryptedBatchReaderWriter(
         )
     }
 
+    @WorkerThread
+    override fun appendData(
+        channel: BatchFileChannel,
+        file: File,
+        data: RawBatchEvent
+    ): Boolean {
+        val encryptedRawBatchEvent = encrypt(data) ?: return false
+
+        return delegate.appendData(
+            channel,
+            file,
+            encryptedRawBatchEvent
+        )
+    }
+
+    @WorkerThread
+    override fun writeSlot(
+        file: File,
+        slots: BatchFileSlots,
+        key: String,
+        data: RawBatchEvent
+    ): Boolean {
+        // slots are padded after the event data, which would make the encrypted data unreadable:
+        // every version of the event is written as a new one instead
+        return appendData(file, listOf(data), null)
+    }
+
+    override fun fitsSlot(
+        slot: BatchFileSlots.Slot,
+        data: RawBatchEvent
+    ): Boolean {
+        return false
+    }
+
     @WorkerThread
     override fun readData(
         file: File
     ): List<RawBatchEvent> {
         return delegate.readData(file)
-            .map {
-                RawBatchEvent(
-                    data = if (it.data.isNotEmpty()) encryption.decrypt(it.data) else it.data,
-                    metadata = if (it.metadata.isNotEmpty()) encryption.decrypt(it.metadata) else it.metadata
-                )
-            }
+            .map { decrypt(it) }
+    }
+
+    @WorkerThread
+    override fun readDataForCopy(
+        file: File
+    ): List<RawBatchEvent> {
+        // encrypted events are never written in slots, so they are never padded
+        return readData(file)
+    }
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun readEvents(
+        file: File,
+        action: (RawBatchEvent) -> Unit
+    ) {
+        delegate.readEvents(file) { action(decrypt(it)) }
+    }
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun readEventsData(
+        file: File,
+        action: (ByteBuffer) -> Unit
+    ) {
+        // the encrypted content can't be exposed as is, each event needs to be decrypted first
+        delegate.readEvents(file) { action(ByteBuffer.wrap(decrypt(it).data)) }
+    }
+
+    private fun decrypt(event: RawBatchEvent): RawBatchEvent {
+        return RawBatchEvent(
+            data = if (event.data.isNotEmpty()) encryption.decrypt(event.data) else event.data,
+            metadata = if (event.metadata.isNotEmpty()) encryption.decrypt(event.metadata) else event.metadata
+        )
+    }
+
+    @WorkerThread
+    override fun appendData(
+        file: File,
+        data: List<RawBatchEvent>,
+        channel: BatchFileChannel?
+    ): Boolean {
+        val encryptedRawBatchEvents = ArrayList<RawBatchEvent>(data.size)
+        for (event in data) {
+            // the events are appended all at once, a single failure aborts the whole operation
+            encryptedRawBatchEvents.add(encrypt(event) ?: return false)
+        }
+
+        return delegate.appendData(
+            file,
+            encryptedRawBatchEvents,
+            channel
+        )
+    }
+
+    private fun encrypt(data: RawBatchEvent): RawBatchEvent? {
+        val encryptedRawBatchEvent = RawBatchEvent(
+            data = encryption.encrypt(data.data),
+            metadata = encryption.encrypt(data.metadata)
+        )
+
+        if (data.data.isNotEmpty() && encryptedRawBatchEvent.data.isEmpty()) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                InternalLogger.Target.USER,
+                { BAD_ENCRYPTION_RESULT_MESSAGE }
+            )
+            return null
+        }
+
+        return encryptedRawBatchEvent
     }
 
     companion object {
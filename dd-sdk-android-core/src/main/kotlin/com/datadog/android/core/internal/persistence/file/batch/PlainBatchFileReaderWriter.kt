@@ -9,15 +9,17 @@ package com.datadog.android.core.internal.persistence.file.batch
 import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.storage.RawBatchEvent
-import com.datadog.android.core.internal.persistence.file.lengthSafe
+import com.datadog.android.core.internal.persistence.tlvformat.TLVBufferBlock
+import com.datadog.android.core.internal.persistence.tlvformat.TLVBufferReader
 import com.datadog.android.core.internal.utils.use
 import java.io.File
+import java.io.FileInputStream
 import java.io.FileOutputStream
 import java.io.IOException
-import java.io.InputStream
+import java.io.RandomAccessFile
 import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 import java.util.Locale
-import kotlin.math.max
 
 /**
  * Stores data in the TLV format as meta+data, use only for RUM/Log/Trace events.
@@ -34,38 +36,127 @@ internal class PlainBatchFileReaderWriter(
         data: RawBatchEvent,
         append: Boolean
     ): Boolean {
+        return writeSafe(file) {
+            lockFileAndWriteData(file, append, data.tlvEncodedSize()) { it.putEventAsTlv(data) }
+        }
+    }
+
+    @WorkerThread
+    override fun appendData(
+        channel: BatchFileChannel,
+        file: File,
+        data: RawBatchEvent
+    ): Boolean {
+        return writeSafe(file) {
+            channel.append(file, data.tlvEncodedSize()) { it.putEventAsTlv(data) }
+        }
+    }
+
+    @WorkerThread
+    override fun appendData(
+        file: File,
+        data: List<RawBatchEvent>,
+        channel: BatchFileChannel?
+    ): Boolean {
+        val size = data.sumOf { it.tlvEncodedSize() }
+        val encoder: (ByteBuffer) -> Unit = { buffer -> data.forEach { buffer.putEventAsTlv(it) } }
+        return writeSafe(file) {
+            if (channel != null) {
+                channel.append(file, size, encoder)
+            } else {
+                lockFileAndWriteData(file, true, size, encoder)
+            }
+        }
+    }
+
+    @WorkerThread
+    override fun writeSlot(
+        file: File,
+        slots: BatchFileSlots,
+        key: String,
+        data: RawBatchEvent
+    ): Boolean {
+        return writeSafe(file) {
+            lockFileAndWriteSlot(file, slots, key, data)
+        }
+    }
+
+    override fun fitsSlot(
+        slot: BatchFileSlots.Slot,
+        data: RawBatchEvent
+    ): Boolean {
+        return data.tlvEncodedSize() <= slot.capacity
+    }
+
+    // endregion
+
+    // region FileReader
+
+    @WorkerThread
+    override fun readData(
+        file: File
+    ): List<RawBatchEvent> {
         return try {
-            lockFileAndWriteData(file, append, data)
-            true
+            val result = mutableListOf<RawBatchEvent>()
+            readFileData(file) { result.add(it) }
+            result
         } catch (e: IOException) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
-                listOf(InternalLogger.Target.MAINTAINER),
-                { ERROR_WRITE.format(Locale.US, file.path) },
+                listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+                { ERROR_READ.format(Locale.US, file.path) },
                 e
             )
-            false
+            emptyList()
         } catch (e: SecurityException) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
                 listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
-                { ERROR_WRITE.format(Locale.US, file.path) },
+                { ERROR_READ.format(Locale.US, file.path) },
                 e
             )
-            false
+            emptyList()
         }
     }
 
-    // endregion
-
-    // region FileReader
-
     @WorkerThread
-    override fun readData(
+    override fun readDataForCopy(
         file: File
     ): List<RawBatchEvent> {
+        return readData(file).map { it.withoutSlotPadding() }
+    }
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun readEvents(
+        file: File,
+        action: (RawBatchEvent) -> Unit
+    ) {
+        try {
+            readFileData(file, action)
+        } catch (e: SecurityException) {
+            throw IOException(ERROR_READ.format(Locale.US, file.path), e)
+        }
+    }
+
+    @WorkerThread
+    @Throws(IOException::class)
+    override fun readEventsData(
+        file: File,
+        action: (ByteBuffer) -> Unit
+    ) {
+        try {
+            readFileBlocks(file) { _, data -> action(data) }
+        } catch (e: SecurityException) {
+            throw IOException(ERROR_READ.format(Locale.US, file.path), e)
+        }
+    }
+
+    @WorkerThread
+    override fun countEvents(file: File): Int? {
         return try {
-            readFileData(file)
+            @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+            FileInputStream(file).use { countEventBlocks(it.channel) }
         } catch (e: IOException) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
@@ -73,7 +164,7 @@ internal class PlainBatchFileReaderWriter(
                 { ERROR_READ.format(Locale.US, file.path) },
                 e
             )
-            emptyList()
+            null
         } catch (e: SecurityException) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
@@ -81,7 +172,7 @@ internal class PlainBatchFileReaderWriter(
                 { ERROR_READ.format(Locale.US, file.path) },
                 e
             )
-            emptyList()
+            null
         }
     }
 
@@ -89,92 +180,198 @@ internal class PlainBatchFileReaderWriter(
 
     // region Internal
 
+    private inline fun writeSafe(file: File, write: () -> Unit): Boolean {
+        return try {
+            write()
+            true
+        } catch (e: IOException) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                listOf(InternalLogger.Target.MAINTAINER),
+                { ERROR_WRITE.format(Locale.US, file.path) },
+                e
+            )
+            false
+        } catch (e: SecurityException) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+                { ERROR_WRITE.format(Locale.US, file.path) },
+                e
+            )
+            false
+        }
+    }
+
     @Throws(IOException::class)
     @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
-    private fun lockFileAndWriteData(
+    private inline fun lockFileAndWriteData(
         file: File,
         append: Boolean,
-        data: RawBatchEvent
+        size: Int,
+        encoder: (ByteBuffer) -> Unit
     ) {
         FileOutputStream(file, append).use { outputStream ->
             outputStream.channel.lock().use {
-                val meta = data.metadata
-
-                val metaBlockSize = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES + meta.size
-                val dataBlockSize = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES + data.data.size
-
                 // ByteBuffer by default has BigEndian ordering, which matches to how Java
                 // reads data, so no need to define it explicitly
-                val buffer = ByteBuffer
-                    .allocate(metaBlockSize + dataBlockSize)
-                    .putAsTlv(BlockType.META, meta)
-                    .putAsTlv(BlockType.EVENT, data.data)
+                val buffer = ByteBuffer.allocate(size)
+                encoder(buffer)
 
                 outputStream.write(buffer.array())
             }
         }
     }
 
+    /**
+     * A slot is encoded as a regular meta+data pair, whose data block is padded with whitespaces
+     * up to the slot capacity, so that the next version of the event can replace it in place.
+     * This keeps the batch readable by any reader of this format, as long as the event data
+     * tolerates trailing whitespaces (e.g.: JSON). When the new version doesn't fit, a bigger
+     * slot is appended, and the previous one is left as is: it holds an older version of the
+     * event, which is dropped when the batch is uploaded.
+     */
     @Throws(IOException::class)
-    @Suppress("UnsafeThirdPartyFunctionCall", "ComplexMethod", "LoopWithTooManyJumpStatements")
-    // Called within a try/catch block
-    private fun readFileData(
-        file: File
-    ): List<RawBatchEvent> {
-        val inputLength = file.lengthSafe(internalLogger).toInt()
-
-        val result = mutableListOf<RawBatchEvent>()
-
-        // Read file iteratively
-        var remaining = inputLength
-        file.inputStream().buffered().use {
-            while (remaining > 0) {
-                val metaReadResult = readBlock(it, BlockType.META)
-                if (metaReadResult.data == null) {
-                    remaining -= metaReadResult.bytesRead
-                    break
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+    private fun lockFileAndWriteSlot(
+        file: File,
+        slots: BatchFileSlots,
+        key: String,
+        data: RawBatchEvent
+    ) {
+        RandomAccessFile(file, "rw").use { randomAccessFile ->
+            val channel = randomAccessFile.channel
+            channel.lock().use {
+                val eventSize = data.tlvEncodedSize()
+                val fileSize = channel.size()
+                val previousSlot = slots[key]?.takeIf { it.offset + it.capacity <= fileSize }
+
+                if (previousSlot != null && eventSize <= previousSlot.capacity) {
+                    channel.writeFully(encodeSlot(data, previousSlot.capacity), previousSlot.offset)
+                } else {
+                    val padding = maxOf(MIN_SLOT_PADDING_BYTES, eventSize / SLOT_GROWTH_DIVIDER)
+                    val capacity = eventSize + padding
+                    channel.writeFully(encodeSlot(data, capacity), fileSize)
+                    slots[key] = BatchFileSlots.Slot(fileSize, capacity)
                 }
+            }
+        }
+    }
 
-                val eventReadResult = readBlock(it, BlockType.EVENT)
-                remaining -= metaReadResult.bytesRead + eventReadResult.bytesRead
-
-                if (eventReadResult.data == null) break
+    @Suppress("UnsafeThirdPartyFunctionCall")
+    // all calls here are safe: buffer is writable, and the capacity can hold the event
+    private fun encodeSlot(data: RawBatchEvent, capacity: Int): ByteBuffer {
+        val metaBlockSize = HEADER_SIZE_BYTES + data.metadata.size
+        val buffer = ByteBuffer.allocate(capacity)
+            .putAsTlv(BlockType.META, data.metadata)
+            .putShort(BlockType.EVENT.identifier)
+            .putInt(capacity - metaBlockSize - HEADER_SIZE_BYTES)
+            .put(data.data)
+        while (buffer.hasRemaining()) {
+            buffer.put(SLOT_PADDING_BYTE)
+        }
+        buffer.flip()
+        return buffer
+    }
 
-                result.add(RawBatchEvent(eventReadResult.data, metaReadResult.data))
-            }
+    @Throws(IOException::class)
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+    private fun FileChannel.writeFully(buffer: ByteBuffer, position: Long) {
+        var writePosition = position
+        while (buffer.hasRemaining()) {
+            writePosition += write(buffer, writePosition)
         }
+    }
 
-        if (remaining != 0 || (inputLength > 0 && result.isEmpty())) {
-            internalLogger.log(
-                InternalLogger.Level.ERROR,
-                listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
-                { WARNING_NOT_ALL_DATA_READ.format(Locale.US, file.path) }
-            )
+    @Throws(IOException::class)
+    private fun readFileData(
+        file: File,
+        action: (RawBatchEvent) -> Unit
+    ) {
+        readFileBlocks(file) { metadata, data ->
+            action(RawBatchEvent(data.toByteArray(), metadata.toByteArray()))
         }
+    }
 
-        return result
+    @Throws(IOException::class)
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+    private inline fun readFileBlocks(
+        file: File,
+        action: (metadata: ByteBuffer, data: ByteBuffer) -> Unit
+    ) {
+        FileInputStream(file).use { inputStream ->
+            val reader = TLVBufferReader(loadFileContent(inputStream.channel))
+            val inputLength = reader.bytesRemaining
+            var eventsCount = 0
+
+            while (reader.bytesRemaining > 0) {
+                val metaBlock = readBlock(reader, BlockType.META) ?: break
+                val eventBlock = readBlock(reader, BlockType.EVENT) ?: break
+
+                action(metaBlock.value, eventBlock.value)
+                eventsCount++
+            }
+
+            if (reader.bytesRemaining != 0 || (inputLength > 0 && eventsCount == 0)) {
+                internalLogger.log(
+                    InternalLogger.Level.ERROR,
+                    listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+                    { WARNING_NOT_ALL_DATA_READ.format(Locale.US, file.path) }
+                )
+            }
+        }
     }
 
-    @Suppress("ReturnCount")
+    /**
+     * Counts the complete event blocks of a file, jumping from one block header to the next one.
+     */
     @Throws(IOException::class)
-    private fun readBlock(stream: InputStream, expectedBlockType: BlockType): BlockReadResult {
-        @Suppress("UnsafeThirdPartyFunctionCall") // allocation size is always positive
-        val headerBuffer = ByteBuffer.allocate(HEADER_SIZE_BYTES)
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+    private fun countEventBlocks(channel: FileChannel): Int {
+        val size = channel.size()
+        val header = ByteBuffer.allocate(HEADER_SIZE_BYTES)
+        var position = 0L
+        var blocksCount = 0
+        while (position + HEADER_SIZE_BYTES <= size) {
+            header.clear()
+            while (header.hasRemaining()) {
+                if (channel.read(header, position + header.position()) < 0) break
+            }
+            val type = header.getShort(0)
+            val length = header.getInt(TYPE_SIZE_BYTES)
+            position += HEADER_SIZE_BYTES + length
+            if (length < 0 || position > size) break
+            if (type == BlockType.EVENT.identifier) {
+                blocksCount++
+            }
+        }
+        return blocksCount
+    }
 
-        @Suppress("UnsafeThirdPartyFunctionCall") // method declares throwing IOException
-        val headerReadBytes = stream.read(headerBuffer.array())
+    /**
+     * Large files are mapped in memory, so that the events can be read as views on the file
+     * content, without copying it on the heap. Smaller files are cheaper to read at once than to map.
+     */
+    @Throws(IOException::class)
+    @Suppress("UnsafeThirdPartyFunctionCall") // Called within a try/catch block
+    private fun loadFileContent(channel: FileChannel): ByteBuffer {
+        val size = channel.size()
+        if (size >= MAPPED_READ_THRESHOLD_BYTES) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+        }
 
-        if (!checkReadExpected(
-                HEADER_SIZE_BYTES,
-                headerReadBytes,
-                "Block(${expectedBlockType.name}): Header read"
-            )
-        ) {
-            return BlockReadResult(null, max(0, headerReadBytes))
+        val buffer = ByteBuffer.allocate(size.toInt())
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) break
         }
+        buffer.flip()
+        return buffer
+    }
 
-        val blockType = headerBuffer.short
-        if (blockType != expectedBlockType.identifier) {
+    @Suppress("ReturnCount")
+    private fun readBlock(reader: TLVBufferReader, expectedBlockType: BlockType): TLVBufferBlock? {
+        val blockType = reader.peekType()
+        if (blockType != null && blockType != expectedBlockType.identifier) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
                 InternalLogger.Target.MAINTAINER,
@@ -186,51 +383,62 @@ internal class PlainBatchFileReaderWriter(
             // in theory, we could continue reading, because we still know data size,
             // but unexpected type says that at least relationship between blocks is broken,
             // so to not establish the wrong one, it is better to stop reading
-            return BlockReadResult(null, headerReadBytes)
+            return null
         }
 
-        val dataSize = headerBuffer.int
-        val dataBuffer = ByteArray(dataSize)
-
-        @Suppress("UnsafeThirdPartyFunctionCall") // method declares throwing IOException
-        val dataReadBytes = stream.read(dataBuffer)
-
-        return if (checkReadExpected(
-                dataSize,
-                dataReadBytes,
-                "Block(${expectedBlockType.name}):Data read"
+        val block = reader.readBlock()
+        if (block == null) {
+            internalLogger.log(
+                InternalLogger.Level.ERROR,
+                InternalLogger.Target.MAINTAINER,
+                {
+                    "Unexpected EOF at the operation=Block(${expectedBlockType.name}): read," +
+                        " remaining=${reader.bytesRemaining}"
+                }
             )
-        ) {
-            BlockReadResult(dataBuffer, headerReadBytes + dataReadBytes)
-        } else {
-            BlockReadResult(null, headerReadBytes + max(0, dataReadBytes))
         }
+        return block
     }
 
-    private fun checkReadExpected(expected: Int, actual: Int, operation: String): Boolean {
-        return if (expected != actual) {
-            if (actual != -1) {
-                internalLogger.log(
-                    InternalLogger.Level.ERROR,
-                    InternalLogger.Target.MAINTAINER,
-                    {
-                        "Number of bytes read for operation='$operation' doesn't" +
-                            " match with expected: expected=$expected, actual=$actual"
-                    }
-                )
-            } else {
-                internalLogger.log(
-                    InternalLogger.Level.ERROR,
-                    InternalLogger.Target.MAINTAINER,
-                    { "Unexpected EOF at the operation=$operation" }
-                )
-            }
-            false
+    @Suppress("UnsafeThirdPartyFunctionCall") // the array has the exact size of the buffer
+    private fun ByteBuffer.toByteArray(): ByteArray {
+        val array = ByteArray(remaining())
+        duplicate().get(array)
+        return array
+    }
+
+    /**
+     * Only JSON objects are trimmed: whitespaces are meaningless after their closing brace, while
+     * they could be part of any other kind of data.
+     */
+    private fun RawBatchEvent.withoutSlotPadding(): RawBatchEvent {
+        var end = data.size
+        while (end > 0 && data[end - 1] == SLOT_PADDING_BYTE) {
+            end--
+        }
+        val isPaddedJsonObject = end in 1 until data.size &&
+            data[0] == JSON_OBJECT_START_BYTE &&
+            data[end - 1] == JSON_OBJECT_END_BYTE
+        return if (isPaddedJsonObject) {
+            @Suppress("UnsafeThirdPartyFunctionCall") // end is positive
+            RawBatchEvent(data.copyOf(end), metadata)
         } else {
-            true
+            this
         }
     }
 
+    private fun RawBatchEvent.tlvEncodedSize(): Int {
+        val metaBlockSize = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES + metadata.size
+        val dataBlockSize = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES + data.size
+        return metaBlockSize + dataBlockSize
+    }
+
+    private fun ByteBuffer.putEventAsTlv(event: RawBatchEvent): ByteBuffer {
+        return this
+            .putAsTlv(BlockType.META, event.metadata)
+            .putAsTlv(BlockType.EVENT, event.data)
+    }
+
     @Suppress("UnsafeThirdPartyFunctionCall")
     // all calls here are safe: buffer is writable, and it has a proper size calculated before
     // Encoding specification is as following:
@@ -245,11 +453,6 @@ internal class PlainBatchFileReaderWriter(
             .put(data)
     }
 
-    private class BlockReadResult(
-        val data: ByteArray?,
-        val bytesRead: Int
-    )
-
     private enum class BlockType(val identifier: Short) {
         EVENT(0x00),
         META(0x01)
@@ -264,6 +467,18 @@ internal class PlainBatchFileReaderWriter(
         internal const val LENGTH_SIZE_BYTES: Int = 4
         internal const val HEADER_SIZE_BYTES: Int = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES
 
+        // Files smaller than this are read on the heap, as mapping them costs more than copying them
+        internal const val MAPPED_READ_THRESHOLD_BYTES: Long = 64L * 1024
+
+        // Updatable slots keep at least this much room (or a quarter of the event size)
+        // for the next versions of their event to grow in place
+        internal const val MIN_SLOT_PADDING_BYTES: Int = 256
+        internal const val SLOT_GROWTH_DIVIDER: Int = 4
+        // Updatable slots are padded with spaces, which are whitespaces in JSON
+        internal const val SLOT_PADDING_BYTE: Byte = 0x20
+        private const val JSON_OBJECT_START_BYTE: Byte = 0x7B // {
+        private const val JSON_OBJECT_END_BYTE: Byte = 0x7D // }
+
         internal const val ERROR_WRITE = "Unable to write data to file: %s"
         internal const val ERROR_READ = "Unable to read data from file: %s"
 
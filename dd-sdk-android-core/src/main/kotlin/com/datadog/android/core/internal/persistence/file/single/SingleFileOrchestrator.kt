@@ -6,9 +6,12 @@
 
 package com.datadog.android.core.internal.persistence.file.single
 
+import androidx.annotation.AnyThread
 import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.internal.persistence.file.FileOrchestrator
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileChannel
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileSlots
 import com.datadog.android.core.internal.persistence.file.mkdirsSafe
 import java.io.File
 
@@ -20,7 +23,7 @@ internal class SingleFileOrchestrator(
     // region FileOrchestrator
 
     @WorkerThread
-    override fun getWritableFile(): File? {
+    override fun getWritableFile(eventsCount: Int): File? {
         file.parentFile?.mkdirsSafe(internalLogger)
         return file
     }
@@ -56,10 +59,37 @@ internal class SingleFileOrchestrator(
         return null
     }
 
+    // single file orchestrator has a single file, there is nothing to compact
+    @WorkerThread
+    override fun getCompactableFileGroups(excludeFiles: Set<File>): List<List<File>> {
+        return emptyList()
+    }
+
+    @WorkerThread
+    override fun onFilesCompacted(targetFile: File, compactedFiles: List<File>, eventsCount: Long) {
+        // no-op, see getCompactableFileGroups
+    }
+
     // single file orchestrator has a single file, so this is essentially a noop implementation
     override fun decrementAndGetPendingFilesCount(): Int {
         return 0
     }
 
+    @WorkerThread
+    override fun getWritableFileChannel(): BatchFileChannel? {
+        return null
+    }
+
+    @AnyThread
+    override fun closeWritableFileChannel() {
+        // no-op, single file is always written with a short-lived stream
+    }
+
+    @WorkerThread
+    override fun getUpdatableSlots(file: File): BatchFileSlots? {
+        // single file holds a single item, which is overwritten entirely
+        return null
+    }
+
     // endregion
 }
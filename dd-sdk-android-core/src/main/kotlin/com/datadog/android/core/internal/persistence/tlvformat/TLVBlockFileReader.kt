@@ -9,10 +9,8 @@ package com.datadog.android.core.internal.persistence.tlvformat
 import androidx.annotation.WorkerThread
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.internal.persistence.file.FileReaderWriter
-import com.datadog.android.core.internal.utils.copyOfRangeSafe
-import com.datadog.android.core.internal.utils.toInt
-import com.datadog.android.core.internal.utils.toShort
 import java.io.File
+import java.nio.ByteBuffer
 import java.util.Locale
 
 internal class TLVBlockFileReader(
@@ -24,80 +22,40 @@ internal class TLVBlockFileReader(
         file: File
     ): List<TLVBlock> {
         val byteArray = fileReaderWriter.readData(file)
+        val reader = TLVBufferReader(ByteBuffer.wrap(byteArray))
         val blocks = mutableListOf<TLVBlock>()
-        var currentIndex = 0
 
-        while (currentIndex < byteArray.size) {
-            val result = readBlock(byteArray, currentIndex) ?: break
-            blocks.add(result.data)
-            currentIndex = result.newIndex
+        while (reader.bytesRemaining > 0) {
+            val block = readBlock(reader) ?: break
+            blocks.add(block)
         }
 
         return blocks
     }
 
     @Suppress("ReturnCount")
-    private fun readBlock(inputArray: ByteArray, currentIndex: Int): TLVResult<TLVBlock>? {
-        val typeResult = readType(inputArray, currentIndex) ?: return null
-        val data = readData(inputArray, typeResult.newIndex) ?: return null
-
-        val block = TLVBlock(typeResult.data, data.data, internalLogger)
-        return TLVResult(
-            data = block,
-            newIndex = data.newIndex
-        )
-    }
-
-    @Suppress("ReturnCount")
-    private fun readType(inputArray: ByteArray, currentIndex: Int): TLVResult<TLVBlockType>? {
-        val typeBlockSize = UShort.SIZE_BYTES
-        var newIndex = currentIndex
-        newIndex += typeBlockSize
-
-        if (newIndex > inputArray.size) {
+    private fun readBlock(reader: TLVBufferReader): TLVBlock? {
+        val shortValue = reader.peekType()
+        if (shortValue == null) {
             logFailedToDeserializeError()
             return null
         }
 
-        val bytes = inputArray.copyOfRangeSafe(currentIndex, newIndex)
-
-        val shortValue = bytes.toShort()
-
-        val tlvHeader = TLVBlockType.fromValue(shortValue.toUShort())
-
-        if (tlvHeader == null) {
+        val type = TLVBlockType.fromValue(shortValue.toUShort())
+        if (type == null) {
             logTypeCorruptionError(shortValue)
             return null
         }
 
-        return TLVResult(
-            data = tlvHeader,
-            newIndex = currentIndex + typeBlockSize
-        )
-    }
-
-    private fun readData(inputArray: ByteArray, currentIndex: Int): TLVResult<ByteArray>? {
-        val lengthBlockSize = Int.SIZE_BYTES
-        var newIndex = currentIndex + lengthBlockSize
-
-        if (newIndex > inputArray.size) {
+        val bufferBlock = reader.readBlock()
+        if (bufferBlock == null) {
             logFailedToDeserializeError()
             return null
         }
 
-        val lengthInBytes = inputArray.copyOfRangeSafe(currentIndex, newIndex)
-
-        val lengthData = lengthInBytes.toInt()
-
-        val dataBytes =
-            inputArray.copyOfRangeSafe(newIndex, newIndex + lengthData)
-
-        newIndex += lengthData
-
-        return TLVResult(
-            data = dataBytes,
-            newIndex = newIndex
-        )
+        // the datastore entries are deserialized after the file content is released,
+        // so each block needs to own its data
+        return TLVBlock(type, bufferBlock.copyValue(), internalLogger)
     }
 
     private fun logTypeCorruptionError(shortValue: Short) {
@@ -121,11 +79,6 @@ internal class TLVBlockFileReader(
         )
     }
 
-    private data class TLVResult<T : Any>(
-        val data: T,
-        val newIndex: Int
-    )
-
     internal companion object {
         internal const val CORRUPT_TLV_HEADER_TYPE_ERROR = "TLV header corrupt. Invalid type %s"
         internal const val FAILED_TO_DESERIALIZE_ERROR = "Failed to deserialize TLV data length"
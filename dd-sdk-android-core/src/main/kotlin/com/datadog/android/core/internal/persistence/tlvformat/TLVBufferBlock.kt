@@ -0,0 +1,30 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.tlvformat
+
+import java.nio.ByteBuffer
+
+/**
+ * A block read by a [TLVBufferReader].
+ * @param type the raw block type
+ * @param value a read-only view on the block value, only valid as long as the source buffer is
+ */
+internal class TLVBufferBlock(
+    val type: Short,
+    val value: ByteBuffer
+) {
+
+    /**
+     * @return a copy of the block value, owned by the caller
+     */
+    @Suppress("UnsafeThirdPartyFunctionCall") // the array has the exact size of the value
+    fun copyValue(): ByteArray {
+        val array = ByteArray(value.remaining())
+        value.duplicate().get(array)
+        return array
+    }
+}
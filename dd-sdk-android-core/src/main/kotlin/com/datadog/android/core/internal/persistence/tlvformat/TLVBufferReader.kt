@@ -0,0 +1,83 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.tlvformat
+
+import java.nio.ByteBuffer
+
+/**
+ * Reads consecutive Type-Length-Value blocks from a [ByteBuffer] (e.g.: a file mapped in memory).
+ *
+ * Encoding specification is as following:
+ * +-  2 bytes -+-   4 bytes   -+- n bytes -|
+ * | block type | data size (n) |    data   |
+ * +------------+---------------+-----------+
+ *
+ * Headers are decoded in place, and values are exposed as read-only views sharing the content of
+ * the source buffer: nothing is copied until a consumer needs to own the value (see
+ * [TLVBufferBlock.copyValue]).
+ */
+internal class TLVBufferReader(source: ByteBuffer) {
+
+    // ByteBuffer by default has BigEndian ordering, which matches how blocks are written
+    private val buffer = source.asReadOnlyBuffer()
+
+    /**
+     * The number of bytes read so far.
+     */
+    val bytesRead: Int
+        get() = buffer.position()
+
+    /**
+     * The number of bytes left to read.
+     */
+    val bytesRemaining: Int
+        get() = buffer.remaining()
+
+    /**
+     * Reads the next block header and the view on its value.
+     * @return the block, or null if the remaining bytes don't hold a complete block (in which
+     * case nothing is consumed).
+     */
+    @Suppress("UnsafeThirdPartyFunctionCall") // bounds are checked beforehand
+    fun readBlock(): TLVBufferBlock? {
+        if (buffer.remaining() < HEADER_SIZE_BYTES) {
+            return null
+        }
+
+        val start = buffer.position()
+        val type = buffer.getShort(start)
+        val size = buffer.getInt(start + TYPE_SIZE_BYTES)
+        val valueStart = start + HEADER_SIZE_BYTES
+        if (size < 0 || size > buffer.limit() - valueStart) {
+            return null
+        }
+
+        val value = buffer.duplicate()
+        value.position(valueStart)
+        value.limit(valueStart + size)
+        buffer.position(valueStart + size)
+        return TLVBufferBlock(type, value.slice())
+    }
+
+    /**
+     * Reads the type of the next block, without consuming anything.
+     * @return the raw block type, or null if there are not enough bytes remaining to read it
+     */
+    @Suppress("UnsafeThirdPartyFunctionCall") // bounds are checked beforehand
+    fun peekType(): Short? {
+        if (buffer.remaining() < TYPE_SIZE_BYTES) {
+            return null
+        }
+        return buffer.getShort(buffer.position())
+    }
+
+    internal companion object {
+        internal const val TYPE_SIZE_BYTES: Int = 2
+        internal const val LENGTH_SIZE_BYTES: Int = 4
+        internal const val HEADER_SIZE_BYTES: Int = TYPE_SIZE_BYTES + LENGTH_SIZE_BYTES
+    }
+}
@@ -15,6 +15,7 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonNull
 import com.google.gson.JsonObject
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
 import org.json.JSONArray
 import org.json.JSONObject
 import java.util.Date
@@ -102,6 +103,82 @@ object JsonSerializer {
         }
     }
 
+    /**
+     * Writes arbitrary object to the given [JsonWriter] with the best effort, following the same
+     * conversion rules as [toJsonElement], but without building the intermediate [JsonElement].
+     * @throws java.io.IOException if the underlying writer fails
+     */
+    @InternalApi
+    @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+    fun writeJsonElement(writer: JsonWriter, item: Any?) {
+        when (item) {
+            NULL_MAP_VALUE -> writer.nullValue()
+            null -> writer.nullValue()
+            JsonNull.INSTANCE -> writer.nullValue()
+            is Boolean -> writer.value(item)
+            is Int -> writer.value(item.toLong())
+            is Long -> writer.value(item)
+            is Float -> writer.value(item as Number)
+            is Double -> writer.value(item)
+            is String -> writer.value(item)
+            is Date -> writer.value(item.time)
+            // this line should come before Iterable, otherwise this branch is never executed
+            is JsonArray -> writeArray(writer, item)
+            is Iterable<*> -> writeArray(writer, item)
+            is Map<*, *> -> {
+                writer.beginObject()
+                item.forEach {
+                    writer.name(it.key.toString())
+                    writeJsonElement(writer, it.value)
+                }
+                writer.endObject()
+            }
+
+            is JsonObject -> {
+                writer.beginObject()
+                item.entrySet().forEach {
+                    writer.name(it.key)
+                    writeJsonElement(writer, it.value)
+                }
+                writer.endObject()
+            }
+
+            is JsonPrimitive -> when {
+                item.isBoolean -> writer.value(item.asBoolean)
+                item.isNumber -> writer.value(item.asNumber)
+                else -> writer.value(item.asString)
+            }
+
+            is JSONObject -> {
+                writer.beginObject()
+                for (key in item.keys()) {
+                    writer.name(key)
+                    // iteration over keys which exist
+                    writeJsonElement(writer, item.get(key))
+                }
+                writer.endObject()
+            }
+
+            is JSONArray -> {
+                writer.beginArray()
+                for (index in 0 until item.length()) {
+                    // iteration over indexes which exist
+                    writeJsonElement(writer, item.get(index))
+                }
+                writer.endArray()
+            }
+
+            else -> writer.value(item.toString())
+        }
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+    private fun writeArray(writer: JsonWriter, items: Iterable<*>) {
+        writer.beginArray()
+        items.forEach { writeJsonElement(writer, it) }
+        writer.endArray()
+    }
+
     /**
      * This method will convert all values to JSON in a safe way, meaning if serialization fails
      * for the particular value, the process will continue and faulty value will be dropped.
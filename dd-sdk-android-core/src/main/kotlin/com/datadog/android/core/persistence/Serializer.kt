@@ -8,6 +8,8 @@ package com.datadog.android.core.persistence
 
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.lint.InternalApi
+import java.io.ByteArrayOutputStream
+import java.io.OutputStreamWriter
 import java.util.Locale
 
 /**
@@ -27,6 +29,8 @@ interface Serializer<T : Any> {
 
 /**
  * A utility class to serialize a model to a ByteArray safely.
+ * When the serializer is a [StreamingSerializer], the model is encoded straight into the
+ * resulting bytes, without going through an intermediate String.
  * If an exception is thrown while serializing the data, null is returned, and a
  * message will be sent to the internalLogger.
  *
@@ -41,8 +45,19 @@ fun <T : Any> Serializer<T>.serializeToByteArray(
     internalLogger: InternalLogger
 ): ByteArray? {
     return try {
-        val serialized = serialize(model)
-        serialized?.toByteArray(Charsets.UTF_8)
+        if (this is StreamingSerializer<T>) {
+            val outputStream = ByteArrayOutputStream()
+            val writer = OutputStreamWriter(outputStream, Charsets.UTF_8)
+            if (serialize(model, writer)) {
+                writer.flush()
+                outputStream.toByteArray()
+            } else {
+                null
+            }
+        } else {
+            val serialized = serialize(model)
+            serialized?.toByteArray(Charsets.UTF_8)
+        }
     } catch (e: Throwable) {
         internalLogger.log(
             InternalLogger.Level.ERROR,
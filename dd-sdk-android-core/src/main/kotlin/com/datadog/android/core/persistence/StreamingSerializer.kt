@@ -0,0 +1,36 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.persistence
+
+import com.datadog.android.lint.InternalApi
+import java.io.StringWriter
+import java.io.Writer
+
+/**
+ * A [Serializer] able to write the JSON representation of an object of type [T] directly into a
+ * [Writer], without building the intermediate JSON tree nor String.
+ */
+@InternalApi
+interface StreamingSerializer<T : Any> : Serializer<T> {
+
+    /**
+     * Writes the data into the given [Writer].
+     * Implementations must flush any buffered content before returning, and must not close the
+     * given [Writer].
+     * @param model the data to serialize
+     * @param writer the destination of the serialized data
+     * @return true if the data was written, false if it was dropped (in which case nothing was
+     * written)
+     * @throws java.io.IOException if the underlying writer fails
+     */
+    fun serialize(model: T, writer: Writer): Boolean
+
+    override fun serialize(model: T): String? {
+        val writer = StringWriter()
+        return if (serialize(model, writer)) writer.toString() else null
+    }
+}
@@ -7,9 +7,12 @@
 package com.datadog.android.event
 
 import com.datadog.android.core.persistence.Serializer
+import com.datadog.android.core.persistence.StreamingSerializer
+import java.io.Writer
 
 /**
  * Combines [EventMapper] and [Serializer]. First mapping is done, then serialization.
+ * When the given [Serializer] is a [StreamingSerializer], the mapped event is streamed as well.
  *
  * @param T type of the data to map and serialize.
  * @param eventMapper Event mapper to use.
@@ -18,11 +21,23 @@ import com.datadog.android.core.persistence.Serializer
 class MapperSerializer<T : Any>(
     private val eventMapper: EventMapper<T>,
     private val serializer: Serializer<T>
-) : Serializer<T> {
+) : StreamingSerializer<T> {
 
     /** @inheritdoc */
     override fun serialize(model: T): String? {
         val mappedEvent = eventMapper.map(model) ?: return null
         return serializer.serialize(mappedEvent)
     }
+
+    /** @inheritdoc */
+    override fun serialize(model: T, writer: Writer): Boolean {
+        val mappedEvent = eventMapper.map(model) ?: return false
+        if (serializer is StreamingSerializer<T>) {
+            return serializer.serialize(mappedEvent, writer)
+        }
+        val serialized = serializer.serialize(mappedEvent) ?: return false
+        @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+        writer.write(serialized)
+        return true
+    }
 }
@@ -647,6 +647,75 @@ internal class DatadogCoreTest {
         assertThat(actualContext).isNotEqualTo(mutableContext)
     }
 
+    @Test
+    fun `M return shared snapshot W getFeatureContext() { snapshot exists }`(
+        @StringForgery feature: String,
+        @MapForgery(
+            key = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)]),
+            value = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)])
+        ) fakeContext: Map<String, String>,
+        @BoolForgery fakeUseContextThread: Boolean
+    ) {
+        // Given
+        val mockFeature = mock<SdkFeature>()
+        whenever(mockFeature.featureContextLock) doReturn ReentrantReadWriteLock()
+        whenever(mockFeature.featureContext) doReturn fakeContext.toMutableMap()
+        whenever(mockFeature.featureContextSnapshot) doReturn fakeContext
+        testedCore.features[feature] = mockFeature
+
+        // When
+        val actualContext = testedCore.getFeatureContext(feature, fakeUseContextThread)
+
+        // Then
+        assertThat(actualContext).isSameAs(fakeContext)
+    }
+
+    @Test
+    fun `M keep snapshot W getFeatureContext() { no snapshot yet }`(
+        @StringForgery feature: String,
+        @MapForgery(
+            key = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)]),
+            value = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)])
+        ) fakeContext: Map<String, String>,
+        @BoolForgery fakeUseContextThread: Boolean
+    ) {
+        // Given
+        val mockFeature = mock<SdkFeature>()
+        whenever(mockFeature.featureContextLock) doReturn ReentrantReadWriteLock()
+        whenever(mockFeature.featureContext) doReturn fakeContext.toMutableMap()
+        testedCore.features[feature] = mockFeature
+
+        // When
+        val actualContext = testedCore.getFeatureContext(feature, fakeUseContextThread)
+
+        // Then
+        verify(mockFeature).featureContextSnapshot = actualContext
+        assertThat(actualContext).isEqualTo(fakeContext)
+    }
+
+    @Test
+    fun `M invalidate snapshot W updateFeatureContext()`(
+        @StringForgery feature: String,
+        @MapForgery(
+            key = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)]),
+            value = AdvancedForgery(string = [StringForgery(StringForgeryType.ALPHABETICAL)])
+        ) fakeContext: Map<String, String>
+    ) {
+        // Given
+        val mockFeature = mock<SdkFeature>()
+        whenever(mockFeature.featureContextLock) doReturn ReentrantReadWriteLock()
+        whenever(mockFeature.featureContext) doReturn mutableMapOf()
+        testedCore.features[feature] = mockFeature
+
+        // When
+        testedCore.updateFeatureContext(feature, useContextThread = false) {
+            it.putAll(fakeContext)
+        }
+
+        // Then
+        verify(mockFeature).featureContextSnapshot = null
+    }
+
     @Test
     fun `M read updated feature context W getFeatureContext() { read when update is in progress }`(
         @StringForgery feature: String,
@@ -7,6 +7,7 @@
 package com.datadog.android.core.configuration
 
 import com.datadog.android.DatadogSite
+import com.datadog.android.core.internal.data.upload.PriorityUploadCoordinator
 import com.datadog.android.core.persistence.PersistenceStrategy
 import com.datadog.android.security.Encryption
 import com.datadog.android.trace.TracingHeaderType
@@ -77,6 +78,9 @@ internal class ConfigurationBuilderTest {
         assertThat(config.coreConfig.backpressureStrategy.backpressureMitigation)
             .isEqualTo(BackPressureMitigation.IGNORE_NEWEST)
         assertThat(config.coreConfig.backpressureStrategy.capacity).isEqualTo(1024)
+        assertThat(config.coreConfig.persistentFileChannelEnabled).isFalse()
+        assertThat(config.coreConfig.uploadFeatureWeights)
+            .isEqualTo(PriorityUploadCoordinator.DEFAULT_FEATURE_WEIGHTS)
         assertThat(config.crashReportsEnabled).isTrue
         assertThat(config.additionalConfig).isEmpty()
     }
@@ -449,6 +453,45 @@ internal class ConfigurationBuilderTest {
         )
     }
 
+    @Test
+    fun `M build config with persistent file channel W setPersistentFileChannelEnabled() and build()`(
+        @BoolForgery enabled: Boolean
+    ) {
+        // When
+        val config = testedBuilder
+            .setPersistentFileChannelEnabled(enabled)
+            .build()
+
+        // Then
+        assertThat(config.coreConfig).isEqualTo(
+            Configuration.DEFAULT_CORE_CONFIG.copy(
+                persistentFileChannelEnabled = enabled
+            )
+        )
+    }
+
+    @Test
+    fun `M build config with upload feature weights W setUploadFeatureWeights() and build()`(
+        forge: Forge
+    ) {
+        // Given
+        val weights = forge.aMap { anAlphabeticalString() to anInt(min = 1, max = 10) }
+        val invalidWeights = forge.aMap { anAlphabeticalString() to anInt(max = 1) }
+            .filterKeys { it !in weights }
+
+        // When
+        val config = testedBuilder
+            .setUploadFeatureWeights(weights + invalidWeights)
+            .build()
+
+        // Then
+        assertThat(config.coreConfig).isEqualTo(
+            Configuration.DEFAULT_CORE_CONFIG.copy(
+                uploadFeatureWeights = weights + invalidWeights.mapValues { 1 }
+            )
+        )
+    }
+
     @Test
     fun `M build config with allowClearTextHttp W allowClearTextHttp() and build()`() {
         // When
@@ -119,6 +119,31 @@ internal class DatadogDataConstraintsTest {
         )
     }
 
+    @Test
+    fun `M convert tags consistently W validateTags() { same tags validated again }`(forge: Forge) {
+        // Given
+        val validPart = forge.anAlphabeticalString(size = 3)
+        val invalidPart = forge.aString {
+            anElementFrom(',', '?', '%', '(', ')', '[', ']', '{', '}')
+        }
+        val invalidTag = forge.aStringMatching("\\d[a-z]+")
+        val tags = listOf("$validPart$invalidPart", invalidTag)
+        val firstResult = testedConstraints.validateTags(tags)
+
+        // When
+        val secondResult = testedConstraints.validateTags(tags)
+
+        // Then
+        assertThat(secondResult).isEqualTo(firstResult)
+        assertThat(secondResult).containsExactly(validPart + '_' * invalidPart.length)
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.USER,
+            "\"$invalidTag\" is an invalid tag, and was ignored.",
+            mode = times(2)
+        )
+    }
+
     @Test
     fun `trim tags over 200 characters`(forge: Forge) {
         val tag = forge.anAlphabeticalString(size = forge.aSmallInt() + 200)
@@ -222,6 +247,21 @@ internal class DatadogDataConstraintsTest {
         verifyNoInteractions(mockInternalLogger)
     }
 
+    @Test
+    fun `M keep the same key instance W validateAttributes() { valid key }`(
+        forge: Forge
+    ) {
+        // Given
+        val key = forge.aList(forge.anInt(1, 9)) { anAlphabeticalString() }.joinToString(".")
+        val value = forge.aNumericalString()
+
+        // When
+        val result = testedConstraints.validateAttributes(mapOf(key to value))
+
+        // Then
+        assertThat(result.keys.single()).isSameAs(key)
+    }
+
     @Test
     fun `M convert nested attribute keys W over 10 levels`(forge: Forge) {
         val topLevels = forge.aList(10) { anAlphabeticalString() }
@@ -713,6 +713,7 @@ internal class CoreFeatureTest {
         assertThat(testedFeature.uploadExecutorService).isNotNull()
         assertThat(testedFeature.persistenceExecutorService).isNotNull()
         assertThat(testedFeature.contextExecutorService).isNotNull()
+        assertThat(testedFeature.uploadFeatureWeights).isEqualTo(fakeConfig.coreConfig.uploadFeatureWeights)
     }
 
     @Test
@@ -883,6 +884,8 @@ internal class CoreFeatureTest {
             .isEqualTo(FilePersistenceConfig.MAX_ITEMS_PER_BATCH)
         assertThat(config.recentDelayMs)
             .isEqualTo(fakeConfig.coreConfig.batchSize.windowDurationMs)
+        assertThat(config.persistentFileChannel)
+            .isEqualTo(fakeConfig.coreConfig.persistentFileChannelEnabled)
     }
 
     @Test
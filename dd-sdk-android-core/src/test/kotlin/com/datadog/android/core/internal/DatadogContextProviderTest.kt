@@ -194,6 +194,76 @@ internal class DatadogContextProviderTest {
         assertThat(context.featuresContext).isEqualTo(fakeFeaturesContext)
     }
 
+    @Test
+    fun `M share snapshot W getContext() { nothing changed }`(
+        @LongForgery(min = 0L) fakeNewDeviceTimestamp: Long
+    ) {
+        // Given
+        val firstContext = testedProvider.getContext(fakeFeaturesContext.keys)
+        whenever(coreFeature.mockInstance.timeProvider.getDeviceTimestampMillis()) doReturn
+            fakeNewDeviceTimestamp
+
+        // When
+        val secondContext = testedProvider.getContext(fakeFeaturesContext.keys)
+
+        // Then
+        assertThat(secondContext.featuresContext).isSameAs(firstContext.featuresContext)
+        assertThat(secondContext.deviceInfo).isSameAs(firstContext.deviceInfo)
+        assertThat(secondContext.processInfo).isSameAs(firstContext.processInfo)
+        assertThat(secondContext.time.deviceTimeNs)
+            .isEqualTo(TimeUnit.MILLISECONDS.toNanos(fakeNewDeviceTimestamp))
+    }
+
+    @Test
+    fun `M rebuild snapshot W getContext() { user info changed }`(
+        @Forgery fakeNewUserInfo: UserInfo
+    ) {
+        // Given
+        val firstContext = testedProvider.getContext(fakeFeaturesContext.keys)
+        whenever(coreFeature.mockInstance.userInfoProvider.getUserInfo()) doReturn fakeNewUserInfo
+
+        // When
+        val secondContext = testedProvider.getContext(fakeFeaturesContext.keys)
+
+        // Then
+        assertThat(firstContext.userInfo).isSameAs(fakeUserInfo)
+        assertThat(secondContext.userInfo).isSameAs(fakeNewUserInfo)
+        assertThat(secondContext.deviceInfo).isSameAs(firstContext.deviceInfo)
+    }
+
+    @Test
+    fun `M rebuild snapshot W getContext() { tracking consent changed }`() {
+        // Given
+        val fakeNewTrackingConsent = TrackingConsent.values().first { it != fakeTrackingConsent }
+        testedProvider.getContext(fakeFeaturesContext.keys)
+        whenever(coreFeature.mockInstance.trackingConsentProvider.getConsent()) doReturn
+            fakeNewTrackingConsent
+
+        // When
+        val context = testedProvider.getContext(fakeFeaturesContext.keys)
+
+        // Then
+        assertThat(context.trackingConsent).isEqualTo(fakeNewTrackingConsent)
+    }
+
+    @Test
+    fun `M rebuild snapshot W getContext() { feature context changed }`(
+        forge: Forge
+    ) {
+        // Given
+        testedProvider.getContext(fakeFeaturesContext.keys)
+        val updatedFeature = forge.anElementFrom(fakeFeaturesContext.keys)
+        val fakeNewFeatureContext = forge.exhaustiveAttributes()
+        fakeFeaturesContext = fakeFeaturesContext + (updatedFeature to fakeNewFeatureContext)
+
+        // When
+        val context = testedProvider.getContext(fakeFeaturesContext.keys)
+
+        // Then
+        assertThat(context.featuresContext).isEqualTo(fakeFeaturesContext)
+        assertThat(context.featuresContext[updatedFeature]).isSameAs(fakeNewFeatureContext)
+    }
+
     companion object {
         val appContext = ApplicationContextTestConfiguration(Application::class.java)
         val coreFeature = CoreFeatureTestConfiguration(appContext)
@@ -0,0 +1,111 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.attributes
+
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class AttributesStoreTest {
+
+    private lateinit var testedStore: AttributesStore
+
+    @BeforeEach
+    fun `set up`() {
+        testedStore = AttributesStore()
+    }
+
+    // region Attributes
+
+    @Test
+    fun `M return attributes W setAttribute() + getAttributes()`(
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String
+    ) {
+        // When
+        testedStore.setAttribute(fakeKey, fakeValue)
+
+        // Then
+        assertThat(testedStore.getAttributes()).containsExactlyEntriesOf(mapOf(fakeKey to fakeValue))
+    }
+
+    @Test
+    fun `M keep previous snapshots unchanged W setAttribute()`(
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String,
+        @StringForgery fakeNewValue: String
+    ) {
+        // Given
+        testedStore.setAttribute(fakeKey, fakeValue)
+        val snapshot = testedStore.getAttributes()
+
+        // When
+        testedStore.setAttribute(fakeKey, fakeNewValue)
+
+        // Then
+        assertThat(snapshot).containsExactlyEntriesOf(mapOf(fakeKey to fakeValue))
+        assertThat(testedStore.getAttributes()).containsExactlyEntriesOf(mapOf(fakeKey to fakeNewValue))
+    }
+
+    @Test
+    fun `M return same snapshot W getAttributes() { no change }`(
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String
+    ) {
+        // Given
+        testedStore.setAttribute(fakeKey, fakeValue)
+
+        // When
+        val first = testedStore.getAttributes()
+        val second = testedStore.getAttributes()
+
+        // Then
+        assertThat(second).isSameAs(first)
+    }
+
+    @Test
+    fun `M remove attribute W removeAttribute()`(
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String
+    ) {
+        // Given
+        testedStore.setAttribute(fakeKey, fakeValue)
+
+        // When
+        testedStore.removeAttribute(fakeKey)
+
+        // Then
+        assertThat(testedStore.getAttributes()).isEmpty()
+    }
+
+    @Test
+    fun `M remove all attributes W clear()`(
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String
+    ) {
+        // Given
+        testedStore.setAttribute(fakeKey, fakeValue)
+
+        // When
+        testedStore.clear()
+
+        // Then
+        assertThat(testedStore.getAttributes()).isEmpty()
+    }
+
+    // endregion
+}
@@ -0,0 +1,80 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.constraints
+
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.annotation.StringForgeryType
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class AsciiCharacterClassTest {
+
+    private val testedCharacterClass = AsciiCharacterClass(
+        ranges = listOf('a'..'z', '0'..'9'),
+        chars = "_:./-"
+    )
+
+    @Test
+    fun `M return the same instance W sanitize() { all characters allowed }`(
+        forge: Forge
+    ) {
+        // Given
+        val value = forge.aStringMatching("[a-z0-9_:./-]{1,64}")
+
+        // When
+        val result = testedCharacterClass.sanitize(value, '_')
+
+        // Then
+        assertThat(result).isSameAs(value)
+    }
+
+    @Test
+    fun `M replace characters like a regex W sanitize()`(
+        @StringForgery(type = StringForgeryType.ASCII_EXTENDED) fakeValue: String
+    ) {
+        // When
+        val result = testedCharacterClass.sanitize(fakeValue, '_')
+
+        // Then
+        assertThat(result).isEqualTo(fakeValue.replace(Regex("[^a-z0-9_:./-]"), "_"))
+    }
+
+    @Test
+    fun `M replace surrogate pairs once W sanitize()`(
+        @StringForgery(regex = "[a-z]{1,16}") fakePrefix: String,
+        @StringForgery(regex = "[a-z]{1,16}") fakeSuffix: String
+    ) {
+        // Given
+        val value = "$fakePrefix\uD83D\uDC36$fakeSuffix"
+
+        // When
+        val result = testedCharacterClass.sanitize(value, '_')
+
+        // Then
+        assertThat(result).isEqualTo("${fakePrefix}_$fakeSuffix")
+        assertThat(result).isEqualTo(value.replace(Regex("[^a-z0-9_:./-]"), "_"))
+    }
+
+    @Test
+    fun `M reject non ASCII characters W contains()`() {
+        // When
+        val result = 'é' in testedCharacterClass
+
+        // Then
+        assertThat(result).isFalse()
+    }
+}
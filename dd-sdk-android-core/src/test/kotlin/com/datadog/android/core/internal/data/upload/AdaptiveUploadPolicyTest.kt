@@ -0,0 +1,339 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.context.NetworkInfo
+import com.datadog.android.core.internal.net.info.NetworkInfoProvider
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.LongForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.EnumSource
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class AdaptiveUploadPolicyTest {
+
+    private lateinit var testedPolicy: AdaptiveUploadPolicy
+
+    @Mock
+    lateinit var mockNetworkInfoProvider: NetworkInfoProvider
+
+    @Mock
+    lateinit var mockThroughputMonitor: UploadThroughputMonitor
+
+    @BeforeEach
+    fun `set up`() {
+        testedPolicy = AdaptiveUploadPolicy(mockNetworkInfoProvider, mockThroughputMonitor)
+    }
+
+    // region getLinkQuality
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return FAST W getLinkQuality() {unmetered link, no data}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubConnectivity(connectivity)
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.FAST)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return FAST W getLinkQuality() {unmetered link, reported as fast}`(
+        connectivity: NetworkInfo.Connectivity,
+        forge: Forge
+    ) {
+        // Given
+        stubNetworkInfo(
+            NetworkInfo(
+                connectivity,
+                upKbps = forge.aLong(min = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS),
+                downKbps = forge.aLong(min = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS),
+                strength = forge.aLong(min = AdaptiveUploadPolicy.WEAK_SIGNAL_STRENGTH_DBM, max = 0)
+            )
+        )
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.FAST)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {unmetered link, low up bandwidth}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubNetworkInfo(NetworkInfo(connectivity, upKbps = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS - 1))
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {unmetered link, low down bandwidth}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubNetworkInfo(NetworkInfo(connectivity, downKbps = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS - 1))
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {unmetered link, weak signal}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubNetworkInfo(NetworkInfo(connectivity, strength = AdaptiveUploadPolicy.WEAK_SIGNAL_STRENGTH_DBM - 1))
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {unmetered link, measured throughput is low}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubConnectivity(connectivity)
+        whenever(mockThroughputMonitor.getThroughputBytesPerSecond()) doReturn
+            AdaptiveUploadPolicy.SLOW_THROUGHPUT_BYTES_PER_SECOND / 2
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_WIFI", "NETWORK_ETHERNET"]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {unmetered link, measured latency is high}`(
+        connectivity: NetworkInfo.Connectivity
+    ) {
+        // Given
+        stubConnectivity(connectivity)
+        whenever(mockThroughputMonitor.getLatencyMs()) doReturn AdaptiveUploadPolicy.SLOW_LATENCY_MS * 2
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = [
+            "NETWORK_2G",
+            "NETWORK_3G",
+            "NETWORK_4G",
+            "NETWORK_5G",
+            "NETWORK_MOBILE_OTHER",
+            "NETWORK_CELLULAR",
+            "NETWORK_WIMAX"
+        ]
+    )
+    fun `M return CONSTRAINED W getLinkQuality() {metered link, reported as fast}`(
+        connectivity: NetworkInfo.Connectivity,
+        forge: Forge
+    ) {
+        // Given
+        stubNetworkInfo(
+            NetworkInfo(
+                connectivity,
+                upKbps = forge.aLong(min = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS),
+                downKbps = forge.aLong(min = AdaptiveUploadPolicy.SLOW_BANDWIDTH_KBPS),
+                strength = forge.aLong(min = AdaptiveUploadPolicy.WEAK_SIGNAL_STRENGTH_DBM, max = 0)
+            )
+        )
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.CONSTRAINED)
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+        NetworkInfo.Connectivity::class,
+        names = ["NETWORK_BLUETOOTH", "NETWORK_OTHER", "NETWORK_NOT_CONNECTED"]
+    )
+    fun `M return UNKNOWN W getLinkQuality() {other link}`(connectivity: NetworkInfo.Connectivity) {
+        // Given
+        stubConnectivity(connectivity)
+
+        // When
+        val result = testedPolicy.getLinkQuality()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.LinkQuality.UNKNOWN)
+    }
+
+    // endregion
+
+    // region getMaxBatchesPerRequest
+
+    @Test
+    fun `M merge batches W getMaxBatchesPerRequest() {fast link}`() {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_WIFI)
+
+        // When
+        val result = testedPolicy.getMaxBatchesPerRequest()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.MAX_MERGED_BATCHES)
+    }
+
+    @Test
+    fun `M merge more batches W getMaxBatchesPerRequest() {constrained link}`() {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_4G)
+
+        // When
+        val result = testedPolicy.getMaxBatchesPerRequest()
+
+        // Then
+        assertThat(result).isEqualTo(AdaptiveUploadPolicy.CONSTRAINED_MAX_MERGED_BATCHES)
+    }
+
+    @Test
+    fun `M not merge batches W getMaxBatchesPerRequest() {unknown link}`() {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_OTHER)
+
+        // When
+        val result = testedPolicy.getMaxBatchesPerRequest()
+
+        // Then
+        assertThat(result).isEqualTo(1)
+    }
+
+    // endregion
+
+    // region adjustDelay
+
+    @Test
+    fun `M keep delay W adjustDelay() {fast link}`(
+        @LongForgery(min = 1, max = 10000) fakeDelayMs: Long
+    ) {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_ETHERNET)
+
+        // When
+        val result = testedPolicy.adjustDelay(fakeDelayMs, fakeDelayMs * 4)
+
+        // Then
+        assertThat(result).isEqualTo(fakeDelayMs)
+    }
+
+    @Test
+    fun `M increase delay W adjustDelay() {constrained link}`(
+        @LongForgery(min = 1, max = 10000) fakeDelayMs: Long
+    ) {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_CELLULAR)
+
+        // When
+        val result = testedPolicy.adjustDelay(fakeDelayMs, fakeDelayMs * 4)
+
+        // Then
+        assertThat(result).isEqualTo(fakeDelayMs * AdaptiveUploadPolicy.CONSTRAINED_DELAY_FACTOR)
+    }
+
+    @Test
+    fun `M not exceed max delay W adjustDelay() {constrained link}`(
+        @LongForgery(min = 1, max = 10000) fakeDelayMs: Long
+    ) {
+        // Given
+        stubConnectivity(NetworkInfo.Connectivity.NETWORK_CELLULAR)
+
+        // When
+        val result = testedPolicy.adjustDelay(fakeDelayMs, fakeDelayMs)
+
+        // Then
+        assertThat(result).isEqualTo(fakeDelayMs)
+    }
+
+    // endregion
+
+    // region Internal
+
+    private fun stubConnectivity(connectivity: NetworkInfo.Connectivity) {
+        stubNetworkInfo(NetworkInfo(connectivity))
+    }
+
+    private fun stubNetworkInfo(networkInfo: NetworkInfo) {
+        whenever(mockNetworkInfoProvider.getLatestNetworkInfo()) doReturn networkInfo
+    }
+
+    // endregion
+}
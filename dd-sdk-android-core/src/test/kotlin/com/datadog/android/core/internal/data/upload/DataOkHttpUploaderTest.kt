@@ -20,6 +20,7 @@ import fr.xgouchet.elmyr.Forge
 import fr.xgouchet.elmyr.annotation.AdvancedForgery
 import fr.xgouchet.elmyr.annotation.Forgery
 import fr.xgouchet.elmyr.annotation.IntForgery
+import fr.xgouchet.elmyr.annotation.LongForgery
 import fr.xgouchet.elmyr.annotation.MapForgery
 import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.annotation.StringForgeryType
@@ -284,6 +285,65 @@ internal class DataOkHttpUploaderTest {
         verifyResponseIsClosed()
     }
 
+    @Test
+    fun `M record request duration W upload() {202 accepted status}`(
+        @Forgery batch: List<RawBatchEvent>,
+        @StringForgery message: String,
+        @LongForgery(min = 1000000000000L, max = 2000000000000L) fakeSentAt: Long,
+        @LongForgery(min = 1, max = 60000) fakeDurationMs: Long
+    ) {
+        // Given
+        val mockThroughputMonitor = mock<UploadThroughputMonitor>()
+        testedUploader = DataOkHttpUploader(
+            requestFactory = mockRequestFactory,
+            internalLogger = mockLogger,
+            callFactory = mockCallFactory,
+            sdkVersion = fakeSdkVersion,
+            androidInfoProvider = mockAndroidInfoProvider,
+            executionTimer = mockExecutionTimer,
+            uploadThroughputMonitor = mockThroughputMonitor
+        )
+        whenever(mockCall.execute()) doReturn mockResponse(202, message).newBuilder()
+            .sentRequestAtMillis(fakeSentAt)
+            .receivedResponseAtMillis(fakeSentAt + fakeDurationMs)
+            .build()
+
+        // When
+        testedUploader.upload(fakeContext, batch, null, fakeBatchId)
+
+        // Then
+        verify(mockThroughputMonitor).onRequestCompleted(
+            fakeRequestBody.toByteArray().size.toLong(),
+            fakeDurationMs
+        )
+    }
+
+    @Test
+    fun `M not record request duration W upload() {not accepted}`(
+        @Forgery batch: List<RawBatchEvent>,
+        @StringForgery message: String,
+        @IntForgery(min = 400, max = 600) statusCode: Int
+    ) {
+        // Given
+        val mockThroughputMonitor = mock<UploadThroughputMonitor>()
+        testedUploader = DataOkHttpUploader(
+            requestFactory = mockRequestFactory,
+            internalLogger = mockLogger,
+            callFactory = mockCallFactory,
+            sdkVersion = fakeSdkVersion,
+            androidInfoProvider = mockAndroidInfoProvider,
+            executionTimer = mockExecutionTimer,
+            uploadThroughputMonitor = mockThroughputMonitor
+        )
+        whenever(mockCall.execute()) doReturn mockResponse(statusCode, message)
+
+        // When
+        testedUploader.upload(fakeContext, batch, null, fakeBatchId)
+
+        // Then
+        verifyNoInteractions(mockThroughputMonitor)
+    }
+
     @Test
     fun `M return client error W upload() {400 bad request status}`(
         @Forgery batch: List<RawBatchEvent>,
@@ -9,6 +9,7 @@ package com.datadog.android.core.internal.data.upload
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.context.NetworkInfo
+import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.configuration.UploadSchedulerStrategy
 import com.datadog.android.core.internal.ContextProvider
@@ -17,6 +18,7 @@ import com.datadog.android.core.internal.net.info.NetworkInfoProvider
 import com.datadog.android.core.internal.persistence.BatchData
 import com.datadog.android.core.internal.persistence.BatchId
 import com.datadog.android.core.internal.persistence.Storage
+import com.datadog.android.core.internal.persistence.StreamedBatchData
 import com.datadog.android.core.internal.system.SystemInfo
 import com.datadog.android.core.internal.system.SystemInfoProvider
 import com.datadog.android.utils.forge.Configurator
@@ -27,6 +29,7 @@ import fr.xgouchet.elmyr.annotation.LongForgery
 import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
 import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
@@ -39,6 +42,7 @@ import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
 import org.mockito.kotlin.any
 import org.mockito.kotlin.anyOrNull
+import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.eq
@@ -151,7 +155,9 @@ internal class DataUploadRunnableTest {
         testedRunnable.run()
 
         // Then
-        verifyNoInteractions(mockDataUploader, mockStorage)
+        verify(mockStorage).compactBatches()
+        verifyNoMoreInteractions(mockStorage)
+        verifyNoInteractions(mockDataUploader)
         verify(mockUploadSchedulerStrategy).getMsDelayUntilNextUpload(fakeFeatureName, 0, null, null)
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
@@ -320,7 +326,9 @@ internal class DataUploadRunnableTest {
         testedRunnable.run()
 
         // Then
-        verifyNoInteractions(mockStorage, mockDataUploader)
+        verify(mockStorage).compactBatches()
+        verifyNoMoreInteractions(mockStorage)
+        verifyNoInteractions(mockDataUploader)
         verify(mockUploadSchedulerStrategy).getMsDelayUntilNextUpload(fakeFeatureName, 0, null, null)
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
@@ -342,7 +350,9 @@ internal class DataUploadRunnableTest {
         testedRunnable.run()
 
         // Then
-        verifyNoInteractions(mockStorage, mockDataUploader)
+        verify(mockStorage).compactBatches()
+        verifyNoMoreInteractions(mockStorage)
+        verifyNoInteractions(mockDataUploader)
         verify(mockUploadSchedulerStrategy).getMsDelayUntilNextUpload(fakeFeatureName, 0, null, null)
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
@@ -364,7 +374,9 @@ internal class DataUploadRunnableTest {
         testedRunnable.run()
 
         // Then
-        verifyNoInteractions(mockStorage, mockDataUploader)
+        verify(mockStorage).compactBatches()
+        verifyNoMoreInteractions(mockStorage)
+        verifyNoInteractions(mockDataUploader)
         verify(mockUploadSchedulerStrategy).getMsDelayUntilNextUpload(fakeFeatureName, 0, null, null)
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
@@ -386,7 +398,9 @@ internal class DataUploadRunnableTest {
         testedRunnable.run()
 
         // Then
-        verifyNoInteractions(mockStorage, mockDataUploader)
+        verify(mockStorage).compactBatches()
+        verifyNoMoreInteractions(mockStorage)
+        verifyNoInteractions(mockDataUploader)
         verify(mockUploadSchedulerStrategy).getMsDelayUntilNextUpload(fakeFeatureName, 0, null, null)
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
@@ -444,6 +458,206 @@ internal class DataUploadRunnableTest {
         verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
     }
 
+    @Test
+    fun `M submit upload job to coordinator W run()`(
+        @Forgery batch: List<RawBatchEvent>,
+        @LongForgery fakeOldestBatchTimestamp: Long,
+        forge: Forge
+    ) {
+        // Given
+        val mockUploadCoordinator = mock<UploadCoordinator>()
+        testedRunnable = DataUploadRunnable(
+            featureName = fakeFeatureName,
+            threadPoolExecutor = mockThreadPoolExecutor,
+            storage = mockStorage,
+            dataUploader = mockDataUploader,
+            contextProvider = mockContextProvider,
+            networkInfoProvider = mockNetworkInfoProvider,
+            systemInfoProvider = mockSystemInfoProvider,
+            uploadSchedulerStrategy = mockUploadSchedulerStrategy,
+            maxBatchesPerJob = 1,
+            internalLogger = mockInternalLogger,
+            uploadCoordinator = mockUploadCoordinator
+        )
+        val batchId = mock<BatchId>()
+        whenever(mockStorage.getOldestBatchTimestamp()) doReturn fakeOldestBatchTimestamp
+        whenever(mockStorage.readNextBatch()) doReturn BatchData(batchId, batch, null)
+        whenever(mockDataUploader.upload(fakeContext, batch, null, batchId)) doReturn
+            forge.getForgery(UploadStatus.Success::class.java)
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        argumentCaptor<() -> Long?> {
+            val jobCaptor = argumentCaptor<Runnable>()
+            verify(mockUploadCoordinator).submit(eq(fakeFeatureName), capture(), jobCaptor.capture())
+            verifyNoInteractions(mockDataUploader)
+            verify(mockThreadPoolExecutor, never()).schedule(any<Runnable>(), any(), any())
+
+            assertThat(firstValue.invoke()).isEqualTo(fakeOldestBatchTimestamp)
+            jobCaptor.firstValue.run()
+        }
+        verify(mockDataUploader).upload(fakeContext, batch, null, batchId)
+        verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
+    }
+
+    @Test
+    fun `M send streamed batch W run() { uploader supports streaming }`(
+        forge: Forge
+    ) {
+        // Given
+        val batchId = mock<BatchId>()
+        val streamedBatch = StreamedBatchData(batchId, null, mock())
+        whenever(mockDataUploader.supportsStreaming()) doReturn true
+        whenever(mockStorage.readNextStreamedBatch()) doReturn streamedBatch
+        val fakeUploadStatus = forge.getForgery(UploadStatus.Success::class.java)
+        whenever(mockDataUploader.uploadStreamed(fakeContext, streamedBatch)) doReturn fakeUploadStatus
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        verify(mockStorage, times(fakeMaxBatchesPerJob)).confirmBatchRead(eq(batchId), any(), eq(true))
+        verify(mockDataUploader, times(fakeMaxBatchesPerJob)).uploadStreamed(fakeContext, streamedBatch)
+        verify(mockStorage, never()).readNextBatch()
+        verify(mockDataUploader, never()).upload(any(), any(), anyOrNull(), anyOrNull())
+        verify(mockThreadPoolExecutor).schedule(testedRunnable, fakeDelayUntilNextUploadMs, TimeUnit.MILLISECONDS)
+    }
+
+    @Test
+    fun `M merge batches in a single request W run() { adaptive upload policy }`(
+        @Forgery firstBatch: List<RawBatchEvent>,
+        @Forgery secondBatch: List<RawBatchEvent>,
+        @StringForgery batchMeta: String,
+        forge: Forge
+    ) {
+        // Given
+        val mockAdaptiveUploadPolicy = mock<AdaptiveUploadPolicy>()
+        whenever(mockAdaptiveUploadPolicy.getMaxBatchesPerRequest()) doReturn 2
+        testedRunnable = DataUploadRunnable(
+            featureName = fakeFeatureName,
+            threadPoolExecutor = mockThreadPoolExecutor,
+            storage = mockStorage,
+            dataUploader = mockDataUploader,
+            contextProvider = mockContextProvider,
+            networkInfoProvider = mockNetworkInfoProvider,
+            systemInfoProvider = mockSystemInfoProvider,
+            uploadSchedulerStrategy = mockUploadSchedulerStrategy,
+            maxBatchesPerJob = 1,
+            internalLogger = mockInternalLogger,
+            adaptiveUploadPolicy = mockAdaptiveUploadPolicy,
+            storageConfiguration = FeatureStorageConfiguration.DEFAULT.copy(
+                maxBatchSize = Long.MAX_VALUE,
+                maxItemsPerBatch = Int.MAX_VALUE
+            )
+        )
+        val firstBatchId = mock<BatchId>()
+        val secondBatchId = mock<BatchId>()
+        val batchMetadata = forge.aNullable { batchMeta.toByteArray() }
+        whenever(mockStorage.readNextBatch()) doReturn BatchData(firstBatchId, firstBatch, batchMetadata)
+        whenever(mockStorage.readNextMergeableBatch(eq(batchMetadata), any())) doReturn
+            BatchData(secondBatchId, secondBatch, batchMetadata?.copyOf())
+        val mergedBatch = firstBatch + secondBatch
+        val fakeUploadStatus = forge.getForgery(UploadStatus.Success::class.java)
+        whenever(mockDataUploader.upload(fakeContext, mergedBatch, batchMetadata, firstBatchId)) doReturn
+            fakeUploadStatus
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        verify(mockDataUploader).upload(fakeContext, mergedBatch, batchMetadata, firstBatchId)
+        verify(mockStorage).confirmBatchRead(eq(firstBatchId), any(), eq(true))
+        verify(mockStorage).confirmBatchRead(eq(secondBatchId), any(), eq(true))
+    }
+
+    @Test
+    fun `M not merge batches W run() { adaptive upload policy, next batch not mergeable }`(
+        @Forgery firstBatch: List<RawBatchEvent>,
+        @StringForgery batchMeta: String,
+        forge: Forge
+    ) {
+        // Given
+        val mockAdaptiveUploadPolicy = mock<AdaptiveUploadPolicy>()
+        whenever(mockAdaptiveUploadPolicy.getMaxBatchesPerRequest()) doReturn 2
+        testedRunnable = DataUploadRunnable(
+            featureName = fakeFeatureName,
+            threadPoolExecutor = mockThreadPoolExecutor,
+            storage = mockStorage,
+            dataUploader = mockDataUploader,
+            contextProvider = mockContextProvider,
+            networkInfoProvider = mockNetworkInfoProvider,
+            systemInfoProvider = mockSystemInfoProvider,
+            uploadSchedulerStrategy = mockUploadSchedulerStrategy,
+            maxBatchesPerJob = 1,
+            internalLogger = mockInternalLogger,
+            adaptiveUploadPolicy = mockAdaptiveUploadPolicy,
+            storageConfiguration = FeatureStorageConfiguration.DEFAULT.copy(
+                maxBatchSize = Long.MAX_VALUE,
+                maxItemsPerBatch = Int.MAX_VALUE
+            )
+        )
+        val firstBatchId = mock<BatchId>()
+        val batchMetadata = batchMeta.toByteArray()
+        whenever(mockStorage.readNextBatch()) doReturn BatchData(firstBatchId, firstBatch, batchMetadata)
+        whenever(mockStorage.readNextMergeableBatch(any(), any())) doReturn null
+        val fakeUploadStatus = forge.getForgery(UploadStatus.Success::class.java)
+        whenever(mockDataUploader.upload(fakeContext, firstBatch, batchMetadata, firstBatchId)) doReturn
+            fakeUploadStatus
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        verify(mockStorage).readNextMergeableBatch(batchMetadata, Long.MAX_VALUE - firstBatch.sumOf { it.data.size })
+        verify(mockDataUploader).upload(fakeContext, firstBatch, batchMetadata, firstBatchId)
+        verify(mockStorage).confirmBatchRead(eq(firstBatchId), any(), eq(true))
+    }
+
+    @Test
+    fun `M not merge batches W run() { adaptive upload policy, too many items }`(
+        @Forgery firstEvent: RawBatchEvent,
+        @Forgery secondEvent: RawBatchEvent,
+        @StringForgery batchMeta: String,
+        forge: Forge
+    ) {
+        // Given
+        val mockAdaptiveUploadPolicy = mock<AdaptiveUploadPolicy>()
+        whenever(mockAdaptiveUploadPolicy.getMaxBatchesPerRequest()) doReturn 2
+        testedRunnable = DataUploadRunnable(
+            featureName = fakeFeatureName,
+            threadPoolExecutor = mockThreadPoolExecutor,
+            storage = mockStorage,
+            dataUploader = mockDataUploader,
+            contextProvider = mockContextProvider,
+            networkInfoProvider = mockNetworkInfoProvider,
+            systemInfoProvider = mockSystemInfoProvider,
+            uploadSchedulerStrategy = mockUploadSchedulerStrategy,
+            maxBatchesPerJob = 1,
+            internalLogger = mockInternalLogger,
+            adaptiveUploadPolicy = mockAdaptiveUploadPolicy,
+            storageConfiguration = FeatureStorageConfiguration.DEFAULT.copy(maxItemsPerBatch = 2)
+        )
+        val firstBatchId = mock<BatchId>()
+        val secondBatchId = mock<BatchId>()
+        val batchMetadata = batchMeta.toByteArray()
+        whenever(mockStorage.readNextBatch()) doReturn BatchData(firstBatchId, listOf(firstEvent), batchMetadata)
+        whenever(mockStorage.readNextMergeableBatch(any(), any())) doReturn
+            BatchData(secondBatchId, listOf(secondEvent, secondEvent), batchMetadata)
+        val fakeUploadStatus = forge.getForgery(UploadStatus.Success::class.java)
+        whenever(mockDataUploader.upload(fakeContext, listOf(firstEvent), batchMetadata, firstBatchId)) doReturn
+            fakeUploadStatus
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        verify(mockDataUploader).upload(fakeContext, listOf(firstEvent), batchMetadata, firstBatchId)
+        verify(mockStorage).confirmBatchRead(eq(firstBatchId), any(), eq(true))
+        verify(mockStorage).confirmBatchRead(eq(secondBatchId), any(), eq(false))
+    }
+
     @ParameterizedTest
     @MethodSource("retryBatchStatusValues")
     fun `batch kept on error`(
@@ -6,6 +6,7 @@
 
 package com.datadog.android.core.internal.data.upload
 
+import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.core.configuration.UploadSchedulerStrategy
 import com.datadog.android.utils.forge.Configurator
 import fr.xgouchet.elmyr.annotation.IntForgery
@@ -45,6 +46,9 @@ internal class DataUploadSchedulerTest {
     @Mock
     lateinit var mockUploadSchedulerStrategy: UploadSchedulerStrategy
 
+    @Mock
+    lateinit var mockUploadCoordinator: UploadCoordinator
+
     @IntForgery(min = 1, max = 4)
     var fakeMaxBatchesPerJob: Int = 0
 
@@ -60,6 +64,9 @@ internal class DataUploadSchedulerTest {
             uploadSchedulerStrategy = mockUploadSchedulerStrategy,
             maxBatchesPerJob = fakeMaxBatchesPerJob,
             scheduledThreadPoolExecutor = mockExecutor,
+            uploadCoordinator = mockUploadCoordinator,
+            adaptiveUploadPolicy = null,
+            storageConfiguration = FeatureStorageConfiguration.DEFAULT,
             internalLogger = mock()
         )
     }
@@ -90,4 +97,16 @@ internal class DataUploadSchedulerTest {
         )
         verify(mockExecutor).remove(argumentCaptor.firstValue)
     }
+
+    @Test
+    fun `when stop it will cancel the pending upload jobs`() {
+        // Given
+        testedScheduler.startScheduling()
+
+        // When
+        testedScheduler.stopScheduling()
+
+        // Then
+        verify(mockUploadCoordinator).cancel(fakeFeatureName)
+    }
 }
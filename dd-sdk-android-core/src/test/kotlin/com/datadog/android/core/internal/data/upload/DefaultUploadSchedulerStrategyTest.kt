@@ -11,6 +11,7 @@ import com.datadog.android.core.internal.configuration.DataUploadConfiguration
 import com.datadog.android.utils.forge.Configurator
 import fr.xgouchet.elmyr.annotation.Forgery
 import fr.xgouchet.elmyr.annotation.IntForgery
+import fr.xgouchet.elmyr.annotation.LongForgery
 import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
 import fr.xgouchet.elmyr.junit5.ForgeExtension
@@ -21,6 +22,11 @@ import org.junit.jupiter.api.extension.ExtendWith
 import org.junit.jupiter.api.extension.Extensions
 import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
 import org.mockito.quality.Strictness
 import java.io.IOException
 
@@ -130,4 +136,22 @@ internal class DefaultUploadSchedulerStrategyTest {
         // Then
         assertThat(delay).isEqualTo(DefaultUploadSchedulerStrategy.NETWORK_ERROR_DELAY_MS)
     }
+
+    @Test
+    fun `M adjust delay W getMsDelayUntilNextUpload() {adaptive upload policy}`(
+        @IntForgery(1, 64) attempts: Int,
+        @LongForgery(1) fakeAdjustedDelay: Long
+    ) {
+        // Given
+        val mockAdaptiveUploadPolicy = mock<AdaptiveUploadPolicy>()
+        whenever(mockAdaptiveUploadPolicy.adjustDelay(any(), any())) doReturn fakeAdjustedDelay
+        testedStrategy = DefaultUploadSchedulerStrategy(fakeConfiguration, mockAdaptiveUploadPolicy)
+
+        // When
+        val delay = testedStrategy.getMsDelayUntilNextUpload(fakeFeatureName, attempts, 202, null)
+
+        // Then
+        assertThat(delay).isEqualTo(fakeAdjustedDelay)
+        verify(mockAdaptiveUploadPolicy).adjustDelay(fakeConfiguration.minDelayMs, fakeConfiguration.maxDelayMs)
+    }
 }
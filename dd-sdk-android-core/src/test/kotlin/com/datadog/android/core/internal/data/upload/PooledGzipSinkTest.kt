@@ -0,0 +1,84 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.internal.compression.DeflaterPool
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import okio.Buffer
+import okio.buffer
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.kotlin.any
+import org.mockito.kotlin.spy
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class PooledGzipSinkTest {
+
+    @Test
+    fun `M write a valid gzip stream W write() + close()`(
+        forge: Forge
+    ) {
+        // Given
+        val data = forge.anAlphabeticalString(size = forge.anInt(0, 64 * 1024)).toByteArray()
+        val output = Buffer()
+
+        // When
+        PooledGzipSink(output, Deflater.DEFAULT_COMPRESSION, DeflaterPool()).buffer().use {
+            it.write(data)
+        }
+
+        // Then
+        val decompressed = GZIPInputStream(output.inputStream()).use { it.readBytes() }
+        assertThat(decompressed).isEqualTo(data)
+    }
+
+    @Test
+    fun `M write valid gzip streams W write() + close() {reused deflater}`(
+        forge: Forge
+    ) {
+        // Given
+        val pool = DeflaterPool()
+        val firstData = forge.anAlphabeticalString().toByteArray()
+        val secondData = forge.anAlphabeticalString().toByteArray()
+        val firstOutput = Buffer()
+        val secondOutput = Buffer()
+
+        // When
+        PooledGzipSink(firstOutput, Deflater.DEFAULT_COMPRESSION, pool).buffer().use { it.write(firstData) }
+        PooledGzipSink(secondOutput, Deflater.DEFAULT_COMPRESSION, pool).buffer().use { it.write(secondData) }
+
+        // Then
+        assertThat(GZIPInputStream(firstOutput.inputStream()).use { it.readBytes() }).isEqualTo(firstData)
+        assertThat(GZIPInputStream(secondOutput.inputStream()).use { it.readBytes() }).isEqualTo(secondData)
+    }
+
+    @Test
+    fun `M give back deflater and buffers W close()`() {
+        // Given
+        val pool = spy(DeflaterPool())
+        val sink = PooledGzipSink(Buffer(), Deflater.DEFAULT_COMPRESSION, pool)
+
+        // When
+        sink.close()
+
+        // Then
+        verify(pool).releaseDeflater(any())
+        verify(pool, times(2)).releaseBuffer(any())
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doAnswer
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.RejectedExecutionException
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class PriorityUploadCoordinatorTest {
+
+    private lateinit var testedCoordinator: PriorityUploadCoordinator
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    private val pendingTasks = mutableListOf<Runnable>()
+
+    private val fakeNow = 1_000_000_000L
+
+    private val ranJobs = mutableListOf<String>()
+
+    @BeforeEach
+    fun `set up`() {
+        testedCoordinator = PriorityUploadCoordinator(
+            executor = fakeExecutor { pendingTasks.add(it) },
+            maxConcurrentUploads = 1,
+            internalLogger = mockInternalLogger,
+            featureWeights = mapOf(HEAVY_FEATURE to 4, LIGHT_FEATURE to 1)
+        ) { fakeNow }
+    }
+
+    @Test
+    fun `M run job on executor W submit()`(
+        @StringForgery featureName: String
+    ) {
+        // When
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+
+        // Then
+        assertThat(ranJobs).isEmpty()
+        assertThat(pendingTasks).hasSize(1)
+        runNextTask()
+        assertThat(ranJobs).containsExactly(featureName)
+    }
+
+    @Test
+    fun `M not exceed max concurrent uploads W submit()`() {
+        // When
+        testedCoordinator.submit(HEAVY_FEATURE, { null }, job(HEAVY_FEATURE))
+        testedCoordinator.submit(LIGHT_FEATURE, { null }, job(LIGHT_FEATURE))
+
+        // Then
+        assertThat(pendingTasks).hasSize(1)
+        runNextTask()
+        assertThat(pendingTasks).hasSize(1)
+        runNextTask()
+        assertThat(ranJobs).containsExactly(HEAVY_FEATURE, LIGHT_FEATURE)
+    }
+
+    @Test
+    fun `M run heaviest feature first W submit() {batches of same age}`(
+        @StringForgery blockingFeature: String
+    ) {
+        // Given
+        testedCoordinator.submit(blockingFeature, { null }, job(blockingFeature))
+
+        // When
+        testedCoordinator.submit(LIGHT_FEATURE, { fakeNow }, job(LIGHT_FEATURE))
+        testedCoordinator.submit(HEAVY_FEATURE, { fakeNow }, job(HEAVY_FEATURE))
+        repeat(3) { runNextTask() }
+
+        // Then
+        assertThat(ranJobs).containsExactly(blockingFeature, HEAVY_FEATURE, LIGHT_FEATURE)
+    }
+
+    @Test
+    fun `M run feature with oldest batch first W submit() {much older batch}`(
+        @StringForgery blockingFeature: String
+    ) {
+        // Given
+        val oldTimestamp = fakeNow - (PriorityUploadCoordinator.AGE_URGENCY_STEP_MS * 10).toLong()
+        testedCoordinator.submit(blockingFeature, { null }, job(blockingFeature))
+
+        // When
+        testedCoordinator.submit(HEAVY_FEATURE, { fakeNow }, job(HEAVY_FEATURE))
+        testedCoordinator.submit(LIGHT_FEATURE, { oldTimestamp }, job(LIGHT_FEATURE))
+        repeat(3) { runNextTask() }
+
+        // Then
+        assertThat(ranJobs).containsExactly(blockingFeature, LIGHT_FEATURE, HEAVY_FEATURE)
+    }
+
+    @Test
+    fun `M ignore job W submit() {feature job already pending}`(
+        @StringForgery blockingFeature: String
+    ) {
+        // Given
+        testedCoordinator.submit(blockingFeature, { null }, job(blockingFeature))
+        testedCoordinator.submit(HEAVY_FEATURE, { null }, job(HEAVY_FEATURE))
+
+        // When
+        testedCoordinator.submit(HEAVY_FEATURE, { null }, job(HEAVY_FEATURE))
+        repeat(3) { runNextTask() }
+
+        // Then
+        assertThat(ranJobs).containsExactly(blockingFeature, HEAVY_FEATURE)
+    }
+
+    @Test
+    fun `M run job on current thread W submit() {executor rejects tasks}`(
+        @StringForgery featureName: String
+    ) {
+        // Given
+        testedCoordinator = PriorityUploadCoordinator(
+            executor = fakeExecutor { throw RejectedExecutionException() },
+            maxConcurrentUploads = 1,
+            internalLogger = mockInternalLogger
+        )
+
+        // When
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+
+        // Then
+        assertThat(ranJobs).containsExactly(featureName, featureName)
+    }
+
+    @Test
+    fun `M run jobs on current thread W submit() {executor shut down}`(
+        @StringForgery featureName: String
+    ) {
+        // Given
+        val mockExecutor = fakeExecutor { pendingTasks.add(it) }
+        whenever(mockExecutor.isShutdown) doReturn true
+        testedCoordinator = PriorityUploadCoordinator(
+            executor = mockExecutor,
+            maxConcurrentUploads = 1,
+            internalLogger = mockInternalLogger
+        )
+
+        // When
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+
+        // Then
+        assertThat(pendingTasks).isEmpty()
+        assertThat(ranJobs).containsExactly(featureName, featureName)
+    }
+
+    @Test
+    fun `M run job once on current thread W submit() {executor shut down while dispatching}`(
+        @StringForgery featureName: String
+    ) {
+        // Given
+        var isShutdown = false
+        val mockExecutor = mock<ExecutorService>()
+        whenever(mockExecutor.isShutdown) doAnswer { isShutdown }
+        // a logging executor drops the task instead of throwing
+        whenever(mockExecutor.execute(any())) doAnswer {
+            pendingTasks.add(it.getArgument(0))
+            isShutdown = true
+        }
+        testedCoordinator = PriorityUploadCoordinator(
+            executor = mockExecutor,
+            maxConcurrentUploads = 1,
+            internalLogger = mockInternalLogger
+        )
+
+        // When
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+        // the dropped task runs anyway if it was drained from the executor queue
+        runNextTask()
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+
+        // Then
+        assertThat(ranJobs).containsExactly(featureName, featureName)
+    }
+
+    @Test
+    fun `M drop pending job W cancel()`(
+        @StringForgery blockingFeature: String
+    ) {
+        // Given
+        testedCoordinator.submit(blockingFeature, { null }, job(blockingFeature))
+        testedCoordinator.submit(HEAVY_FEATURE, { null }, job(HEAVY_FEATURE))
+
+        // When
+        testedCoordinator.cancel(HEAVY_FEATURE)
+        repeat(2) { runNextTask() }
+
+        // Then
+        assertThat(ranJobs).containsExactly(blockingFeature)
+    }
+
+    @Test
+    fun `M not run dispatched job W cancel()`(
+        @StringForgery featureName: String
+    ) {
+        // Given
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+
+        // When
+        testedCoordinator.cancel(featureName)
+        runNextTask()
+
+        // Then
+        assertThat(ranJobs).isEmpty()
+    }
+
+    @Test
+    fun `M run job submitted after cancellation W cancel() + submit()`(
+        @StringForgery featureName: String
+    ) {
+        // Given
+        testedCoordinator.cancel(featureName)
+
+        // When
+        testedCoordinator.submit(featureName, { null }, job(featureName))
+        runNextTask()
+
+        // Then
+        assertThat(ranJobs).containsExactly(featureName)
+    }
+
+    // region Internal
+
+    private fun job(featureName: String) = Runnable { ranJobs.add(featureName) }
+
+    private fun fakeExecutor(execute: (Runnable) -> Unit): ExecutorService {
+        val mockExecutor = mock<ExecutorService>()
+        whenever(mockExecutor.execute(any())) doAnswer {
+            execute(it.getArgument(0))
+        }
+        return mockExecutor
+    }
+
+    private fun runNextTask() {
+        pendingTasks.removeFirstOrNull()?.run()
+    }
+
+    // endregion
+
+    companion object {
+        private const val HEAVY_FEATURE = "heavy"
+        private const val LIGHT_FEATURE = "light"
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.api.storage.RawBatchEvent
+import com.datadog.android.core.internal.persistence.BatchEventsSource
+import com.datadog.android.core.internal.persistence.BatchId
+import com.datadog.android.core.internal.persistence.StreamedBatchData
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import okio.Buffer
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import java.io.IOException
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class StreamingBatchRequestBodyTest {
+
+    @Test
+    fun `M write framed events W writeTo()`(
+        @Forgery fakeBatchId: BatchId,
+        forge: Forge
+    ) {
+        // Given
+        val events = forge.aList { RawBatchEvent(data = anAlphabeticalString().toByteArray()) }
+        val batch = StreamedBatchData(fakeBatchId, null, FakeEventsSource(events))
+        val testedBody = StreamingBatchRequestBody(
+            batch,
+            null,
+            "[".toByteArray(),
+            ",".toByteArray(),
+            "]".toByteArray()
+        )
+        val buffer = Buffer()
+
+        // When
+        testedBody.writeTo(buffer)
+
+        // Then
+        assertThat(buffer.readUtf8())
+            .isEqualTo(events.joinToString(",", "[", "]") { String(it.data) })
+        assertThat(batch.eventsSize).isEqualTo(events.sumOf { it.data.size }.toLong())
+    }
+
+    @Test
+    fun `M write prefix and suffix only W writeTo() {empty batch}`(
+        @Forgery fakeBatchId: BatchId
+    ) {
+        // Given
+        val batch = StreamedBatchData(fakeBatchId, null, FakeEventsSource(emptyList()))
+        val testedBody = StreamingBatchRequestBody(
+            batch,
+            null,
+            "[".toByteArray(),
+            ",".toByteArray(),
+            "]".toByteArray()
+        )
+        val buffer = Buffer()
+
+        // When
+        testedBody.writeTo(buffer)
+
+        // Then
+        assertThat(buffer.readUtf8()).isEqualTo("[]")
+    }
+
+    @Test
+    fun `M have unknown length W contentLength()`(
+        @Forgery fakeBatchId: BatchId
+    ) {
+        // Given
+        val batch = StreamedBatchData(fakeBatchId, null, FakeEventsSource(emptyList()))
+        val testedBody = StreamingBatchRequestBody(batch, null, ByteArray(0), ByteArray(0), ByteArray(0))
+
+        // When
+        val result = testedBody.contentLength()
+
+        // Then
+        assertThat(result).isEqualTo(-1L)
+    }
+
+    @Test
+    fun `M propagate IOException W writeTo() {events can't be read}`(
+        @Forgery fakeBatchId: BatchId
+    ) {
+        // Given
+        val exception = IOException()
+        val batch = StreamedBatchData(
+            fakeBatchId,
+            null,
+            object : BatchEventsSource {
+                override fun forEachEvent(action: (RawBatchEvent) -> Unit) {
+                    throw exception
+                }
+
+                override fun readAll(): List<RawBatchEvent> = emptyList()
+            }
+        )
+        val testedBody = StreamingBatchRequestBody(batch, null, ByteArray(0), ByteArray(0), ByteArray(0))
+
+        // When + Then
+        assertThatThrownBy { testedBody.writeTo(Buffer()) }.isSameAs(exception)
+    }
+
+    private class FakeEventsSource(private val events: List<RawBatchEvent>) : BatchEventsSource {
+        override fun forEachEvent(action: (RawBatchEvent) -> Unit) {
+            events.forEach(action)
+        }
+
+        override fun readAll(): List<RawBatchEvent> = events
+    }
+}
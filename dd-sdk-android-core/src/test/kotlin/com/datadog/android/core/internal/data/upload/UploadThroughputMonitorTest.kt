@@ -0,0 +1,98 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.data.upload
+
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.LongForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.within
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class UploadThroughputMonitorTest {
+
+    private lateinit var testedMonitor: UploadThroughputMonitor
+
+    @BeforeEach
+    fun `set up`() {
+        testedMonitor = UploadThroughputMonitor()
+    }
+
+    @Test
+    fun `M return null W getThroughputBytesPerSecond() + getLatencyMs() {no request completed}`() {
+        // When
+        val throughput = testedMonitor.getThroughputBytesPerSecond()
+        val latency = testedMonitor.getLatencyMs()
+
+        // Then
+        assertThat(throughput).isNull()
+        assertThat(latency).isNull()
+    }
+
+    @Test
+    fun `M measure throughput and latency W onRequestCompleted() {first request}`(
+        @LongForgery(min = UploadThroughputMonitor.MIN_THROUGHPUT_SAMPLE_SIZE, max = 4L * 1024 * 1024) bodySize: Long,
+        @LongForgery(min = 1, max = 60000) durationMs: Long
+    ) {
+        // When
+        testedMonitor.onRequestCompleted(bodySize, durationMs)
+
+        // Then
+        assertThat(testedMonitor.getThroughputBytesPerSecond())
+            .isCloseTo(bodySize * 1000.0 / durationMs, within(0.001))
+        assertThat(testedMonitor.getLatencyMs()).isEqualTo(durationMs.toDouble())
+    }
+
+    @Test
+    fun `M only measure latency W onRequestCompleted() {small request}`(
+        @LongForgery(min = 0, max = UploadThroughputMonitor.MIN_THROUGHPUT_SAMPLE_SIZE) bodySize: Long,
+        @LongForgery(min = 1, max = 60000) durationMs: Long
+    ) {
+        // When
+        testedMonitor.onRequestCompleted(bodySize, durationMs)
+
+        // Then
+        assertThat(testedMonitor.getThroughputBytesPerSecond()).isNull()
+        assertThat(testedMonitor.getLatencyMs()).isEqualTo(durationMs.toDouble())
+    }
+
+    @Test
+    fun `M smooth measures W onRequestCompleted() {several requests}`(
+        @LongForgery(min = 1, max = 30000) firstDurationMs: Long,
+        @LongForgery(min = 30001, max = 60000) secondDurationMs: Long
+    ) {
+        // When
+        testedMonitor.onRequestCompleted(0L, firstDurationMs)
+        testedMonitor.onRequestCompleted(0L, secondDurationMs)
+
+        // Then
+        val expectedLatency = firstDurationMs +
+            UploadThroughputMonitor.SMOOTHING_FACTOR * (secondDurationMs - firstDurationMs)
+        assertThat(testedMonitor.getLatencyMs()).isCloseTo(expectedLatency, within(0.001))
+    }
+
+    @Test
+    fun `M ignore request W onRequestCompleted() {invalid duration}`(
+        @LongForgery(min = 0) bodySize: Long,
+        @LongForgery(max = 1) durationMs: Long
+    ) {
+        // When
+        testedMonitor.onRequestCompleted(bodySize, durationMs)
+
+        // Then
+        assertThat(testedMonitor.getThroughputBytesPerSecond()).isNull()
+        assertThat(testedMonitor.getLatencyMs()).isNull()
+    }
+}
@@ -366,6 +366,37 @@ internal class DefaultFirstPartyHostHeaderTypeResolverTest {
             .isEqualTo(setOf(TracingHeaderType.TRACECONTEXT))
     }
 
+    @Test
+    fun `M return most specific header type W headerTypesForUrl(String) {nested subdomain}`() {
+        val resolver = DefaultFirstPartyHostHeaderTypeResolver(
+            mapOf(
+                "bar.com" to setOf(TracingHeaderType.DATADOG),
+                "foo.bar.com" to setOf(TracingHeaderType.TRACECONTEXT)
+            )
+        )
+
+        assertThat(resolver.headerTypesForUrl("http://api.foo.bar.com"))
+            .isEqualTo(setOf(TracingHeaderType.TRACECONTEXT))
+
+        assertThat(resolver.headerTypesForUrl("http://api.bar.com"))
+            .isEqualTo(setOf(TracingHeaderType.DATADOG))
+    }
+
+    @Test
+    fun `M match new hosts W addKnownHostsWithHeaderTypes() {after previous lookup}`() {
+        // Given
+        val resolver = DefaultFirstPartyHostHeaderTypeResolver(emptyMap())
+        assertThat(resolver.isFirstPartyUrl("http://api.bar.com")).isFalse()
+
+        // When
+        resolver.addKnownHostsWithHeaderTypes(mapOf("BAR.com" to setOf(TracingHeaderType.B3)))
+
+        // Then
+        assertThat(resolver.isFirstPartyUrl("http://api.bar.com")).isTrue()
+        assertThat(resolver.headerTypesForUrl("http://api.bar.com"))
+            .isEqualTo(setOf(TracingHeaderType.B3))
+    }
+
     companion object {
         private const val HOST_REGEX = "([a-z][a-z0-9_~-]{3,9}\\.){1,4}[a-z][a-z0-9]{2,3}"
     }
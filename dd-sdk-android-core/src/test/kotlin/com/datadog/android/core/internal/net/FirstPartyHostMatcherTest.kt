@@ -0,0 +1,144 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.net
+
+import com.datadog.android.trace.TracingHeaderType
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class FirstPartyHostMatcherTest {
+
+    @Test
+    fun `M return header types W match() {exact host}`(
+        @StringForgery(regex = HOST_REGEX) fakeHost: String,
+        forge: Forge
+    ) {
+        // Given
+        val fakeHeaderTypes = forge.aList { aValueFrom(TracingHeaderType::class.java) }.toSet()
+        val testedMatcher = FirstPartyHostMatcher(mapOf(fakeHost to fakeHeaderTypes))
+
+        // When
+        val result = testedMatcher.match(fakeHost)
+
+        // Then
+        assertThat(result).isEqualTo(fakeHeaderTypes)
+    }
+
+    @Test
+    fun `M return header types W match() {subdomain}`(
+        @StringForgery(regex = HOST_REGEX) fakeHost: String,
+        @StringForgery(regex = "[a-z0-9_~-]{1,9}") fakeSubdomain: String,
+        forge: Forge
+    ) {
+        // Given
+        val fakeHeaderTypes = forge.aList { aValueFrom(TracingHeaderType::class.java) }.toSet()
+        val testedMatcher = FirstPartyHostMatcher(mapOf(fakeHost to fakeHeaderTypes))
+
+        // When
+        val result = testedMatcher.match("$fakeSubdomain.$fakeHost")
+
+        // Then
+        assertThat(result).isEqualTo(fakeHeaderTypes)
+    }
+
+    @Test
+    fun `M return null W match() {unknown host postfixed with known host}`(
+        @StringForgery(regex = HOST_REGEX) fakeHost: String,
+        @StringForgery(regex = "[a-z0-9_~-]{1,9}") fakePrefix: String
+    ) {
+        // Given
+        val testedMatcher = FirstPartyHostMatcher(mapOf(fakeHost to emptySet()))
+
+        // When
+        val result = testedMatcher.match("$fakePrefix$fakeHost")
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `M return null W match() {parent domain of known host}`() {
+        // Given
+        val testedMatcher = FirstPartyHostMatcher(mapOf("api.example.com" to emptySet()))
+
+        // When
+        val result = testedMatcher.match("example.com")
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `M return most specific header types W match() {nested known hosts}`() {
+        // Given
+        val testedMatcher = FirstPartyHostMatcher(
+            mapOf(
+                "example.com" to setOf(TracingHeaderType.DATADOG),
+                "api.example.com" to setOf(TracingHeaderType.TRACECONTEXT)
+            )
+        )
+
+        // When
+        val apiResult = testedMatcher.match("v2.api.example.com")
+        val otherResult = testedMatcher.match("www.example.com")
+
+        // Then
+        assertThat(apiResult).isEqualTo(setOf(TracingHeaderType.TRACECONTEXT))
+        assertThat(otherResult).isEqualTo(setOf(TracingHeaderType.DATADOG))
+    }
+
+    @Test
+    fun `M return wildcard header types W match() {unknown host + wildcard}`(
+        @StringForgery(regex = HOST_REGEX) fakeHost: String
+    ) {
+        // Given
+        val testedMatcher = FirstPartyHostMatcher(
+            mapOf(
+                "example.com" to setOf(TracingHeaderType.DATADOG),
+                "*" to setOf(TracingHeaderType.B3)
+            )
+        )
+
+        // When
+        val result = testedMatcher.match("$fakeHost.net")
+
+        // Then
+        assertThat(result).isEqualTo(setOf(TracingHeaderType.B3))
+    }
+
+    @Test
+    fun `M return the same result W match() {repeated calls}`(
+        @StringForgery(regex = HOST_REGEX) fakeHost: String,
+        @StringForgery(regex = HOST_REGEX) fakeOtherHost: String
+    ) {
+        // Given
+        val testedMatcher = FirstPartyHostMatcher(mapOf(fakeHost to setOf(TracingHeaderType.DATADOG)))
+
+        // When
+        val firstResults = listOf(testedMatcher.match(fakeHost), testedMatcher.match("$fakeOtherHost.net"))
+        val secondResults = listOf(testedMatcher.match(fakeHost), testedMatcher.match("$fakeOtherHost.net"))
+
+        // Then
+        assertThat(firstResults).containsExactly(setOf(TracingHeaderType.DATADOG), null)
+        assertThat(secondResults).isEqualTo(firstResults)
+    }
+
+    companion object {
+        private const val HOST_REGEX = "([a-z][a-z0-9_~-]{3,9}\\.){1,4}[a-z][a-z0-9]{2,3}"
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.storage.EventType
+import com.datadog.android.api.storage.RawBatchEvent
+import com.datadog.android.core.internal.persistence.CoalescedFileEventBatchWriter.Companion.ERROR_APPEND_FAILED
+import com.datadog.android.core.internal.persistence.FileEventBatchWriter.Companion.ERROR_LARGE_DATA
+import com.datadog.android.core.internal.persistence.FileEventBatchWriter.Companion.NO_BATCH_FILE_AVAILABLE
+import com.datadog.android.core.internal.persistence.file.FileOrchestrator
+import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
+import com.datadog.android.core.internal.persistence.file.FileReaderWriter
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileChannel
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderWriter
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileSlots
+import com.datadog.android.utils.forge.Configurator
+import com.datadog.android.utils.verifyLog
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.annotation.IntForgery
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.inOrder
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.kotlin.verifyNoMoreInteractions
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+import java.io.File
+import java.util.Locale
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class CoalescedFileEventBatchWriterTest {
+
+    private lateinit var testedWriter: CoalescedFileEventBatchWriter
+
+    @Mock
+    lateinit var mockBatchWriter: BatchFileReaderWriter
+
+    @Mock
+    lateinit var mockMetaReaderWriter: FileReaderWriter
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    @Mock
+    lateinit var mockFilePersistenceConfig: FilePersistenceConfig
+
+    @Mock
+    lateinit var mockBatchWriteEventListener: BatchWriteEventListener
+
+    @Mock
+    lateinit var mockFileOrchestrator: FileOrchestrator
+
+    @Forgery
+    lateinit var fakeBatchFile: File
+
+    @Forgery
+    lateinit var fakeBatchMetadataFile: File
+
+    @Forgery
+    lateinit var fakeEventType: EventType
+
+    @IntForgery(min = 2, max = 64)
+    var fakeExpectedEventsCount: Int = 0
+
+    @BeforeEach
+    fun `set up`() {
+        testedWriter = CoalescedFileEventBatchWriter(
+            fileOrchestrator = mockFileOrchestrator,
+            eventsWriter = mockBatchWriter,
+            metadataReaderWriter = mockMetaReaderWriter,
+            filePersistenceConfig = mockFilePersistenceConfig,
+            batchWriteEventListener = mockBatchWriteEventListener,
+            internalLogger = mockInternalLogger,
+            expectedEventsCount = fakeExpectedEventsCount
+        )
+        whenever(mockFilePersistenceConfig.maxItemSize) doReturn Long.MAX_VALUE
+        whenever(mockFilePersistenceConfig.maxBatchSize) doReturn Long.MAX_VALUE
+        whenever(mockFileOrchestrator.getWritableFile(any())) doReturn fakeBatchFile
+        whenever(mockFileOrchestrator.getMetadataFile(fakeBatchFile)) doReturn fakeBatchMetadataFile
+        whenever(mockBatchWriter.appendData(any<File>(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn true
+    }
+
+    // region write + commit
+
+    @Test
+    fun `M append events and write metadata once W write() + commit()`(
+        @StringForgery batchMetadata: String,
+        forge: Forge
+    ) {
+        // Given
+        val events = forge.aList { RawBatchEvent(data = anAlphabeticalString(size = aTinyInt() + 1).toByteArray()) }
+        val serializedMetadata = batchMetadata.toByteArray(Charsets.UTF_8)
+
+        // When
+        val results = events.map { testedWriter.write(it, serializedMetadata, fakeEventType) }
+        testedWriter.commit()
+
+        // Then
+        assertThat(results).containsOnly(true)
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount)
+        verify(mockBatchWriter).appendData(fakeBatchFile, events, null)
+        verify(mockMetaReaderWriter).writeData(fakeBatchMetadataFile, serializedMetadata, false)
+        verify(mockBatchWriteEventListener).onWriteEvent(events.sumOf { it.data.size }.toLong())
+        verifyNoMoreInteractions(mockBatchWriter, mockMetaReaderWriter)
+    }
+
+    @Test
+    fun `M append events through channel W write() + commit() {persistent channel}`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        whenever(mockFileOrchestrator.getWritableFileChannel()) doReturn mockChannel
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+
+        // When
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        verify(mockBatchWriter).appendData(fakeBatchFile, listOf(event), mockChannel)
+    }
+
+    @Test
+    fun `M not append event before commit W write()`(
+        @Forgery batchEvent: RawBatchEvent,
+        @StringForgery batchMetadata: String
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+
+        // When
+        val result = testedWriter.write(event, batchMetadata.toByteArray(), fakeEventType)
+
+        // Then
+        assertThat(result).isTrue()
+        verifyNoInteractions(mockBatchWriter, mockMetaReaderWriter, mockBatchWriteEventListener)
+    }
+
+    @Test
+    fun `M write nothing W commit() {no event written}`() {
+        // When
+        testedWriter.commit()
+
+        // Then
+        verifyNoInteractions(mockBatchWriter, mockMetaReaderWriter, mockBatchWriteEventListener)
+    }
+
+    @Test
+    fun `M write latest metadata W write() + commit() {different metadata}`(
+        @StringForgery firstMetadata: String,
+        @StringForgery lastMetadata: String,
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+
+        // When
+        testedWriter.write(event, firstMetadata.toByteArray(), fakeEventType)
+        testedWriter.write(event, lastMetadata.toByteArray(), fakeEventType)
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        verify(mockMetaReaderWriter).writeData(fakeBatchMetadataFile, lastMetadata.toByteArray(), false)
+        verifyNoMoreInteractions(mockMetaReaderWriter)
+    }
+
+    @Test
+    fun `M commit early W write() {max batch size reached}`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockFilePersistenceConfig.maxBatchSize) doReturn event.data.size.toLong()
+
+        // When
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        verify(mockBatchWriter, times(2)).appendData(fakeBatchFile, listOf(event), null)
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount)
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount - 1)
+    }
+
+    @Test
+    fun `M return false W write() {item is too big}`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        val maxItemSize = event.data.size - 1
+        whenever(mockFilePersistenceConfig.maxItemSize) doReturn maxItemSize.toLong()
+
+        // When
+        val result = testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        assertThat(result).isFalse()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.USER,
+            ERROR_LARGE_DATA.format(Locale.US, event.data.size, maxItemSize)
+        )
+        verifyNoInteractions(mockBatchWriter)
+    }
+
+    @Test
+    fun `M return false W write() {batch file cannot be allocated}`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockFileOrchestrator.getWritableFile(any())) doReturn null
+
+        // When
+        val result = testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        assertThat(result).isFalse()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            NO_BATCH_FILE_AVAILABLE
+        )
+        verifyNoInteractions(mockBatchWriter)
+    }
+
+    @Test
+    fun `M not write metadata nor report events W write() + commit() {append failed}`(
+        @Forgery batchEvent: RawBatchEvent,
+        @StringForgery batchMetadata: String
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockBatchWriter.appendData(any<File>(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn false
+
+        // When
+        testedWriter.write(event, batchMetadata.toByteArray(), fakeEventType)
+        testedWriter.write(event, batchMetadata.toByteArray(), fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        verify(mockBatchWriter).appendData(fakeBatchFile, listOf(event, event), null)
+        verify(mockMetaReaderWriter, never()).writeData(any(), any(), any())
+        verifyNoInteractions(mockBatchWriteEventListener)
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+            ERROR_APPEND_FAILED.format(Locale.US, 2, fakeBatchFile.path)
+        )
+    }
+
+    @Test
+    fun `M not reserve items W commit() {append failed}`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockBatchWriter.appendData(any<File>(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn false
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // When
+        testedWriter.write(event, null, fakeEventType)
+        testedWriter.commit()
+
+        // Then
+        verify(mockFileOrchestrator, times(2)).getWritableFile(fakeExpectedEventsCount)
+    }
+
+    // endregion
+
+    // region writeUpdatable
+
+    @Test
+    fun `M commit written events before writing slot W writeUpdatable()`(
+        @StringForgery key: String,
+        @StringForgery batchMetadata: String,
+        @Forgery batchEvent: RawBatchEvent,
+        @Forgery updatableEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        val slotEvent = updatableEvent.copy(data = updatableEvent.data + 0x1)
+        val fakeSlots = BatchFileSlots(fakeBatchFile)
+        val serializedMetadata = batchMetadata.toByteArray(Charsets.UTF_8)
+        whenever(mockFileOrchestrator.getUpdatableSlots(fakeBatchFile)) doReturn fakeSlots
+        whenever(mockBatchWriter.writeSlot(fakeBatchFile, fakeSlots, key, slotEvent)) doReturn true
+
+        // When
+        testedWriter.write(event, null, fakeEventType)
+        val result = testedWriter.writeUpdatable(slotEvent, serializedMetadata, fakeEventType, key)
+        testedWriter.commit()
+
+        // Then
+        assertThat(result).isTrue()
+        inOrder(mockBatchWriter) {
+            verify(mockBatchWriter).appendData(fakeBatchFile, listOf(event), null)
+            verify(mockBatchWriter).writeSlot(fakeBatchFile, fakeSlots, key, slotEvent)
+        }
+        verify(mockMetaReaderWriter).writeData(fakeBatchMetadataFile, serializedMetadata, false)
+        verify(mockBatchWriteEventListener).onWriteEvent(slotEvent.data.size.toLong())
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount)
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount - 1)
+        verifyNoMoreInteractions(mockBatchWriter)
+    }
+
+    @Test
+    fun `M not reserve an item W writeUpdatable() {event updated in place}`(
+        @StringForgery key: String,
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        val fakeSlot = BatchFileSlots.Slot(0L, event.data.size)
+        val fakeSlots = BatchFileSlots(fakeBatchFile).apply { set(key, fakeSlot) }
+        whenever(mockFileOrchestrator.getUpdatableSlots(fakeBatchFile)) doReturn fakeSlots
+        whenever(mockBatchWriter.fitsSlot(fakeSlot, event)) doReturn true
+        whenever(mockBatchWriter.writeSlot(fakeBatchFile, fakeSlots, key, event)) doReturn true
+
+        // When
+        val result = testedWriter.writeUpdatable(event, null, fakeEventType, key)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchWriter).writeSlot(fakeBatchFile, fakeSlots, key, event)
+        verify(mockFileOrchestrator).getWritableFile(0)
+        verify(mockFileOrchestrator, never()).getWritableFile(fakeExpectedEventsCount)
+    }
+
+    @Test
+    fun `M reserve an item W writeUpdatable() {event doesn't fit in its slot}`(
+        @StringForgery key: String,
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        val fakeSlot = BatchFileSlots.Slot(0L, 1)
+        val fakeSlots = BatchFileSlots(fakeBatchFile).apply { set(key, fakeSlot) }
+        whenever(mockFileOrchestrator.getUpdatableSlots(fakeBatchFile)) doReturn fakeSlots
+        whenever(mockBatchWriter.fitsSlot(fakeSlot, event)) doReturn false
+        whenever(mockBatchWriter.writeSlot(fakeBatchFile, fakeSlots, key, event)) doReturn true
+
+        // When
+        val result = testedWriter.writeUpdatable(event, null, fakeEventType, key)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchWriter).writeSlot(fakeBatchFile, fakeSlots, key, event)
+        verify(mockFileOrchestrator).getWritableFile(fakeExpectedEventsCount)
+    }
+
+    @Test
+    fun `M append event W writeUpdatable() {slots not available}`(
+        @StringForgery key: String,
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockFileOrchestrator.getUpdatableSlots(fakeBatchFile)) doReturn null
+
+        // When
+        val result = testedWriter.writeUpdatable(event, null, fakeEventType, key)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchWriter).appendData(fakeBatchFile, listOf(event), null)
+        verifyNoMoreInteractions(mockBatchWriter)
+    }
+
+    @Test
+    fun `M return false W writeUpdatable() {batch file cannot be allocated}`(
+        @StringForgery key: String,
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        whenever(mockFileOrchestrator.getWritableFile(any())) doReturn null
+
+        // When
+        val result = testedWriter.writeUpdatable(event, null, fakeEventType, key)
+
+        // Then
+        assertThat(result).isFalse
+        verifyNoInteractions(mockBatchWriter)
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            NO_BATCH_FILE_AVAILABLE
+        )
+    }
+
+    // endregion
+
+    // region currentMetadata
+
+    @Test
+    fun `M return pending metadata W currentMetadata() {metadata written but not committed}`(
+        @Forgery batchEvent: RawBatchEvent,
+        @StringForgery batchMetadata: String
+    ) {
+        // Given
+        val event = batchEvent.copy(data = batchEvent.data + 0x1)
+        testedWriter.write(event, batchMetadata.toByteArray(), fakeEventType)
+
+        // When
+        val meta = testedWriter.currentMetadata()
+
+        // Then
+        assertThat(meta).isEqualTo(batchMetadata.toByteArray())
+        verifyNoInteractions(mockMetaReaderWriter)
+    }
+
+    @Test
+    fun `M not read metadata W currentMetadata() {no available file}`() {
+        // Given
+        whenever(mockFileOrchestrator.getWritableFile(any())) doReturn null
+
+        // When
+        val meta = testedWriter.currentMetadata()
+
+        // Then
+        assertThat(meta).isNull()
+        verifyNoInteractions(mockMetaReaderWriter)
+    }
+
+    // endregion
+}
@@ -0,0 +1,220 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.storage.EventBatchWriter
+import com.datadog.android.core.internal.persistence.file.FileOrchestrator
+import com.datadog.android.utils.forge.Configurator
+import com.datadog.android.utils.verifyLog
+import fr.xgouchet.elmyr.annotation.IntForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doThrow
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+import java.util.Locale
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class CoalescingEventWriteQueueTest {
+
+    private lateinit var testedQueue: CoalescingEventWriteQueue
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    @Mock
+    lateinit var mockOrchestrator: FileOrchestrator
+
+    @Mock
+    lateinit var mockOtherOrchestrator: FileOrchestrator
+
+    @IntForgery(min = 2, max = 32)
+    var fakeMaxItemsPerBatch: Int = 0
+
+    private val createdWriters = mutableListOf<Triple<FileOrchestrator, Int, CoalescedFileEventBatchWriter>>()
+
+    @BeforeEach
+    fun `set up`() {
+        testedQueue = CoalescingEventWriteQueue(fakeMaxItemsPerBatch, mockInternalLogger) { orchestrator, count ->
+            mock<CoalescedFileEventBatchWriter>().also {
+                createdWriters.add(Triple(orchestrator, count, it))
+            }
+        }
+    }
+
+    @Test
+    fun `M run all pending operations with a single writer W drain()`() {
+        // Given
+        val blocks = List(fakeMaxItemsPerBatch) { mock<(EventBatchWriter) -> Unit>() }
+        blocks.forEach { testedQueue.enqueue(mockOrchestrator, it) }
+
+        // When
+        testedQueue.drain()
+
+        // Then
+        assertThat(createdWriters).hasSize(1)
+        val (orchestrator, count, writer) = createdWriters.first()
+        assertThat(orchestrator).isSameAs(mockOrchestrator)
+        assertThat(count).isEqualTo(fakeMaxItemsPerBatch)
+        blocks.forEach { verify(it).invoke(writer) }
+        verify(writer).commit()
+    }
+
+    @Test
+    fun `M do nothing W drain() {already drained}`() {
+        // Given
+        testedQueue.enqueue(mockOrchestrator, mock())
+        testedQueue.drain()
+
+        // When
+        testedQueue.drain()
+
+        // Then
+        assertThat(createdWriters).hasSize(1)
+    }
+
+    @Test
+    fun `M split operations per orchestrator W drain()`() {
+        // Given
+        testedQueue.enqueue(mockOrchestrator, mock())
+        testedQueue.enqueue(mockOrchestrator, mock())
+        testedQueue.enqueue(mockOtherOrchestrator, mock())
+        testedQueue.enqueue(mockOrchestrator, mock())
+
+        // When
+        testedQueue.drain()
+
+        // Then
+        assertThat(createdWriters.map { it.first to it.second }).containsExactly(
+            mockOrchestrator to 2,
+            mockOtherOrchestrator to 1,
+            mockOrchestrator to 1
+        )
+        createdWriters.forEach { verify(it.third).commit() }
+    }
+
+    @Test
+    fun `M split operations per max items per batch W drain()`() {
+        // Given
+        repeat(fakeMaxItemsPerBatch + 1) { testedQueue.enqueue(mockOrchestrator, mock()) }
+
+        // When
+        testedQueue.drain()
+
+        // Then
+        assertThat(createdWriters.map { it.second }).containsExactly(fakeMaxItemsPerBatch, 1)
+    }
+
+    @Test
+    fun `M run remaining operations W drain() {an operation throws}`() {
+        // Given
+        val exception = IllegalStateException()
+        val failingBlock = mock<(EventBatchWriter) -> Unit>()
+        val block = mock<(EventBatchWriter) -> Unit>()
+        whenever(failingBlock.invoke(any())) doThrow exception
+        testedQueue.enqueue(mockOrchestrator, failingBlock)
+        testedQueue.enqueue(mockOrchestrator, block)
+
+        // When
+        testedQueue.drain()
+
+        // Then
+        val writer = createdWriters.single().third
+        verify(block).invoke(writer)
+        verify(writer).commit()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+            CoalescingEventWriteQueue.ERROR_WRITE_FAILED,
+            exception
+        )
+    }
+
+    @Test
+    fun `M drop operation W enqueue() {queue is full}`() {
+        // Given
+        repeat(CoalescingEventWriteQueue.MAX_PENDING_WRITES) {
+            assertThat(testedQueue.enqueue(mockOrchestrator, mock())).isTrue()
+        }
+
+        // When
+        val result = testedQueue.enqueue(mockOrchestrator, mock())
+
+        // Then
+        assertThat(result).isFalse()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.WARN,
+            listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+            CoalescingEventWriteQueue.WARNING_QUEUE_FULL.format(
+                Locale.US,
+                CoalescingEventWriteQueue.MAX_PENDING_WRITES
+            )
+        )
+    }
+
+    @Test
+    fun `M accept operations again W enqueue() {queue was full, then drained}`() {
+        // Given
+        repeat(CoalescingEventWriteQueue.MAX_PENDING_WRITES) {
+            testedQueue.enqueue(mockOrchestrator, mock())
+        }
+        testedQueue.drain()
+
+        // When
+        val result = testedQueue.enqueue(mockOrchestrator, mock())
+
+        // Then
+        assertThat(result).isTrue()
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M request a single drain W shouldScheduleDrain() {burst of operations}`() {
+        // Given
+        repeat(fakeMaxItemsPerBatch) { testedQueue.enqueue(mockOrchestrator, mock()) }
+
+        // When
+        val results = List(fakeMaxItemsPerBatch) { testedQueue.shouldScheduleDrain() }
+
+        // Then
+        assertThat(results.first()).isTrue()
+        assertThat(results.drop(1)).containsOnly(false)
+    }
+
+    @Test
+    fun `M request a new drain W shouldScheduleDrain() {previous drain started}`() {
+        // Given
+        testedQueue.enqueue(mockOrchestrator, mock())
+        testedQueue.shouldScheduleDrain()
+        testedQueue.drain()
+        testedQueue.enqueue(mockOrchestrator, mock())
+
+        // When
+        val result = testedQueue.shouldScheduleDrain()
+
+        // Then
+        assertThat(result).isTrue()
+    }
+}
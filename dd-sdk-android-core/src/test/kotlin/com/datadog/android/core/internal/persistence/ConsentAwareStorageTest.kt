@@ -19,6 +19,7 @@ import com.datadog.android.core.internal.persistence.file.FileOrchestrator
 import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
 import com.datadog.android.core.internal.persistence.file.FileReaderWriter
 import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderWriter
+import com.datadog.android.internal.time.TimeProvider
 import com.datadog.android.privacy.TrackingConsent
 import com.datadog.android.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
@@ -39,6 +40,7 @@ import org.mockito.Mock
 import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
 import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
 import org.mockito.kotlin.argThat
 import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.doReturn
@@ -47,6 +49,7 @@ import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
+import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.kotlin.verifyNoMoreInteractions
@@ -94,6 +97,9 @@ internal class ConsentAwareStorageTest {
     @Mock
     lateinit var mockMetricsDispatcher: MetricsDispatcher
 
+    @Mock
+    lateinit var mockTimeProvider: TimeProvider
+
     @Forgery
     lateinit var fakeDatadogContext: DatadogContext
 
@@ -112,6 +118,9 @@ internal class ConsentAwareStorageTest {
     @IntForgery(min = 0, max = 100)
     var fakePendingBatches: Int = 0
 
+    @LongForgery(min = 1000000000000L, max = 2000000000000L)
+    var fakeTimestamp: Long = 0L
+
     @BeforeEach
     fun `set up`() {
         whenever(mockPendingOrchestrator.getRootDir()) doReturn File(mockPendingRootParentFile, fakeRootDirName)
@@ -120,6 +129,7 @@ internal class ConsentAwareStorageTest {
             .thenReturn(fakePendingBatches - 1)
         whenever((mockPendingOrchestrator).decrementAndGetPendingFilesCount())
             .thenReturn(fakePendingBatches - 1)
+        whenever(mockTimeProvider.getDeviceTimestampMillis()) doReturn fakeTimestamp
 
         testedStorage = ConsentAwareStorage(
             // same thread executor
@@ -132,7 +142,8 @@ internal class ConsentAwareStorageTest {
             internalLogger = mockInternalLogger,
             filePersistenceConfig = mockFilePersistenceConfig,
             metricsDispatcher = mockMetricsDispatcher,
-            featureName = fakeFeatureName
+            featureName = fakeFeatureName,
+            timeProvider = mockTimeProvider
         )
     }
 
@@ -151,7 +162,7 @@ internal class ConsentAwareStorageTest {
         // Then
         argumentCaptor<EventBatchWriter> {
             verify(mockCallback).invoke(capture())
-            assertThat(firstValue).isInstanceOf(FileEventBatchWriter::class.java)
+            assertThat(firstValue).isInstanceOf(CoalescedFileEventBatchWriter::class.java)
         }
         verifyNoMoreInteractions(
             mockGrantedOrchestrator,
@@ -174,7 +185,7 @@ internal class ConsentAwareStorageTest {
         // Then
         argumentCaptor<EventBatchWriter> {
             verify(mockCallback).invoke(capture())
-            assertThat(firstValue).isInstanceOf(FileEventBatchWriter::class.java)
+            assertThat(firstValue).isInstanceOf(CoalescedFileEventBatchWriter::class.java)
         }
         verifyNoMoreInteractions(
             mockGrantedOrchestrator,
@@ -338,6 +349,80 @@ internal class ConsentAwareStorageTest {
 
     // endregion
 
+    // region readNextMergeableBatch
+
+    @Test
+    fun `M provide batchData W readNextMergeableBatch() {same metadata, small batch}`(
+        @Forgery fakeData: List<RawBatchEvent>,
+        @StringForgery metadata: String,
+        @LongForgery(min = 1, max = 1024) fakeFileSize: Long
+    ) {
+        // Given
+        val mockBatchFile = mockBatchFile(fakeFileSize, metadata.toByteArray())
+        whenever(mockBatchReaderWriter.readData(mockBatchFile)) doReturn fakeData
+
+        // When
+        val batchData = testedStorage.readNextMergeableBatch(metadata.toByteArray(), fakeFileSize)
+
+        // Then
+        assertThat(batchData).isNotNull
+        assertThat(batchData?.id?.matchesFile(mockBatchFile)).isTrue()
+        assertThat(batchData?.data).isEqualTo(fakeData)
+        assertThat(batchData?.metadata).isEqualTo(metadata.toByteArray())
+    }
+
+    @Test
+    fun `M not read events W readNextMergeableBatch() {batch too large}`(
+        @StringForgery metadata: String,
+        @LongForgery(min = 1, max = 1024) fakeFileSize: Long
+    ) {
+        // Given
+        mockBatchFile(fakeFileSize, metadata.toByteArray())
+
+        // When
+        val batchData = testedStorage.readNextMergeableBatch(metadata.toByteArray(), fakeFileSize - 1)
+
+        // Then
+        assertThat(batchData).isNull()
+        verify(mockBatchReaderWriter, never()).readData(any())
+    }
+
+    @Test
+    fun `M not read events W readNextMergeableBatch() {different metadata}`(
+        @StringForgery metadata: String,
+        @StringForgery otherMetadata: String,
+        @LongForgery(min = 1, max = 1024) fakeFileSize: Long
+    ) {
+        // Given
+        mockBatchFile(fakeFileSize, metadata.toByteArray())
+
+        // When
+        val batchData = testedStorage.readNextMergeableBatch((metadata + otherMetadata).toByteArray(), fakeFileSize)
+
+        // Then
+        assertThat(batchData).isNull()
+        verify(mockBatchReaderWriter, never()).readData(any())
+    }
+
+    @Test
+    fun `M keep batch readable W readNextMergeableBatch() + readNextBatch() {not mergeable}`(
+        @Forgery fakeData: List<RawBatchEvent>,
+        @StringForgery metadata: String,
+        @LongForgery(min = 1, max = 1024) fakeFileSize: Long
+    ) {
+        // Given
+        val mockBatchFile = mockBatchFile(fakeFileSize, metadata.toByteArray())
+        whenever(mockBatchReaderWriter.readData(mockBatchFile)) doReturn fakeData
+
+        // When
+        testedStorage.readNextMergeableBatch(metadata.toByteArray(), fakeFileSize - 1)
+        val batchData = testedStorage.readNextBatch()
+
+        // Then
+        assertThat(batchData?.id?.matchesFile(mockBatchFile)).isTrue()
+        assertThat(batchData?.data).isEqualTo(fakeData)
+    }
+
     // region confirmBatchRead
 
     @Test
@@ -490,6 +575,261 @@ internal class ConsentAwareStorageTest {
 
     // endregion
 
+    // region getOldestBatchTimestamp
+
+    @Test
+    fun `M return oldest granted batch timestamp W getOldestBatchTimestamp()`(
+        @LongForgery(min = 1000000000000L, max = 2000000000000L) oldestTimestamp: Long
+    ) {
+        // Given
+        whenever(mockGrantedOrchestrator.getAllFiles()) doReturn listOf(
+            File(oldestTimestamp.toString()),
+            File((oldestTimestamp + 1).toString())
+        )
+
+        // When
+        val result = testedStorage.getOldestBatchTimestamp()
+
+        // Then
+        assertThat(result).isEqualTo(oldestTimestamp)
+    }
+
+    @Test
+    fun `M return null W getOldestBatchTimestamp() {no batch}`() {
+        // Given
+        whenever(mockGrantedOrchestrator.getAllFiles()) doReturn emptyList()
+
+        // When
+        val result = testedStorage.getOldestBatchTimestamp()
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    // endregion
+
+    // region compactBatches
+
+    @Test
+    fun `M merge batches into the oldest one W compactBatches()`(
+        @Forgery firstEvents: List<RawBatchEvent>,
+        @Forgery secondEvents: List<RawBatchEvent>,
+        @Forgery thirdEvents: List<RawBatchEvent>,
+        @Forgery firstFile: File,
+        @Forgery secondFile: File,
+        @Forgery thirdFile: File
+    ) {
+        // Given
+        whenever(mockFilePersistenceConfig.maxItemsPerBatch) doReturn Int.MAX_VALUE
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile, thirdFile))
+        stubBatchEvents(firstFile, firstEvents)
+        stubBatchEvents(secondFile, secondEvents)
+        stubBatchEvents(thirdFile, thirdEvents)
+        whenever(mockBatchReaderWriter.appendData(any(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn true
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockBatchReaderWriter).appendData(firstFile, secondEvents + thirdEvents, null)
+        verify(mockGrantedOrchestrator).onFilesCompacted(
+            firstFile,
+            listOf(secondFile, thirdFile),
+            (firstEvents.size + secondEvents.size + thirdEvents.size).toLong()
+        )
+        verify(mockBatchReaderWriter, never()).readDataForCopy(firstFile)
+    }
+
+    @Test
+    fun `M only merge batches with the same metadata W compactBatches()`(
+        @Forgery firstEvents: List<RawBatchEvent>,
+        @Forgery secondEvents: List<RawBatchEvent>,
+        @Forgery thirdEvents: List<RawBatchEvent>,
+        @Forgery firstFile: File,
+        @Forgery secondFile: File,
+        @Forgery thirdFile: File,
+        @StringForgery firstMetadata: String,
+        @StringForgery secondMetadata: String
+    ) {
+        // Given
+        whenever(mockFilePersistenceConfig.maxItemsPerBatch) doReturn Int.MAX_VALUE
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile, thirdFile))
+        val mockMetaFiles = listOf(firstFile, secondFile, thirdFile).associateWith {
+            val mockMetaFile = mock<File>()
+            whenever(mockMetaFile.exists()) doReturn true
+            whenever(mockGrantedOrchestrator.getMetadataFile(it)) doReturn mockMetaFile
+            val metadata = if (it == firstFile) firstMetadata else firstMetadata + secondMetadata
+            whenever(mockMetaReaderWriter.readData(mockMetaFile)) doReturn metadata.toByteArray()
+            mockMetaFile
+        }
+        stubBatchEvents(firstFile, firstEvents)
+        stubBatchEvents(secondFile, secondEvents)
+        stubBatchEvents(thirdFile, thirdEvents)
+        whenever(mockBatchReaderWriter.appendData(any(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn true
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockBatchReaderWriter).appendData(secondFile, thirdEvents, null)
+        verify(mockGrantedOrchestrator).onFilesCompacted(
+            secondFile,
+            listOf(thirdFile),
+            (secondEvents.size + thirdEvents.size).toLong()
+        )
+        verify(mockGrantedOrchestrator, never()).onFilesCompacted(eq(firstFile), any(), any())
+        verify(mockBatchReaderWriter, never()).readDataForCopy(secondFile)
+        verify(mockMetaReaderWriter).writeData(
+            mockMetaFiles.getValue(secondFile),
+            (firstMetadata + secondMetadata).toByteArray(),
+            false
+        )
+    }
+
+    @Test
+    fun `M not exceed max items per batch W compactBatches()`(
+        @Forgery firstFile: File,
+        @Forgery secondFile: File,
+        @Forgery thirdFile: File,
+        forge: Forge
+    ) {
+        // Given
+        val firstEvents = forge.aList(size = 2) { getForgery<RawBatchEvent>() }
+        val secondEvents = forge.aList(size = 2) { getForgery<RawBatchEvent>() }
+        val thirdEvents = forge.aList(size = 2) { getForgery<RawBatchEvent>() }
+        whenever(mockFilePersistenceConfig.maxItemsPerBatch) doReturn 4
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile, thirdFile))
+        stubBatchEvents(firstFile, firstEvents)
+        stubBatchEvents(secondFile, secondEvents)
+        stubBatchEvents(thirdFile, thirdEvents)
+        whenever(mockBatchReaderWriter.appendData(any(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn true
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator).onFilesCompacted(firstFile, listOf(secondFile), 4L)
+        verify(mockGrantedOrchestrator, never()).onFilesCompacted(eq(thirdFile), any(), any())
+        verify(mockBatchReaderWriter, never()).readDataForCopy(thirdFile)
+    }
+
+    @Test
+    fun `M not merge unreadable batches W compactBatches()`(
+        @Forgery firstEvents: List<RawBatchEvent>,
+        @Forgery firstFile: File,
+        @Forgery secondFile: File
+    ) {
+        // Given
+        whenever(mockFilePersistenceConfig.maxItemsPerBatch) doReturn Int.MAX_VALUE
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile))
+        stubBatchEvents(firstFile, firstEvents)
+        whenever(mockBatchReaderWriter.countEvents(secondFile)) doReturn null
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator, never()).onFilesCompacted(any(), any(), any())
+        verify(mockBatchReaderWriter, never()).readDataForCopy(any())
+    }
+
+    @Test
+    fun `M keep merged batches W compactBatches() {append fails}`(
+        @Forgery firstEvents: List<RawBatchEvent>,
+        @Forgery secondEvents: List<RawBatchEvent>,
+        @Forgery firstFile: File,
+        @Forgery secondFile: File
+    ) {
+        // Given
+        whenever(mockFilePersistenceConfig.maxItemsPerBatch) doReturn Int.MAX_VALUE
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile))
+        stubBatchEvents(firstFile, firstEvents)
+        stubBatchEvents(secondFile, secondEvents)
+        whenever(mockBatchReaderWriter.appendData(any(), any<List<RawBatchEvent>>(), anyOrNull())) doReturn false
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator, never()).onFilesCompacted(any(), any(), any())
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.WARN,
+            InternalLogger.Target.MAINTAINER,
+            ConsentAwareStorage.WARNING_COMPACTION_FAILED.format(Locale.US, 1, firstFile.path)
+        )
+    }
+
+    @Test
+    fun `M not compact batches being read W compactBatches()`(
+        @Forgery batchFile: File
+    ) {
+        // Given
+        whenever(mockGrantedOrchestrator.getReadableFile(emptySet())) doReturn batchFile
+        testedStorage.readNextBatch()
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator).getCompactableFileGroups(setOf(batchFile))
+        verify(mockPendingOrchestrator).getCompactableFileGroups(setOf(batchFile))
+    }
+
+    @Test
+    fun `M release merged batches W compactBatches()`(
+        @Forgery firstFile: File,
+        @Forgery secondFile: File
+    ) {
+        // Given
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(any())) doReturn
+            listOf(listOf(firstFile, secondFile))
+        whenever(mockGrantedOrchestrator.getReadableFile(emptySet())) doReturn firstFile
+
+        // When
+        testedStorage.compactBatches()
+        val batchData = testedStorage.readNextBatch()
+
+        // Then
+        assertThat(batchData).isNotNull
+    }
+
+    @Test
+    fun `M not compact batches again W compactBatches() {called twice within the min interval}`() {
+        // Given
+        testedStorage.compactBatches()
+        whenever(mockTimeProvider.getDeviceTimestampMillis()) doReturn
+            fakeTimestamp + ConsentAwareStorage.MIN_COMPACTION_INTERVAL_MS - 1
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator).getCompactableFileGroups(any())
+        verify(mockPendingOrchestrator).getCompactableFileGroups(any())
+    }
+
+    @Test
+    fun `M compact batches again W compactBatches() {called twice after the min interval}`() {
+        // Given
+        testedStorage.compactBatches()
+        whenever(mockTimeProvider.getDeviceTimestampMillis()) doReturn
+            fakeTimestamp + ConsentAwareStorage.MIN_COMPACTION_INTERVAL_MS
+
+        // When
+        testedStorage.compactBatches()
+
+        // Then
+        verify(mockGrantedOrchestrator, times(2)).getCompactableFileGroups(any())
+        verify(mockPendingOrchestrator, times(2)).getCompactableFileGroups(any())
+    }
+
+    // endregion
+
     // region dropAll
 
     @Test
@@ -699,4 +1039,25 @@ internal class ConsentAwareStorageTest {
     }
 
     // endregion
+
+    // region Internal
+
+    private fun mockBatchFile(fileSize: Long, metadata: ByteArray): File {
+        val mockBatchFile = mock<File>()
+        whenever(mockBatchFile.absolutePath) doReturn "fake-batch-file"
+        whenever(mockBatchFile.length()) doReturn fileSize
+        val mockMetaFile = mock<File>()
+        whenever(mockMetaFile.exists()) doReturn true
+        whenever(mockGrantedOrchestrator.getReadableFile(emptySet())) doReturn mockBatchFile
+        whenever(mockGrantedOrchestrator.getMetadataFile(mockBatchFile)) doReturn mockMetaFile
+        whenever(mockMetaReaderWriter.readData(mockMetaFile)) doReturn metadata
+        return mockBatchFile
+    }
+
+    private fun stubBatchEvents(batchFile: File, events: List<RawBatchEvent>) {
+        whenever(mockBatchReaderWriter.countEvents(batchFile)) doReturn events.size
+        whenever(mockBatchReaderWriter.readDataForCopy(batchFile)) doReturn events
+    }
+
+    // endregion
 }
@@ -16,7 +16,8 @@ import com.datadog.android.core.internal.persistence.FileEventBatchWriter.Compan
 import com.datadog.android.core.internal.persistence.file.FileOrchestrator
 import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
 import com.datadog.android.core.internal.persistence.file.FileReaderWriter
-import com.datadog.android.core.internal.persistence.file.FileWriter
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileChannel
+import com.datadog.android.core.internal.persistence.file.batch.BatchFileReaderWriter
 import com.datadog.android.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
 import fr.xgouchet.elmyr.Forge
@@ -54,7 +55,7 @@ internal class FileEventBatchWriterTest {
     private lateinit var testedWriter: EventBatchWriter
 
     @Mock
-    lateinit var mockBatchWriter: FileWriter<RawBatchEvent>
+    lateinit var mockBatchWriter: BatchFileReaderWriter
 
     @Mock
     lateinit var mockMetaReaderWriter: FileReaderWriter
@@ -132,6 +133,36 @@ internal class FileEventBatchWriterTest {
         )
     }
 
+    @Test
+    fun `M append event through channel W write() {persistent channel}`(
+        @Forgery batchEvent: RawBatchEvent,
+        @StringForgery batchMetadata: String
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        val serializedMetadata = batchMetadata.toByteArray(Charsets.UTF_8)
+        whenever(mockFileOrchestrator.getWritableFileChannel()) doReturn mockChannel
+        whenever(
+            mockBatchWriter.appendData(mockChannel, fakeBatchFile, batchEvent)
+        ) doReturn true
+
+        // When
+        val result = testedWriter.write(batchEvent, serializedMetadata, fakeEventType)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchWriter).appendData(mockChannel, fakeBatchFile, batchEvent)
+        verify(mockMetaReaderWriter).writeData(
+            fakeBatchMetadataFile,
+            serializedMetadata,
+            append = false
+        )
+        verifyNoMoreInteractions(
+            mockBatchWriter,
+            mockMetaReaderWriter
+        )
+    }
+
     @Test
     fun `M do nothing W write() {empty array}`(
         @StringForgery batchMetadata: String
@@ -315,6 +315,34 @@ internal class FileExtTest {
         assertThat(length).isEqualTo(0L)
     }
 
+    @Test
+    fun `M return result W lastModifiedSafe(mockInternalLogger)`(
+        @LongForgery result: Long
+    ) {
+        // Given
+        whenever(mockFile.lastModified()) doReturn result
+
+        // When
+        val lastModified = mockFile.lastModifiedSafe(mockInternalLogger)
+
+        // Then
+        assertThat(lastModified).isEqualTo(result)
+    }
+
+    @Test
+    fun `M catch exception W lastModifiedSafe(mockInternalLogger) {SecurityException}`(
+        @StringForgery message: String
+    ) {
+        // Given
+        whenever(mockFile.lastModified()) doThrow SecurityException(message)
+
+        // When
+        val lastModified = mockFile.lastModifiedSafe(mockInternalLogger)
+
+        // Then
+        assertThat(lastModified).isEqualTo(0L)
+    }
+
     @Test
     fun `M return result W mkdirsSafe(mockInternalLogger)`(
         @BoolForgery result: Boolean
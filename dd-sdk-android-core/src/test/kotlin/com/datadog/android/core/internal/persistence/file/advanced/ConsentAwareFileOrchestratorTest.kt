@@ -14,6 +14,7 @@ import com.datadog.android.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
 import fr.xgouchet.elmyr.Forge
 import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.annotation.LongForgery
 import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
 import fr.xgouchet.elmyr.junit5.ForgeExtension
@@ -31,6 +32,7 @@ import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.atLeast
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.doThrow
+import org.mockito.kotlin.never
 import org.mockito.kotlin.reset
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
@@ -414,6 +416,79 @@ internal class ConsentAwareFileOrchestratorTest {
 
     // endregion
 
+    // region getCompactableFileGroups
+
+    @Test
+    fun `M return granted and pending groups W getCompactableFileGroups()`(
+        @Forgery consent: TrackingConsent,
+        forge: Forge
+    ) {
+        // Given
+        instantiateTestedOrchestrator(consent)
+        val excludedFiles = forge.aList { getForgery<File>() }.toSet()
+        val pendingGroups = forge.aList { aList { getForgery<File>() } }
+        val grantedGroups = forge.aList { aList { getForgery<File>() } }
+        whenever(mockPendingOrchestrator.getCompactableFileGroups(excludedFiles)) doReturn pendingGroups
+        whenever(mockGrantedOrchestrator.getCompactableFileGroups(excludedFiles)) doReturn grantedGroups
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(excludedFiles)
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(grantedGroups + pendingGroups)
+    }
+
+    // endregion
+
+    // region onFilesCompacted
+
+    @Test
+    fun `M notify pending orchestrator W onFilesCompacted() {pending file}`(
+        @Forgery consent: TrackingConsent,
+        @Forgery fakeRootDir: File,
+        @StringForgery fakeFileName: String,
+        @LongForgery(min = 1) fakeEventsCount: Long,
+        forge: Forge
+    ) {
+        // Given
+        instantiateTestedOrchestrator(consent)
+        val targetFile = File(fakeRootDir, fakeFileName)
+        val compactedFiles = forge.aList { getForgery<File>() }
+        whenever(mockPendingOrchestrator.getRootDir()) doReturn fakeRootDir
+
+        // When
+        testedOrchestrator.onFilesCompacted(targetFile, compactedFiles, fakeEventsCount)
+
+        // Then
+        verify(mockPendingOrchestrator).onFilesCompacted(targetFile, compactedFiles, fakeEventsCount)
+        verify(mockGrantedOrchestrator, never()).onFilesCompacted(any(), any(), any())
+    }
+
+    @Test
+    fun `M notify granted orchestrator W onFilesCompacted() {granted file}`(
+        @Forgery consent: TrackingConsent,
+        @Forgery fakeRootDir: File,
+        @Forgery fakePendingRootDir: File,
+        @StringForgery fakeFileName: String,
+        @LongForgery(min = 1) fakeEventsCount: Long,
+        forge: Forge
+    ) {
+        // Given
+        instantiateTestedOrchestrator(consent)
+        val targetFile = File(fakeRootDir, fakeFileName)
+        val compactedFiles = forge.aList { getForgery<File>() }
+        whenever(mockPendingOrchestrator.getRootDir()) doReturn File(fakePendingRootDir, "pending")
+
+        // When
+        testedOrchestrator.onFilesCompacted(targetFile, compactedFiles, fakeEventsCount)
+
+        // Then
+        verify(mockGrantedOrchestrator).onFilesCompacted(targetFile, compactedFiles, fakeEventsCount)
+        verify(mockPendingOrchestrator, never()).onFilesCompacted(any(), any(), any())
+    }
+
+    // endregion
+
     // region getRootDir
 
     @RepeatedTest(8)
@@ -0,0 +1,173 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.IntForgery
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.junit.jupiter.api.io.TempDir
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.quality.Strictness
+import java.io.File
+import java.io.FileNotFoundException
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+internal class BatchFileChannelTest {
+
+    private lateinit var testedChannel: BatchFileChannel
+
+    @TempDir
+    lateinit var fakeRootDirectory: File
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    @BeforeEach
+    fun `set up`() {
+        testedChannel = BatchFileChannel(mockInternalLogger)
+    }
+
+    @Test
+    fun `M append data to file W append()`(
+        @StringForgery fileName: String,
+        @StringForgery previousContent: String,
+        @StringForgery contents: List<String>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeText(previousContent)
+
+        // When
+        contents.forEach { content ->
+            testedChannel.append(file, content.length) { it.put(content.toByteArray()) }
+        }
+
+        // Then
+        assertThat(testedChannel.isOpenOn(file)).isTrue()
+        assertThat(file).hasContent(previousContent + contents.joinToString(""))
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M append large data to file W append() {data larger than reusable buffer}`(
+        @StringForgery fileName: String,
+        @IntForgery(min = 1, max = 4) sizeMultiplier: Int
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val size = BatchFileChannel.MAX_REUSABLE_BUFFER_SIZE_BYTES * sizeMultiplier + 1
+        val content = ByteArray(size) { (it % Byte.MAX_VALUE).toByte() }
+
+        // When
+        testedChannel.append(file, size) { it.put(content) }
+
+        // Then
+        assertThat(file).hasBinaryContent(content)
+    }
+
+    @Test
+    fun `M switch file W append() {different file}`(
+        @StringForgery fileName: String,
+        @StringForgery otherFileName: String,
+        @StringForgery content: String,
+        @StringForgery otherContent: String
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val otherFile = File(fakeRootDirectory, "$otherFileName-other")
+        testedChannel.append(file, content.length) { it.put(content.toByteArray()) }
+
+        // When
+        testedChannel.append(otherFile, otherContent.length) { it.put(otherContent.toByteArray()) }
+
+        // Then
+        assertThat(testedChannel.isOpenOn(file)).isFalse()
+        assertThat(testedChannel.isOpenOn(otherFile)).isTrue()
+        assertThat(file).hasContent(content)
+        assertThat(otherFile).hasContent(otherContent)
+    }
+
+    @Test
+    fun `M throw W append() {parent dir does not exist}`(
+        @StringForgery dirName: String,
+        @StringForgery fileName: String,
+        @StringForgery content: String
+    ) {
+        // Given
+        val file = File(File(fakeRootDirectory, dirName), fileName)
+
+        // When
+        assertThrows<FileNotFoundException> {
+            testedChannel.append(file, content.length) { it.put(content.toByteArray()) }
+        }
+
+        // Then
+        assertThat(testedChannel.isOpenOn(file)).isFalse()
+    }
+
+    @Test
+    fun `M close channel W close()`(
+        @StringForgery fileName: String,
+        @StringForgery content: String
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        testedChannel.append(file, content.length) { it.put(content.toByteArray()) }
+
+        // When
+        testedChannel.close()
+
+        // Then
+        assertThat(testedChannel.isOpenOn(file)).isFalse()
+        assertThat(file).hasContent(content)
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M keep channel open W close() {other file}`(
+        @StringForgery fileName: String,
+        @StringForgery otherFileName: String,
+        @StringForgery content: String
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val otherFile = File(fakeRootDirectory, "$otherFileName-other")
+        testedChannel.append(file, content.length) { it.put(content.toByteArray()) }
+
+        // When
+        testedChannel.close(otherFile)
+
+        // Then
+        assertThat(testedChannel.isOpenOn(file)).isTrue()
+    }
+
+    @Test
+    fun `M do nothing W close() {no channel open}`() {
+        // When
+        testedChannel.close()
+
+        // Then
+        verifyNoInteractions(mockInternalLogger)
+    }
+}
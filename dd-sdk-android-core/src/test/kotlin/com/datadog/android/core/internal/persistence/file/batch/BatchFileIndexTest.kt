@@ -0,0 +1,179 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.file.batch
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.LongForgery
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.junit.jupiter.api.io.TempDir
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.quality.Strictness
+import java.io.File
+import java.io.FileFilter
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+internal class BatchFileIndexTest {
+
+    private lateinit var testedIndex: BatchFileIndex
+
+    @TempDir
+    lateinit var fakeRootDir: File
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    // directory modification time, far enough in the past to be trusted
+    private val fakeDirModified = 1_000_000_000L
+
+    private var fakeWallTime = fakeDirModified + BatchFileIndex.RACY_MODIFICATION_WINDOW_MS * 10
+
+    @BeforeEach
+    fun `set up`() {
+        testedIndex = BatchFileIndex(
+            fakeRootDir,
+            FileFilter { it.name.toLongOrNull() != null },
+            mockInternalLogger
+        ) { fakeWallTime }
+    }
+
+    @Test
+    fun `M return sorted batch files W getFiles()`(
+        @StringForgery notABatchFileName: String
+    ) {
+        // Given
+        val files = listOf(2000L, 1000L, 3000L).map { File(fakeRootDir, it.toString()).apply { createNewFile() } }
+        File(fakeRootDir, "$notABatchFileName-x").createNewFile()
+
+        // When
+        val result = testedIndex.getFiles()
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(files.sorted())
+        assertThat(testedIndex.getLatestFile()).isEqualTo(File(fakeRootDir, "3000"))
+    }
+
+    @Test
+    fun `M not list folder again W getFiles() {folder not modified}`() {
+        // Given
+        File(fakeRootDir, "1000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+        val ignoredFile = File(fakeRootDir, "2000")
+        ignoredFile.createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+
+        // When
+        val result = testedIndex.getFiles()
+
+        // Then
+        assertThat(result).containsExactly(File(fakeRootDir, "1000"))
+    }
+
+    @Test
+    fun `M list folder again W getFiles() {folder modified}`() {
+        // Given
+        File(fakeRootDir, "1000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+        File(fakeRootDir, "2000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified + 1)
+
+        // When
+        val result = testedIndex.getFiles()
+
+        // Then
+        assertThat(result).containsExactly(File(fakeRootDir, "1000"), File(fakeRootDir, "2000"))
+    }
+
+    @Test
+    fun `M list folder again W getFiles() {folder modified right before last listing}`() {
+        // Given
+        fakeWallTime = fakeDirModified + BatchFileIndex.RACY_MODIFICATION_WINDOW_MS / 2
+        File(fakeRootDir, "1000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+        File(fakeRootDir, "2000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+
+        // When
+        val result = testedIndex.getFiles()
+
+        // Then
+        assertThat(result).containsExactly(File(fakeRootDir, "1000"), File(fakeRootDir, "2000"))
+    }
+
+    @Test
+    fun `M update index W onFileCreated() + onFileDeleted()`() {
+        // Given
+        File(fakeRootDir, "1000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+
+        // When
+        testedIndex.onFileCreated(File(fakeRootDir, "2000"))
+        testedIndex.onFileDeleted(File(fakeRootDir, "1000"))
+
+        // Then
+        assertThat(testedIndex.getFiles()).containsExactly(File(fakeRootDir, "2000"))
+        assertThat(testedIndex.getLatestFile()).isEqualTo(File(fakeRootDir, "2000"))
+    }
+
+    @Test
+    fun `M cache size of older files W getFileSize()`(
+        @LongForgery(min = 1, max = 64) size: Long
+    ) {
+        // Given
+        val olderFile = File(fakeRootDir, "1000").apply { writeBytes(ByteArray(size.toInt())) }
+        val latestFile = File(fakeRootDir, "2000").apply { writeBytes(ByteArray(size.toInt())) }
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+        assertThat(testedIndex.getFileSize(olderFile)).isEqualTo(size)
+        assertThat(testedIndex.getFileSize(latestFile)).isEqualTo(size)
+
+        // When
+        olderFile.appendBytes(ByteArray(1))
+        latestFile.appendBytes(ByteArray(1))
+
+        // Then
+        assertThat(testedIndex.getFileSize(olderFile)).isEqualTo(size)
+        assertThat(testedIndex.getFileSize(latestFile)).isEqualTo(size + 1)
+    }
+
+    @Test
+    fun `M read size again W getFileSize() {file updated}`(
+        @LongForgery(min = 1, max = 64) size: Long
+    ) {
+        // Given
+        val olderFile = File(fakeRootDir, "1000").apply { writeBytes(ByteArray(size.toInt())) }
+        File(fakeRootDir, "2000").createNewFile()
+        fakeRootDir.setLastModified(fakeDirModified)
+        testedIndex.getFiles()
+        testedIndex.getFileSize(olderFile)
+        olderFile.appendBytes(ByteArray(1))
+
+        // When
+        testedIndex.onFileUpdated(olderFile)
+
+        // Then
+        assertThat(testedIndex.getFileSize(olderFile)).isEqualTo(size + 1)
+    }
+}
@@ -522,6 +522,29 @@ internal class BatchFileOrchestratorTest {
         verifyNoMoreInteractions(mockMetricsDispatcher)
     }
 
+    @Test
+    fun `M return new File W getWritableFile() {not enough slots left for eventsCount}`(
+        @StringForgery previousData: String
+    ) {
+        // Given
+        assumeTrue(fakeRootDir.listFiles().isNullOrEmpty())
+        val previousFile = testedOrchestrator.getWritableFile(MAX_ITEM_PER_BATCH - 1)
+        checkNotNull(previousFile)
+        previousFile.writeText(previousData)
+
+        // When
+        stubTimeProvider.deviceTimestampMs += 1
+        val reusedFile = testedOrchestrator.getWritableFile(1)
+        stubTimeProvider.deviceTimestampMs += 1
+        val nextFile = testedOrchestrator.getWritableFile(1)
+
+        // Then
+        assertThat(reusedFile).isEqualTo(previousFile)
+        checkNotNull(nextFile)
+        assertThat(nextFile).isNotEqualTo(previousFile)
+        assertThat(nextFile.name.toLong()).isEqualTo(stubTimeProvider.deviceTimestampMs)
+    }
+
     @Test
     fun `M return new File W getWritableFile() {previous file has too many items}`(
         forge: Forge
@@ -1182,6 +1205,297 @@ internal class BatchFileOrchestratorTest {
 
     // endregion
 
+    // region getCompactableFileGroups
+
+    @Test
+    fun `M group adjacent small closed files W getCompactableFileGroups()`() {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+        val recentFile = File(fakeRootDir, (stubTimeProvider.deviceTimestampMs - 1).toString())
+        recentFile.writeBytes(ByteArray(SMALL_ITEM_SIZE))
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // Then
+        assertThat(result).containsExactly(files)
+    }
+
+    @Test
+    fun `M not group large files W getCompactableFileGroups()`() {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, MAX_BATCH_SIZE - 1, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // Then
+        assertThat(result).containsExactly(listOf(files[2], files[3]))
+    }
+
+    @Test
+    fun `M not group excluded files W getCompactableFileGroups()`() {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(setOf(files[1]))
+
+        // Then
+        assertThat(result).containsExactly(listOf(files[2], files[3]))
+    }
+
+    @Test
+    fun `M keep groups within max batch size W getCompactableFileGroups()`() {
+        // Given
+        val size = MAX_BATCH_SIZE / 3
+        val files = createClosedFiles(size, size, size, size)
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // Then
+        assertThat(result).containsExactly(listOf(files[0], files[1]), listOf(files[2], files[3]))
+    }
+
+    @Test
+    fun `M return empty list W getCompactableFileGroups() {single small file}`() {
+        // Given
+        createClosedFiles(SMALL_ITEM_SIZE)
+
+        // When
+        val result = testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // Then
+        assertThat(result).isEmpty()
+    }
+
+    // endregion
+
+    // region onFilesCompacted
+
+    @Test
+    fun `M delete compacted files and metadata W onFilesCompacted()`(
+        @LongForgery(min = 1) fakeEventsCount: Long
+    ) {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+        val metaFiles = files.map { File("${it.path}_metadata").apply { createNewFile() } }
+        testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // When
+        testedOrchestrator.onFilesCompacted(files[0], listOf(files[1], files[2]), fakeEventsCount)
+
+        // Then
+        assertThat(files[0]).exists()
+        assertThat(metaFiles[0]).exists()
+        assertThat(files[1]).doesNotExist()
+        assertThat(files[2]).doesNotExist()
+        assertThat(metaFiles[1]).doesNotExist()
+        assertThat(metaFiles[2]).doesNotExist()
+        assertThat(testedOrchestrator.getAllFiles()).containsExactly(files[0])
+        verify(mockMetricsDispatcher).sendBatchDeletedMetric(files[1], RemovalReason.Compacted, fakePendingBatches)
+        verify(mockMetricsDispatcher).sendBatchDeletedMetric(files[2], RemovalReason.Compacted, fakePendingBatches)
+    }
+
+    @Test
+    fun `M refresh compacted file size W onFilesCompacted()`(
+        @LongForgery(min = 1) fakeEventsCount: Long
+    ) {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+        testedOrchestrator.getCompactableFileGroups(emptySet())
+        files[0].appendBytes(ByteArray(MAX_BATCH_SIZE / 2))
+
+        // When
+        testedOrchestrator.onFilesCompacted(files[0], listOf(files[1]), fakeEventsCount)
+        val result = testedOrchestrator.getCompactableFileGroups(emptySet())
+
+        // Then
+        assertThat(result).containsExactly(listOf(files[2], files[3]))
+    }
+
+
+    @Test
+    fun `M send batch closed metric for the target W onFilesCompacted()`(
+        @LongForgery(min = 1) fakeEventsCount: Long
+    ) {
+        // Given
+        val files = createClosedFiles(SMALL_ITEM_SIZE, SMALL_ITEM_SIZE, SMALL_ITEM_SIZE)
+        testedOrchestrator.getCompactableFileGroups(emptySet())
+        val lastWriteTimestamp = files[2].lastModified()
+
+        // When
+        testedOrchestrator.onFilesCompacted(files[0], listOf(files[1], files[2]), fakeEventsCount)
+
+        // Then
+        verify(mockMetricsDispatcher).sendBatchClosedMetric(
+            files[0],
+            BatchClosedMetadata(
+                lastTimeWasUsedInMs = lastWriteTimestamp,
+                eventsCount = fakeEventsCount
+            )
+        )
+    }
+
+    // endregion
+
+    // region getWritableFileChannel
+
+    @Test
+    fun `M return null W getWritableFileChannel() {persistent channel disabled}`() {
+        // When
+        val result = testedOrchestrator.getWritableFileChannel()
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `M return channel W getWritableFileChannel() {persistent channel enabled}`() {
+        // Given
+        testedOrchestrator = createPersistentChannelOrchestrator()
+
+        // When
+        val result = testedOrchestrator.getWritableFileChannel()
+
+        // Then
+        assertThat(result).isNotNull
+        assertThat(testedOrchestrator.getWritableFileChannel()).isSameAs(result)
+    }
+
+    @Test
+    fun `M close channel W getWritableFile() {batch rotation}`(
+        @StringForgery data: String
+    ) {
+        // Given
+        testedOrchestrator = createPersistentChannelOrchestrator()
+        val oldFile = checkNotNull(testedOrchestrator.getWritableFile())
+        val channel = checkNotNull(testedOrchestrator.getWritableFileChannel())
+        channel.append(oldFile, data.length) { it.put(data.toByteArray()) }
+        stubTimeProvider.deviceTimestampMs += RECENT_DELAY_MS + 1
+
+        // When
+        val newFile = testedOrchestrator.getWritableFile()
+
+        // Then
+        assertThat(newFile).isNotEqualTo(oldFile)
+        assertThat(channel.isOpenOn(oldFile)).isFalse()
+        assertThat(oldFile).hasContent(data)
+    }
+
+    @Test
+    fun `M close channel W getReadableFile() {file held by channel}`(
+        @StringForgery data: String
+    ) {
+        // Given
+        testedOrchestrator = createPersistentChannelOrchestrator()
+        val file = checkNotNull(testedOrchestrator.getWritableFile())
+        val channel = checkNotNull(testedOrchestrator.getWritableFileChannel())
+        channel.append(file, data.length) { it.put(data.toByteArray()) }
+        stubTimeProvider.deviceTimestampMs += RECENT_DELAY_MS * 2
+
+        // When
+        val result = testedOrchestrator.getReadableFile(emptySet())
+
+        // Then
+        assertThat(result).isEqualTo(file)
+        assertThat(channel.isOpenOn(file)).isFalse()
+    }
+
+    @Test
+    fun `M close channel W closeWritableFileChannel()`(
+        @StringForgery data: String
+    ) {
+        // Given
+        testedOrchestrator = createPersistentChannelOrchestrator()
+        val file = checkNotNull(testedOrchestrator.getWritableFile())
+        val channel = checkNotNull(testedOrchestrator.getWritableFileChannel())
+        channel.append(file, data.length) { it.put(data.toByteArray()) }
+
+        // When
+        testedOrchestrator.closeWritableFileChannel()
+
+        // Then
+        assertThat(channel.isOpenOn(file)).isFalse()
+        assertThat(file).hasContent(data)
+    }
+
+    // endregion
+
+    // region getUpdatableSlots
+
+    @Test
+    fun `M return same slots W getUpdatableSlots() {writable file}`() {
+        // Given
+        val file = checkNotNull(testedOrchestrator.getWritableFile())
+
+        // When
+        val result = testedOrchestrator.getUpdatableSlots(file)
+
+        // Then
+        checkNotNull(result)
+        assertThat(result.file).isEqualTo(file)
+        assertThat(testedOrchestrator.getUpdatableSlots(file)).isSameAs(result)
+    }
+
+    @Test
+    fun `M return null W getUpdatableSlots() {not the writable file}`(
+        @StringForgery fileName: String
+    ) {
+        // Given
+        testedOrchestrator.getWritableFile()
+
+        // When
+        val result = testedOrchestrator.getUpdatableSlots(File(fakeRootDir, fileName))
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `M return new slots W getUpdatableSlots() {batch rotation}`() {
+        // Given
+        val oldFile = checkNotNull(testedOrchestrator.getWritableFile())
+        val oldSlots = testedOrchestrator.getUpdatableSlots(oldFile)
+        stubTimeProvider.deviceTimestampMs += RECENT_DELAY_MS + 1
+        val newFile = checkNotNull(testedOrchestrator.getWritableFile())
+
+        // When
+        val result = testedOrchestrator.getUpdatableSlots(newFile)
+
+        // Then
+        assertThat(newFile).isNotEqualTo(oldFile)
+        assertThat(testedOrchestrator.getUpdatableSlots(oldFile)).isNull()
+        assertThat(result).isNotNull.isNotSameAs(oldSlots)
+        assertThat(result?.file).isEqualTo(newFile)
+    }
+
+    // endregion
+
+    private fun createClosedFiles(vararg sizes: Int): List<File> {
+        // file names must have the same number of digits to be sorted chronologically
+        stubTimeProvider.deviceTimestampMs = stubTimeProvider.deviceTimestampMs
+            .coerceIn(MIN_FILE_TIMESTAMP, MAX_FILE_TIMESTAMP)
+        val firstTimestamp = stubTimeProvider.deviceTimestampMs - (RECENT_DELAY_MS * 2)
+        return sizes.mapIndexed { index, size ->
+            File(fakeRootDir, (firstTimestamp + index).toString()).apply {
+                writeBytes(ByteArray(size))
+            }
+        }
+    }
+
+    private fun createPersistentChannelOrchestrator(): FileOrchestrator {
+        return BatchFileOrchestrator(
+            rootDir = fakeRootDir,
+            config = TEST_PERSISTENCE_CONFIG.copy(persistentFileChannel = true),
+            internalLogger = mockLogger,
+            metricsDispatcher = mockMetricsDispatcher,
+            pendingFiles = mockPendingFiles,
+            timeProvider = stubTimeProvider
+        )
+    }
+
     companion object {
 
         private const val RECENT_DELAY_MS = 250L
@@ -1196,6 +1510,9 @@ internal class BatchFileOrchestratorTest {
 
         private const val CLEANUP_FREQUENCY_THRESHOLD_MS = 50L
 
+        private const val MIN_FILE_TIMESTAMP = 1_000_000_000_000L
+        private const val MAX_FILE_TIMESTAMP = 9_000_000_000_000L
+
         private val TEST_PERSISTENCE_CONFIG = FilePersistenceConfig(
             RECENT_DELAY_MS,
             MAX_BATCH_SIZE.toLong(),
@@ -13,6 +13,7 @@ import com.datadog.android.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
 import fr.xgouchet.elmyr.annotation.BoolForgery
 import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
 import fr.xgouchet.elmyr.junit5.ForgeExtension
 import org.assertj.core.api.Assertions.assertThat
@@ -27,6 +28,8 @@ import org.mockito.kotlin.any
 import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.eq
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.kotlin.verifyNoMoreInteractions
@@ -134,6 +137,118 @@ internal class EncryptedBatchReaderWriterTest {
 
     // endregion
 
+    // region BatchFileReaderWriter#appendData tests
+
+    @Test
+    fun `M encrypt data and return true W appendData()`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        val encryptedData = encrypt(batchEvent.data)
+        val encryptedMetadata = encrypt(batchEvent.metadata)
+        val encryptedEvent = RawBatchEvent(data = encryptedData, metadata = encryptedMetadata)
+        whenever(mockBatchFileReaderWriter.appendData(mockChannel, mockFile, encryptedEvent)) doReturn true
+
+        // When
+        val result = testedReaderWriter.appendData(mockChannel, mockFile, batchEvent)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchFileReaderWriter).appendData(mockChannel, mockFile, encryptedEvent)
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M log internal error and return false W appendData() { bad encryption result }`(
+        @Forgery batchEvent: RawBatchEvent
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        whenever(mockEncryption.encrypt(batchEvent.data)) doReturn ByteArray(0)
+
+        // When
+        val result = testedReaderWriter.appendData(mockChannel, mockFile, batchEvent)
+
+        // Then
+        assertThat(result).isFalse()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.USER,
+            EncryptedBatchReaderWriter.BAD_ENCRYPTION_RESULT_MESSAGE
+        )
+        verifyNoInteractions(mockBatchFileReaderWriter)
+    }
+
+    @Test
+    fun `M encrypt all events W appendData() {events list}`(
+        @Forgery batchEvents: List<RawBatchEvent>
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        val encryptedEvents = batchEvents.map {
+            RawBatchEvent(data = encrypt(it.data), metadata = encrypt(it.metadata))
+        }
+        whenever(mockBatchFileReaderWriter.appendData(mockFile, encryptedEvents, mockChannel)) doReturn true
+
+        // When
+        val result = testedReaderWriter.appendData(mockFile, batchEvents, mockChannel)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockBatchFileReaderWriter).appendData(mockFile, encryptedEvents, mockChannel)
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M log internal error and return false W appendData() {events list, one bad encryption result}`(
+        @Forgery batchEvents: List<RawBatchEvent>,
+        @Forgery failingEvent: RawBatchEvent
+    ) {
+        // Given
+        val mockChannel = mock<BatchFileChannel>()
+        val events = batchEvents + failingEvent
+        whenever(mockEncryption.encrypt(failingEvent.data)) doReturn ByteArray(0)
+
+        // When
+        val result = testedReaderWriter.appendData(mockFile, events, mockChannel)
+
+        // Then
+        assertThat(result).isFalse()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.USER,
+            EncryptedBatchReaderWriter.BAD_ENCRYPTION_RESULT_MESSAGE
+        )
+        verifyNoInteractions(mockBatchFileReaderWriter)
+    }
+
+    // endregion
+
+    // region BatchFileReaderWriter#writeSlot tests
+
+    @Test
+    fun `M append encrypted event W writeSlot()`(
+        @Forgery batchEvent: RawBatchEvent,
+        @StringForgery key: String
+    ) {
+        // Given
+        val slots = BatchFileSlots(mockFile)
+        val encryptedEvent = RawBatchEvent(data = encrypt(batchEvent.data), metadata = encrypt(batchEvent.metadata))
+        whenever(mockBatchFileReaderWriter.appendData(mockFile, listOf(encryptedEvent), null)) doReturn true
+
+        // When
+        val result = testedReaderWriter.writeSlot(mockFile, slots, key, batchEvent)
+
+        // Then
+        assertThat(result).isTrue()
+        assertThat(slots[key]).isNull()
+        assertThat(testedReaderWriter.fitsSlot(BatchFileSlots.Slot(0L, Int.MAX_VALUE), batchEvent)).isFalse()
+        verify(mockBatchFileReaderWriter).appendData(mockFile, listOf(encryptedEvent), null)
+    }
+
+    // endregion
+
     // region BatchFileReader#readData tests
 
     @Test
@@ -154,6 +269,54 @@ internal class EncryptedBatchReaderWriterTest {
 
     // endregion
 
+    // region BatchFileReader#readDataForCopy tests
+
+    @Test
+    fun `M decrypt data W readDataForCopy()`(
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        whenever(
+            mockBatchFileReaderWriter.readData(mockFile)
+        ) doReturn events.map { RawBatchEvent(encrypt(it.data), encrypt(it.metadata)) }
+
+        // When
+        val result = testedReaderWriter.readDataForCopy(mockFile)
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(events)
+        verify(mockBatchFileReaderWriter, never()).readDataForCopy(any())
+    }
+
+    // endregion
+
+    // region BatchFileReader#readEventsData tests
+
+    @Test
+    fun `M decrypt data W readEventsData()`(
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        whenever(mockBatchFileReaderWriter.readEvents(eq(mockFile), any())) doAnswer {
+            val action = it.getArgument<(RawBatchEvent) -> Unit>(1)
+            events.forEach { event -> action(RawBatchEvent(encrypt(event.data), encrypt(event.metadata))) }
+        }
+        val result = mutableListOf<ByteArray>()
+
+        // When
+        testedReaderWriter.readEventsData(mockFile) {
+            val data = ByteArray(it.remaining())
+            it.get(data)
+            result.add(data)
+        }
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(events.map { it.data })
+        verify(mockBatchFileReaderWriter, never()).readEventsData(any(), any())
+    }
+
+    // endregion
+
     // region writeData + readData
 
     @Test
@@ -17,7 +17,9 @@ import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
 import fr.xgouchet.elmyr.junit5.ForgeExtension
 import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.jupiter.api.Assumptions.assumeFalse
+import org.junit.jupiter.api.Assumptions.assumeTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
@@ -26,6 +28,7 @@ import org.junit.jupiter.api.io.TempDir
 import org.mockito.Mock
 import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.quality.Strictness
 import java.io.File
 import java.io.FileNotFoundException
@@ -212,6 +215,264 @@ internal class PlainBatchFileReaderWriterTest {
 
     // endregion
 
+    // region appendData
+
+    @Test
+    fun `M append data in file W appendData()`(
+        @StringForgery fileName: String,
+        @Forgery previousEvent: RawBatchEvent,
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(encode(previousEvent))
+        val channel = BatchFileChannel(mockInternalLogger)
+
+        // When
+        val results = events.map { testedReaderWriter.appendData(channel, file, it) }
+        channel.close()
+
+        // Then
+        assertThat(results).containsOnly(true)
+        assertThat(file).exists()
+            .hasBinaryContent(
+                events.fold(encode(previousEvent)) { acc, event -> acc + encode(event) }
+            )
+        assertThat(testedReaderWriter.readData(file)).isEqualTo(listOf(previousEvent) + events)
+    }
+
+    @Test
+    fun `M append all events in file W appendData() {events list, channel}`(
+        @StringForgery fileName: String,
+        @Forgery previousEvent: RawBatchEvent,
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(encode(previousEvent))
+        val channel = BatchFileChannel(mockInternalLogger)
+
+        // When
+        val result = testedReaderWriter.appendData(file, events, channel)
+        channel.close()
+
+        // Then
+        assertThat(result).isTrue()
+        assertThat(testedReaderWriter.readData(file)).isEqualTo(listOf(previousEvent) + events)
+    }
+
+    @Test
+    fun `M append all events in file W appendData() {events list, no channel}`(
+        @StringForgery fileName: String,
+        @Forgery previousEvent: RawBatchEvent,
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(encode(previousEvent))
+
+        // When
+        val result = testedReaderWriter.appendData(file, events, null)
+
+        // Then
+        assertThat(result).isTrue()
+        assertThat(file).hasBinaryContent(
+            events.fold(encode(previousEvent)) { acc, event -> acc + encode(event) }
+        )
+    }
+
+    @Test
+    fun `M return false and warn W appendData() {parent dir does not exist}`(
+        @StringForgery fileName: String,
+        @Forgery event: RawBatchEvent
+    ) {
+        // Given
+        assumeFalse(fakeSrcDir.exists())
+        val file = File(fakeSrcDir, fileName)
+        val channel = BatchFileChannel(mockInternalLogger)
+
+        // When
+        val result = testedReaderWriter.appendData(channel, file, event)
+
+        // Then
+        assertThat(result).isFalse()
+        assertThat(file).doesNotExist()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.MAINTAINER),
+            PlainBatchFileReaderWriter.ERROR_WRITE.format(Locale.US, file.path),
+            FileNotFoundException::class.java
+        )
+    }
+
+    // endregion
+
+    // region writeSlot
+
+    @Test
+    fun `M write event in a new slot W writeSlot() {no previous slot}`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        @Forgery previousEvent: RawBatchEvent,
+        @Forgery event: RawBatchEvent
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(encode(previousEvent))
+        val slots = BatchFileSlots(file)
+
+        // When
+        val result = testedReaderWriter.writeSlot(file, slots, key, event)
+
+        // Then
+        assertThat(result).isTrue()
+        val slot = checkNotNull(slots[key])
+        assertThat(slot.offset).isEqualTo(encode(previousEvent).size.toLong())
+        assertThat(slot.capacity).isGreaterThanOrEqualTo(
+            encode(event).size + PlainBatchFileReaderWriter.MIN_SLOT_PADDING_BYTES
+        )
+        assertThat(file.length()).isEqualTo(slot.offset + slot.capacity)
+        assertThat(testedReaderWriter.readData(file).withoutSlotPadding())
+            .isEqualTo(listOf(previousEvent, event).withoutSlotPadding())
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M pad slot with whitespaces W writeSlot()`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val slots = BatchFileSlots(file)
+        val event = forge.aFakeEvent()
+
+        // When
+        testedReaderWriter.writeSlot(file, slots, key, event)
+
+        // Then
+        val readEvent = testedReaderWriter.readData(file).single()
+        val padding = readEvent.data.copyOfRange(event.data.size, readEvent.data.size)
+        assertThat(readEvent.metadata).isEqualTo(event.metadata)
+        assertThat(readEvent.data.copyOf(event.data.size)).isEqualTo(event.data)
+        assertThat(padding).containsOnly(PlainBatchFileReaderWriter.SLOT_PADDING_BYTE)
+    }
+
+    @Test
+    fun `M overwrite slot in place W writeSlot() {new version fits in slot}`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        @Forgery otherEvent: RawBatchEvent,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val slots = BatchFileSlots(file)
+        val firstVersion = forge.aFakeEvent(dataSize = 16)
+        val lastVersion = forge.aFakeEvent(dataSize = 64)
+        testedReaderWriter.writeSlot(file, slots, key, firstVersion)
+        testedReaderWriter.writeData(file, otherEvent, append = true)
+        val slot = checkNotNull(slots[key])
+        val fileLength = file.length()
+
+        // When
+        val fits = testedReaderWriter.fitsSlot(slot, lastVersion)
+        val result = testedReaderWriter.writeSlot(file, slots, key, lastVersion)
+
+        // Then
+        assertThat(fits).isTrue()
+        assertThat(result).isTrue()
+        assertThat(slots[key]).isEqualTo(slot)
+        assertThat(file.length()).isEqualTo(fileLength)
+        assertThat(testedReaderWriter.readData(file).withoutSlotPadding())
+            .isEqualTo(listOf(lastVersion, otherEvent).withoutSlotPadding())
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M append a bigger slot W writeSlot() {new version doesn't fit in slot}`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        @Forgery otherEvent: RawBatchEvent,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val slots = BatchFileSlots(file)
+        val firstVersion = forge.aFakeEvent(dataSize = 16)
+        val lastVersion = forge.aFakeEvent(dataSize = 4096)
+        testedReaderWriter.writeSlot(file, slots, key, firstVersion)
+        testedReaderWriter.writeData(file, otherEvent, append = true)
+        val fileLength = file.length()
+
+        // When
+        val fits = testedReaderWriter.fitsSlot(checkNotNull(slots[key]), lastVersion)
+        val result = testedReaderWriter.writeSlot(file, slots, key, lastVersion)
+
+        // Then
+        assertThat(fits).isFalse()
+        assertThat(result).isTrue()
+        assertThat(checkNotNull(slots[key]).offset).isEqualTo(fileLength)
+        // the previous version is left in the file, and dropped when the batch is uploaded
+        assertThat(testedReaderWriter.readData(file).withoutSlotPadding())
+            .isEqualTo(listOf(firstVersion, otherEvent, lastVersion).withoutSlotPadding())
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M keep slots separated W writeSlot() {several keys}`(
+        @StringForgery fileName: String,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val slots = BatchFileSlots(file)
+        val keys = forge.aList(size = forge.anInt(min = 2, max = 8)) { anAlphabeticalString() }.distinct()
+        val versions = keys.map { forge.aList(size = forge.anInt(min = 1, max = 4)) { aFakeEvent() } }
+
+        // When
+        repeat(versions.maxOf { it.size }) { index ->
+            keys.zip(versions).forEach { (key, keyVersions) ->
+                keyVersions.getOrNull(index)?.let { testedReaderWriter.writeSlot(file, slots, key, it) }
+            }
+        }
+
+        // Then
+        val readEvents = testedReaderWriter.readData(file).withoutSlotPadding()
+        assertThat(readEvents).containsAll(versions.map { it.last() })
+        assertThat(versions.flatten()).containsAll(readEvents)
+        verifyNoInteractions(mockInternalLogger)
+    }
+
+    @Test
+    fun `M return false and warn W writeSlot() {parent dir does not exist}`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        @Forgery event: RawBatchEvent
+    ) {
+        // Given
+        assumeFalse(fakeSrcDir.exists())
+        val file = File(fakeSrcDir, fileName)
+        val slots = BatchFileSlots(file)
+
+        // When
+        val result = testedReaderWriter.writeSlot(file, slots, key, event)
+
+        // Then
+        assertThat(result).isFalse()
+        assertThat(file).doesNotExist()
+        assertThat(slots[key]).isNull()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.MAINTAINER),
+            PlainBatchFileReaderWriter.ERROR_WRITE.format(Locale.US, file.path),
+            FileNotFoundException::class.java
+        )
+    }
+
+    // endregion
+
     // region readData
 
     @Test
@@ -396,6 +657,195 @@ internal class PlainBatchFileReaderWriterTest {
 
     // endregion
 
+    // region readEventsData
+
+    @Test
+    fun `M read events data W readEventsData() { small file }`(
+        @StringForgery fileName: String,
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(events.map { encode(it) }.reduce { acc, bytes -> acc + bytes })
+        assumeTrue(file.length() < PlainBatchFileReaderWriter.MAPPED_READ_THRESHOLD_BYTES)
+        val result = mutableListOf<ByteArray>()
+
+        // When
+        testedReaderWriter.readEventsData(file) { result.add(it.readBytes()) }
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(events.map { it.data })
+    }
+
+    @Test
+    fun `M read events data W readEventsData() { mapped file }`(
+        @StringForgery fileName: String,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val eventSize = PlainBatchFileReaderWriter.MAPPED_READ_THRESHOLD_BYTES.toInt() / 4
+        val events = List(forge.anInt(min = 5, max = 10)) {
+            RawBatchEvent(
+                data = forge.anAlphabeticalString(size = eventSize).toByteArray(),
+                metadata = forge.anAlphabeticalString().toByteArray()
+            )
+        }
+        file.writeBytes(events.map { encode(it) }.reduce { acc, bytes -> acc + bytes })
+        val result = mutableListOf<ByteArray>()
+
+        // When
+        testedReaderWriter.readEventsData(file) {
+            assertThat(it.isReadOnly).isTrue()
+            result.add(it.readBytes())
+        }
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(events.map { it.data })
+    }
+
+    @Test
+    fun `M read valid events data so far W readEventsData() { stream cutoff }`(
+        @StringForgery fileName: String,
+        @Forgery events: List<RawBatchEvent>,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val content = events.map { encode(it) }.reduce { acc, bytes -> acc + bytes }
+        val lastEventSize = encode(events.last()).size
+        file.writeBytes(content.copyOf(content.size - forge.anInt(min = 1, max = lastEventSize)))
+        val result = mutableListOf<ByteArray>()
+
+        // When
+        testedReaderWriter.readEventsData(file) { result.add(it.readBytes()) }
+
+        // Then
+        assertThat(result).containsExactlyElementsOf(events.dropLast(1).map { it.data })
+    }
+
+    @Test
+    fun `M throw IOException W readEventsData() {file does not exist}`(
+        @StringForgery fileName: String
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        assumeFalse(file.exists())
+
+        // When + Then
+        assertThatThrownBy { testedReaderWriter.readEventsData(file) {} }
+            .isInstanceOf(FileNotFoundException::class.java)
+    }
+
+    // endregion
+
+    // region readDataForCopy
+
+    @Test
+    fun `M drop slot padding W readDataForCopy() {JSON object in a slot}`(
+        @StringForgery fileName: String,
+        @StringForgery key: String,
+        @StringForgery value: String,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val slots = BatchFileSlots(file)
+        val event = RawBatchEvent(
+            data = "{\"$key\":\"$value\"}".toByteArray(),
+            metadata = forge.anAlphabeticalString().toByteArray()
+        )
+        testedReaderWriter.writeSlot(file, slots, key, event)
+
+        // When
+        val result = testedReaderWriter.readDataForCopy(file)
+
+        // Then
+        assertThat(result).containsExactly(event)
+    }
+
+    @Test
+    fun `M keep trailing whitespaces W readDataForCopy() {not a JSON object}`(
+        @StringForgery fileName: String,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val event = RawBatchEvent(
+            data = (forge.anAlphabeticalString() + "   ").toByteArray(),
+            metadata = forge.anAlphabeticalString().toByteArray()
+        )
+        file.writeBytes(encode(event))
+
+        // When
+        val result = testedReaderWriter.readDataForCopy(file)
+
+        // Then
+        assertThat(result).containsExactly(event)
+    }
+
+    // endregion
+
+    // region countEvents
+
+    @Test
+    fun `M count events W countEvents()`(
+        @StringForgery fileName: String,
+        @Forgery events: List<RawBatchEvent>
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        file.writeBytes(events.map { encode(it) }.reduce { acc, bytes -> acc + bytes })
+
+        // When
+        val result = testedReaderWriter.countEvents(file)
+
+        // Then
+        assertThat(result).isEqualTo(events.size)
+    }
+
+    @Test
+    fun `M count complete events only W countEvents() { stream cutoff }`(
+        @StringForgery fileName: String,
+        @Forgery events: List<RawBatchEvent>,
+        forge: Forge
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        val content = events.map { encode(it) }.reduce { acc, bytes -> acc + bytes }
+        val lastEventSize = encode(events.last()).size
+        file.writeBytes(content.copyOf(content.size - forge.anInt(min = 1, max = lastEventSize)))
+
+        // When
+        val result = testedReaderWriter.countEvents(file)
+
+        // Then
+        assertThat(result).isEqualTo(events.size - 1)
+    }
+
+    @Test
+    fun `M return null and warn W countEvents() {file does not exist}`(
+        @StringForgery fileName: String
+    ) {
+        // Given
+        val file = File(fakeRootDirectory, fileName)
+        assumeFalse(file.exists())
+
+        // When
+        val result = testedReaderWriter.countEvents(file)
+
+        // Then
+        assertThat(result).isNull()
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.MAINTAINER, InternalLogger.Target.TELEMETRY),
+            PlainBatchFileReaderWriter.ERROR_READ.format(Locale.US, file.path),
+            FileNotFoundException::class.java
+        )
+    }
+
+    // endregion
+
     // region writeData + readData
 
     @Test
@@ -473,6 +923,29 @@ internal class PlainBatchFileReaderWriterTest {
     // | block type | data size (n) |    data   |
     // +------------+---------------+-----------+
     // where block type is 0x00 for event, 0x01 for data
+    private fun ByteBuffer.readBytes(): ByteArray {
+        val bytes = ByteArray(remaining())
+        get(bytes)
+        return bytes
+    }
+
+    private fun Forge.aFakeEvent(dataSize: Int = anInt(min = 1, max = 1024)): RawBatchEvent {
+        return RawBatchEvent(
+            data = anAlphabeticalString(size = dataSize).toByteArray(),
+            metadata = anAlphabeticalString(size = 8).toByteArray()
+        )
+    }
+
+    private fun List<RawBatchEvent>.withoutSlotPadding(): List<RawBatchEvent> {
+        return map { event ->
+            var size = event.data.size
+            while (size > 0 && event.data[size - 1] == PlainBatchFileReaderWriter.SLOT_PADDING_BYTE) {
+                size--
+            }
+            RawBatchEvent(data = event.data.copyOf(size), metadata = event.metadata)
+        }
+    }
+
     private fun encode(event: RawBatchEvent): ByteArray {
         return metaBytesAsTlv(event.metadata) + dataBytesAsTlv(event.data)
     }
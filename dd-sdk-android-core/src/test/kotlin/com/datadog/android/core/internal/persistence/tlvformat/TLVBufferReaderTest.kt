@@ -0,0 +1,166 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.core.internal.persistence.tlvformat
+
+import com.datadog.android.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import java.nio.ByteBuffer
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class TLVBufferReaderTest {
+
+    @Test
+    fun `M return blocks in order W readBlock()`(
+        forge: Forge
+    ) {
+        // Given
+        val values = forge.aList { anAlphabeticalString().toByteArray() }
+        val types = values.map { forge.aFakeType() }
+        val testedReader = TLVBufferReader(ByteBuffer.wrap(encode(types, values)))
+
+        // When
+        val blocks = List(values.size) { testedReader.readBlock() }
+
+        // Then
+        assertThat(blocks.map { it?.type }).containsExactlyElementsOf(types)
+        assertThat(blocks.map { it?.copyValue() }).containsExactlyElementsOf(values)
+        assertThat(testedReader.bytesRemaining).isZero()
+        assertThat(testedReader.readBlock()).isNull()
+    }
+
+    @Test
+    fun `M expose read only views W readBlock()`(
+        @StringForgery fakeValue: String
+    ) {
+        // Given
+        val source = ByteBuffer.wrap(encode(listOf<Short>(0), listOf(fakeValue.toByteArray())))
+        val testedReader = TLVBufferReader(source)
+
+        // When
+        val block = testedReader.readBlock()
+
+        // Then
+        checkNotNull(block)
+        assertThat(block.value.isReadOnly).isTrue()
+        assertThat(block.value.remaining()).isEqualTo(fakeValue.toByteArray().size)
+        assertThat(source.position()).isZero()
+    }
+
+    @Test
+    fun `M return null and consume nothing W readBlock() { truncated value }`(
+        @StringForgery(regex = "[a-z]{2,32}") fakeValue: String,
+        forge: Forge
+    ) {
+        // Given
+        val bytes = encode(listOf<Short>(1), listOf(fakeValue.toByteArray()))
+        val truncatedBytes = bytes.copyOf(bytes.size - forge.anInt(min = 1, max = fakeValue.length))
+        val testedReader = TLVBufferReader(ByteBuffer.wrap(truncatedBytes))
+
+        // When
+        val block = testedReader.readBlock()
+
+        // Then
+        assertThat(block).isNull()
+        assertThat(testedReader.bytesRead).isZero()
+        assertThat(testedReader.bytesRemaining).isEqualTo(truncatedBytes.size)
+    }
+
+    @Test
+    fun `M return null W readBlock() { truncated header }`(
+        forge: Forge
+    ) {
+        // Given
+        val bytes = forge.aList(size = forge.anInt(min = 0, max = TLVBufferReader.HEADER_SIZE_BYTES)) {
+            anInt(min = Byte.MIN_VALUE.toInt(), max = Byte.MAX_VALUE + 1).toByte()
+        }.toByteArray()
+        val testedReader = TLVBufferReader(ByteBuffer.wrap(bytes))
+
+        // When
+        val block = testedReader.readBlock()
+
+        // Then
+        assertThat(block).isNull()
+    }
+
+    @Test
+    fun `M return null W readBlock() { negative length }`(
+        forge: Forge
+    ) {
+        // Given
+        val bytes = ByteBuffer.allocate(TLVBufferReader.HEADER_SIZE_BYTES)
+            .putShort(forge.aFakeType())
+            .putInt(forge.anInt(max = 0))
+            .array()
+        val testedReader = TLVBufferReader(ByteBuffer.wrap(bytes))
+
+        // When
+        val block = testedReader.readBlock()
+
+        // Then
+        assertThat(block).isNull()
+    }
+
+    @Test
+    fun `M return next type without consuming it W peekType()`(
+        @StringForgery fakeValue: String,
+        forge: Forge
+    ) {
+        // Given
+        val fakeType = forge.aFakeType()
+        val testedReader = TLVBufferReader(
+            ByteBuffer.wrap(encode(listOf(fakeType), listOf(fakeValue.toByteArray())))
+        )
+
+        // When
+        val type = testedReader.peekType()
+
+        // Then
+        assertThat(type).isEqualTo(fakeType)
+        assertThat(testedReader.bytesRead).isZero()
+        assertThat(testedReader.readBlock()?.type).isEqualTo(fakeType)
+    }
+
+    @Test
+    fun `M return null W peekType() { not enough bytes }`() {
+        // Given
+        val testedReader = TLVBufferReader(ByteBuffer.wrap(byteArrayOf(1)))
+
+        // When
+        val type = testedReader.peekType()
+
+        // Then
+        assertThat(type).isNull()
+    }
+
+    // region Internal
+
+    private fun Forge.aFakeType(): Short {
+        return anInt(min = Short.MIN_VALUE.toInt(), max = Short.MAX_VALUE + 1).toShort()
+    }
+
+    private fun encode(types: List<Short>, values: List<ByteArray>): ByteArray {
+        val buffer = ByteBuffer.allocate(
+            values.sumOf { it.size + TLVBufferReader.HEADER_SIZE_BYTES }
+        )
+        types.zip(values).forEach { (type, value) ->
+            buffer.putShort(type).putInt(value.size).put(value)
+        }
+        return buffer.array()
+    }
+
+    // endregion
+}
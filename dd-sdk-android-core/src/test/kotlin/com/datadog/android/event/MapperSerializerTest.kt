@@ -7,6 +7,7 @@
 package com.datadog.android.event
 
 import com.datadog.android.core.persistence.Serializer
+import com.datadog.android.core.persistence.StreamingSerializer
 import com.datadog.android.utils.forge.Configurator
 import fr.xgouchet.elmyr.annotation.StringForgery
 import fr.xgouchet.elmyr.junit5.ForgeConfiguration
@@ -20,8 +21,11 @@ import org.mockito.Mock
 import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
 import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import org.mockito.quality.Strictness
+import java.io.StringWriter
 
 @Extensions(
     ExtendWith(MockitoExtension::class),
@@ -90,4 +94,59 @@ internal class MapperSerializerTest {
         // Then
         assertThat(result).isEqualTo(serialized)
     }
+
+    @Test
+    fun `M write nothing W serialize() {writer, mapper returns null}`(
+        @StringForgery input: String
+    ) {
+        // Given
+        val writer = StringWriter()
+        whenever(mockMapper.map(input)) doReturn null
+
+        // When
+        val result = testedMapperSerializer.serialize(input, writer)
+
+        // Then
+        assertThat(result).isFalse()
+        assertThat(writer.toString()).isEmpty()
+    }
+
+    @Test
+    fun `M write mapped then serialized data W serialize() {writer}`(
+        @StringForgery input: String,
+        @StringForgery mapped: String,
+        @StringForgery serialized: String
+    ) {
+        // Given
+        val writer = StringWriter()
+        whenever(mockMapper.map(input)) doReturn mapped
+        whenever(mockSerializer.serialize(mapped)) doReturn serialized
+
+        // When
+        val result = testedMapperSerializer.serialize(input, writer)
+
+        // Then
+        assertThat(result).isTrue()
+        assertThat(writer.toString()).isEqualTo(serialized)
+    }
+
+    @Test
+    fun `M delegate to streaming serializer W serialize() {writer}`(
+        @StringForgery input: String,
+        @StringForgery mapped: String
+    ) {
+        // Given
+        val writer = StringWriter()
+        val mockStreamingSerializer = mock<StreamingSerializer<String>>()
+        testedMapperSerializer = MapperSerializer(mockMapper, mockStreamingSerializer)
+        whenever(mockMapper.map(input)) doReturn mapped
+        whenever(mockStreamingSerializer.serialize(mapped, writer)) doReturn true
+
+        // When
+        val result = testedMapperSerializer.serialize(input, writer)
+
+        // Then
+        assertThat(result).isTrue()
+        verify(mockStreamingSerializer).serialize(mapped, writer)
+    }
 }
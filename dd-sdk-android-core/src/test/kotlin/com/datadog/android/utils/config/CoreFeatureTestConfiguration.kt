@@ -12,6 +12,8 @@ import com.datadog.android.core.configuration.BatchSize
 import com.datadog.android.core.configuration.UploadFrequency
 import com.datadog.android.core.internal.CoreFeature
 import com.datadog.android.core.internal.account.MutableAccountInfoProvider
+import com.datadog.android.core.internal.data.upload.DirectUploadCoordinator
+import com.datadog.android.core.internal.data.upload.UploadThroughputMonitor
 import com.datadog.android.core.internal.net.DefaultFirstPartyHostHeaderTypeResolver
 import com.datadog.android.core.internal.net.info.NetworkInfoProvider
 import com.datadog.android.core.internal.persistence.file.FilePersistenceConfig
@@ -145,6 +147,8 @@ internal class CoreFeatureTestConfiguration<T : Context>(
         whenever(mockInstance.persistenceExecutorService) doReturn mockPersistenceExecutor
         whenever(mockInstance.contextExecutorService) doReturn mockContextExecutorService
         whenever(mockInstance.uploadExecutorService) doReturn mockUploadExecutor
+        whenever(mockInstance.uploadCoordinator) doReturn DirectUploadCoordinator()
+        whenever(mockInstance.uploadThroughputMonitor) doReturn UploadThroughputMonitor()
         whenever(mockInstance.callFactory) doReturn callFactory
         whenever(mockInstance.kronosClock) doReturn mockKronosClock
         whenever(mockInstance.contextRef) doReturn mockContextRef
@@ -60,7 +60,9 @@ internal class ConfigurationCoreForgeryFactory :
                 mock(),
                 forge.aValueFrom(BackPressureMitigation::class.java)
             ),
-            uploadSchedulerStrategy = forge.aNullable { mock() }
+            uploadSchedulerStrategy = forge.aNullable { mock() },
+            persistentFileChannelEnabled = forge.aBool(),
+            uploadFeatureWeights = forge.aMap { anAlphabeticalString() to anInt(min = 1, max = 10) }
         )
     }
 }
@@ -64,6 +64,7 @@ internal class Configurator :
         forge.addFactory(RemovalReasonPurgedForgeryFactory())
         forge.addFactory(RemovalReasonInvalidForgeryFactory())
         forge.addFactory(RemovalReasonObsoleteForgeryFactory())
+        forge.addFactory(RemovalReasonCompactedForgeryFactory())
         forge.addFactory(RemovalReasonIntakeCodeForgeryFactory())
         forge.addFactory(RemovalReasonForgeryFactory())
 
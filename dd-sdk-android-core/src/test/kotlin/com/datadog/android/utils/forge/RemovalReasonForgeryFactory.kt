@@ -17,6 +17,7 @@ internal class RemovalReasonForgeryFactory : ForgeryFactory<RemovalReason> {
             listOf(
                 forge.getForgery(RemovalReason.Purged::class.java),
                 forge.getForgery(RemovalReason.Obsolete::class.java),
+                forge.getForgery(RemovalReason.Compacted::class.java),
                 forge.getForgery(RemovalReason.Flushed::class.java),
                 forge.getForgery(RemovalReason.Invalid::class.java),
                 forge.getForgery(RemovalReason.IntakeCode::class.java)
@@ -0,0 +1,125 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+package com.datadog.android.internal.compression
+
+import java.util.ArrayDeque
+import java.util.zip.Deflater
+
+/**
+ * A bounded pool of [Deflater] instances and compression buffers.
+ *
+ * Each [Deflater] holds native zlib state which is only released when calling [Deflater.end] (or
+ * when the instance is garbage collected), so allocating one per payload creates a lot of native
+ * allocation churn when many small payloads are compressed in a row. Instead, deflaters released
+ * to this pool are reset and handed over to the next caller asking for the same compression level
+ * and format.
+ *
+ * At most [maxPooledInstances] deflaters are kept for each level/format combination, and at most
+ * [maxPooledInstances] buffers are kept; anything released beyond that is discarded (deflaters
+ * are ended).
+ *
+ * @param maxPooledInstances the maximum number of idle instances kept for reuse, per kind.
+ * @param bufferSize the size of the buffers provided by [acquireBuffer].
+ */
+class DeflaterPool(
+    private val maxPooledInstances: Int = DEFAULT_MAX_POOLED_INSTANCES,
+    val bufferSize: Int = DEFAULT_BUFFER_SIZE
+) {
+
+    private val idleDeflaters = mutableMapOf<DeflaterKey, ArrayDeque<PooledDeflater>>()
+    private val idleBuffers = ArrayDeque<ByteArray>()
+
+    /**
+     * Provides a [Deflater] ready to compress a new stream, reusing an idle one if possible. It
+     * must be given back with [releaseDeflater] once the stream is complete.
+     *
+     * @param level the compression level (see [Deflater.setLevel]).
+     * @param nowrap if true, the ZLIB header and checksum fields are not written (as needed for
+     * the GZIP format).
+     */
+    fun acquireDeflater(level: Int, nowrap: Boolean): Deflater {
+        val key = DeflaterKey(level, nowrap)
+        val idle = synchronized(idleDeflaters) {
+            idleDeflaters[key]?.pollFirst()
+        }
+        return idle ?: PooledDeflater(key)
+    }
+
+    /**
+     * Gives back a [Deflater] provided by [acquireDeflater]. The deflater must not be used by the
+     * caller afterwards.
+     */
+    fun releaseDeflater(deflater: Deflater) {
+        if (deflater !is PooledDeflater) {
+            deflater.end()
+            return
+        }
+
+        deflater.reset()
+        val isPooled = synchronized(idleDeflaters) {
+            val idle = idleDeflaters.getOrPut(deflater.key) { ArrayDeque() }
+            if (idle.size < maxPooledInstances) {
+                idle.offerFirst(deflater)
+            } else {
+                false
+            }
+        }
+        if (!isPooled) {
+            deflater.end()
+        }
+    }
+
+    /**
+     * Runs the given block with a pooled [Deflater], releasing it afterwards.
+     * @see acquireDeflater
+     */
+    fun <T> useDeflater(level: Int, nowrap: Boolean, block: (Deflater) -> T): T {
+        val deflater = acquireDeflater(level, nowrap)
+        try {
+            return block(deflater)
+        } finally {
+            releaseDeflater(deflater)
+        }
+    }
+
+    /**
+     * Provides a buffer of [bufferSize] bytes, reusing an idle one if possible. Its content is
+     * undefined. It must be given back with [releaseBuffer] once it's not used anymore.
+     */
+    fun acquireBuffer(): ByteArray {
+        val idle = synchronized(idleBuffers) {
+            idleBuffers.pollFirst()
+        }
+        return idle ?: ByteArray(bufferSize)
+    }
+
+    /**
+     * Gives back a buffer provided by [acquireBuffer]. The buffer must not be used by the caller
+     * afterwards.
+     */
+    fun releaseBuffer(buffer: ByteArray) {
+        if (buffer.size != bufferSize) return
+        synchronized(idleBuffers) {
+            if (idleBuffers.size < maxPooledInstances) {
+                idleBuffers.offerFirst(buffer)
+            }
+        }
+    }
+
+    private data class DeflaterKey(val level: Int, val nowrap: Boolean)
+
+    private class PooledDeflater(val key: DeflaterKey) : Deflater(key.level, key.nowrap)
+
+    companion object {
+        internal const val DEFAULT_MAX_POOLED_INSTANCES = 4
+        internal const val DEFAULT_BUFFER_SIZE = 8 * 1024
+
+        /**
+         * The pool shared by all the SDK features.
+         */
+        val shared: DeflaterPool = DeflaterPool()
+    }
+}
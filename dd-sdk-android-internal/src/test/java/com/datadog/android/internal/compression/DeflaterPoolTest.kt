@@ -0,0 +1,127 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.internal.compression
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+internal class DeflaterPoolTest {
+
+    @Test
+    fun `M reuse released deflater W acquireDeflater() {same level and format}`() {
+        // Given
+        val pool = DeflaterPool()
+        val first = pool.acquireDeflater(Deflater.BEST_SPEED, nowrap = true)
+        pool.releaseDeflater(first)
+
+        // When
+        val second = pool.acquireDeflater(Deflater.BEST_SPEED, nowrap = true)
+
+        // Then
+        assertThat(second).isSameAs(first)
+    }
+
+    @Test
+    fun `M not reuse released deflater W acquireDeflater() {different level or format}`() {
+        // Given
+        val pool = DeflaterPool()
+        val first = pool.acquireDeflater(Deflater.BEST_SPEED, nowrap = true)
+        pool.releaseDeflater(first)
+
+        // When
+        val otherLevel = pool.acquireDeflater(Deflater.BEST_COMPRESSION, nowrap = true)
+        val otherFormat = pool.acquireDeflater(Deflater.BEST_SPEED, nowrap = false)
+
+        // Then
+        assertThat(otherLevel).isNotSameAs(first)
+        assertThat(otherFormat).isNotSameAs(first)
+    }
+
+    @Test
+    fun `M provide a reset deflater W acquireDeflater() {deflater was used}`() {
+        // Given
+        val pool = DeflaterPool()
+        val data = "Lorem ipsum dolor sit amet".repeat(16).toByteArray()
+        val firstOutput = pool.useDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = false) { deflate(it, data) }
+
+        // When
+        val secondOutput = pool.useDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = false) { deflate(it, data) }
+
+        // Then
+        assertThat(secondOutput).isEqualTo(firstOutput)
+        assertThat(inflate(secondOutput, data.size)).isEqualTo(data)
+    }
+
+    @Test
+    fun `M keep at most max instances W releaseDeflater()`() {
+        // Given
+        val pool = DeflaterPool(maxPooledInstances = 1)
+        val first = pool.acquireDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = true)
+        val second = pool.acquireDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = true)
+        pool.releaseDeflater(first)
+        pool.releaseDeflater(second)
+
+        // When
+        val reused = pool.acquireDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = true)
+        val created = pool.acquireDeflater(Deflater.DEFAULT_COMPRESSION, nowrap = true)
+
+        // Then
+        assertThat(reused).isSameAs(first)
+        assertThat(created).isNotSameAs(first).isNotSameAs(second)
+    }
+
+    @Test
+    fun `M reuse released buffer W acquireBuffer()`() {
+        // Given
+        val pool = DeflaterPool(bufferSize = 64)
+        val first = pool.acquireBuffer()
+        pool.releaseBuffer(first)
+
+        // When
+        val second = pool.acquireBuffer()
+
+        // Then
+        assertThat(second).isSameAs(first).hasSize(64)
+    }
+
+    @Test
+    fun `M ignore foreign buffer W releaseBuffer() {unexpected size}`() {
+        // Given
+        val pool = DeflaterPool(bufferSize = 64)
+        val foreign = ByteArray(32)
+        pool.releaseBuffer(foreign)
+
+        // When
+        val buffer = pool.acquireBuffer()
+
+        // Then
+        assertThat(buffer).isNotSameAs(foreign).hasSize(64)
+    }
+
+    // region Internal
+
+    private fun deflate(deflater: Deflater, data: ByteArray): ByteArray {
+        deflater.setInput(data)
+        deflater.finish()
+        val output = ByteArray(data.size * 2)
+        val size = deflater.deflate(output)
+        return output.copyOf(size)
+    }
+
+    private fun inflate(data: ByteArray, originalSize: Int): ByteArray {
+        val inflater = Inflater()
+        inflater.setInput(data)
+        val output = ByteArray(originalSize)
+        inflater.inflate(output)
+        inflater.end()
+        return output
+    }
+
+    // endregion
+}
@@ -19,6 +19,7 @@ import com.datadog.android.api.storage.DataWriter
 import com.datadog.android.api.storage.EventType
 import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.api.storage.NoOpDataWriter
+import com.datadog.android.core.internal.attributes.AttributesStore
 import com.datadog.android.event.EventMapper
 import com.datadog.android.event.MapperSerializer
 import com.datadog.android.internal.utils.NULL_MAP_VALUE
@@ -29,7 +30,6 @@ import com.datadog.android.log.internal.net.LogsRequestFactory
 import com.datadog.android.log.internal.storage.LogsDataWriter
 import com.datadog.android.log.model.LogEvent
 import java.util.Locale
-import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicBoolean
 
 /**
@@ -45,7 +45,7 @@ internal class LogsFeature(
     private val initialized = AtomicBoolean(false)
     internal var packageName = ""
     private val logGenerator = DatadogLogGenerator(internalLogger = sdkCore.internalLogger)
-    private val attributes = ConcurrentHashMap<String, Any?>()
+    private val attributes = AttributesStore()
 
     // region Context Information (attributes)
     /**
@@ -59,9 +59,9 @@ internal class LogsFeature(
      */
     internal fun addAttribute(key: String, value: Any?) {
         if (value == null) {
-            attributes[key] = NULL_MAP_VALUE
+            attributes.setAttribute(key, NULL_MAP_VALUE)
         } else {
-            attributes[key] = value
+            attributes.setAttribute(key, value)
         }
     }
 
@@ -72,13 +72,12 @@ internal class LogsFeature(
      * @param key the key of the attribute to remove
      */
     internal fun removeAttribute(key: String) {
-        @Suppress("UnsafeThirdPartyFunctionCall") // NPE cannot happen here
-        attributes.remove(key)
+        attributes.removeAttribute(key)
     }
 
     internal fun getAttributes(): Map<String, Any?> {
-        @Suppress("UnsafeThirdPartyFunctionCall") // NPE cannot happen here
-        return attributes.toMap()
+        // immutable snapshot, no need to copy it
+        return attributes.getAttributes()
     }
 
     // endregion
@@ -111,7 +110,6 @@ internal class LogsFeature(
         dataWriter = NoOpDataWriter()
         packageName = ""
         initialized.set(false)
-        @Suppress("UnsafeThirdPartyFunctionCall")
         attributes.clear()
     }
 
@@ -10,17 +10,23 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.constraints.DataConstraints
 import com.datadog.android.core.constraints.DatadogDataConstraints
 import com.datadog.android.core.internal.utils.JsonSerializer.safeMapValuesToJson
-import com.datadog.android.core.persistence.Serializer
+import com.datadog.android.core.persistence.StreamingSerializer
 import com.datadog.android.log.LogAttributes
 import com.datadog.android.log.model.LogEvent
+import com.google.gson.stream.JsonWriter
+import java.io.Writer
 
 internal class LogEventSerializer(
     private val internalLogger: InternalLogger,
     private val dataConstraints: DataConstraints = DatadogDataConstraints(internalLogger)
-) : Serializer<LogEvent> {
+) : StreamingSerializer<LogEvent> {
 
-    override fun serialize(model: LogEvent): String {
-        return sanitizeTagsAndAttributes(model).toJson().toString()
+    @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+    override fun serialize(model: LogEvent, writer: Writer): Boolean {
+        val jsonWriter = JsonWriter(writer).apply { isLenient = true }
+        sanitizeTagsAndAttributes(model).writeTo(jsonWriter)
+        jsonWriter.flush()
+        return true
     }
 
     private fun sanitizeTagsAndAttributes(log: LogEvent): LogEvent {
@@ -49,7 +49,7 @@ internal class DatadogLogHandler(
         val combinedAttributes = mutableMapOf<String, Any?>()
         val logsFeature = sdkCore.getFeature(Feature.LOGS_FEATURE_NAME)
         if (logsFeature != null) {
-            combinedAttributes.putAll(logsFeature.unwrap<LogsFeature>().getAttributes().toMutableMap())
+            combinedAttributes.putAll(logsFeature.unwrap<LogsFeature>().getAttributes())
         }
         combinedAttributes.putAll(attributes)
         if (sampler.sample(Unit)) {
@@ -116,7 +116,7 @@ internal class DatadogLogHandler(
         val combinedAttributes = mutableMapOf<String, Any?>()
         val logsFeature = sdkCore.getFeature(Feature.LOGS_FEATURE_NAME)
         if (logsFeature != null) {
-            combinedAttributes.putAll(logsFeature.unwrap<LogsFeature>().getAttributes().toMutableMap())
+            combinedAttributes.putAll(logsFeature.unwrap<LogsFeature>().getAttributes())
         }
         combinedAttributes.putAll(attributes)
 
@@ -11,6 +11,8 @@ import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.net.Request
 import com.datadog.android.api.net.RequestExecutionContext
 import com.datadog.android.api.net.RequestFactory
+import com.datadog.android.api.net.StreamingRequest
+import com.datadog.android.api.net.StreamingRequestFactory
 import com.datadog.android.api.storage.RawBatchEvent
 import com.datadog.android.core.internal.utils.join
 import java.util.Locale
@@ -24,7 +26,7 @@ import java.util.UUID
 internal class LogsRequestFactory(
     internal val customEndpointUrl: String?,
     private val internalLogger: InternalLogger
-) : RequestFactory {
+) : StreamingRequestFactory {
 
     /** @inheritdoc */
     override fun create(
@@ -56,6 +58,31 @@ internal class LogsRequestFactory(
         )
     }
 
+    /** @inheritdoc */
+    override fun createStreaming(
+        context: DatadogContext,
+        executionContext: RequestExecutionContext,
+        batchMetadata: ByteArray?
+    ): StreamingRequest {
+        val requestId = UUID.randomUUID().toString()
+
+        return StreamingRequest(
+            id = requestId,
+            description = "Logs Request",
+            url = buildUrl(context.source, context),
+            headers = buildHeaders(
+                requestId,
+                context.clientToken,
+                context.source,
+                context.sdkVersion
+            ),
+            contentType = RequestFactory.CONTENT_TYPE_JSON,
+            payloadPrefix = PAYLOAD_PREFIX,
+            payloadSeparator = PAYLOAD_SEPARATOR,
+            payloadSuffix = PAYLOAD_SUFFIX
+        )
+    }
+
     private fun buildUrl(source: String, context: DatadogContext): String {
         val baseUrl = customEndpointUrl ?: (context.site.intakeEndpoint + "/api/v2/logs")
         return "%s?%s=%s"
@@ -133,4 +133,36 @@ internal class LogsRequestFactoryTest {
                 )
         )
     }
+
+    @Test
+    fun `M create a proper streaming request W createStreaming()`(
+        @Forgery executionContext: RequestExecutionContext,
+        @StringForgery batchMetadata: String
+    ) {
+        // When
+        val request = testedFactory.createStreaming(
+            fakeDatadogContext,
+            executionContext,
+            batchMetadata.toByteArray()
+        )
+
+        // Then
+        assertThat(request.url).isEqualTo(
+            "${fakeDatadogContext.site.intakeEndpoint}/api/v2/logs?" +
+                "ddsource=${fakeDatadogContext.source}"
+        )
+        assertThat(request.contentType).isEqualTo(RequestFactory.CONTENT_TYPE_JSON)
+        assertThat(request.headers.minus(RequestFactory.HEADER_REQUEST_ID)).isEqualTo(
+            mapOf(
+                RequestFactory.HEADER_API_KEY to fakeDatadogContext.clientToken,
+                RequestFactory.HEADER_EVP_ORIGIN to fakeDatadogContext.source,
+                RequestFactory.HEADER_EVP_ORIGIN_VERSION to fakeDatadogContext.sdkVersion
+            )
+        )
+        assertThat(request.id).isEqualTo(request.headers[RequestFactory.HEADER_REQUEST_ID])
+        assertThat(request.description).isEqualTo("Logs Request")
+        assertThat(request.payloadPrefix).isEqualTo("[".toByteArray())
+        assertThat(request.payloadSeparator).isEqualTo(",".toByteArray())
+        assertThat(request.payloadSuffix).isEqualTo("]".toByteArray())
+    }
 }
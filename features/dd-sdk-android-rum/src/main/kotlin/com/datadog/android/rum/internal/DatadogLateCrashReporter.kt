@@ -23,6 +23,7 @@ import com.datadog.android.rum.internal.anr.ANRException
 import com.datadog.android.rum.internal.anr.AndroidTraceParser
 import com.datadog.android.rum.internal.domain.RumContext
 import com.datadog.android.rum.internal.domain.event.RumEventDeserializer
+import com.datadog.android.rum.internal.domain.event.ViewEventIdentity
 import com.datadog.android.rum.internal.domain.scope.toErrorSchemaType
 import com.datadog.android.rum.internal.domain.scope.tryFromSource
 import com.datadog.android.rum.internal.utils.buildDDTagsString
@@ -110,10 +111,10 @@ internal class DatadogLateCrashReporter(
         lastRumViewEventJson: JsonObject,
         rumWriter: DataWriter<Any>
     ) {
-        val lastViewEvent =
-            rumEventDeserializer.deserialize(lastRumViewEventJson) as? ViewEvent ?: return
+        // the full event is only deserialized once we know the ANR has to be reported
+        val lastViewIdentity = ViewEventIdentity.fromJsonObject(lastRumViewEventJson) ?: return
 
-        val lastKnownViewStartedAt = lastViewEvent.date
+        val lastKnownViewStartedAt = lastViewIdentity.date
         if (anrExitInfo.timestamp > lastKnownViewStartedAt) {
             val rumFeature = sdkCore.getFeature(Feature.RUM_FEATURE_NAME)
 
@@ -130,11 +131,14 @@ internal class DatadogLateCrashReporter(
                 withFeatureContexts = setOf(Feature.RUM_FEATURE_NAME)
             ) { datadogContext, writeScope ->
                 // means we are too late, last view event belongs to the ongoing session
-                if (lastViewEvent.session.id == datadogContext.rumSessionId) return@withWriteContext
+                if (lastViewIdentity.sessionId == datadogContext.rumSessionId) return@withWriteContext
 
                 val lastFatalAnrSent = sdkCore.lastFatalAnrSent
                 if (anrExitInfo.timestamp == lastFatalAnrSent) return@withWriteContext
 
+                val lastViewEvent = rumEventDeserializer.deserialize(lastRumViewEventJson) as? ViewEvent
+                    ?: return@withWriteContext
+
                 val threadDumps = readThreadsDump(anrExitInfo)
                 if (threadDumps.isEmpty()) return@withWriteContext
 
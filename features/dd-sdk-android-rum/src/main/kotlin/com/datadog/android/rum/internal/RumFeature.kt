@@ -28,6 +28,7 @@ import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.api.storage.NoOpDataWriter
 import com.datadog.android.core.InternalSdkCore
 import com.datadog.android.core.feature.event.JvmCrash
+import com.datadog.android.core.internal.attributes.AttributesStore
 import com.datadog.android.core.internal.utils.executeSafe
 import com.datadog.android.core.internal.utils.scheduleSafe
 import com.datadog.android.event.EventMapper
@@ -88,6 +89,7 @@ import com.datadog.android.rum.internal.tracking.UserActionTrackingStrategy
 import com.datadog.android.rum.internal.vitals.AggregatingVitalMonitor
 import com.datadog.android.rum.internal.vitals.CPUVitalReader
 import com.datadog.android.rum.internal.vitals.FPSVitalListener
+import com.datadog.android.rum.internal.vitals.FrameDataDrainRunnable
 import com.datadog.android.rum.internal.vitals.FrameStateListener
 import com.datadog.android.rum.internal.vitals.FrameStatesAggregator
 import com.datadog.android.rum.internal.vitals.MemoryVitalReader
@@ -178,6 +180,7 @@ internal class RumFeature(
     internal var displayInfoProvider: InfoProvider<DisplayInfo> = NoOpDisplayInfoProvider()
     internal val rumContextUpdateReceivers = mutableSetOf<FeatureContextUpdateReceiver>()
     internal var insightsCollector: InsightsCollector = NoOpInsightsCollector()
+    internal val globalAttributes = AttributesStore()
 
     private val lateCrashEventHandler by lazy { lateCrashReporterFactory(sdkCore as InternalSdkCore) }
     internal var rumAppStartupDetector: RumAppStartupDetector? = null
@@ -248,7 +251,7 @@ internal class RumFeature(
         val frequency = configuration.vitalsMonitorUpdateFrequency
         val slowFrameListenerConfiguration = configuration.slowFramesConfiguration
         if (frequency != VitalsUpdateFrequency.NEVER || slowFrameListenerConfiguration != null) {
-            initializeVitalExecutorService(frequency)
+            initializeVitalExecutorService(frequency, tracksFrames = !configuration.disableJankStats)
             initializeCpuVitalMonitor(frequency)
             initializeMemoryVitalMonitor(frequency)
             if (!configuration.disableJankStats) {
@@ -281,8 +284,15 @@ internal class RumFeature(
         application: Application?,
         listeners: List<FrameStateListener>
     ) {
-        frameStatesAggregator = FrameStatesAggregator(listeners, sdkCore.internalLogger)
-        application?.registerActivityLifecycleCallbacks(frameStatesAggregator)
+        val aggregator = FrameStatesAggregator(listeners, sdkCore.internalLogger)
+        // frames are only processed while some are queued, the first one queued schedules the drain
+        aggregator.frameDataDrainRunnable = FrameDataDrainRunnable(
+            aggregator,
+            vitalExecutorService,
+            sdkCore.internalLogger
+        )
+        frameStatesAggregator = aggregator
+        application?.registerActivityLifecycleCallbacks(aggregator)
     }
 
     private fun initializeSlowFrameListener(
@@ -301,7 +311,8 @@ internal class RumFeature(
                     sdkCore.internalLogger
                 ),
                 insightsCollector = insightsCollector,
-                timeProvider = sdkCore.timeProvider
+                timeProvider = sdkCore.timeProvider,
+                pendingFramesFlusher = ::flushPendingFrames
             )
         } else {
             sdkCore.internalLogger.log(
@@ -354,6 +365,7 @@ internal class RumFeature(
         anrDetectorRunnable?.stop()
         vitalExecutorService = NoOpScheduledExecutorService()
         sessionListener = NoOpRumSessionListener()
+        globalAttributes.clear()
 
         cleanupInfoProviders()
 
@@ -572,8 +584,9 @@ internal class RumFeature(
         longTaskTrackingStrategy.unregister(appContext)
     }
 
-    private fun initializeVitalExecutorService(frequency: VitalsUpdateFrequency) {
-        if (frequency == VitalsUpdateFrequency.NEVER) {
+    private fun initializeVitalExecutorService(frequency: VitalsUpdateFrequency, tracksFrames: Boolean) {
+        // frames reported by JankStats are also processed on this thread
+        if (frequency == VitalsUpdateFrequency.NEVER && !tracksFrames) {
             return
         }
         @Suppress("UnsafeThirdPartyFunctionCall") // pool size can't be <= 0
@@ -605,10 +618,14 @@ internal class RumFeature(
     private fun initializeFPSVitalMonitor(frequency: VitalsUpdateFrequency): FPSVitalListener? {
         if (frequency == VitalsUpdateFrequency.NEVER) return null
 
-        frameRateVitalMonitor = AggregatingVitalMonitor()
+        frameRateVitalMonitor = AggregatingVitalMonitor(pendingSamplesFlusher = ::flushPendingFrames)
         return FPSVitalListener(frameRateVitalMonitor)
     }
 
+    private fun flushPendingFrames() {
+        (frameStatesAggregator as? FrameStatesAggregator)?.drainFrames()
+    }
+
     private fun initializeVitalMonitor(
         vitalReader: VitalReader,
         vitalObserver: VitalObserver,
@@ -51,8 +51,16 @@ internal class RumDataWriter(
             RawBatchEvent(data = byteArray)
         }
 
+        // the latest version of a view replaces the previous one in the batch, except for the
+        // versions holding an accessibility snapshot, which must all be kept
+        val updatableKey = (element as? ViewEvent)?.takeIf { it.view.accessibility == null }?.view?.id
+
         synchronized(this) {
-            val result = writer.write(batchEvent, null, eventType)
+            val result = if (updatableKey != null) {
+                writer.writeUpdatable(batchEvent, null, eventType, updatableKey)
+            } else {
+                writer.write(batchEvent, null, eventType)
+            }
             if (result) {
                 onDataWritten(element, byteArray)
             }
@@ -9,7 +9,11 @@ package com.datadog.android.rum.internal.domain.event
 import com.datadog.android.api.InternalLogger
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
-import com.google.gson.JsonParser
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import java.io.IOException
+import java.io.Reader
+import java.io.StringReader
 import java.util.Locale
 
 internal sealed class RumEventMeta {
@@ -54,43 +58,68 @@ internal sealed class RumEventMeta {
         const val HAS_ACCESSIBILITY_KEY = "hasAccessibility"
         const val DOCUMENT_VERSION_KEY = "documentVersion"
 
-        @Suppress("ThrowsCount", "ThrowingInternalException")
         @Throws(JsonParseException::class)
         fun fromJson(jsonString: String, internalLogger: InternalLogger): RumEventMeta? {
-            return try {
-                @Suppress("UnsafeThirdPartyFunctionCall") // JsonParseException is handled by the caller
-                val model = JsonParser.parseString(jsonString).asJsonObject
-                when (val type = model.get(TYPE_KEY).asString) {
-                    VIEW_TYPE_VALUE -> {
-                        val viewId = model.get(VIEW_ID_KEY).asString
-                        val docVersion = model.get(DOCUMENT_VERSION_KEY).asLong
-                        val hasAccessibilityElement = model.get(HAS_ACCESSIBILITY_KEY)
-                        val hasAccessibility = when {
-                            hasAccessibilityElement == null -> false // Missing field (backward compatibility)
-                            else -> hasAccessibilityElement.asBoolean // Valid boolean value
-                        }
+            return fromJson(StringReader(jsonString), internalLogger)
+        }
 
-                        View(viewId, docVersion, hasAccessibility)
-                    }
+        /**
+         * Reads the meta with a streaming [JsonReader], without building the intermediate JSON
+         * tree. Unknown properties are skipped.
+         */
+        @Suppress("ThrowsCount", "ThrowingInternalException", "CyclomaticComplexMethod")
+        @Throws(JsonParseException::class)
+        fun fromJson(source: Reader, internalLogger: InternalLogger): RumEventMeta? {
+            var type: String? = null
+            var viewId: String? = null
+            var documentVersion: Long? = null
+            // Missing field (backward compatibility)
+            var hasAccessibility: Boolean? = false
+            try {
+                val reader = JsonReader(source)
+                reader.beginObject()
+                while (reader.hasNext()) {
+                    when (reader.nextName()) {
+                        TYPE_KEY -> type = reader.nextString()
+                        VIEW_ID_KEY -> viewId = reader.nextString()
+                        DOCUMENT_VERSION_KEY -> documentVersion = reader.nextLong()
+                        HAS_ACCESSIBILITY_KEY -> hasAccessibility = if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull()
+                            null
+                        } else {
+                            reader.nextBoolean()
+                        }
 
-                    else -> {
-                        internalLogger.log(
-                            InternalLogger.Level.ERROR,
-                            InternalLogger.Target.USER,
-                            { UNKNOWN_RUM_EVENT_META_TYPE_ERROR.format(Locale.US, type) }
-                        )
-                        null
+                        else -> reader.skipValue()
                     }
                 }
-            } catch (@Suppress("TooGenericExceptionCaught") e: NullPointerException) {
-                throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META, e)
-            } catch (e: ClassCastException) {
+                reader.endObject()
+            } catch (e: IOException) {
                 throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META, e)
             } catch (e: IllegalStateException) {
                 throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META, e)
             } catch (e: NumberFormatException) {
                 throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META, e)
             }
+
+            return when (type) {
+                null -> throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META)
+                VIEW_TYPE_VALUE -> View(
+                    viewId = viewId ?: throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META),
+                    documentVersion = documentVersion
+                        ?: throw JsonParseException(UNABLE_TO_PARSE_JSON_INTO_META),
+                    hasAccessibility = hasAccessibility
+                )
+
+                else -> {
+                    internalLogger.log(
+                        InternalLogger.Level.ERROR,
+                        InternalLogger.Target.USER,
+                        { UNKNOWN_RUM_EVENT_META_TYPE_ERROR.format(Locale.US, type) }
+                    )
+                    null
+                }
+            }
         }
     }
 }
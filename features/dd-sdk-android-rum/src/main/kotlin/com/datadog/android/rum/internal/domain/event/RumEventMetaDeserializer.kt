@@ -17,7 +17,7 @@ internal class RumEventMetaDeserializer(
         if (model.isEmpty()) return null
 
         return try {
-            RumEventMeta.fromJson(String(model, Charsets.UTF_8), internalLogger)
+            RumEventMeta.fromJson(model.inputStream().reader(Charsets.UTF_8), internalLogger)
         } catch (e: JsonParseException) {
             internalLogger.log(
                 InternalLogger.Level.ERROR,
@@ -9,8 +9,9 @@ package com.datadog.android.rum.internal.domain.event
 import com.datadog.android.api.InternalLogger
 import com.datadog.android.core.constraints.DataConstraints
 import com.datadog.android.core.constraints.DatadogDataConstraints
+import com.datadog.android.core.internal.utils.JsonSerializer
 import com.datadog.android.core.internal.utils.JsonSerializer.safeMapValuesToJson
-import com.datadog.android.core.persistence.Serializer
+import com.datadog.android.core.persistence.StreamingSerializer
 import com.datadog.android.rum.RumAttributes
 import com.datadog.android.rum.model.ActionEvent
 import com.datadog.android.rum.model.ErrorEvent
@@ -23,65 +24,70 @@ import com.datadog.android.telemetry.model.TelemetryConfigurationEvent
 import com.datadog.android.telemetry.model.TelemetryDebugEvent
 import com.datadog.android.telemetry.model.TelemetryErrorEvent
 import com.datadog.android.telemetry.model.TelemetryUsageEvent
+import com.google.gson.JsonElement
 import com.google.gson.JsonObject
+import com.google.gson.stream.JsonWriter
+import java.io.Writer
 
 @Suppress("TooManyFunctions")
 internal class RumEventSerializer(
     private val internalLogger: InternalLogger,
     private val dataConstraints: DataConstraints = DatadogDataConstraints(internalLogger)
-) : Serializer<Any> {
+) : StreamingSerializer<Any> {
 
-    // region Serializer
+    // region StreamingSerializer
 
-    override fun serialize(model: Any): String {
-        return when (model) {
+    @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+    override fun serialize(model: Any, writer: Writer): Boolean {
+        when (model) {
             is ViewEvent -> {
-                serializeViewEvent(model)
+                writeViewEvent(model, writer)
             }
             is ErrorEvent -> {
-                serializeErrorEvent(model)
+                writeErrorEvent(model, writer)
             }
             is ActionEvent -> {
-                serializeActionEvent(model)
+                writeActionEvent(model, writer)
             }
             is ResourceEvent -> {
-                serializeResourceEvent(model)
+                writeResourceEvent(model, writer)
             }
             is LongTaskEvent -> {
-                serializeLongTaskEvent(model)
+                writeLongTaskEvent(model, writer)
             }
             is VitalOperationStepEvent -> {
-                serializeVitalOperationStepEvent(model)
+                writeVitalOperationStepEvent(model, writer)
             }
             is VitalAppLaunchEvent -> {
-                serializeVitalAppLaunchEvent(model)
+                writeVitalAppLaunchEvent(model, writer)
             }
             is TelemetryDebugEvent -> {
-                model.toJson().toString()
+                writeJson(writer) { model.writeTo(it) }
             }
             is TelemetryErrorEvent -> {
-                model.toJson().toString()
+                writeJson(writer) { model.writeTo(it) }
             }
             is TelemetryConfigurationEvent -> {
-                model.toJson().toString()
+                writeJson(writer) { model.writeTo(it) }
             }
             is TelemetryUsageEvent -> {
-                model.toJson().toString()
+                writeJson(writer) { model.writeTo(it) }
             }
             is JsonObject -> {
-                model.toString()
+                writeJson(writer) { JsonSerializer.writeJsonElement(it, model) }
             }
             else -> {
-                JsonObject().toString()
+                writeJson(writer) { it.beginObject().endObject() }
             }
         }
+        return true
     }
 
     // endregion
 
     // region Internal
 
-    private fun serializeViewEvent(model: ViewEvent): String {
+    private fun writeViewEvent(model: ViewEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -92,10 +98,9 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedView = model.view.copy(
             customTimings = model.view.customTimings?.copy(
@@ -111,10 +116,10 @@ internal class RumEventSerializer(
             view = sanitizedView
         )
 
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeErrorEvent(model: ErrorEvent): String {
+    private fun writeErrorEvent(model: ErrorEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -125,20 +130,19 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeResourceEvent(model: ResourceEvent): String {
+    private fun writeResourceEvent(model: ResourceEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -149,20 +153,19 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeActionEvent(model: ActionEvent): String {
+    private fun writeActionEvent(model: ActionEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -173,20 +176,19 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeLongTaskEvent(model: LongTaskEvent): String {
+    private fun writeLongTaskEvent(model: LongTaskEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -197,20 +199,19 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeVitalOperationStepEvent(model: VitalOperationStepEvent): String {
+    private fun writeVitalOperationStepEvent(model: VitalOperationStepEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -221,20 +222,19 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
     }
 
-    private fun serializeVitalAppLaunchEvent(model: VitalAppLaunchEvent): String {
+    private fun writeVitalAppLaunchEvent(model: VitalAppLaunchEvent, writer: Writer) {
         val sanitizedUser = model.usr?.copy(
             additionalProperties = validateUserAttributes(model.usr.additionalProperties)
                 .safeMapValuesToJson(internalLogger)
@@ -245,17 +245,48 @@ internal class RumEventSerializer(
                 .safeMapValuesToJson(internalLogger)
                 .toMutableMap()
         )
+        val rootAttributes = mutableMapOf<String, JsonElement>()
         val sanitizedContext = model.context?.copy(
-            additionalProperties = validateContextAttributes(model.context.additionalProperties)
-                .safeMapValuesToJson(internalLogger)
-                .toMutableMap()
+            additionalProperties = sanitizeContextAttributes(model.context.additionalProperties, rootAttributes)
         )
         val sanitizedModel = model.copy(
             usr = sanitizedUser,
             account = sanitizedAccount,
             context = sanitizedContext
         )
-        return extractKnownAttributes(sanitizedModel.toJson().asJsonObject).toString()
+        writeJson(writer, rootAttributes) { sanitizedModel.writeTo(it) }
+    }
+
+    /**
+     * Validates the context attributes, and moves the known attributes (which are expected at
+     * the root of the event) from the context to the given [rootAttributes].
+     */
+    private fun sanitizeContextAttributes(
+        attributes: Map<String, Any?>,
+        rootAttributes: MutableMap<String, JsonElement>
+    ): MutableMap<String, Any?> {
+        val contextAttributes = mutableMapOf<String, Any?>()
+        validateContextAttributes(attributes)
+            .safeMapValuesToJson(internalLogger)
+            .forEach { (key, value) ->
+                if (key in knownAttributes) {
+                    rootAttributes[key] = value
+                } else {
+                    contextAttributes[key] = value
+                }
+            }
+        return contextAttributes
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+    private inline fun writeJson(
+        writer: Writer,
+        rootAttributes: Map<String, JsonElement> = emptyMap(),
+        block: (JsonWriter) -> Unit
+    ) {
+        val jsonWriter = RootAttributesJsonWriter(writer, rootAttributes)
+        block(jsonWriter)
+        jsonWriter.flush()
     }
 
     private fun validateContextAttributes(attributes: Map<String, Any?>): MutableMap<String, Any?> {
@@ -286,20 +317,6 @@ internal class RumEventSerializer(
         )
     }
 
-    private fun extractKnownAttributes(jsonObject: JsonObject): JsonObject {
-        if (jsonObject.has(GLOBAL_ATTRIBUTE_PREFIX)) {
-            val contextObject = jsonObject.getAsJsonObject(GLOBAL_ATTRIBUTE_PREFIX)
-            contextObject
-                .entrySet()
-                .filter { it.key in knownAttributes }
-                .forEach {
-                    contextObject.remove(it.key)
-                    jsonObject.add(it.key, it.value)
-                }
-        }
-        return jsonObject
-    }
-
     companion object {
         internal val knownAttributes = setOf(
             RumAttributes.ACTION_GESTURE_DIRECTION,
@@ -340,4 +357,36 @@ internal class RumEventSerializer(
         internal const val USER_EXTRA_GROUP_VERBOSE_NAME = "user extra information"
         internal const val ACCOUNT_EXTRA_GROUP_VERBOSE_NAME = "account extra information"
     }
+
+    /**
+     * A lenient [JsonWriter] appending the given attributes at the end of the root object.
+     */
+    private class RootAttributesJsonWriter(
+        out: Writer,
+        private val rootAttributes: Map<String, JsonElement>
+    ) : JsonWriter(out) {
+
+        private var depth = 0
+
+        init {
+            isLenient = true
+        }
+
+        override fun beginObject(): JsonWriter {
+            depth++
+            return super.beginObject()
+        }
+
+        @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+        override fun endObject(): JsonWriter {
+            if (depth == 1) {
+                rootAttributes.forEach { (key, value) ->
+                    name(key)
+                    JsonSerializer.writeJsonElement(this, value)
+                }
+            }
+            depth--
+            return super.endObject()
+        }
+    }
 }
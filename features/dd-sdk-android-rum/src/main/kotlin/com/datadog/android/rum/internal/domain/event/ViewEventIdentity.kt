@@ -0,0 +1,107 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.domain.event
+
+import com.datadog.android.rum.model.ViewEvent
+import com.google.gson.JsonIOException
+import com.google.gson.JsonObject
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+
+/**
+ * The few fields identifying a [ViewEvent] update, read with a streaming [JsonReader] without
+ * deserializing the whole event (which holds dozens of nested objects).
+ */
+internal data class ViewEventIdentity(
+    val viewId: String,
+    val documentVersion: Long,
+    val sessionId: String,
+    val date: Long
+) {
+
+    /**
+     * Reads the identity fields and skips every other property, without descending in the
+     * nested objects other than `view`, `session` and `_dd`.
+     */
+    private object Reader : TypeAdapter<ViewEventIdentity?>() {
+
+        override fun write(out: JsonWriter, value: ViewEventIdentity?) {
+            throw UnsupportedOperationException("ViewEventIdentity is only read")
+        }
+
+        @Suppress("CyclomaticComplexMethod")
+        override fun read(reader: JsonReader): ViewEventIdentity? {
+            var viewId: String? = null
+            var documentVersion: Long? = null
+            var sessionId: String? = null
+            var date: Long? = null
+            reader.beginObject()
+            while (reader.hasNext()) {
+                when (reader.nextName()) {
+                    VIEW_KEY -> viewId = readNestedValue(reader, ID_KEY) { reader.nextString() }
+                    SESSION_KEY -> sessionId = readNestedValue(reader, ID_KEY) { reader.nextString() }
+                    DD_KEY -> documentVersion = readNestedValue(reader, DOCUMENT_VERSION_KEY) {
+                        reader.nextLong()
+                    }
+
+                    DATE_KEY -> date = reader.nextLong()
+                    else -> reader.skipValue()
+                }
+            }
+            reader.endObject()
+
+            return ViewEventIdentity(
+                viewId = viewId ?: return null,
+                documentVersion = documentVersion ?: return null,
+                sessionId = sessionId ?: return null,
+                date = date ?: return null
+            )
+        }
+
+        private fun <T> readNestedValue(reader: JsonReader, key: String, readValue: () -> T): T? {
+            var value: T? = null
+            reader.beginObject()
+            while (reader.hasNext()) {
+                if (reader.nextName() == key) {
+                    value = readValue()
+                } else {
+                    reader.skipValue()
+                }
+            }
+            reader.endObject()
+            return value
+        }
+    }
+
+    companion object {
+
+        private const val VIEW_KEY = "view"
+        private const val SESSION_KEY = "session"
+        private const val DD_KEY = "_dd"
+        private const val ID_KEY = "id"
+        private const val DATE_KEY = "date"
+        private const val DOCUMENT_VERSION_KEY = "document_version"
+
+        /**
+         * @return the identity of the view event, or null if one of the fields is missing or
+         * has an unexpected type.
+         */
+        @Suppress("SwallowedException")
+        fun fromJsonObject(jsonObject: JsonObject): ViewEventIdentity? {
+            return try {
+                Reader.fromJsonTree(jsonObject)
+            } catch (e: JsonIOException) {
+                null
+            } catch (e: IllegalStateException) {
+                null
+            } catch (e: NumberFormatException) {
+                null
+            }
+        }
+    }
+}
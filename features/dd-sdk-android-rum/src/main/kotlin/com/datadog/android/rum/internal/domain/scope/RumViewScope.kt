@@ -50,9 +50,11 @@ import com.datadog.android.rum.internal.toVital
 import com.datadog.android.rum.internal.utils.buildDDTagsString
 import com.datadog.android.rum.internal.utils.hasUserData
 import com.datadog.android.rum.internal.utils.newRumEventWriteOperation
+import com.datadog.android.rum.internal.vitals.VitalAggregator
 import com.datadog.android.rum.internal.vitals.VitalInfo
 import com.datadog.android.rum.internal.vitals.VitalListener
 import com.datadog.android.rum.internal.vitals.VitalMonitor
+import com.datadog.android.rum.internal.vitals.VitalStats
 import com.datadog.android.rum.metric.networksettled.InitialResourceIdentifier
 import com.datadog.android.rum.model.ErrorEvent
 import com.datadog.android.rum.model.LongTaskEvent
@@ -62,7 +64,6 @@ import java.util.Locale
 import java.util.UUID
 import java.util.concurrent.TimeUnit
 import kotlin.math.max
-import kotlin.math.min
 
 @Suppress("TooManyFunctions", "LargeClass", "LongParameterList")
 internal open class RumViewScope(
@@ -146,7 +147,7 @@ internal open class RumViewScope(
     private var cpuTicks: Double? = null
     internal var cpuVitalListener: VitalListener = object : VitalListener {
         private var initialTickCount: Double = Double.NaN
-        override fun onVitalUpdate(info: VitalInfo) {
+        override fun onVitalUpdate(info: VitalStats) {
             // The CPU Ticks will always grow, as it's the total ticks since the app started
             if (initialTickCount.isNaN()) {
                 initialTickCount = info.maxValue
@@ -157,24 +158,24 @@ internal open class RumViewScope(
         }
     }
 
-    private var lastMemoryInfo: VitalInfo? = null
+    private var lastMemoryInfo: VitalStats? = null
     internal var memoryVitalListener: VitalListener = object : VitalListener {
-        override fun onVitalUpdate(info: VitalInfo) {
+        override fun onVitalUpdate(info: VitalStats) {
             lastMemoryInfo = info
-            insightsCollector.onMemoryVital(lastMemoryInfo?.meanValue)
+            insightsCollector.onMemoryVital(info.meanValue)
         }
     }
 
-    private var lastFrameRateInfo: VitalInfo? = null
+    private var lastFrameRateInfo: VitalStats? = null
     internal var frameRateVitalListener: VitalListener = object : VitalListener {
-        override fun onVitalUpdate(info: VitalInfo) {
+        override fun onVitalUpdate(info: VitalStats) {
             lastFrameRateInfo = info
         }
     }
 
-    private val performanceMetrics: MutableMap<RumPerformanceMetric, VitalInfo> = mutableMapOf()
+    private val performanceMetrics: MutableMap<RumPerformanceMetric, VitalAggregator> = mutableMapOf()
 
-    private var externalRefreshRateInfo: VitalInfo? = null
+    private var externalRefreshRateInfo: VitalAggregator? = null
 
     // endregion
 
@@ -853,23 +854,7 @@ internal open class RumViewScope(
     ) {
         if (stopped) return
 
-        val value = event.value
-        val vitalInfo = performanceMetrics[event.metric] ?: VitalInfo.EMPTY
-        val newSampleCount = vitalInfo.sampleCount + 1
-
-        // Assuming M(n) is the mean value of the first n samples
-        // M(n) = ∑ sample(n) / n
-        // n⨉M(n) = ∑ sample(n)
-        // M(n+1) = ∑ sample(n+1) / (n+1)
-        //        = [ sample(n+1) + ∑ sample(n) ] / (n+1)
-        //        = (sample(n+1) + n⨉M(n)) / (n+1)
-        val meanValue = (value + (vitalInfo.sampleCount * vitalInfo.meanValue)) / newSampleCount
-        performanceMetrics[event.metric] = VitalInfo(
-            newSampleCount,
-            min(value, vitalInfo.minValue),
-            max(value, vitalInfo.maxValue),
-            meanValue
-        )
+        performanceMetrics.getOrPut(event.metric) { VitalAggregator() }.add(event.value)
     }
 
     private fun onUpdateExternalRefreshRate(
@@ -884,17 +869,8 @@ internal open class RumViewScope(
             return // Invalid frame time
         }
 
-        val currentInfo = externalRefreshRateInfo ?: VitalInfo.EMPTY
-        val newSampleCount = currentInfo.sampleCount + 1
-
-        // Calculate incremental mean using the same algorithm as performance metrics
-        val meanValue = (refreshRateHz + (currentInfo.sampleCount * currentInfo.meanValue)) / newSampleCount
-        externalRefreshRateInfo = VitalInfo(
-            newSampleCount,
-            min(refreshRateHz, currentInfo.minValue),
-            max(refreshRateHz, currentInfo.maxValue),
-            meanValue
-        )
+        val aggregator = externalRefreshRateInfo ?: VitalAggregator().also { externalRefreshRateInfo = it }
+        aggregator.add(refreshRateHz)
     }
 
     @WorkerThread
@@ -1160,9 +1136,9 @@ internal open class RumViewScope(
         val rumContext = getRumContext()
 
         val timings = resolveCustomTimings()
-        val memoryInfo = lastMemoryInfo
+        val memoryInfo = lastMemoryInfo?.snapshot()
         // Use external refresh rate data if available, otherwise fall back to internal data
-        val refreshRateInfo = externalRefreshRateInfo ?: lastFrameRateInfo
+        val refreshRateInfo = externalRefreshRateInfo?.snapshot() ?: lastFrameRateInfo?.snapshot()
         val isSlowRendered = resolveRefreshRateInfo(refreshRateInfo) ?: false
         // make a copy - by the time we iterate over it on another thread, it may already be changed
         val eventFeatureFlags = featureFlags.toMutableMap()
@@ -1717,7 +1693,7 @@ internal open class RumViewScope(
             )
         }
 
-        private fun VitalInfo.toPerformanceMetric(): ViewEvent.FlutterBuildTime {
+        private fun VitalStats.toPerformanceMetric(): ViewEvent.FlutterBuildTime {
             return ViewEvent.FlutterBuildTime(
                 min = minValue,
                 max = maxValue,
@@ -1748,7 +1724,7 @@ internal open class RumViewScope(
          *
          * As the frame times are reported in nanoseconds, we need to add a multiplier.
          */
-        private fun VitalInfo.toInversePerformanceMetric(): ViewEvent.FlutterBuildTime {
+        private fun VitalStats.toInversePerformanceMetric(): ViewEvent.FlutterBuildTime {
             return ViewEvent.FlutterBuildTime(
                 min = invertValue(maxValue) * TimeUnit.SECONDS.toNanos(1),
                 max = invertValue(minValue) * TimeUnit.SECONDS.toNanos(1),
@@ -6,7 +6,6 @@
 package com.datadog.android.rum.internal.metric.slowframes
 
 import android.os.Build
-import androidx.metrics.performance.FrameData
 import com.datadog.android.internal.time.TimeProvider
 import com.datadog.android.rum.configuration.SlowFramesConfiguration
 import com.datadog.android.rum.internal.domain.FrameMetricsData
@@ -27,7 +26,8 @@ internal class DefaultSlowFramesListener(
     internal val configuration: SlowFramesConfiguration,
     internal val metricDispatcher: UISlownessMetricDispatcher,
     internal val insightsCollector: InsightsCollector,
-    timeProvider: TimeProvider
+    timeProvider: TimeProvider,
+    private val pendingFramesFlusher: () -> Unit = {}
 ) : SlowFramesListener {
 
     @Volatile
@@ -40,6 +40,8 @@ internal class DefaultSlowFramesListener(
 
     // Called from the RUM thread
     override fun onViewCreated(viewId: String, startedTimestampNs: Long) {
+        // frames are processed asynchronously: the ones still pending belong to the previous view
+        pendingFramesFlusher()
         currentViewId = viewId
         currentViewStartedTimestampNs = startedTimestampNs
         metricDispatcher.onViewCreated(viewId)
@@ -51,6 +53,7 @@ internal class DefaultSlowFramesListener(
         isViewCompleted: Boolean,
         viewDurationNs: Long
     ): ViewUIPerformanceReport.Snapshot? {
+        pendingFramesFlusher()
         @Suppress("UnsafeThirdPartyFunctionCall") // can't have NPE here
         val report = if (isViewCompleted) slowFramesRecords.remove(viewId) else slowFramesRecords[viewId]
 
@@ -63,12 +66,12 @@ internal class DefaultSlowFramesListener(
         }
     }
 
-    // Called from the background thread
-    override fun onFrame(volatileFrameData: FrameData) {
+    // Called from the frame processing thread, or from the RUM thread when pending frames are flushed
+    override fun onFrame(frameStartNanos: Long, frameDurationUiNanos: Long, isJank: Boolean) {
         val viewId = currentViewId
         // currentViewStartedTimestampNs can be set by RUM thread in onViewCreated after we read currentViewId,
         // there is no consistency guarantee here
-        if (viewId == null || volatileFrameData.frameStartNanos < currentViewStartedTimestampNs) {
+        if (viewId == null || frameStartNanos < currentViewStartedTimestampNs) {
             if (viewId != null) {
                 metricDispatcher.incrementMissedFrameCount(viewId)
             }
@@ -79,8 +82,8 @@ internal class DefaultSlowFramesListener(
             // current view, would be also wrong, so we just drop such frame data.
             return
         }
-        val frameDurationNs = volatileFrameData.frameDurationUiNanos
-        val frameStartedTimestampNs = volatileFrameData.frameStartNanos
+        val frameDurationNs = frameDurationUiNanos
+        val frameStartedTimestampNs = frameStartNanos
         val report = getViewPerformanceReport(viewId)
 
         // We have to synchronize here because it's the only way to update
@@ -91,7 +94,7 @@ internal class DefaultSlowFramesListener(
             // Updating frames statistics
             report.totalFramesDurationNs += frameDurationNs
 
-            if (frameDurationNs > configuration.maxSlowFrameThresholdNs || !volatileFrameData.isJank) {
+            if (frameDurationNs > configuration.maxSlowFrameThresholdNs || !isJank) {
                 // Frame duration is too big to be considered as a slow frame or not jank
                 metricDispatcher.incrementIgnoredFrameCount(viewId)
                 return
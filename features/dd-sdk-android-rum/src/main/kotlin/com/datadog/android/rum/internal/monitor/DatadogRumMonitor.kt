@@ -16,20 +16,22 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.context.DatadogContext
 import com.datadog.android.api.feature.EventWriteScope
 import com.datadog.android.api.feature.Feature
+import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.api.feature.measureMethodCallPerf
 import com.datadog.android.api.logToUser
 import com.datadog.android.api.storage.DataWriter
 import com.datadog.android.core.InternalSdkCore
+import com.datadog.android.core.configuration.BackPressureMitigation
+import com.datadog.android.core.configuration.BackPressureStrategy
 import com.datadog.android.core.feature.event.ThreadDump
+import com.datadog.android.core.internal.attributes.AttributesStore
 import com.datadog.android.core.internal.net.FirstPartyHostHeaderTypeResolver
 import com.datadog.android.core.internal.utils.executeSafe
-import com.datadog.android.core.internal.utils.getSafe
-import com.datadog.android.core.internal.utils.submitSafe
 import com.datadog.android.core.metrics.MethodCallSamplingRate
 import com.datadog.android.core.sampling.Sampler
 import com.datadog.android.internal.telemetry.InternalTelemetryEvent
 import com.datadog.android.internal.telemetry.InternalTelemetryEvent.ApiUsage.AddOperationStepVital.ActionType
-import com.datadog.android.internal.thread.NamedCallable
+import com.datadog.android.internal.thread.NamedRunnable
 import com.datadog.android.rum.DdRumContentProvider
 import com.datadog.android.rum.ExperimentalRumApi
 import com.datadog.android.rum.RumActionType
@@ -72,12 +74,14 @@ import com.datadog.android.rum.operations.OperationOptions
 import com.datadog.android.rum.resource.ResourceId
 import com.datadog.android.telemetry.internal.TelemetryEventHandler
 import java.util.Locale
-import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 import com.datadog.android.rum.featureoperations.FailureReason as DeprecatedFailureReason
 
 @Suppress("LongParameterList", "LargeClass", "TooManyFunctions")
@@ -105,7 +109,8 @@ internal class DatadogRumMonitor(
     batteryInfoProvider: InfoProvider<BatteryInfo>,
     displayInfoProvider: InfoProvider<DisplayInfo>,
     private val rumSessionScopeStartupManagerFactory: () -> RumSessionScopeStartupManager,
-    insightsCollector: InsightsCollector
+    insightsCollector: InsightsCollector,
+    private val globalAttributes: AttributesStore
 ) : RumMonitor, AdvancedRumMonitor {
 
     internal var rootScope = RumApplicationScope(
@@ -135,10 +140,25 @@ internal class DatadogRumMonitor(
 
     private val internalProxy = _RumInternalProxy(this)
 
-    private val globalAttributes: MutableMap<String, Any> = ConcurrentHashMap()
-
     private val isDebugEnabled = AtomicBoolean(false)
 
+    private val rumContextVersion = AtomicLong(0L)
+
+    // only accessed in the feature context update callbacks, which run under the feature context lock
+    private val publishedRumContextVersion = AtomicLong(0L)
+
+    private val pendingEvents = ConcurrentLinkedQueue<RumRawEvent>()
+
+    // ConcurrentLinkedQueue.size is not a constant-time operation
+    private val pendingEventsCount = AtomicInteger(0)
+
+    // elapsed time at which the pending write context request was made, or NO_BATCH_SCHEDULED
+    private val batchScheduledAtNs = AtomicLong(NO_BATCH_SCHEDULED)
+
+    private val isBatchWatchdogArmed = AtomicBoolean(false)
+
+    private val batchWatchdog = Runnable { checkPendingBatch() }
+
     // region RumMonitor
 
     override fun getCurrentSessionId(callback: (String?) -> Unit) {
@@ -464,18 +484,18 @@ internal class DatadogRumMonitor(
 
     override fun addAttribute(key: String, value: Any?) {
         if (value == null) {
-            globalAttributes.remove(key)
+            globalAttributes.removeAttribute(key)
         } else {
-            globalAttributes[key] = value
+            globalAttributes.setAttribute(key, value)
         }
     }
 
     override fun removeAttribute(key: String) {
-        globalAttributes.remove(key)
+        globalAttributes.removeAttribute(key)
     }
 
     override fun getAttributes(): Map<String, Any?> {
-        return globalAttributes
+        return globalAttributes.getAttributes()
     }
 
     override fun clearAttributes() {
@@ -851,11 +871,7 @@ internal class DatadogRumMonitor(
                     val (datadogContext, eventWriteScope) = writeContext
                     @Suppress("ThreadSafety") // Crash handling, can't delegate to another thread
                     rootScope.handleEvent(event, datadogContext, eventWriteScope, writer)
-                    val rumContext = currentRumContext()
-                    sdkCore.updateFeatureContext(Feature.RUM_FEATURE_NAME) {
-                        it.clear()
-                        rumContext?.toMap()?.let(it::putAll)
-                    }
+                    publishRumContext(captureRumContext(), useContextThread = true)
                 } else {
                     sdkCore.internalLogger.log(
                         InternalLogger.Level.WARN,
@@ -867,40 +883,156 @@ internal class DatadogRumMonitor(
         } else if (event is RumRawEvent.TelemetryEventWrapper) {
             telemetryEventHandler.handleEvent(event, writer)
         } else {
-            sdkCore.getFeature(Feature.RUM_FEATURE_NAME)
-                ?.withWriteContext(
-                    withFeatureContexts = setOf(
-                        Feature.SESSION_REPLAY_FEATURE_NAME,
-                        Feature.PROFILING_FEATURE_NAME,
-                        Feature.TRACING_FEATURE_NAME
-                    )
-                ) { datadogContext, writeScope ->
-                    // avoid trowing a RejectedExecutionException
-                    if (!executorService.isShutdown) {
-                        // we are already on the context thread, which is single and shared between the features, but we
-                        // need still to delegate processing to the RUM-specific thread since it supports
-                        // backpressure handling
-                        val future = executorService.submitSafe(
-                            "Rum event handling",
-                            sdkCore.internalLogger,
-                            // TODO RUM-16125 Callable will get wrapped in another class, so we won't get it
-                            //  as-is when trying to make queue dump
-                            NamedCallable("${event::class.simpleName}") {
-                                synchronized(rootScope) {
-                                    handleEventWithMethodCallPerf(event, datadogContext, writeScope)
-                                    notifyDebugListenerWithState()
-                                    currentRumContext()
-                                }
+            enqueueEvent(event)
+        }
+    }
+
+    /**
+     * Queues the event for the RUM thread. Events are ingested in batches: the first event queued
+     * schedules a single write context request, and all the events queued until that request runs on
+     * the context thread are handled with that write context, in order, on the RUM thread.
+     * Each event keeps the time captured when it was created, and the write context is never older
+     * than the moment any event of the batch was queued.
+     * The queue is bounded by the SDK [BackPressureStrategy]: once full, events are dropped according
+     * to its mitigation, and reported to it.
+     * The callback of a write context request never runs if the core is stopped or if the context
+     * thread rejects it: a request pending for longer than [BATCH_SCHEDULE_TIMEOUT_NS] is considered
+     * lost, and a new one is made by the next event queued, or by [batchWatchdog] if no event comes.
+     */
+    private fun enqueueEvent(event: RumRawEvent) {
+        // avoid queueing events which will never be processed
+        if (executorService.isShutdown) return
+        val rumFeature = sdkCore.getFeature(Feature.RUM_FEATURE_NAME) ?: return
+
+        if (offerPendingEvent(event)) {
+            requestBatchIfNeeded(rumFeature)
+        }
+    }
+
+    private fun offerPendingEvent(event: RumRawEvent): Boolean {
+        val backPressureStrategy = sdkCore.backPressureStrategy
+        val count = pendingEventsCount.incrementAndGet()
+        if (count <= backPressureStrategy.capacity) {
+            if (count == backPressureStrategy.capacity) {
+                backPressureStrategy.onThresholdReached()
+            }
+            @Suppress("UnsafeThirdPartyFunctionCall") // event is not null
+            pendingEvents.offer(event)
+            return true
+        }
+
+        pendingEventsCount.decrementAndGet()
+        val oldestEvent = if (backPressureStrategy.backpressureMitigation == BackPressureMitigation.DROP_OLDEST) {
+            pollPendingEvent()
+        } else {
+            null
+        }
+        if (oldestEvent != null) {
+            pendingEventsCount.incrementAndGet()
+            @Suppress("UnsafeThirdPartyFunctionCall") // event is not null
+            pendingEvents.offer(event)
+        }
+        val droppedEvent = oldestEvent ?: event
+        backPressureStrategy.onItemDropped(droppedEvent)
+        // Note, do not send this to telemetry as it would be queued as well
+        sdkCore.internalLogger.log(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.MAINTAINER,
+            { PENDING_EVENT_DROPPED_ERROR.format(Locale.US, droppedEvent::class.simpleName) }
+        )
+        return oldestEvent != null
+    }
+
+    private fun pollPendingEvent(): RumRawEvent? {
+        return pendingEvents.poll()?.also { pendingEventsCount.decrementAndGet() }
+    }
+
+    private fun requestBatchIfNeeded(rumFeature: FeatureScope) {
+        val now = sdkCore.timeProvider.getDeviceElapsedTimeNanos()
+        val scheduledAt = batchScheduledAtNs.get()
+        val isRequestPending = scheduledAt != NO_BATCH_SCHEDULED && now - scheduledAt < BATCH_SCHEDULE_TIMEOUT_NS
+        if (!isRequestPending && batchScheduledAtNs.compareAndSet(scheduledAt, now)) {
+            scheduleBatch(rumFeature)
+        }
+        // otherwise the pending write context request will pick the queued events up
+    }
+
+    private fun scheduleBatch(rumFeature: FeatureScope) {
+        armBatchWatchdog()
+        rumFeature.withWriteContext(
+            withFeatureContexts = setOf(
+                Feature.SESSION_REPLAY_FEATURE_NAME,
+                Feature.PROFILING_FEATURE_NAME,
+                Feature.TRACING_FEATURE_NAME
+            )
+        ) { datadogContext, writeScope ->
+            // reset the flag before draining: an event queued after the drain schedules a new batch
+            batchScheduledAtNs.set(NO_BATCH_SCHEDULED)
+            val batch = drainPendingEvents()
+            if (pendingEvents.isNotEmpty() &&
+                batchScheduledAtNs.compareAndSet(
+                    NO_BATCH_SCHEDULED,
+                    sdkCore.timeProvider.getDeviceElapsedTimeNanos()
+                )
+            ) {
+                // batches are bounded, the remaining events go in the next one, which is handled after
+                // this one since both the context thread and the RUM thread are sequential
+                scheduleBatch(rumFeature)
+            }
+            // we are already on the context thread, which is single and shared between the features, but we
+            // need still to delegate processing to the RUM-specific thread since it supports
+            // backpressure handling. Each event is a task of its own, so that the backpressure drops events
+            // one by one rather than whole batches. The context thread doesn't wait for the processing: the
+            // RUM thread publishes the new RUM context by itself.
+            batch.forEach { event ->
+                // avoid trowing a RejectedExecutionException
+                if (!executorService.isShutdown) {
+                    executorService.executeSafe(
+                        "Rum event handling",
+                        sdkCore.internalLogger,
+                        NamedRunnable("${event::class.simpleName}") {
+                            val rumContext = synchronized(rootScope) {
+                                handleEventWithMethodCallPerf(event, datadogContext, writeScope)
+                                notifyDebugListenerWithState()
+                                captureRumContext()
                             }
-                        )
-                        val rumContext = future.getSafe("Rum get context", sdkCore.internalLogger)
-                        // we are on the context thread already, so useContextThread=false
-                        sdkCore.updateFeatureContext(Feature.RUM_FEATURE_NAME, useContextThread = false) {
-                            it.clear()
-                            rumContext?.toMap()?.let(it::putAll)
+                            // feature context is guarded by its own lock, no need to go through the context
+                            // thread
+                            publishRumContext(rumContext, useContextThread = false)
                         }
-                    }
+                    )
                 }
+            }
+        }
+    }
+
+    private fun drainPendingEvents(): List<RumRawEvent> {
+        val batch = mutableListOf<RumRawEvent>()
+        while (batch.size < MAX_EVENTS_PER_BATCH) {
+            val event = pollPendingEvent() ?: break
+            batch.add(event)
+        }
+        return batch
+    }
+
+    private fun armBatchWatchdog() {
+        if (isBatchWatchdogArmed.compareAndSet(false, true)) {
+            handler.postDelayed(batchWatchdog, BATCH_WATCHDOG_DELAY_MS)
+        }
+    }
+
+    /**
+     * Makes a new write context request if the pending one was lost while events are still
+     * queued, then keeps watching as long as a request is pending.
+     */
+    private fun checkPendingBatch() {
+        isBatchWatchdogArmed.set(false)
+        if (pendingEvents.isEmpty() || executorService.isShutdown) return
+        val rumFeature = sdkCore.getFeature(Feature.RUM_FEATURE_NAME) ?: return
+
+        requestBatchIfNeeded(rumFeature)
+        if (batchScheduledAtNs.get() != NO_BATCH_SCHEDULED) {
+            armBatchWatchdog()
         }
     }
 
@@ -943,6 +1075,37 @@ internal class DatadogRumMonitor(
         }
     }
 
+    /**
+     * Captures the current RUM context, to be published with [publishRumContext].
+     * Must be called while holding the [rootScope] lock, so that versions follow the state changes.
+     */
+    private fun captureRumContext(): VersionedRumContext {
+        return VersionedRumContext(rumContextVersion.incrementAndGet(), currentRumContext())
+    }
+
+    /**
+     * Publishes a captured RUM context as the RUM feature context. Each snapshot is versioned, since
+     * updates can be applied out of order (e.g. one queued on the context thread being overtaken by one
+     * applied from the RUM thread): a snapshot older than the one already published is discarded.
+     *
+     * Events are handled on the RUM thread without blocking the context thread, so the events written
+     * by other features (e.g. logs, spans) right after a RUM call can still carry the previous RUM
+     * context (e.g. the previous view id), until the RUM thread has handled that call.
+     *
+     * When not using the context thread, the [com.datadog.android.api.feature.FeatureContextUpdateReceiver]s
+     * (e.g. Session Replay) are notified on the calling thread: this should be called outside of the
+     * [rootScope] lock, so that they never run while it is held.
+     */
+    private fun publishRumContext(rumContext: VersionedRumContext, useContextThread: Boolean) {
+        sdkCore.updateFeatureContext(Feature.RUM_FEATURE_NAME, useContextThread) {
+            if (rumContext.version > publishedRumContextVersion.get()) {
+                publishedRumContextVersion.set(rumContext.version)
+                it.clear()
+                rumContext.context?.toMap()?.let(it::putAll)
+            }
+        }
+    }
+
     private fun currentRumContext(): RumContext? {
         val activeSession = rootScope.activeSession ?: return null
         val context = activeSession.activeView?.getRumContext()
@@ -991,11 +1154,28 @@ internal class DatadogRumMonitor(
 
     // endregion
 
+    private class VersionedRumContext(
+        val version: Long,
+        val context: RumContext?
+    )
+
     companion object {
 
         // should be aligned with CoreFeature#DRAIN_WAIT_SECONDS, but not a requirement
         internal const val DRAIN_WAIT_SECONDS = 10L
 
+        // bounds the number of events handled with the same write context
+        internal const val MAX_EVENTS_PER_BATCH = 64
+
+        private const val NO_BATCH_SCHEDULED = Long.MIN_VALUE
+
+        // a write context request is normally served within milliseconds
+        internal const val BATCH_SCHEDULE_TIMEOUT_NS = 1_000_000_000L
+
+        internal val BATCH_WATCHDOG_DELAY_MS = TimeUnit.NANOSECONDS.toMillis(BATCH_SCHEDULE_TIMEOUT_NS)
+
+        internal const val PENDING_EVENT_DROPPED_ERROR = "Dropped RUM event from the pending events queue: %s"
+
         internal const val RUM_DEBUG_RUM_NOT_ENABLED_WARNING =
             "Cannot switch RUM debugging, because RUM feature is not enabled."
 
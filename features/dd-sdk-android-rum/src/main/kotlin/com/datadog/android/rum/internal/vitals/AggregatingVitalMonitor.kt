@@ -6,22 +6,30 @@
 
 package com.datadog.android.rum.internal.vitals
 
-import java.util.concurrent.ConcurrentHashMap
-import kotlin.math.max
-import kotlin.math.min
-
-internal class AggregatingVitalMonitor : VitalMonitor {
+/**
+ * @param pendingSamplesFlusher called before a listener is registered or unregistered, to
+ * dispatch the samples produced so far to the listeners registered at that time
+ */
+internal class AggregatingVitalMonitor(
+    private val pendingSamplesFlusher: () -> Unit = {}
+) : VitalMonitor {
 
     @Volatile
     private var lastKnownSample: Double = Double.NaN
 
-    private val listeners: MutableMap<VitalListener, VitalInfo> = ConcurrentHashMap()
+    // copy-on-write: samples are dispatched to a snapshot of the listeners, without locking
+    @Volatile
+    private var listeners: Array<ListenerAggregate> = emptyArray()
+
+    private val listenersUpdateLock = Any()
 
     // region VitalObserver
 
     override fun onNewSample(value: Double) {
         lastKnownSample = value
-        notifyListeners(value)
+        for (aggregate in listeners) {
+            aggregate.onNewSample(value)
+        }
     }
 
     // endregion
@@ -33,18 +41,21 @@ internal class AggregatingVitalMonitor : VitalMonitor {
     }
 
     override fun register(listener: VitalListener) {
+        pendingSamplesFlusher()
         val value = lastKnownSample
-        synchronized(listeners) {
-            listeners[listener] = VitalInfo.EMPTY
+        val aggregate = ListenerAggregate(listener)
+        synchronized(listenersUpdateLock) {
+            listeners = listeners.filter { it.listener != listener }.toTypedArray() + aggregate
         }
         if (!value.isNaN()) {
-            notifyListener(listener, value)
+            aggregate.onNewSample(value)
         }
     }
 
     override fun unregister(listener: VitalListener) {
-        synchronized(listeners) {
-            listeners.remove(listener)
+        pendingSamplesFlusher()
+        synchronized(listenersUpdateLock) {
+            listeners = listeners.filter { it.listener != listener }.toTypedArray()
         }
     }
 
@@ -52,35 +63,16 @@ internal class AggregatingVitalMonitor : VitalMonitor {
 
     // region Internal
 
-    private fun notifyListeners(value: Double) {
-        synchronized(listeners) {
-            for (listener in listeners.keys) {
-                notifyListener(listener, value)
-            }
-        }
-    }
+    private class ListenerAggregate(val listener: VitalListener) {
 
-    private fun notifyListener(listener: VitalListener, value: Double) {
-        val vitalInfo = listeners[listener] ?: VitalInfo.EMPTY
-        val newSampleCount = vitalInfo.sampleCount + 1
-
-        // Assuming M(n) is the mean value of the first n samples
-        // M(n) = ∑ sample(n) / n
-        // n⨉M(n) = ∑ sample(n)
-        // M(n+1) = ∑ sample(n+1) / (n+1)
-        //        = [ sample(n+1) + ∑ sample(n) ] / (n+1)
-        //        = (sample(n+1) + n⨉M(n)) / (n+1)
-        val meanValue = (value + (vitalInfo.sampleCount * vitalInfo.meanValue)) / newSampleCount
-
-        val updatedInfo = VitalInfo(
-            newSampleCount,
-            min(value, vitalInfo.minValue),
-            max(value, vitalInfo.maxValue),
-            meanValue
-        )
-        listener.onVitalUpdate(updatedInfo)
-        synchronized(listeners) {
-            listeners[listener] = updatedInfo
+        private val aggregator = VitalAggregator()
+
+        fun onNewSample(value: Double) {
+            // only contended if samples are produced on several threads, which the monitors don't do
+            synchronized(this) {
+                aggregator.add(value)
+                listener.onVitalUpdate(aggregator)
+            }
         }
     }
 
@@ -7,7 +7,6 @@ package com.datadog.android.rum.internal.vitals
 
 import android.os.Build
 import androidx.annotation.RequiresApi
-import androidx.metrics.performance.FrameData
 import com.datadog.android.internal.system.BuildSdkVersionProvider
 import com.datadog.android.rum.internal.domain.FrameMetricsData
 import java.util.concurrent.TimeUnit
@@ -17,12 +16,16 @@ internal class FPSVitalListener(
     private val buildSdkVersionProvider: BuildSdkVersionProvider = BuildSdkVersionProvider.DEFAULT,
     private var screenRefreshRate: Double = 60.0
 ) : FrameStateListener {
+    // frame metrics are received on the main thread, while frames are processed on the frame
+    // processing thread
+    @Volatile
     @RequiresApi(Build.VERSION_CODES.S)
     private var frameDeadline = EXPECTED_60_FPS_FRAME_DURATION_NS
+    @Volatile
     private var displayRefreshRate: Double = SIXTY_FPS
 
-    override fun onFrame(volatileFrameData: FrameData) {
-        val durationNs = volatileFrameData.frameDurationUiNanos
+    override fun onFrame(frameStartNanos: Long, frameDurationUiNanos: Long, isJank: Boolean) {
+        val durationNs = frameDurationUiNanos
         if (durationNs > 0.0) {
             var frameRate = (ONE_SECOND_NS / durationNs)
 
@@ -0,0 +1,71 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.core.internal.utils.scheduleSafe
+import java.util.Locale
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Dispatches the frames queued by the [FrameStatesAggregator] to its listeners, so that the slow
+ * frames, freeze and frame rate bookkeeping runs off the frame callback thread.
+ *
+ * A drain is only scheduled while frames are queued: the first frame queued after a drain
+ * schedules the next one (see [schedule]), so nothing runs once no activity draws frames anymore
+ * (e.g.: all the activities are paused).
+ */
+internal class FrameDataDrainRunnable(
+    private val frameStatesAggregator: FrameStatesAggregator,
+    private val executor: ScheduledExecutorService,
+    private val internalLogger: InternalLogger,
+    private val periodMs: Long = DEFAULT_DRAIN_PERIOD_MS
+) : Runnable {
+
+    private val isScheduled = AtomicBoolean(false)
+
+    /**
+     * Schedules a drain in [periodMs], unless one is already scheduled. Called from the frame
+     * callback thread each time a frame is queued.
+     */
+    fun schedule() {
+        if (!isScheduled.get() && isScheduled.compareAndSet(false, true)) {
+            executor.scheduleSafe(
+                "Frames processing",
+                periodMs,
+                TimeUnit.MILLISECONDS,
+                internalLogger,
+                this
+            )
+        }
+    }
+
+    override fun run() {
+        // cleared before draining: a frame queued from now on schedules the next drain
+        isScheduled.set(false)
+        frameStatesAggregator.drainFrames()
+        val droppedFrames = frameStatesAggregator.frameDataQueue.consumeDroppedFrames()
+        if (droppedFrames > 0) {
+            internalLogger.log(
+                InternalLogger.Level.WARN,
+                InternalLogger.Target.MAINTAINER,
+                { DROPPED_FRAMES_MESSAGE.format(Locale.US, droppedFrames) }
+            )
+        }
+        if (!frameStatesAggregator.frameDataQueue.isEmpty()) {
+            schedule()
+        }
+    }
+
+    internal companion object {
+        internal const val DEFAULT_DRAIN_PERIOD_MS: Long = 100L
+        internal const val DROPPED_FRAMES_MESSAGE =
+            "%d frames were dropped because the frame processing queue was full"
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Bounded single-producer/single-consumer queue of frames, keeping only their numeric fields in
+ * primitive arrays: offering a frame doesn't allocate nor lock.
+ *
+ * [offer] must only be called from the thread delivering the frames (the JankStats callback
+ * thread), and [drain] by a single consumer at a time.
+ *
+ * @param capacity the maximum number of pending frames, must be a power of 2 (slots are indexed
+ * with a mask)
+ */
+internal class FrameDataQueue(
+    private val capacity: Int = DEFAULT_CAPACITY
+) {
+
+    init {
+        require(capacity > 0 && capacity and (capacity - 1) == 0) {
+            "The capacity must be a power of 2, but was $capacity"
+        }
+    }
+
+    private val mask = capacity - 1L
+    private val frameStartNanos = LongArray(capacity)
+    private val frameDurationUiNanos = LongArray(capacity)
+    private val isJank = BooleanArray(capacity)
+
+    // index of the next frame to read, only written by the consumer
+    private val head = AtomicLong(0L)
+
+    // index of the next frame to write, only written by the producer
+    private val tail = AtomicLong(0L)
+
+    private val droppedFrames = AtomicLong(0L)
+
+    /**
+     * Enqueues a frame.
+     * @return false if the queue is full, in which case the frame is dropped
+     */
+    fun offer(frameStartNanos: Long, frameDurationUiNanos: Long, isJank: Boolean): Boolean {
+        val currentTail = tail.get()
+        if (currentTail - head.get() >= capacity) {
+            droppedFrames.incrementAndGet()
+            return false
+        }
+        val index = (currentTail and mask).toInt()
+        this.frameStartNanos[index] = frameStartNanos
+        this.frameDurationUiNanos[index] = frameDurationUiNanos
+        this.isJank[index] = isJank
+        // publishes the slot to the consumer; not a lazy store, so that a consumer checking whether
+        // the queue is empty right after it flagged its drain as done sees this frame
+        tail.set(currentTail + 1)
+        return true
+    }
+
+    /**
+     * @return true if no frame is pending
+     */
+    fun isEmpty(): Boolean {
+        return tail.get() == head.get()
+    }
+
+    /**
+     * Dispatches all the pending frames to the listeners, in order.
+     * @return the number of frames dispatched
+     */
+    fun drain(listeners: List<FrameStateListener>): Int {
+        val currentHead = head.get()
+        val currentTail = tail.get()
+        var position = currentHead
+        while (position < currentTail) {
+            val index = (position and mask).toInt()
+            // This method is called pretty often and forEach{} gonna create iterator instance each time.
+            // To reduce gc pressure we use for-loop iteration here:
+            for (i in listeners.indices) {
+                listeners[i].onFrame(frameStartNanos[index], frameDurationUiNanos[index], isJank[index])
+            }
+            position++
+        }
+        // releases the slots to the producer
+        head.lazySet(currentTail)
+        return (currentTail - currentHead).toInt()
+    }
+
+    /**
+     * @return the number of frames dropped because the queue was full since the last call.
+     */
+    fun consumeDroppedFrames(): Long {
+        return droppedFrames.getAndSet(0L)
+    }
+
+    internal companion object {
+        // ~4 seconds of frames at 120 Hz, far above what piles up between two drains
+        internal const val DEFAULT_CAPACITY: Int = 512
+    }
+}
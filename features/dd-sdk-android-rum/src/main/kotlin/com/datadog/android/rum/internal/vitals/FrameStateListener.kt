@@ -5,6 +5,22 @@
  */
 package com.datadog.android.rum.internal.vitals
 
+import androidx.metrics.performance.FrameData
 import androidx.metrics.performance.JankStats
 
-internal interface FrameStateListener : JankStats.OnFrameListener, FrameMetricsDataListener
+internal interface FrameStateListener : JankStats.OnFrameListener, FrameMetricsDataListener {
+
+    /**
+     * Called on the frame processing thread, with the numeric fields of a frame reported by
+     * JankStats (see [FrameDataQueue]).
+     */
+    fun onFrame(frameStartNanos: Long, frameDurationUiNanos: Long, isJank: Boolean)
+
+    override fun onFrame(volatileFrameData: FrameData) {
+        onFrame(
+            volatileFrameData.frameStartNanos,
+            volatileFrameData.frameDurationUiNanos,
+            volatileFrameData.isJank
+        )
+    }
+}
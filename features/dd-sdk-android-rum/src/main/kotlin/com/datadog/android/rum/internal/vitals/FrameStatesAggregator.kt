@@ -20,6 +20,7 @@ import android.view.FrameMetrics
 import android.view.Window
 import androidx.annotation.MainThread
 import androidx.annotation.RequiresApi
+import androidx.annotation.WorkerThread
 import androidx.metrics.performance.FrameData
 import androidx.metrics.performance.JankStats
 import com.datadog.android.api.InternalLogger
@@ -30,12 +31,17 @@ import java.util.WeakHashMap
 
 /**
  * Utility class listening to frame rate information.
+ *
+ * Frames reported by JankStats are only copied in the [frameDataQueue] on the callback thread,
+ * and dispatched to the listeners by [drainFrames], on the frame processing thread while frames
+ * are queued (see [frameDataDrainRunnable]) and whenever the RUM view changes.
  */
 internal class FrameStatesAggregator(
     internal val frameStateListeners: List<FrameStateListener>,
     private val internalLogger: InternalLogger,
     private val jankStatsProvider: JankStatsProvider = JankStatsProvider.DEFAULT,
-    private val buildSdkVersionProvider: BuildSdkVersionProvider = BuildSdkVersionProvider.DEFAULT
+    private val buildSdkVersionProvider: BuildSdkVersionProvider = BuildSdkVersionProvider.DEFAULT,
+    internal val frameDataQueue: FrameDataQueue = FrameDataQueue()
 ) : ActivityLifecycleCallbacks, JankStats.OnFrameListener {
 
     internal val activeWindowsListener = WeakHashMap<Window, JankStats>()
@@ -46,6 +52,10 @@ internal class FrameStatesAggregator(
 
     private val frameMetricsData = FrameMetricsData()
 
+    private val drainLock = Any()
+
+    internal var frameDataDrainRunnable: FrameDataDrainRunnable? = null
+
     // region ActivityLifecycleCallbacks
     @MainThread
     override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {
@@ -153,15 +163,32 @@ internal class FrameStatesAggregator(
     // region JankStats.OnFrameListener
 
     override fun onFrame(volatileFrameData: FrameData) {
-        // This method is called pretty often and forEach{} gonna create iterator instance each time.
-        // To reduce gc pressure we use for-loop iteration here:
-        for (i in frameStateListeners.indices) {
-            frameStateListeners[i].onFrame(volatileFrameData)
+        // the frame data instance is reused by JankStats, only its numeric fields are kept
+        val isQueued = frameDataQueue.offer(
+            volatileFrameData.frameStartNanos,
+            volatileFrameData.frameDurationUiNanos,
+            volatileFrameData.isJank
+        )
+        if (isQueued) {
+            frameDataDrainRunnable?.schedule()
         }
     }
 
     // endregion
 
+    /**
+     * Dispatches the frames received since the last call to the listeners.
+     * Called from the frame processing thread, and from the RUM thread before the current view
+     * changes, so that the pending frames are attributed to the view they were captured in.
+     */
+    @WorkerThread
+    fun drainFrames() {
+        // the queue only supports a single consumer at a time
+        synchronized(drainLock) {
+            frameDataQueue.drain(frameStateListeners)
+        }
+    }
+
     // region Internal
     private fun trackActivity(window: Window, activity: Activity) {
         val list = activeActivities[window] ?: mutableListOf()
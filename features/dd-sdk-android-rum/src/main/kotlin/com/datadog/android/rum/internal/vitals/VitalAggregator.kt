@@ -0,0 +1,74 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Aggregates the samples of a vital (count, min, max and mean) in primitive fields, so that
+ * adding a sample doesn't allocate anything.
+ *
+ * Samples must be added by one thread at a time. Readers on other threads don't take any lock:
+ * [snapshot] relies on a sequence number, odd while an update is in progress, and retries until
+ * it reads values which weren't updated in between.
+ */
+internal class VitalAggregator : VitalStats {
+
+    @Volatile
+    private var sequence: Int = 0
+
+    @Volatile
+    override var sampleCount: Int = 0
+        private set
+
+    @Volatile
+    override var minValue: Double = Double.MAX_VALUE
+        private set
+
+    @Volatile
+    override var maxValue: Double = -Double.MAX_VALUE
+        private set
+
+    @Volatile
+    override var meanValue: Double = 0.0
+        private set
+
+    fun add(value: Double) {
+        sequence++
+        val count = sampleCount
+        val newSampleCount = count + 1
+
+        // Assuming M(n) is the mean value of the first n samples
+        // M(n) = ∑ sample(n) / n
+        // n⨉M(n) = ∑ sample(n)
+        // M(n+1) = ∑ sample(n+1) / (n+1)
+        //        = [ sample(n+1) + ∑ sample(n) ] / (n+1)
+        //        = (sample(n+1) + n⨉M(n)) / (n+1)
+        meanValue = (value + (count * meanValue)) / newSampleCount
+        minValue = min(value, minValue)
+        maxValue = max(value, maxValue)
+        sampleCount = newSampleCount
+        sequence++
+    }
+
+    override fun snapshot(): VitalInfo {
+        var sequenceBefore: Int
+        var count: Int
+        var minimum: Double
+        var maximum: Double
+        var mean: Double
+        do {
+            sequenceBefore = sequence
+            count = sampleCount
+            minimum = minValue
+            maximum = maxValue
+            mean = meanValue
+        } while (sequenceBefore % 2 != 0 || sequenceBefore != sequence)
+        return VitalInfo(count, minimum, maximum, mean)
+    }
+}
@@ -7,11 +7,14 @@
 package com.datadog.android.rum.internal.vitals
 
 internal data class VitalInfo(
-    val sampleCount: Int,
-    val minValue: Double,
-    val maxValue: Double,
-    val meanValue: Double
-) {
+    override val sampleCount: Int,
+    override val minValue: Double,
+    override val maxValue: Double,
+    override val meanValue: Double
+) : VitalStats {
+
+    override fun snapshot(): VitalInfo = this
+
     companion object {
         val EMPTY = VitalInfo(0, Double.MAX_VALUE, -Double.MAX_VALUE, 0.0)
     }
@@ -7,5 +7,9 @@
 package com.datadog.android.rum.internal.vitals
 
 internal interface VitalListener {
-    fun onVitalUpdate(info: VitalInfo)
+    /**
+     * Called on the thread producing the samples. The [info] instance can be kept and is updated
+     * in place with the following samples: use [VitalStats.snapshot] to get frozen values.
+     */
+    fun onVitalUpdate(info: VitalStats)
 }
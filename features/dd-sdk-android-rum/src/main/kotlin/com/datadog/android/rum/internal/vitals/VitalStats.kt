@@ -0,0 +1,22 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+/**
+ * Read access to the statistics of the samples of a vital.
+ */
+internal interface VitalStats {
+    val sampleCount: Int
+    val minValue: Double
+    val maxValue: Double
+    val meanValue: Double
+
+    /**
+     * @return an immutable copy of the current statistics, consistent across all the values
+     */
+    fun snapshot(): VitalInfo
+}
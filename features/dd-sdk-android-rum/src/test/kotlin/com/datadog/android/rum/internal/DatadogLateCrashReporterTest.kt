@@ -58,6 +58,7 @@ import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.inOrder
 import org.mockito.kotlin.isNull
+import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
@@ -1198,6 +1199,7 @@ internal class DatadogLateCrashReporterTest {
 
         // Then
         verifyNoInteractions(mockRumWriter, mockInternalLogger)
+        verify(mockRumEventDeserializer, never()).deserialize(any())
     }
 
     @Test
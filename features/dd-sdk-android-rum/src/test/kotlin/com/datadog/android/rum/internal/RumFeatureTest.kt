@@ -28,6 +28,7 @@ import com.datadog.android.internal.telemetry.InternalTelemetryEvent
 import com.datadog.android.rum.GlobalRumMonitor
 import com.datadog.android.rum.RumErrorSource
 import com.datadog.android.rum.assertj.RumFeatureAssert
+import com.datadog.android.rum.configuration.SlowFramesConfiguration
 import com.datadog.android.rum.configuration.VitalsUpdateFrequency
 import com.datadog.android.rum.internal.RumFeature.Companion.SLOW_FRAMES_MONITORING_DISABLED_MESSAGE
 import com.datadog.android.rum.internal.RumFeature.Companion.SLOW_FRAMES_MONITORING_ENABLED_MESSAGE
@@ -51,6 +52,7 @@ import com.datadog.android.rum.internal.tracking.UserActionTrackingStrategy
 import com.datadog.android.rum.internal.vitals.AggregatingVitalMonitor
 import com.datadog.android.rum.internal.vitals.FPSVitalListener
 import com.datadog.android.rum.internal.vitals.FrameStateListener
+import com.datadog.android.rum.internal.vitals.FrameDataDrainRunnable
 import com.datadog.android.rum.internal.vitals.FrameStatesAggregator
 import com.datadog.android.rum.internal.vitals.NoOpVitalMonitor
 import com.datadog.android.rum.internal.vitals.VitalReaderRunnable
@@ -100,6 +102,7 @@ import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.inOrder
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
@@ -726,7 +729,8 @@ internal class RumFeatureTest {
     fun `M not initialize the vital monitors W initialize { frequency = NEVER }`() {
         // Given
         fakeConfiguration = fakeConfiguration.copy(
-            vitalsMonitorUpdateFrequency = VitalsUpdateFrequency.NEVER
+            vitalsMonitorUpdateFrequency = VitalsUpdateFrequency.NEVER,
+            disableJankStats = true
         )
         testedFeature = RumFeature(
             mockSdkCore,
@@ -864,7 +868,8 @@ internal class RumFeatureTest {
     ) {
         // Given
         fakeConfiguration = fakeConfiguration.copy(
-            vitalsMonitorUpdateFrequency = fakeFrequency
+            vitalsMonitorUpdateFrequency = fakeFrequency,
+            disableJankStats = true
         )
         testedFeature = RumFeature(
             mockSdkCore,
@@ -893,7 +898,8 @@ internal class RumFeatureTest {
     fun `M not initialize vital executor W initialize { frequency = NEVER }()`() {
         // Given
         fakeConfiguration = fakeConfiguration.copy(
-            vitalsMonitorUpdateFrequency = VitalsUpdateFrequency.NEVER
+            vitalsMonitorUpdateFrequency = VitalsUpdateFrequency.NEVER,
+            disableJankStats = true
         )
         testedFeature = RumFeature(
             mockSdkCore,
@@ -910,6 +916,37 @@ internal class RumFeatureTest {
             .isInstanceOf(NoOpScheduledExecutorService::class.java)
     }
 
+    @Test
+    fun `M not schedule frames processing W initialize { frequency = NEVER, slow frames tracked }()`(
+        @Forgery fakeSlowFramesConfiguration: SlowFramesConfiguration
+    ) {
+        // Given
+        fakeConfiguration = fakeConfiguration.copy(
+            vitalsMonitorUpdateFrequency = VitalsUpdateFrequency.NEVER,
+            slowFramesConfiguration = fakeSlowFramesConfiguration,
+            disableJankStats = false
+        )
+        testedFeature = RumFeature(
+            mockSdkCore,
+            fakeApplicationId.toString(),
+            fakeConfiguration,
+            lateCrashReporterFactory = { mockLateCrashReporter }
+        )
+
+        // When
+        testedFeature.onInitialize(appContext.mockInstance)
+
+        // Then
+        assertThat(testedFeature.vitalExecutorService).isSameAs(mockScheduledExecutorService)
+        val aggregator = testedFeature.frameStatesAggregator as FrameStatesAggregator
+        assertThat(aggregator.frameDataDrainRunnable).isNotNull
+        verify(mockScheduledExecutorService, never()).schedule(
+            any<FrameDataDrainRunnable>(),
+            any(),
+            any()
+        )
+    }
+
     @Test
     fun `M initialize non-fatal ANR tracking  W initialize { trackNonFatalAnrs = true }()`() {
         // Given
@@ -36,9 +36,12 @@ import org.junit.jupiter.api.extension.Extensions
 import org.mockito.Mock
 import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.anyOrNull
 import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.doThrow
+import org.mockito.kotlin.never
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.kotlin.whenever
@@ -101,7 +104,6 @@ internal class RumDataWriterTest {
     ) {
         // Given
         val fakeEvent = forge.anElementFrom(
-            forge.getForgery(ViewEvent::class.java),
             forge.getForgery(ActionEvent::class.java),
             forge.getForgery(ResourceEvent::class.java),
             forge.getForgery(LongTaskEvent::class.java),
@@ -124,23 +126,56 @@ internal class RumDataWriterTest {
     }
 
     @Test
-    fun `M write data with event meta W write() {View Event}`(
+    fun `M write updatable data with event meta W write() {View Event}`(
+        @Forgery fakeViewEvent: ViewEvent,
+        forge: Forge
+    ) {
+        // Given
+        val fakeEvent = fakeViewEvent.copy(view = fakeViewEvent.view.copy(accessibility = null))
+        whenever(mockSerializer.serialize(fakeEvent)) doReturn fakeSerializedEvent
+        val eventMeta = RumEventMeta.View(
+            viewId = fakeEvent.view.id,
+            documentVersion = fakeEvent.dd.documentVersion,
+            hasAccessibility = false
+        )
+        val fakeSerializedViewEventMeta = forge.aString()
+        whenever(mockEventMetaSerializer.serialize(eventMeta)) doReturn fakeSerializedViewEventMeta
+        val expectedEvent = RawBatchEvent(
+            data = fakeSerializedData,
+            metadata = fakeSerializedViewEventMeta.toByteArray(Charsets.UTF_8)
+        )
+        whenever(
+            mockEventBatchWriter.writeUpdatable(expectedEvent, null, fakeEventType, fakeEvent.view.id)
+        ) doReturn true
+
+        // When
+        val result = testedWriter.write(mockEventBatchWriter, fakeEvent, fakeEventType)
+
+        // Then
+        assertThat(result).isTrue
+        verify(mockEventBatchWriter).writeUpdatable(expectedEvent, null, fakeEventType, fakeEvent.view.id)
+        verify(mockEventBatchWriter, never()).write(any(), anyOrNull(), any())
+        verify(rumMonitor.mockSdkCore).writeLastViewEvent(fakeSerializedData)
+    }
+
+    @Test
+    fun `M write data with event meta W write() {View Event with accessibility}`(
         @Forgery fakeViewEvent: ViewEvent,
         forge: Forge
     ) {
         // Given
-        whenever(mockSerializer.serialize(fakeViewEvent)) doReturn fakeSerializedEvent
-        val hasAccessibility = fakeViewEvent.view.accessibility != null
+        val fakeEvent = fakeViewEvent.copy(view = fakeViewEvent.view.copy(accessibility = forge.getForgery()))
+        whenever(mockSerializer.serialize(fakeEvent)) doReturn fakeSerializedEvent
         val eventMeta = RumEventMeta.View(
-            viewId = fakeViewEvent.view.id,
-            documentVersion = fakeViewEvent.dd.documentVersion,
-            hasAccessibility = hasAccessibility
+            viewId = fakeEvent.view.id,
+            documentVersion = fakeEvent.dd.documentVersion,
+            hasAccessibility = true
         )
         val fakeSerializedViewEventMeta = forge.aString()
         whenever(mockEventMetaSerializer.serialize(eventMeta)) doReturn fakeSerializedViewEventMeta
 
         // When
-        testedWriter.write(mockEventBatchWriter, fakeViewEvent, fakeEventType)
+        testedWriter.write(mockEventBatchWriter, fakeEvent, fakeEventType)
 
         // Then
         verify(mockEventBatchWriter).write(
@@ -151,6 +186,7 @@ internal class RumDataWriterTest {
             null,
             fakeEventType
         )
+        verify(mockEventBatchWriter, never()).writeUpdatable(any(), anyOrNull(), any(), any())
     }
 
     @Test
@@ -159,26 +195,44 @@ internal class RumDataWriterTest {
         forge: Forge
     ) {
         // Given
-        whenever(mockSerializer.serialize(fakeViewEvent)) doReturn fakeSerializedEvent
-        val hasAccessibility = fakeViewEvent.view.accessibility != null
+        val fakeEvent = fakeViewEvent.copy(view = fakeViewEvent.view.copy(accessibility = null))
+        whenever(mockSerializer.serialize(fakeEvent)) doReturn fakeSerializedEvent
         val eventMeta = RumEventMeta.View(
-            viewId = fakeViewEvent.view.id,
-            documentVersion = fakeViewEvent.dd.documentVersion,
-            hasAccessibility = hasAccessibility
+            viewId = fakeEvent.view.id,
+            documentVersion = fakeEvent.dd.documentVersion,
+            hasAccessibility = false
         )
         whenever(mockEventMetaSerializer.serialize(eventMeta)) doThrow forge.aThrowable()
 
         // When
-        testedWriter.write(mockEventBatchWriter, fakeViewEvent, fakeEventType)
+        testedWriter.write(mockEventBatchWriter, fakeEvent, fakeEventType)
 
         // Then
-        verify(mockEventBatchWriter).write(
+        verify(mockEventBatchWriter).writeUpdatable(
             RawBatchEvent(data = fakeSerializedData),
             null,
-            fakeEventType
+            fakeEventType,
+            fakeEvent.view.id
         )
     }
 
+    @Test
+    fun `M return false W write() { View Event was not written }`(
+        @Forgery fakeViewEvent: ViewEvent
+    ) {
+        // Given
+        val fakeEvent = fakeViewEvent.copy(view = fakeViewEvent.view.copy(accessibility = null))
+        whenever(mockSerializer.serialize(fakeEvent)) doReturn fakeSerializedEvent
+        whenever(mockEventBatchWriter.writeUpdatable(any(), anyOrNull(), any(), any())) doReturn false
+
+        // When
+        val result = testedWriter.write(mockEventBatchWriter, fakeEvent, fakeEventType)
+
+        // Then
+        assertThat(result).isFalse
+        verify(rumMonitor.mockSdkCore, never()).writeLastViewEvent(any())
+    }
+
     @Test
     fun `M not write data W write() { exception during serialization }`(
         forge: Forge
@@ -209,7 +263,6 @@ internal class RumDataWriterTest {
     ) {
         // Given
         val fakeEvent = forge.anElementFrom(
-            forge.getForgery(ViewEvent::class.java),
             forge.getForgery(ActionEvent::class.java),
             forge.getForgery(ResourceEvent::class.java),
             forge.getForgery(LongTaskEvent::class.java),
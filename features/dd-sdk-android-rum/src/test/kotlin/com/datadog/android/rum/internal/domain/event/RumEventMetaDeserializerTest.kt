@@ -10,6 +10,7 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.rum.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
 import com.google.gson.JsonArray
+import com.google.gson.JsonNull
 import com.google.gson.JsonObject
 import com.google.gson.JsonParseException
 import com.google.gson.JsonParser
@@ -174,6 +175,48 @@ internal class RumEventMetaDeserializerTest {
         )
     }
 
+    @Test
+    fun `M skip unknown properties W deserialize()`(
+        @Forgery fakeMeta: RumEventMeta,
+        @StringForgery fakeKey: String,
+        @StringForgery fakeValue: String
+    ) {
+        // Given
+        val fakeMetaJson = JsonParser.parseString(serializer.serialize(fakeMeta))
+            .asJsonObject
+            .apply {
+                add(
+                    "_$fakeKey",
+                    JsonObject().apply { add(fakeKey, JsonArray().apply { add(fakeValue) }) }
+                )
+            }
+
+        // When
+        val result = testedDeserializer.deserialize(fakeMetaJson.toBytes())
+
+        // Then
+        assertThat(result).isEqualTo(fakeMeta)
+    }
+
+    @Test
+    fun `M deserialize metadata W deserialize() { null hasAccessibility property }`(
+        @Forgery fakeMeta: RumEventMeta
+    ) {
+        // Given
+        val fakeMetaJson = JsonParser.parseString(serializer.serialize(fakeMeta))
+            .asJsonObject
+            .apply {
+                add(RumEventMeta.HAS_ACCESSIBILITY_KEY, JsonNull.INSTANCE)
+            }
+
+        // When
+        val result = testedDeserializer.deserialize(fakeMetaJson.toBytes())
+
+        // Then
+        check(result is RumEventMeta.View)
+        assertThat(result.hasAccessibility).isNull()
+    }
+
     // region private
 
     private fun JsonObject.toBytes(): ByteArray = toString().toByteArray()
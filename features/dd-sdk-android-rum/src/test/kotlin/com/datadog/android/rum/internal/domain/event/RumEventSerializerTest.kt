@@ -47,6 +47,7 @@ import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.quality.Strictness
+import java.io.StringWriter
 import java.util.Locale
 
 @Extensions(
@@ -1212,6 +1213,34 @@ internal class RumEventSerializerTest {
             .hasField(key, value)
     }
 
+    @Test
+    fun `M move known custom attributes out of the context W serialize()`(forge: Forge) {
+        val key = forge.anElementFrom(RumEventSerializer.knownAttributes)
+        val value = forge.anAlphabeticalString()
+        val event = forge.forgeRumEvent(mutableMapOf(key to value))
+
+        val serialized = testedSerializer.serialize(event)
+
+        val jsonObject = JsonParser.parseString(serialized).asJsonObject
+        val contextObject = jsonObject.getAsJsonObject(RumEventSerializer.GLOBAL_ATTRIBUTE_PREFIX)
+        assertThat(contextObject).doesNotHaveField(key)
+    }
+
+    @Test
+    fun `M write the serialized event W serialize() {writer}`(forge: Forge) {
+        // Given
+        val key = forge.anElementFrom(RumEventSerializer.knownAttributes)
+        val event = forge.forgeRumEvent(mutableMapOf(key to forge.anAlphabeticalString()))
+        val writer = StringWriter()
+
+        // When
+        val result = testedSerializer.serialize(event, writer)
+
+        // Then
+        assertThat(result).isTrue()
+        assertThat(writer.toString()).isEqualTo(testedSerializer.serialize(event))
+    }
+
     @Test
     fun `M sanitise the custom attributes keys W level deeper than 9`(forge: Forge) {
         // GIVEN
@@ -0,0 +1,81 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.domain.event
+
+import com.datadog.android.rum.model.ViewEvent
+import com.datadog.android.rum.utils.forge.Configurator
+import com.google.gson.JsonArray
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class ViewEventIdentityTest {
+
+    @Test
+    fun `M read identity fields W fromJsonObject()`(
+        @Forgery fakeViewEvent: ViewEvent
+    ) {
+        // Given
+        val fakeViewEventJson = fakeViewEvent.toJson().asJsonObject
+
+        // When
+        val result = ViewEventIdentity.fromJsonObject(fakeViewEventJson)
+
+        // Then
+        assertThat(result).isEqualTo(
+            ViewEventIdentity(
+                viewId = fakeViewEvent.view.id,
+                documentVersion = fakeViewEvent.dd.documentVersion,
+                sessionId = fakeViewEvent.session.id,
+                date = fakeViewEvent.date
+            )
+        )
+    }
+
+    @Test
+    fun `M return null W fromJsonObject() { missing field }`(
+        @Forgery fakeViewEvent: ViewEvent,
+        forge: Forge
+    ) {
+        // Given
+        val fakeViewEventJson = fakeViewEvent.toJson().asJsonObject.apply {
+            remove(forge.anElementFrom("view", "session", "_dd", "date"))
+        }
+
+        // When
+        val result = ViewEventIdentity.fromJsonObject(fakeViewEventJson)
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `M return null W fromJsonObject() { unexpected type of field }`(
+        @Forgery fakeViewEvent: ViewEvent,
+        forge: Forge
+    ) {
+        // Given
+        val fakeViewEventJson = fakeViewEvent.toJson().asJsonObject.apply {
+            add(forge.anElementFrom("view", "session", "_dd", "date"), JsonArray())
+        }
+
+        // When
+        val result = ViewEventIdentity.fromJsonObject(fakeViewEventJson)
+
+        // Then
+        assertThat(result).isNull()
+    }
+}
@@ -229,6 +229,40 @@ internal class DefaultSlowFramesListenerTest {
         assertThat(report.slowFramesRecords.last()).isEqualTo(jank2.toSlowFrame())
     }
 
+    @Test
+    fun `M attribute pending frames to previous view W onViewCreated() {frames not processed yet}`(
+        @StringForgery newViewId: String,
+        forge: Forge
+    ) {
+        // Given
+        val pendingFrames = mutableListOf(forge.aFrameData())
+        lateinit var listener: DefaultSlowFramesListener
+        listener = DefaultSlowFramesListener(
+            configuration = SlowFramesConfiguration(
+                maxSlowFrameThresholdNs = Long.MAX_VALUE,
+                minViewLifetimeThresholdNs = 0
+            ),
+            metricDispatcher = mockMetricDispatcher,
+            insightsCollector = mock(),
+            timeProvider = mock(),
+            pendingFramesFlusher = {
+                pendingFrames.forEach { listener.onFrame(it) }
+                pendingFrames.clear()
+            }
+        )
+        listener.onViewCreated(viewId, 0L)
+        val jankFrameData = forge.aFrameData()
+        pendingFrames.add(jankFrameData)
+
+        // When
+        listener.onViewCreated(newViewId, viewCreatedTimestampNs)
+        val report = checkNotNull(listener.resolveReport(viewId, true, fakeViewDurationNs))
+
+        // Then
+        assertThat(report.slowFramesRecords).contains(jankFrameData.toSlowFrame())
+        assertThat(listener.resolveReport(newViewId, false, fakeViewDurationNs)).isNull()
+    }
+
     private fun stubSlowFramesListener(
         configuration: SlowFramesConfiguration = SlowFramesConfiguration(
             maxSlowFrameThresholdNs = Long.MAX_VALUE,
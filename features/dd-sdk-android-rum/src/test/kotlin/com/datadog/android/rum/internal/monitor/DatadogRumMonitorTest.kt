@@ -17,7 +17,10 @@ import com.datadog.android.api.feature.Feature
 import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.api.storage.DataWriter
 import com.datadog.android.core.InternalSdkCore
+import com.datadog.android.core.configuration.BackPressureMitigation
+import com.datadog.android.core.configuration.BackPressureStrategy
 import com.datadog.android.core.feature.event.ThreadDump
+import com.datadog.android.core.internal.attributes.AttributesStore
 import com.datadog.android.core.internal.net.FirstPartyHostHeaderTypeResolver
 import com.datadog.android.core.sampling.DeterministicSampler
 import com.datadog.android.core.sampling.Sampler
@@ -107,7 +110,6 @@ import org.mockito.kotlin.verifyNoMoreInteractions
 import org.mockito.kotlin.whenever
 import org.mockito.quality.Strictness
 import java.util.Locale
-import java.util.concurrent.Callable
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.Future
@@ -197,6 +199,9 @@ internal class DatadogRumMonitorTest {
     @Mock
     lateinit var mockSessionSampler: Sampler<String>
 
+    @Mock
+    lateinit var mockOnItemDropped: (Any) -> Unit
+
     @StringForgery(regex = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}")
     lateinit var fakeApplicationId: String
 
@@ -234,15 +239,17 @@ internal class DatadogRumMonitorTest {
         whenever(mockExecutorService.execute(any<Runnable>())) doAnswer {
             it.getArgument<Runnable>(0).run()
         }
-        whenever(mockExecutorService.submit(any<Callable<RumContext?>>())) doAnswer {
-            val rumContext = it.getArgument<Callable<RumContext?>>(0).call()
-            mock<Future<RumContext?>>().apply { whenever(get()) doReturn rumContext }
-        }
 
         whenever(mockSdkCore.internalLogger) doReturn mockInternalLogger
         whenever(mockSdkCore.timeProvider) doReturn mock()
         whenever(mockSdkCore.timeProvider.getDeviceTimestampMillis()) doReturn eventTimeMs
         whenever(mockSdkCore.time) doReturn fakeTimeInfo
+        whenever(mockSdkCore.backPressureStrategy) doReturn BackPressureStrategy(
+            capacity = FAKE_BACKPRESSURE_CAPACITY,
+            onThresholdReached = {},
+            onItemDropped = mockOnItemDropped,
+            backpressureMitigation = BackPressureMitigation.IGNORE_NEWEST
+        )
         whenever(
             mockSlowFramesListener.resolveReport(any(), any(), any())
         ) doReturn fakeViewUIPerformanceReport.snapshot()
@@ -300,7 +307,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
         testedMonitor.rootScope = mockApplicationScope
     }
@@ -332,7 +340,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
 
         // When
@@ -407,7 +416,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
         testedMonitor.start()
         val mockCallback = mock<(String?) -> Unit>()
@@ -450,7 +460,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
         testedMonitor.start()
         val mockCallback = mock<(String?) -> Unit>()
@@ -2033,7 +2044,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
 
         // When
@@ -2073,7 +2085,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
 
         // When
@@ -2114,7 +2127,8 @@ internal class DatadogRumMonitorTest {
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionTypeOverride = null,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
         whenever(mockExecutorService.isShutdown).thenReturn(true)
 
@@ -2125,6 +2139,299 @@ internal class DatadogRumMonitorTest {
         verify(mockExecutorService, never()).execute(any())
     }
 
+    @Test
+    fun `M handle queued events in a single batch W handleEvent() { context thread busy }`(
+        @StringForgery fakeNames: List<String>
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        val events = fakeNames.map { RumRawEvent.AddCustomTiming(it) }
+
+        // When
+        events.forEach { testedMonitor.handleEvent(it) }
+        pendingCallbacks.toList().forEach { it.invoke(fakeDatadogContext, mockEventWriteScope) }
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(1)
+        verify(mockExecutorService, times(events.size)).execute(any())
+        argumentCaptor<RumRawEvent> {
+            verify(mockApplicationScope, times(events.size)).handleEvent(
+                capture(),
+                same(fakeDatadogContext),
+                same(mockEventWriteScope),
+                same(mockWriter)
+            )
+            assertThat(allValues).containsExactlyElementsOf(events)
+        }
+    }
+
+    @Test
+    fun `M schedule a new batch W handleEvent() { event queued after batch drained }`(
+        @StringForgery fakeFirstName: String,
+        @StringForgery fakeSecondName: String
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        val firstEvent = RumRawEvent.AddCustomTiming(fakeFirstName)
+        val secondEvent = RumRawEvent.AddCustomTiming(fakeSecondName)
+
+        // When
+        testedMonitor.handleEvent(firstEvent)
+        pendingCallbacks[0].invoke(fakeDatadogContext, mockEventWriteScope)
+        testedMonitor.handleEvent(secondEvent)
+        pendingCallbacks[1].invoke(fakeDatadogContext, mockEventWriteScope)
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(2)
+        verify(mockExecutorService, times(2)).execute(any())
+        inOrder(mockApplicationScope) {
+            verify(mockApplicationScope).handleEvent(firstEvent, fakeDatadogContext, mockEventWriteScope, mockWriter)
+            verify(mockApplicationScope).handleEvent(secondEvent, fakeDatadogContext, mockEventWriteScope, mockWriter)
+        }
+    }
+
+    @Test
+    fun `M schedule a new batch W handleEvent() { write context request lost }`(
+        @StringForgery fakeFirstName: String,
+        @StringForgery fakeSecondName: String,
+        @LongForgery(min = 0L, max = Long.MAX_VALUE / 2) fakeElapsedTimeNs: Long
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        whenever(mockSdkCore.timeProvider.getDeviceElapsedTimeNanos()).thenReturn(
+            fakeElapsedTimeNs,
+            fakeElapsedTimeNs + DatadogRumMonitor.BATCH_SCHEDULE_TIMEOUT_NS
+        )
+        val firstEvent = RumRawEvent.AddCustomTiming(fakeFirstName)
+        val secondEvent = RumRawEvent.AddCustomTiming(fakeSecondName)
+
+        // When
+        testedMonitor.handleEvent(firstEvent)
+        // the first request is never served (e.g. rejected by the context thread)
+        testedMonitor.handleEvent(secondEvent)
+        pendingCallbacks[1].invoke(fakeDatadogContext, mockEventWriteScope)
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(2)
+        verify(mockExecutorService).execute(any())
+        inOrder(mockApplicationScope) {
+            verify(mockApplicationScope).handleEvent(firstEvent, fakeDatadogContext, mockEventWriteScope, mockWriter)
+            verify(mockApplicationScope).handleEvent(secondEvent, fakeDatadogContext, mockEventWriteScope, mockWriter)
+        }
+    }
+
+    @Test
+    fun `M not schedule a new batch W handleEvent() { write context request pending }`(
+        @StringForgery fakeFirstName: String,
+        @StringForgery fakeSecondName: String,
+        @LongForgery(min = 0L, max = Long.MAX_VALUE / 2) fakeElapsedTimeNs: Long
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        whenever(mockSdkCore.timeProvider.getDeviceElapsedTimeNanos()).thenReturn(
+            fakeElapsedTimeNs,
+            fakeElapsedTimeNs + DatadogRumMonitor.BATCH_SCHEDULE_TIMEOUT_NS - 1
+        )
+
+        // When
+        testedMonitor.handleEvent(RumRawEvent.AddCustomTiming(fakeFirstName))
+        testedMonitor.handleEvent(RumRawEvent.AddCustomTiming(fakeSecondName))
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(1)
+    }
+
+    @Test
+    fun `M split events in bounded batches W handleEvent() { many events queued }`(
+        forge: Forge
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        val events = List(DatadogRumMonitor.MAX_EVENTS_PER_BATCH + forge.anInt(1, 32)) {
+            RumRawEvent.AddCustomTiming(forge.anAlphabeticalString())
+        }
+
+        // When
+        events.forEach { testedMonitor.handleEvent(it) }
+        var index = 0
+        while (index < pendingCallbacks.size) {
+            pendingCallbacks[index++].invoke(fakeDatadogContext, mockEventWriteScope)
+        }
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(2)
+        verify(mockExecutorService, times(events.size)).execute(any())
+        argumentCaptor<RumRawEvent> {
+            verify(mockApplicationScope, times(events.size)).handleEvent(
+                capture(),
+                same(fakeDatadogContext),
+                same(mockEventWriteScope),
+                same(mockWriter)
+            )
+            assertThat(allValues).containsExactlyElementsOf(events)
+        }
+    }
+
+    @Test
+    fun `M schedule a new batch W batch watchdog runs { write context request lost }`(
+        @StringForgery fakeName: String,
+        @LongForgery(min = 0L, max = Long.MAX_VALUE / 2) fakeElapsedTimeNs: Long
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        whenever(mockSdkCore.timeProvider.getDeviceElapsedTimeNanos()).thenReturn(
+            fakeElapsedTimeNs,
+            fakeElapsedTimeNs + DatadogRumMonitor.BATCH_SCHEDULE_TIMEOUT_NS
+        )
+        val event = RumRawEvent.AddCustomTiming(fakeName)
+        testedMonitor.handleEvent(event)
+        val watchdog = argumentCaptor<Runnable> {
+            verify(mockHandler).postDelayed(capture(), eq(DatadogRumMonitor.BATCH_WATCHDOG_DELAY_MS))
+        }.firstValue
+
+        // When
+        // the first request is never served (e.g. rejected by the context thread)
+        watchdog.run()
+        pendingCallbacks[1].invoke(fakeDatadogContext, mockEventWriteScope)
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(2)
+        verify(mockApplicationScope).handleEvent(event, fakeDatadogContext, mockEventWriteScope, mockWriter)
+    }
+
+    @Test
+    fun `M keep watching W batch watchdog runs { write context request pending }`(
+        @StringForgery fakeName: String,
+        @LongForgery(min = 0L, max = Long.MAX_VALUE / 2) fakeElapsedTimeNs: Long
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        whenever(mockSdkCore.timeProvider.getDeviceElapsedTimeNanos()).thenReturn(
+            fakeElapsedTimeNs,
+            fakeElapsedTimeNs + DatadogRumMonitor.BATCH_SCHEDULE_TIMEOUT_NS - 1
+        )
+        testedMonitor.handleEvent(RumRawEvent.AddCustomTiming(fakeName))
+        val watchdog = argumentCaptor<Runnable> {
+            verify(mockHandler).postDelayed(capture(), eq(DatadogRumMonitor.BATCH_WATCHDOG_DELAY_MS))
+        }.firstValue
+
+        // When
+        watchdog.run()
+
+        // Then
+        assertThat(pendingCallbacks).hasSize(1)
+        verify(mockHandler, times(2)).postDelayed(watchdog, DatadogRumMonitor.BATCH_WATCHDOG_DELAY_MS)
+    }
+
+    @Test
+    fun `M drop newest event W handleEvent() { pending events queue full, IGNORE_NEWEST }`(
+        @StringForgery fakeNames: List<String>,
+        @StringForgery fakeDroppedName: String
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        val events = fakeNames.map { RumRawEvent.AddCustomTiming(it) }
+        val droppedEvent = RumRawEvent.AddCustomTiming(fakeDroppedName)
+        whenever(mockSdkCore.backPressureStrategy) doReturn BackPressureStrategy(
+            capacity = events.size,
+            onThresholdReached = {},
+            onItemDropped = mockOnItemDropped,
+            backpressureMitigation = BackPressureMitigation.IGNORE_NEWEST
+        )
+
+        // When
+        events.forEach { testedMonitor.handleEvent(it) }
+        testedMonitor.handleEvent(droppedEvent)
+        pendingCallbacks.toList().forEach { it.invoke(fakeDatadogContext, mockEventWriteScope) }
+
+        // Then
+        verify(mockOnItemDropped).invoke(droppedEvent)
+        argumentCaptor<RumRawEvent> {
+            verify(mockApplicationScope, times(events.size)).handleEvent(
+                capture(),
+                same(fakeDatadogContext),
+                same(mockEventWriteScope),
+                same(mockWriter)
+            )
+            assertThat(allValues).containsExactlyElementsOf(events)
+        }
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            InternalLogger.Target.MAINTAINER,
+            DatadogRumMonitor.PENDING_EVENT_DROPPED_ERROR.format(Locale.US, "AddCustomTiming")
+        )
+    }
+
+    @Test
+    fun `M drop oldest event W handleEvent() { pending events queue full, DROP_OLDEST }`(
+        @StringForgery fakeNames: List<String>,
+        @StringForgery fakeNewName: String
+    ) {
+        // Given
+        val pendingCallbacks = mutableListOf<(DatadogContext, EventWriteScope) -> Unit>()
+        whenever(mockRumFeatureScope.withWriteContext(any(), any())) doAnswer {
+            pendingCallbacks.add(it.getArgument(it.arguments.lastIndex))
+            Unit
+        }
+        val events = fakeNames.map { RumRawEvent.AddCustomTiming(it) }
+        val newEvent = RumRawEvent.AddCustomTiming(fakeNewName)
+        whenever(mockSdkCore.backPressureStrategy) doReturn BackPressureStrategy(
+            capacity = events.size,
+            onThresholdReached = {},
+            onItemDropped = mockOnItemDropped,
+            backpressureMitigation = BackPressureMitigation.DROP_OLDEST
+        )
+
+        // When
+        events.forEach { testedMonitor.handleEvent(it) }
+        testedMonitor.handleEvent(newEvent)
+        pendingCallbacks.toList().forEach { it.invoke(fakeDatadogContext, mockEventWriteScope) }
+
+        // Then
+        verify(mockOnItemDropped).invoke(events.first())
+        argumentCaptor<RumRawEvent> {
+            verify(mockApplicationScope, times(events.size)).handleEvent(
+                capture(),
+                same(fakeDatadogContext),
+                same(mockEventWriteScope),
+                same(mockWriter)
+            )
+            assertThat(allValues).containsExactlyElementsOf(events.drop(1) + newEvent)
+        }
+    }
+
     @Test
     fun `M set debug listener W setDebugListener()`() {
         // Given
@@ -2350,7 +2657,8 @@ internal class DatadogRumMonitorTest {
             batteryInfoProvider = mockBatteryInfoProvider,
             displayInfoProvider = mockDisplayInfoProvider,
             rumSessionScopeStartupManagerFactory = mock(),
-            insightsCollector = mockInsightsCollector
+            insightsCollector = mockInsightsCollector,
+            globalAttributes = AttributesStore()
         )
         testedMonitor.startView(key, name, attributes)
         // When
@@ -2736,6 +3044,64 @@ internal class DatadogRumMonitorTest {
         }
     }
 
+    @Test
+    fun `M publish feature context from the RUM thread W handleEvent()`(
+        @Forgery fakeRumEvent: RumRawEvent
+    ) {
+        // When
+        testedMonitor.handleEvent(fakeRumEvent)
+
+        // Then
+        verify(mockSdkCore).updateFeatureContext(eq(Feature.RUM_FEATURE_NAME), eq(false), any())
+    }
+
+    @Test
+    fun `M publish feature context outside of the root scope lock W handleEvent()`(
+        @StringForgery fakeName: String
+    ) {
+        // Given
+        val rootScope = testedMonitor.rootScope
+        var isRootScopeLocked: Boolean? = null
+        whenever(mockSdkCore.updateFeatureContext(eq(Feature.RUM_FEATURE_NAME), eq(false), any())) doAnswer {
+            isRootScopeLocked = Thread.holdsLock(rootScope)
+        }
+
+        // When
+        testedMonitor.handleEvent(RumRawEvent.AddCustomTiming(fakeName))
+
+        // Then
+        assertThat(isRootScopeLocked).isFalse()
+    }
+
+    @Test
+    fun `M ignore stale feature context W handleEvent() { updates applied out of order }`(
+        @Forgery fakeRumEvent: RumRawEvent,
+        @Forgery fakeFirstRumContext: RumContext,
+        @Forgery fakeSecondRumContext: RumContext
+    ) {
+        // Given
+        val mockApplicationScope = mock<RumApplicationScope>()
+        val mockSessionScope = mock<RumSessionScope>()
+        val mockViewScope = mock<RumViewScope>()
+        whenever(mockViewScope.getRumContext()).thenReturn(fakeFirstRumContext, fakeSecondRumContext)
+        whenever(mockSessionScope.activeView) doReturn mockViewScope
+        whenever(mockApplicationScope.activeSession) doReturn mockSessionScope
+        testedMonitor.rootScope = mockApplicationScope
+
+        // When
+        testedMonitor.handleEvent(fakeRumEvent)
+        testedMonitor.handleEvent(fakeRumEvent)
+
+        // Then
+        argumentCaptor<(MutableMap<String, Any?>) -> Unit> {
+            verify(mockSdkCore, times(2)).updateFeatureContext(eq(Feature.RUM_FEATURE_NAME), any(), capture())
+            val acc = mutableMapOf<String, Any?>()
+            secondValue.invoke(acc)
+            firstValue.invoke(acc)
+            assertThat(acc).isEqualTo(fakeSecondRumContext.toMap())
+        }
+    }
+
     @Test
     fun `M not update feature context W handleEvent() { event processing failed }`(
         @Forgery fakeRumEvent: RumRawEvent
@@ -2744,9 +3110,6 @@ internal class DatadogRumMonitorTest {
         val mockFeatureScope = mock<FeatureScope>()
         whenever(mockFeatureScope.getWriteContextSync(setOf(Feature.SESSION_REPLAY_FEATURE_NAME))) doReturn null
         whenever(mockSdkCore.getFeature(Feature.RUM_FEATURE_NAME)) doReturn mockFeatureScope
-        whenever(mockExecutorService.submit(any<Callable<RumContext>>())) doAnswer {
-            mock<Future<RumContext>>().apply { whenever(get()) doReturn null }
-        }
 
         // When
         testedMonitor.handleEvent(fakeRumEvent)
@@ -3134,5 +3497,6 @@ internal class DatadogRumMonitorTest {
         const val TIMESTAMP_MAX = 2000000000000
         const val PROCESSING_DELAY = 100L
         const val DEFAULT_API_USAGE_SAMPLING_RATE = 15f
+        const val FAKE_BACKPRESSURE_CAPACITY = 1024
     }
 }
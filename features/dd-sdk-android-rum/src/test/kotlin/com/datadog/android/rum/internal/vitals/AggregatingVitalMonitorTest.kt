@@ -21,10 +21,12 @@ import org.mockito.junit.jupiter.MockitoExtension
 import org.mockito.junit.jupiter.MockitoSettings
 import org.mockito.kotlin.any
 import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
 import org.mockito.quality.Strictness
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
@@ -42,9 +44,12 @@ internal class AggregatingVitalMonitorTest {
     @Mock
     lateinit var mockListener: VitalListener
 
+    lateinit var mockListenerSnapshots: RecordedSnapshots
+
     @BeforeEach
     fun `set up`() {
         testedMonitor = AggregatingVitalMonitor()
+        mockListenerSnapshots = mockListener.recordSnapshots()
     }
 
     @Test
@@ -92,8 +97,8 @@ internal class AggregatingVitalMonitorTest {
         testedMonitor.register(mockListener)
 
         // Then
-        argumentCaptor<VitalInfo> {
-            verify(mockListener).onVitalUpdate(capture())
+        with(mockListenerSnapshots) {
+            verify(mockListener).onVitalUpdate(any())
             assertThat(firstValue.sampleCount).isEqualTo(1)
             assertThat(firstValue.minValue).isEqualTo(value)
             assertThat(firstValue.maxValue).isEqualTo(value)
@@ -114,8 +119,8 @@ internal class AggregatingVitalMonitorTest {
         }
 
         // Then
-        argumentCaptor<VitalInfo> {
-            verify(mockListener, times(values.size)).onVitalUpdate(capture())
+        with(mockListenerSnapshots) {
+            verify(mockListener, times(values.size)).onVitalUpdate(any())
 
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
@@ -149,8 +154,8 @@ internal class AggregatingVitalMonitorTest {
         countDownLatch.await(1, TimeUnit.SECONDS)
 
         // Then
-        argumentCaptor<VitalInfo> {
-            verify(mockListener, times(values.size)).onVitalUpdate(capture())
+        with(mockListenerSnapshots) {
+            verify(mockListener, times(values.size)).onVitalUpdate(any())
 
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
@@ -173,6 +178,10 @@ internal class AggregatingVitalMonitorTest {
         val mock2: VitalListener = mock()
         val mock3: VitalListener = mock()
         val mock4: VitalListener = mock()
+        val mock1Snapshots = mock1.recordSnapshots()
+        val mock2Snapshots = mock2.recordSnapshots()
+        val mock3Snapshots = mock3.recordSnapshots()
+        val mock4Snapshots = mock4.recordSnapshots()
 
         // When
         testedMonitor.register(mock1)
@@ -184,8 +193,8 @@ internal class AggregatingVitalMonitorTest {
         testedMonitor.register(mock4)
 
         // Then
-        argumentCaptor<VitalInfo> {
-            verify(mock1, times(3)).onVitalUpdate(capture())
+        with(mock1Snapshots) {
+            verify(mock1, times(3)).onVitalUpdate(any())
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
             }
@@ -193,8 +202,8 @@ internal class AggregatingVitalMonitorTest {
             assertThat(firstValue.maxValue).isEqualTo(value1)
             assertThat(firstValue.meanValue).isEqualTo(value1)
         }
-        argumentCaptor<VitalInfo> {
-            verify(mock2, times(3)).onVitalUpdate(capture())
+        with(mock2Snapshots) {
+            verify(mock2, times(3)).onVitalUpdate(any())
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
             }
@@ -202,8 +211,8 @@ internal class AggregatingVitalMonitorTest {
             assertThat(firstValue.maxValue).isEqualTo(value1)
             assertThat(firstValue.meanValue).isEqualTo(value1)
         }
-        argumentCaptor<VitalInfo> {
-            verify(mock3, times(2)).onVitalUpdate(capture())
+        with(mock3Snapshots) {
+            verify(mock3, times(2)).onVitalUpdate(any())
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
             }
@@ -211,8 +220,8 @@ internal class AggregatingVitalMonitorTest {
             assertThat(firstValue.maxValue).isEqualTo(value2)
             assertThat(firstValue.meanValue).isEqualTo(value2)
         }
-        argumentCaptor<VitalInfo> {
-            verify(mock4, times(1)).onVitalUpdate(capture())
+        with(mock4Snapshots) {
+            verify(mock4, times(1)).onVitalUpdate(any())
             allValues.forEachIndexed { index, vitalInfo ->
                 assertThat(vitalInfo.sampleCount).isEqualTo(index + 1)
             }
@@ -236,8 +245,8 @@ internal class AggregatingVitalMonitorTest {
         testedMonitor.onNewSample(untrackedValue)
 
         // Then
-        argumentCaptor<VitalInfo> {
-            verify(mockListener).onVitalUpdate(capture())
+        with(mockListenerSnapshots) {
+            verify(mockListener).onVitalUpdate(any())
             assertThat(firstValue.sampleCount).isEqualTo(+1)
             assertThat(firstValue.minValue).isEqualTo(trackedValue)
             assertThat(firstValue.maxValue).isEqualTo(trackedValue)
@@ -245,6 +254,69 @@ internal class AggregatingVitalMonitorTest {
         }
     }
 
+    @Test
+    fun `M share aggregated values W onNewSample() {no allocation per sample}`(
+        @DoubleForgery(-REASONABLE_DOUBLE, REASONABLE_DOUBLE) values: List<Double>
+    ) {
+        // Given
+        testedMonitor.register(mockListener)
+
+        // When
+        for (value in values) {
+            testedMonitor.onNewSample(value)
+        }
+
+        // Then
+        argumentCaptor<VitalStats> {
+            verify(mockListener, times(values.size)).onVitalUpdate(capture())
+            assertThat(allValues.distinct()).hasSize(1)
+            assertThat(lastValue.sampleCount).isEqualTo(values.size)
+        }
+    }
+
+    @Test
+    fun `M flush pending samples before updating listeners W unregister()`(
+        @DoubleForgery(-REASONABLE_DOUBLE, REASONABLE_DOUBLE) value: Double
+    ) {
+        // Given
+        var pendingSample: Double? = null
+        lateinit var monitor: AggregatingVitalMonitor
+        monitor = AggregatingVitalMonitor {
+            pendingSample?.let { monitor.onNewSample(it) }
+            pendingSample = null
+        }
+        monitor.register(mockListener)
+        pendingSample = value
+
+        // When
+        monitor.unregister(mockListener)
+
+        // Then
+        verify(mockListener).onVitalUpdate(any())
+        assertThat(monitor.getLastSample()).isEqualTo(value)
+    }
+
+    // region Internal
+
+    class RecordedSnapshots {
+        val allValues = mutableListOf<VitalInfo>()
+        val firstValue: VitalInfo
+            get() = allValues.first()
+        val lastValue: VitalInfo
+            get() = allValues.last()
+    }
+
+    // the listener receives a live aggregate, values are frozen when notified
+    private fun VitalListener.recordSnapshots(): RecordedSnapshots {
+        val snapshots = RecordedSnapshots()
+        doAnswer {
+            snapshots.allValues.add(it.getArgument<VitalStats>(0).snapshot())
+        }.whenever(this).onVitalUpdate(any())
+        return snapshots
+    }
+
+    // endregion
+
     companion object {
         // avoid unrealistic values that will make mean computation reach infinity
         const val REASONABLE_DOUBLE = Float.MAX_VALUE.toDouble()
@@ -0,0 +1,110 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.rum.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.BoolForgery
+import fr.xgouchet.elmyr.annotation.LongForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.quality.Strictness
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class FrameDataDrainRunnableTest {
+
+    private lateinit var testedRunnable: FrameDataDrainRunnable
+
+    private lateinit var frameStatesAggregator: FrameStatesAggregator
+
+    @Mock
+    lateinit var mockListener: FrameStateListener
+
+    @Mock
+    lateinit var mockExecutor: ScheduledExecutorService
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    @LongForgery(min = 0L)
+    var fakeFrameStartNs: Long = 0L
+
+    @LongForgery(min = 0L)
+    var fakeFrameDurationNs: Long = 0L
+
+    @BoolForgery
+    var fakeIsJank: Boolean = false
+
+    @BeforeEach
+    fun `set up`() {
+        frameStatesAggregator = FrameStatesAggregator(listOf(mockListener), mockInternalLogger)
+        testedRunnable = FrameDataDrainRunnable(
+            frameStatesAggregator,
+            mockExecutor,
+            mockInternalLogger,
+            TEST_PERIOD_MS
+        )
+    }
+
+    @Test
+    fun `M schedule a drain once W schedule() {called several times}`() {
+        // When
+        testedRunnable.schedule()
+        testedRunnable.schedule()
+
+        // Then
+        verify(mockExecutor).schedule(testedRunnable, TEST_PERIOD_MS, TimeUnit.MILLISECONDS)
+    }
+
+    @Test
+    fun `M dispatch frames and not reschedule W run() {queue drained}`() {
+        // Given
+        frameStatesAggregator.frameDataQueue.offer(fakeFrameStartNs, fakeFrameDurationNs, fakeIsJank)
+
+        // When
+        testedRunnable.run()
+
+        // Then
+        verify(mockListener).onFrame(fakeFrameStartNs, fakeFrameDurationNs, fakeIsJank)
+        verifyNoInteractions(mockExecutor)
+    }
+
+    @Test
+    fun `M schedule a new drain W schedule() {after run}`() {
+        // Given
+        testedRunnable.schedule()
+        testedRunnable.run()
+
+        // When
+        testedRunnable.schedule()
+
+        // Then
+        verify(mockExecutor, times(2))
+            .schedule(testedRunnable, TEST_PERIOD_MS, TimeUnit.MILLISECONDS)
+    }
+
+    companion object {
+        private const val TEST_PERIOD_MS = 100L
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import com.datadog.android.rum.internal.domain.FrameMetricsData
+import com.datadog.android.rum.utils.forge.Configurator
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.inOrder
+import org.mockito.kotlin.verifyNoInteractions
+import org.mockito.quality.Strictness
+import java.util.concurrent.TimeUnit
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class FrameDataQueueTest {
+
+    private lateinit var testedQueue: FrameDataQueue
+
+    @Mock
+    lateinit var mockListener: FrameStateListener
+
+    @BeforeEach
+    fun `set up`() {
+        testedQueue = FrameDataQueue(FAKE_CAPACITY)
+    }
+
+    @Test
+    fun `M dispatch frames in order W offer() + drain()`(
+        forge: Forge
+    ) {
+        // Given
+        val frames = forge.aList(size = forge.anInt(min = 1, max = FAKE_CAPACITY)) { aFakeFrame() }
+        frames.forEach { testedQueue.offer(it.start, it.duration, it.isJank) }
+
+        // When
+        val result = testedQueue.drain(listOf(mockListener))
+
+        // Then
+        assertThat(result).isEqualTo(frames.size)
+        inOrder(mockListener) {
+            frames.forEach { verify(mockListener).onFrame(it.start, it.duration, it.isJank) }
+            verifyNoMoreInteractions()
+        }
+    }
+
+    @Test
+    fun `M return false W isEmpty() {frames pending}`(
+        forge: Forge
+    ) {
+        // Given
+        val frame = forge.aFakeFrame()
+        testedQueue.offer(frame.start, frame.duration, frame.isJank)
+
+        // When
+        val result = testedQueue.isEmpty()
+
+        // Then
+        assertThat(result).isFalse()
+    }
+
+    @Test
+    fun `M return true W isEmpty() {frames drained}`(
+        forge: Forge
+    ) {
+        // Given
+        val frame = forge.aFakeFrame()
+        testedQueue.offer(frame.start, frame.duration, frame.isJank)
+        testedQueue.drain(listOf(mockListener))
+
+        // When
+        val result = testedQueue.isEmpty()
+
+        // Then
+        assertThat(result).isTrue()
+    }
+
+    @Test
+    fun `M not dispatch anything W drain() {no frame}`() {
+        // When
+        val result = testedQueue.drain(listOf(mockListener))
+
+        // Then
+        assertThat(result).isZero()
+        verifyNoInteractions(mockListener)
+    }
+
+    @Test
+    fun `M drop frames W offer() {queue is full}`(
+        forge: Forge
+    ) {
+        // Given
+        repeat(FAKE_CAPACITY) {
+            val frame = forge.aFakeFrame()
+            assertThat(testedQueue.offer(frame.start, frame.duration, frame.isJank)).isTrue()
+        }
+        val extraFrames = forge.anInt(min = 1, max = 10)
+
+        // When
+        val results = List(extraFrames) {
+            val frame = forge.aFakeFrame()
+            testedQueue.offer(frame.start, frame.duration, frame.isJank)
+        }
+
+        // Then
+        assertThat(results).containsOnly(false)
+        assertThat(testedQueue.consumeDroppedFrames()).isEqualTo(extraFrames.toLong())
+        assertThat(testedQueue.consumeDroppedFrames()).isZero()
+        assertThat(testedQueue.drain(listOf(mockListener))).isEqualTo(FAKE_CAPACITY)
+    }
+
+    @Test
+    fun `M reuse slots W offer() + drain() {wrapping around}`(
+        forge: Forge
+    ) {
+        // Given
+        repeat(FAKE_CAPACITY * 3 / 2) {
+            val frame = forge.aFakeFrame()
+            testedQueue.offer(frame.start, frame.duration, frame.isJank)
+            testedQueue.drain(emptyList())
+        }
+        val frame = forge.aFakeFrame()
+
+        // When
+        testedQueue.offer(frame.start, frame.duration, frame.isJank)
+        testedQueue.drain(listOf(mockListener))
+
+        // Then
+        inOrder(mockListener) {
+            verify(mockListener).onFrame(frame.start, frame.duration, frame.isJank)
+            verifyNoMoreInteractions()
+        }
+    }
+
+    @Test
+    fun `M receive all frames W offer() + drain() {concurrent producer and consumer}`() {
+        // Given
+        val frameCount = 100_000
+        var received = 0L
+        var lastStart = -1L
+        var outOfOrder = false
+        val consumer = object : FrameStateListener {
+            override fun onFrame(frameStartNanos: Long, frameDurationUiNanos: Long, isJank: Boolean) {
+                outOfOrder = outOfOrder || frameStartNanos != lastStart + 1 ||
+                    frameDurationUiNanos != frameStartNanos * 2
+                lastStart = frameStartNanos
+                received++
+            }
+
+            override fun onFrameMetricsData(data: FrameMetricsData) {
+            }
+        }
+        val producer = Thread {
+            var next = 0L
+            while (next < frameCount) {
+                if (testedQueue.offer(next, next * 2, false)) next++
+            }
+        }
+
+        // When
+        producer.start()
+        while (received < frameCount && producer.isAlive) {
+            testedQueue.drain(listOf(consumer))
+        }
+        producer.join(TimeUnit.SECONDS.toMillis(1))
+        testedQueue.drain(listOf(consumer))
+
+        // Then
+        assertThat(received).isEqualTo(frameCount.toLong())
+        assertThat(outOfOrder).isFalse()
+    }
+
+    @Test
+    fun `M throw W init {capacity is not a power of 2}`(
+        forge: Forge
+    ) {
+        // Given
+        val capacity = forge.anInt(min = 2, max = 1024).let { if (it and (it - 1) == 0) it + 1 else it }
+
+        // When + Then
+        assertThrows<IllegalArgumentException> { FrameDataQueue(capacity) }
+    }
+
+    // region Internal
+
+    private data class FakeFrame(val start: Long, val duration: Long, val isJank: Boolean)
+
+    private fun Forge.aFakeFrame() = FakeFrame(aPositiveLong(), aPositiveLong(), aBool())
+
+    // endregion
+
+    companion object {
+        private const val FAKE_CAPACITY = 64
+    }
+}
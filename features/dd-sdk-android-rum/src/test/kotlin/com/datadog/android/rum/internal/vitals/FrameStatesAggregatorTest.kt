@@ -481,12 +481,46 @@ internal class FrameStatesAggregatorTest {
     }
 
     @Test
-    fun `M forward FrameData W onFrame`(forge: Forge) {
+    fun `M forward FrameData W onFrame + drainFrames`(forge: Forge) {
+        // Given
+        val frameData = forge.getForgery<FrameData>()
+
+        // When
+        testedJankListener.onFrame(frameData)
+        testedJankListener.drainFrames()
+
+        // Then
+        verify(mockFPSVitalListener).onFrame(
+            frameData.frameStartNanos,
+            frameData.frameDurationUiNanos,
+            frameData.isJank
+        )
+    }
+
+    @Test
+    fun `M not forward FrameData on the callback thread W onFrame`(forge: Forge) {
+        // Given
         val frameData = forge.getForgery<FrameData>()
 
+        // When
+        testedJankListener.onFrame(frameData)
+
+        // Then
+        verifyNoInteractions(mockFPSVitalListener)
+    }
+
+    @Test
+    fun `M schedule the frames drain W onFrame`(forge: Forge) {
+        // Given
+        val mockDrainRunnable = mock<FrameDataDrainRunnable>()
+        testedJankListener.frameDataDrainRunnable = mockDrainRunnable
+        val frameData = forge.getForgery<FrameData>()
+
+        // When
         testedJankListener.onFrame(frameData)
 
-        verify(mockFPSVitalListener).onFrame(frameData)
+        // Then
+        verify(mockDrainRunnable).schedule()
     }
 
     @Test
@@ -0,0 +1,105 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.rum.internal.vitals
+
+import com.datadog.android.rum.utils.forge.Configurator
+import fr.xgouchet.elmyr.annotation.DoubleForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.withinPercentage
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import java.util.concurrent.TimeUnit
+
+@Extensions(
+    ExtendWith(ForgeExtension::class)
+)
+@ForgeConfiguration(Configurator::class)
+internal class VitalAggregatorTest {
+
+    lateinit var testedAggregator: VitalAggregator
+
+    @BeforeEach
+    fun `set up`() {
+        testedAggregator = VitalAggregator()
+    }
+
+    @Test
+    fun `M return empty info W snapshot() {no sample}`() {
+        // When
+        val result = testedAggregator.snapshot()
+
+        // Then
+        assertThat(result).isEqualTo(VitalInfo.EMPTY)
+    }
+
+    @Test
+    fun `M aggregate samples W add()`(
+        @DoubleForgery(-REASONABLE_DOUBLE, REASONABLE_DOUBLE) values: List<Double>
+    ) {
+        // When
+        values.forEach { testedAggregator.add(it) }
+
+        // Then
+        val result = testedAggregator.snapshot()
+        assertThat(result.sampleCount).isEqualTo(values.size)
+        assertThat(result.minValue).isEqualTo(values.minOrNull())
+        assertThat(result.maxValue).isEqualTo(values.maxOrNull())
+        assertThat(result.meanValue).isCloseTo(values.average(), withinPercentage(1))
+    }
+
+    @Test
+    fun `M keep snapshot frozen W add()`(
+        @DoubleForgery(-REASONABLE_DOUBLE, REASONABLE_DOUBLE) firstValue: Double,
+        @DoubleForgery(-REASONABLE_DOUBLE, REASONABLE_DOUBLE) secondValue: Double
+    ) {
+        // Given
+        testedAggregator.add(firstValue)
+        val snapshot = testedAggregator.snapshot()
+
+        // When
+        testedAggregator.add(secondValue)
+
+        // Then
+        assertThat(snapshot).isEqualTo(VitalInfo(1, firstValue, firstValue, firstValue))
+        assertThat(testedAggregator.sampleCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `M read consistent values W snapshot() {concurrent updates}`() {
+        // Given
+        val sampleCount = 100_000
+        val writer = Thread {
+            repeat(sampleCount) { testedAggregator.add(it.toDouble()) }
+        }
+
+        // When
+        writer.start()
+        val snapshots = mutableListOf<VitalInfo>()
+        while (writer.isAlive) {
+            snapshots.add(testedAggregator.snapshot())
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(1))
+
+        // Then
+        snapshots.filter { it.sampleCount > 0 }.forEach {
+            // samples are 0, 1, 2, … so a consistent snapshot of n samples has a known state
+            assertThat(it.minValue).isEqualTo(0.0)
+            assertThat(it.maxValue).isEqualTo(it.sampleCount - 1.0)
+            assertThat(it.meanValue).isCloseTo((it.sampleCount - 1) / 2.0, withinPercentage(1))
+        }
+        assertThat(testedAggregator.sampleCount).isEqualTo(sampleCount)
+    }
+
+    companion object {
+        // avoid unrealistic values that will make mean computation reach infinity
+        const val REASONABLE_DOUBLE = Float.MAX_VALUE.toDouble()
+    }
+}
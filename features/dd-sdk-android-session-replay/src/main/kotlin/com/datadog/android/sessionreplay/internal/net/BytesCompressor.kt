@@ -6,83 +6,63 @@
 
 package com.datadog.android.sessionreplay.internal.net
 
+import com.datadog.android.internal.compression.DeflaterPool
 import java.io.ByteArrayOutputStream
 import java.util.zip.Deflater
 
 /**
  *  Compresses the payload data using the ZIP compression algorithm.
+ *  The [Deflater] and the intermediate buffer are borrowed from a [DeflaterPool] so that the native
+ *  compression state is reused across segments.
  *  This class is meant for internal usage.
  */
-internal class BytesCompressor {
+internal class BytesCompressor(
+    private val deflaterPool: DeflaterPool = DeflaterPool.shared
+) {
 
     fun compressBytes(uncompressedData: ByteArray): ByteArray {
-        // Create the compressor with highest level of compression.
-        val deflater = Deflater(COMPRESSION_LEVEL)
-        // We will start with an OutputStream double the size of the data
-        val outputStream = ByteArrayOutputStream(uncompressedData.size * 2)
-        // Compress the data
-        // in order to align with dogweb way of decompressing the segments we need to compress
-        // using the SYNC_FLUSH flag which adds the 0000FFFF flag at the end of the
-        // compressed data
-        val compressedData = outputStream.use {
-            compress(deflater, uncompressedData, it, Deflater.SYNC_FLUSH)
-            // in order to align with dogweb way of decompressing the segments we need to add
-            // a fake checksum at the end
-            compress(deflater, ByteArray(0), it, Deflater.FULL_FLUSH)
-            deflater.end()
-            it.toByteArray()
+        // We will start with an OutputStream the size of the data, it grows if needed
+        val outputStream = ByteArrayOutputStream(uncompressedData.size)
+        val buffer = deflaterPool.acquireBuffer()
+        try {
+            deflaterPool.useDeflater(COMPRESSION_LEVEL, nowrap = false) { deflater ->
+                // in order to align with dogweb way of decompressing the segments we need to compress
+                // using the SYNC_FLUSH flag which adds the 0000FFFF flag at the end of the
+                // compressed data
+                compress(deflater, uncompressedData, buffer, outputStream, Deflater.SYNC_FLUSH)
+                // in order to align with dogweb way of decompressing the segments we need to add
+                // a fake checksum at the end
+                deflater.finish()
+                compress(deflater, ByteArray(0), buffer, outputStream, Deflater.FULL_FLUSH)
+            }
+        } finally {
+            deflaterPool.releaseBuffer(buffer)
         }
-        // Get the compressed data
-        return compressedData
+        return outputStream.toByteArray()
     }
 
     private fun compress(
         deflater: Deflater,
         data: ByteArray,
+        buffer: ByteArray,
         output: ByteArrayOutputStream,
         flag: Int
     ) {
-        var buffer = getBufferByDataAndFlag(data, flag)
-        var retriesCounter = 1
-        var bytesRead: Int
+        deflater.setInput(data)
+        var bytesDeflated: Int
         do {
-            buffer = ByteArray(buffer.size * retriesCounter)
-            if (flag == Deflater.SYNC_FLUSH) {
-                deflater.reset()
-            }
-            deflater.setInput(data)
-            if (flag == Deflater.FULL_FLUSH) {
-                deflater.finish()
-            }
             @Suppress("UnsafeThirdPartyFunctionCall")
             // we are only calling this with valid flags
-            bytesRead = deflater.deflate(buffer, 0, buffer.size, flag)
-            // according with the API if bytesRead >= buffer.size we need
-            // to retry with a bigger buffer
-            retriesCounter += 1
-        } while (bytesRead >= buffer.size)
-        @Suppress("UnsafeThirdPartyFunctionCall")
-        // we are calling this function always with a valid buffer (bytesRead < buffer.size)
-        output.write(buffer, 0, bytesRead)
-    }
-
-    private fun getBufferByDataAndFlag(data: ByteArray, flag: Int): ByteArray {
-        return when (flag) {
-            Deflater.FULL_FLUSH -> ByteArray(
-                HEADER_SIZE_IN_BYTES +
-                    data.size + CHECKSUM_FLAG_SIZE_IN_BYTES
-            )
-            Deflater.SYNC_FLUSH -> ByteArray(
-                HEADER_SIZE_IN_BYTES +
-                    data.size + SYNC_FLAG_SIZE_IN_BYTES
-            )
-            else -> ByteArray(HEADER_SIZE_IN_BYTES + data.size)
-        }
+            bytesDeflated = deflater.deflate(buffer, 0, buffer.size, flag)
+            @Suppress("UnsafeThirdPartyFunctionCall")
+            // we are calling this function always with a valid range (bytesDeflated <= buffer.size)
+            output.write(buffer, 0, bytesDeflated)
+            // according with the API if bytesDeflated == buffer.size we need
+            // to call it again to get the remaining output
+        } while (bytesDeflated == buffer.size)
     }
 
     companion object {
-        private const val HEADER_SIZE_IN_BYTES = 2
-        private const val SYNC_FLAG_SIZE_IN_BYTES = 4
         internal const val CHECKSUM_FLAG_SIZE_IN_BYTES = 6
 
         // We are using compression level 6 in order to align with the same compression type used
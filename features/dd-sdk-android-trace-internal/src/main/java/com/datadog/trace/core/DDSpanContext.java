@@ -66,6 +66,9 @@ public class DDSpanContext
 
   private static final Map<String, String> EMPTY_BAGGAGE = Collections.emptyMap();
 
+  /** Number of special tags added by {@link #getTags()} on top of the span tags */
+  private static final int GET_TAGS_EXTRA_CAPACITY = 5;
+
   /** The collection of all span related to this one */
   private final PendingTrace trace;
 
@@ -92,8 +95,17 @@ public class DDSpanContext
    * threads, they will rarely, if ever, be read and modified concurrently by multiple threads but
    * rather read and accessed in a serial fashion on thread after thread. The synchronization can
    * then be wrapped around bulk operations to minimize the costly atomic operations.
+   *
+   * <p>Readers go through {@link #tagsSnapshot} instead, and only lock to refresh it after a change.
    */
-  private final Map<String, Object> unsafeTags;
+  private final SpanTags spanTags;
+
+  /**
+   * A frozen copy of the tags, shared by the readers until the next change (null until then). Once a
+   * span is finished its tags no longer change, so reading them for serialization doesn't need any
+   * lock nor copy.
+   */
+  private volatile SpanTags tagsSnapshot;
 
   /** The service name is required, otherwise the span are dropped by the agent */
   private volatile String serviceName;
@@ -325,10 +337,8 @@ public class DDSpanContext
     assert pathwayContext != null;
     this.pathwayContext = pathwayContext;
 
-    // The +1 is the magic number from the tags below that we set at the end,
-    // and "* 4 / 3" is to make sure that we don't resize immediately
-    final int capacity = Math.max((tagsSize <= 0 ? 3 : (tagsSize + 1)) * 4 / 3, 8);
-    this.unsafeTags = new HashMap<>(capacity);
+    // The +1 is the magic number from the tags below that we set at the end
+    this.spanTags = new SpanTags(tagsSize <= 0 ? 3 : (tagsSize + 1));
     // must set this before setting the service and resource names below
     this.profilingContextIntegration = profilingContextIntegration;
     // as fast as we can try to make this operation, we still might need to activate/deactivate
@@ -568,7 +578,7 @@ public class DDSpanContext
   }
 
   public void setSpanSamplingPriority(double rate, int limit) {
-    synchronized (unsafeTags) {
+    synchronized (spanTags) {
       unsafeSetTag(SPAN_SAMPLING_MECHANISM_TAG, SamplingMechanism.SPAN_SAMPLING_RATE);
       unsafeSetTag(SPAN_SAMPLING_RULE_RATE_TAG, rate);
       if (limit != Integer.MAX_VALUE) {
@@ -687,7 +697,7 @@ public class DDSpanContext
   }
 
   public void setMetric(final CharSequence key, final Number value) {
-    synchronized (unsafeTags) {
+    synchronized (spanTags) {
       unsafeSetTag(key.toString(), value);
     }
   }
@@ -706,11 +716,12 @@ public class DDSpanContext
       return;
     }
     if (null == value) {
-      synchronized (unsafeTags) {
-        unsafeTags.remove(tag);
+      synchronized (spanTags) {
+        spanTags.remove(tag);
+        tagsSnapshot = null;
       }
     } else if (!trace.getTracer().getTagInterceptor().interceptTag(this, tag, value)) {
-      synchronized (unsafeTags) {
+      synchronized (spanTags) {
         unsafeSetTag(tag, value);
       }
     }
@@ -722,7 +733,7 @@ public class DDSpanContext
     }
 
     TagInterceptor tagInterceptor = trace.getTracer().getTagInterceptor();
-    synchronized (unsafeTags) {
+    synchronized (spanTags) {
       for (final Map.Entry<String, ?> tag : map.entrySet()) {
         if (!tagInterceptor.interceptTag(this, tag.getKey(), tag.getValue())) {
           unsafeSetTag(tag.getKey(), tag.getValue());
@@ -732,7 +743,8 @@ public class DDSpanContext
   }
 
   void unsafeSetTag(final String tag, final Object value) {
-    unsafeTags.put(tag, value);
+    spanTags.put(tag, value);
+    tagsSnapshot = null;
   }
 
   Object getTag(final String key) {
@@ -746,8 +758,13 @@ public class DDSpanContext
         return 0 == httpStatusCode ? null : (int) httpStatusCode;
       default:
         Object value;
-        synchronized (unsafeTags) {
-          value = unsafeGetTag(key);
+        SpanTags snapshot = tagsSnapshot;
+        if (snapshot != null) {
+          value = snapshot.get(key);
+        } else {
+          synchronized (spanTags) {
+            value = unsafeGetTag(key);
+          }
         }
         // maintain previously observable type of http url :|
         return value == null ? null : Tags.HTTP_URL.equals(key) ? value.toString() : value;
@@ -762,63 +779,94 @@ public class DDSpanContext
    * @return the value associated with the tag
    */
   public Object unsafeGetTag(final String tag) {
-    return unsafeTags.get(tag);
+    return spanTags.get(tag);
   }
 
   public Map<String, Object> getTags() {
-    synchronized (unsafeTags) {
-      Map<String, Object> tags = new HashMap<>(unsafeTags);
-      tags.put(DDTags.THREAD_ID, threadId);
-      // maintain previously observable type of the thread name :|
-      tags.put(DDTags.THREAD_NAME, threadName.toString());
-      if (samplingPriority != PrioritySampling.UNSET) {
-        tags.put(SAMPLE_RATE_KEY, samplingPriority);
-      }
-      if (httpStatusCode != 0) {
-        tags.put(Tags.HTTP_STATUS, (int) httpStatusCode);
-      }
-      // maintain previously observable type of http url :|
-      Object value = tags.get(Tags.HTTP_URL);
-      if (value != null) {
-        tags.put(Tags.HTTP_URL, value.toString());
+    SpanTags snapshot = getTagsSnapshot();
+    String[] extraKeys = new String[GET_TAGS_EXTRA_CAPACITY];
+    Object[] extraValues = new Object[GET_TAGS_EXTRA_CAPACITY];
+    int extraCount = 0;
+    extraKeys[extraCount] = DDTags.THREAD_ID;
+    extraValues[extraCount++] = threadId;
+    // maintain previously observable type of the thread name :|
+    extraKeys[extraCount] = DDTags.THREAD_NAME;
+    extraValues[extraCount++] = threadName.toString();
+    if (samplingPriority != PrioritySampling.UNSET) {
+      extraKeys[extraCount] = SAMPLE_RATE_KEY;
+      extraValues[extraCount++] = samplingPriority;
+    }
+    if (httpStatusCode != 0) {
+      extraKeys[extraCount] = Tags.HTTP_STATUS;
+      extraValues[extraCount++] = (int) httpStatusCode;
+    }
+    // maintain previously observable type of http url :|
+    Object value = snapshot.get(Tags.HTTP_URL);
+    if (value != null) {
+      extraKeys[extraCount] = Tags.HTTP_URL;
+      extraValues[extraCount++] = value.toString();
+    }
+    // the snapshot is never changed, so it is viewed with the extra tags instead of being copied
+    return snapshot.withExtraTags(extraKeys, extraValues, extraCount);
+  }
+
+  /** @return the frozen copy of the current tags, made once per change */
+  private SpanTags getTagsSnapshot() {
+    SpanTags snapshot = tagsSnapshot;
+    if (snapshot == null) {
+      synchronized (spanTags) {
+        snapshot = tagsSnapshot;
+        if (snapshot == null) {
+          snapshot = spanTags.copy(0).freeze();
+          tagsSnapshot = snapshot;
+        }
       }
-      return Collections.unmodifiableMap(tags);
     }
+    return snapshot;
   }
 
   public void processTagsAndBaggage(
       final MetadataConsumer consumer, int longRunningVersion, List<AgentSpanLink> links) {
-    synchronized (unsafeTags) {
-      // Tags
-      Map<String, Object> tags =
-          TagsPostProcessorFactory.instance().processTagsWithContext(unsafeTags, this);
+    // Tags
+    Map<String, Object> tags;
+    synchronized (spanTags) {
+      // the post-processors read then update the tags in place, without any other change in between
+      Map<String, Object> processedTags =
+          TagsPostProcessorFactory.instance().processTagsWithContext(spanTags, this);
       String linksTag = DDSpanLink.toTag(links);
       if (linksTag != null) {
-        tags.put(SPAN_LINKS, linksTag);
+        processedTags.put(SPAN_LINKS, linksTag);
       }
-      // Baggage
-      Map<String, String> baggageItemsWithPropagationTags;
-      if (injectBaggageAsTags) {
-        baggageItemsWithPropagationTags = new HashMap<>(baggageItems);
-        propagationTags.fillTagMap(baggageItemsWithPropagationTags);
+      if (processedTags == spanTags) {
+        // the processed tags are published to the readers, and handed over without another copy
+        tagsSnapshot = null;
+        tags = getTagsSnapshot();
       } else {
-        baggageItemsWithPropagationTags = propagationTags.createTagMap();
+        tags = processedTags;
       }
-
-      consumer.accept(
-          new Metadata(
-              threadId,
-              threadName,
-              tags,
-              baggageItemsWithPropagationTags,
-              samplingPriority != PrioritySampling.UNSET ? samplingPriority : getTraceSamplingPriority(),
-              measured,
-              topLevel,
-              httpStatusCode == 0 ? null : HTTP_STATUSES.get(httpStatusCode),
-              // Get origin from rootSpan.context
-              getOrigin(),
-              longRunningVersion));
     }
+    // Baggage
+    Map<String, String> baggageItemsWithPropagationTags;
+    if (injectBaggageAsTags) {
+      baggageItemsWithPropagationTags = new HashMap<>(baggageItems);
+      propagationTags.fillTagMap(baggageItemsWithPropagationTags);
+    } else {
+      baggageItemsWithPropagationTags = propagationTags.createTagMap();
+    }
+
+    consumer.accept(
+        new Metadata(
+            threadId,
+            threadName,
+            tags,
+            baggageItemsWithPropagationTags,
+            samplingPriority != PrioritySampling.UNSET ? samplingPriority : getTraceSamplingPriority(),
+            measured,
+            topLevel,
+            httpStatusCode == 0 ? null : HTTP_STATUSES.get(httpStatusCode),
+            // Get origin from rootSpan.context
+            getOrigin(),
+            longRunningVersion));
   }
 
   @Override
@@ -844,9 +892,7 @@ public class DDSpanContext
       s.append(" *measured*");
     }
 
-    synchronized (unsafeTags) {
-      s.append(" tags=").append(new TreeMap<>(getTags()));
-    }
+    s.append(" tags=").append(new TreeMap<>(getTags()));
     return s.toString();
   }
 
@@ -0,0 +1,436 @@
+package com.datadog.trace.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The tags of a {@link DDSpanContext}, specialized for the small number of tags a span carries.
+ *
+ * <p>Up to {@link #INLINE_CAPACITY} tags are held in two arrays scanned linearly, which for a few
+ * tags is cheaper than hashing and allocates nothing per tag. Past that, the tags are moved to a
+ * {@link HashMap} so that adding a tag never costs more than a hash lookup.
+ *
+ * <p>Like the {@link HashMap} it replaces, this map is not thread-safe: the {@link DDSpanContext}
+ * guards it with its own lock, and hands {@link #freeze() frozen} copies of it to the readers, which
+ * can then be shared between threads without any lock.
+ */
+final class SpanTags extends AbstractMap<String, Object> {
+
+  static final int INLINE_CAPACITY = 16;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private String[] keys;
+  private Object[] values;
+  private int size;
+
+  /** Holds the tags once there are more than {@link #INLINE_CAPACITY}, null until then. */
+  private HashMap<String, Object> map;
+
+  private int modCount;
+
+  private boolean frozen;
+
+  SpanTags() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /** @param expectedSize the number of tags expected to be set */
+  SpanTags(final int expectedSize) {
+    final int capacity = Math.max(1, expectedSize);
+    if (capacity > INLINE_CAPACITY) {
+      map = new HashMap<>(capacity * 4 / 3 + 1);
+    } else {
+      keys = new String[capacity];
+      values = new Object[capacity];
+    }
+  }
+
+  /**
+   * @param extraCapacity the number of tags expected to be added to the copy
+   * @return a copy of these tags, sized to receive the extra tags without resizing
+   */
+  SpanTags copy(final int extraCapacity) {
+    // the copy is sized from the current tags, so it can be inline while these tags are not: once
+    // in map mode, tags stay there even after being removed down to a few
+    final SpanTags copy = new SpanTags(size() + extraCapacity);
+    if (copy.map != null) {
+      if (map != null) {
+        copy.map.putAll(map);
+      } else {
+        for (int i = 0; i < size; i++) {
+          copy.map.put(keys[i], values[i]);
+        }
+      }
+    } else if (map != null) {
+      for (final Entry<String, Object> tag : map.entrySet()) {
+        copy.keys[copy.size] = tag.getKey();
+        copy.values[copy.size] = tag.getValue();
+        copy.size++;
+      }
+    } else {
+      System.arraycopy(keys, 0, copy.keys, 0, size);
+      System.arraycopy(values, 0, copy.values, 0, size);
+      copy.size = size;
+    }
+    return copy;
+  }
+
+  /**
+   * Makes these tags read-only: any later change throws an {@link UnsupportedOperationException}.
+   *
+   * @return these tags
+   */
+  SpanTags freeze() {
+    frozen = true;
+    return this;
+  }
+
+  /**
+   * @param extraKeys the keys of the extra tags, which must not be duplicated
+   * @param extraValues the values of the extra tags
+   * @param extraCount the number of extra tags
+   * @return a read-only view of these frozen tags, with the extra tags added or replacing the ones
+   *     with the same keys
+   */
+  Map<String, Object> withExtraTags(
+      final String[] extraKeys, final Object[] extraValues, final int extraCount) {
+    if (!frozen) {
+      throw new IllegalStateException("Only frozen tags can be viewed with extra tags");
+    }
+    return new ExtraTagsView(extraKeys, extraValues, extraCount);
+  }
+
+  @Override
+  public Object get(final Object key) {
+    if (map != null) {
+      return map.get(key);
+    }
+    final int index = indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    if (map != null) {
+      return map.containsKey(key);
+    }
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return map != null ? map.size() : size;
+  }
+
+  @Override
+  public Object put(final String key, final Object value) {
+    checkNotFrozen();
+    if (map != null) {
+      return map.put(key, value);
+    }
+    final int index = indexOf(key);
+    if (index >= 0) {
+      final Object previous = values[index];
+      values[index] = value;
+      return previous;
+    }
+    if (size == INLINE_CAPACITY) {
+      moveToMap();
+      return map.put(key, value);
+    }
+    if (size == keys.length) {
+      final int capacity = Math.min(INLINE_CAPACITY, size * 2);
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  public Object remove(final Object key) {
+    checkNotFrozen();
+    if (map != null) {
+      return map.remove(key);
+    }
+    final int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    final Object previous = values[index];
+    removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    checkNotFrozen();
+    if (map != null) {
+      map.clear();
+    } else {
+      Arrays.fill(keys, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+      modCount++;
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    if (map != null) {
+      return frozen ? Collections.unmodifiableMap(map).entrySet() : map.entrySet();
+    }
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Frozen span tags cannot be changed");
+    }
+  }
+
+  private int indexOf(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+    for (int i = 0; i < size; i++) {
+      final String k = keys[i];
+      // most keys are constants, so the identity check usually avoids equals
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(final int index) {
+    final int moved = size - index - 1;
+    System.arraycopy(keys, index + 1, keys, index, moved);
+    System.arraycopy(values, index + 1, values, index, moved);
+    size--;
+    keys[size] = null;
+    values[size] = null;
+    modCount++;
+  }
+
+  private void moveToMap() {
+    final HashMap<String, Object> tags = new HashMap<>(INLINE_CAPACITY * 2 * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      tags.put(keys[i], values[i]);
+    }
+    map = tags;
+    keys = null;
+    values = null;
+    size = 0;
+    modCount++;
+  }
+
+  private final class EntryIterator implements Iterator<Entry<String, Object>> {
+    private int index = 0;
+    private int lastReturned = -1;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      checkForComodification();
+      if (index >= size) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = index++;
+      return new InlineEntry(lastReturned);
+    }
+
+    @Override
+    public void remove() {
+      if (lastReturned < 0) {
+        throw new IllegalStateException();
+      }
+      checkNotFrozen();
+      checkForComodification();
+      removeAt(lastReturned);
+      index = lastReturned;
+      lastReturned = -1;
+      expectedModCount = modCount;
+    }
+
+    private void checkForComodification() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+
+  /** An entry writing through to the inline arrays, as post-processors may update values. */
+  private final class InlineEntry implements Entry<String, Object> {
+    private final String key;
+    private final int index;
+
+    InlineEntry(final int index) {
+      this.key = keys[index];
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public Object getValue() {
+      return values[index];
+    }
+
+    @Override
+    public Object setValue(final Object value) {
+      checkNotFrozen();
+      final Object previous = values[index];
+      values[index] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      final Entry<?, ?> other = (Entry<?, ?>) o;
+      final Object value = getValue();
+      return key.equals(other.getKey())
+          && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      final Object value = getValue();
+      return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + getValue();
+    }
+  }
+  /** The frozen tags, with a few extra tags computed by the reader, without copying the tags. */
+  private final class ExtraTagsView extends AbstractMap<String, Object> {
+    private final String[] extraKeys;
+    private final Object[] extraValues;
+    private final int extraCount;
+    private final int size;
+
+    ExtraTagsView(final String[] extraKeys, final Object[] extraValues, final int extraCount) {
+      this.extraKeys = extraKeys;
+      this.extraValues = extraValues;
+      this.extraCount = extraCount;
+      int addedCount = 0;
+      for (int i = 0; i < extraCount; i++) {
+        if (!SpanTags.this.containsKey(extraKeys[i])) {
+          addedCount++;
+        }
+      }
+      this.size = SpanTags.this.size() + addedCount;
+    }
+
+    @Override
+    public Object get(final Object key) {
+      final int index = extraIndexOf(key);
+      return index < 0 ? SpanTags.this.get(key) : extraValues[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return extraIndexOf(key) >= 0 || SpanTags.this.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new ExtraTagsIterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+
+    private int extraIndexOf(final Object key) {
+      for (int i = 0; i < extraCount; i++) {
+        if (extraKeys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /** Iterates over the tags not replaced by an extra tag, then over the extra tags. */
+    private final class ExtraTagsIterator implements Iterator<Entry<String, Object>> {
+      private final Iterator<Entry<String, Object>> tags = SpanTags.this.entrySet().iterator();
+      private Entry<String, Object> nextTag = nextTag();
+      private int extraIndex = 0;
+
+      @Override
+      public boolean hasNext() {
+        return nextTag != null || extraIndex < extraCount;
+      }
+
+      @Override
+      public Entry<String, Object> next() {
+        if (nextTag != null) {
+          final Entry<String, Object> tag = nextTag;
+          nextTag = nextTag();
+          return tag;
+        }
+        if (extraIndex >= extraCount) {
+          throw new NoSuchElementException();
+        }
+        final int index = extraIndex++;
+        return new SimpleImmutableEntry<>(extraKeys[index], extraValues[index]);
+      }
+
+      private Entry<String, Object> nextTag() {
+        while (tags.hasNext()) {
+          final Entry<String, Object> tag = tags.next();
+          if (extraIndexOf(tag.getKey()) < 0) {
+            return tag;
+          }
+        }
+        return null;
+      }
+    }
+  }
+}
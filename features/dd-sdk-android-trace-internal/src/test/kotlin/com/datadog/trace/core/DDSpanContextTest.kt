@@ -277,6 +277,46 @@ internal class DDSpanContextTest : DDCoreSpecification() {
         assertThat(span.resourceName).isEqualTo("fakeResource")
     }
 
+    @Test
+    fun `tags read after a change reflect it`() {
+        // Given
+        val span = tracer.buildSpan(instrumentationName, "fakeOperation").start()
+        val context = span.context() as DDSpanContext
+        context.setTag("some.tag", "before")
+        val tagsBefore = context.tags
+
+        // When
+        context.setTag("some.tag", "after")
+        context.setTag("other.tag", 42)
+
+        // Then
+        assertThat(tagsBefore).containsEntry("some.tag", "before").doesNotContainKey("other.tag")
+        assertThat(context.tags).containsEntry("some.tag", "after").containsEntry("other.tag", 42)
+        assertThat(context.getTag("some.tag")).isEqualTo("after")
+
+        // Tear down
+        span.finish()
+    }
+
+    @Test
+    fun `tags are shared between readers while unchanged`() {
+        // Given
+        val span = tracer.buildSpan(instrumentationName, "fakeOperation").start()
+        val context = span.context() as DDSpanContext
+        context.setTag("some.tag", "value")
+        span.finish()
+        writer.waitForTraces(1)
+
+        // When
+        val first = context.tags
+        val second = context.tags
+
+        // Then
+        assertThat(second).isEqualTo(first)
+        assertThat(second.entries.map { it.key }).containsExactlyInAnyOrderElementsOf(first.keys)
+        assertThat(first).containsEntry(DDTags.THREAD_ID, Thread.currentThread().safeGetThreadId())
+    }
+
     private fun dataTagFormat(name: String): String {
         return "_dd.$name.json"
     }
@@ -0,0 +1,190 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.trace.core
+
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.entry
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+internal class SpanTagsTest {
+
+    private val testedTags = SpanTags()
+
+    @Test
+    fun `tags can be added, replaced and removed`() {
+        // When
+        testedTags["a"] = 1
+        testedTags["b"] = "two"
+        val previous = testedTags.put("a", 3)
+        testedTags.remove("b")
+
+        // Then
+        assertThat(previous).isEqualTo(1)
+        assertThat(testedTags).containsExactly(entry("a", 3))
+        assertThat(testedTags["b"]).isNull()
+    }
+
+    @Test
+    fun `tags are kept W moving past the inline capacity`() {
+        // Given
+        val tagsCount = SpanTags.INLINE_CAPACITY * 2
+
+        // When
+        repeat(tagsCount) { testedTags["tag.$it"] = it }
+        testedTags["tag.3"] = "three"
+        testedTags.remove("tag.4")
+
+        // Then
+        assertThat(testedTags).hasSize(tagsCount - 1)
+        assertThat(testedTags["tag.3"]).isEqualTo("three")
+        assertThat(testedTags["tag.${tagsCount - 1}"]).isEqualTo(tagsCount - 1)
+        assertThat(testedTags).doesNotContainKey("tag.4")
+    }
+
+    @Test
+    fun `tags are looked up by equality`() {
+        // Given
+        testedTags["a.key"] = 1
+
+        // When
+        val result = testedTags[StringBuilder("a.").append("key").toString()]
+
+        // Then
+        assertThat(result).isEqualTo(1)
+    }
+
+    @Test
+    fun `copy is not affected by later changes`() {
+        // Given
+        testedTags["a"] = 1
+        testedTags["b"] = 2
+        val copy = testedTags.copy(1)
+
+        // When
+        testedTags["a"] = 3
+        testedTags.remove("b")
+        copy["c"] = 4
+
+        // Then
+        assertThat(copy).containsExactly(entry("a", 1), entry("b", 2), entry("c", 4))
+        assertThat(testedTags).containsExactly(entry("a", 3))
+    }
+
+    @Test
+    fun `copy keeps all tags W copy() {map mode, few tags}`() {
+        // Given
+        val tags = SpanTags(SpanTags.INLINE_CAPACITY + 1)
+        tags["a"] = 1
+        tags["b"] = 2
+
+        // When
+        val copy = tags.copy(5)
+        copy["c"] = 3
+
+        // Then
+        assertThat(copy).containsOnly(entry("a", 1), entry("b", 2), entry("c", 3))
+    }
+
+    @Test
+    fun `copy keeps all tags W copy() {tags removed after moving past the inline capacity}`() {
+        // Given
+        val tagsCount = SpanTags.INLINE_CAPACITY + 1
+        repeat(tagsCount) { testedTags["tag.$it"] = it }
+        repeat(tagsCount - 2) { testedTags.remove("tag.$it") }
+
+        // When
+        val copy = testedTags.copy(1)
+        copy["other"] = -1
+
+        // Then
+        assertThat(copy).containsOnly(
+            entry("tag.${tagsCount - 2}", tagsCount - 2),
+            entry("tag.${tagsCount - 1}", tagsCount - 1),
+            entry("other", -1)
+        )
+    }
+
+    @Test
+    fun `frozen tags cannot be changed`() {
+        // Given
+        testedTags["a"] = 1
+        testedTags.freeze()
+
+        // Then
+        assertThrows<UnsupportedOperationException> { testedTags["b"] = 2 }
+        assertThrows<UnsupportedOperationException> { testedTags.remove("a") }
+        assertThrows<UnsupportedOperationException> { testedTags.entries.first().setValue(3) }
+        assertThat(testedTags).containsExactly(entry("a", 1))
+    }
+
+    @Test
+    fun `view adds and replaces tags W withExtraTags()`() {
+        // Given
+        testedTags["a"] = 1
+        testedTags["b"] = 2
+        testedTags.freeze()
+
+        // When
+        val result = testedTags.withExtraTags(arrayOf("b", "c", "unused"), arrayOf(20, 30, 0), 2)
+
+        // Then
+        assertThat(result).hasSize(3)
+        assertThat(result).containsExactly(entry("a", 1), entry("b", 20), entry("c", 30))
+        assertThat(result["b"]).isEqualTo(20)
+        assertThat(result).doesNotContainKey("unused")
+        assertThat(testedTags).containsExactly(entry("a", 1), entry("b", 2))
+    }
+
+    @Test
+    fun `view is read-only W withExtraTags()`() {
+        // Given
+        testedTags.freeze()
+        val result = testedTags.withExtraTags(arrayOf("a"), arrayOf(1), 1)
+
+        // Then
+        assertThrows<UnsupportedOperationException> { result["b"] = 2 }
+    }
+
+    @Test
+    fun `entries write through W setValue() and iterator remove()`() {
+        // Given
+        testedTags["a"] = 1
+        testedTags["b"] = 2
+        testedTags["c"] = 3
+
+        // When
+        val iterator = testedTags.entries.iterator()
+        while (iterator.hasNext()) {
+            val tag = iterator.next()
+            if (tag.key == "b") {
+                iterator.remove()
+            } else {
+                tag.setValue((tag.value as Int) * 10)
+            }
+        }
+
+        // Then
+        assertThat(testedTags).containsExactly(entry("a", 10), entry("c", 30))
+    }
+
+    @Test
+    fun `iterator fails fast W tag added while iterating`() {
+        // Given
+        testedTags["a"] = 1
+        val iterator = testedTags.entries.iterator()
+        iterator.next()
+
+        // When
+        testedTags["b"] = 2
+
+        // Then
+        assertThrows<ConcurrentModificationException> {
+            iterator.next()
+        }
+    }
+}
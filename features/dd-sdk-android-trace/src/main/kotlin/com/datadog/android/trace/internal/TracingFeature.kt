@@ -13,8 +13,10 @@ import com.datadog.android.api.feature.StorageBackedFeature
 import com.datadog.android.api.net.RequestFactory
 import com.datadog.android.api.storage.FeatureStorageConfiguration
 import com.datadog.android.trace.InternalCoreWriterProvider
+import com.datadog.android.trace.event.NoOpSpanEventMapper
 import com.datadog.android.trace.event.SpanEventMapper
 import com.datadog.android.trace.internal.data.CoreTraceWriter
+import com.datadog.android.trace.internal.domain.event.CoreTracerSpanEncoder
 import com.datadog.android.trace.internal.domain.event.CoreTracerSpanToSpanEventMapper
 import com.datadog.android.trace.internal.domain.event.SpanEventMapperWrapper
 import com.datadog.android.trace.internal.domain.event.SpanEventSerializer
@@ -69,12 +71,21 @@ internal class TracingFeature(
 
     private fun createDataWriter(sdkCore: FeatureSdkCore): Writer {
         val internalLogger = sdkCore.internalLogger
+        val spanMapper = CoreTracerSpanToSpanEventMapper(networkInfoEnabled)
+        val serializer = SpanEventSerializer(internalLogger)
         return CoreTraceWriter(
             sdkCore,
-            ddSpanToSpanEventMapper = CoreTracerSpanToSpanEventMapper(networkInfoEnabled),
+            ddSpanToSpanEventMapper = spanMapper,
             eventMapper = SpanEventMapperWrapper(spanEventMapper, internalLogger),
-            serializer = SpanEventSerializer(internalLogger),
-            internalLogger = internalLogger
+            serializer = serializer,
+            internalLogger = internalLogger,
+            // the span event mapper needs the SpanEvent models, which the encoder doesn't build
+            spanEncoder = if (spanEventMapper is NoOpSpanEventMapper) {
+                CoreTracerSpanEncoder(spanMapper, serializer)
+            } else {
+                null
+            },
+            maxItemSize = storageConfiguration.maxItemSize
         )
     }
 }
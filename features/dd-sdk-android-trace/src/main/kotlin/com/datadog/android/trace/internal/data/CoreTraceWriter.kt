@@ -19,6 +19,7 @@ import com.datadog.android.event.NoOpEventMapper
 import com.datadog.android.trace.internal.RumContextPropagator
 import com.datadog.android.trace.internal.RumContextPropagator.Companion.extractRumContext
 import com.datadog.android.trace.internal.domain.event.ContextAwareMapper
+import com.datadog.android.trace.internal.domain.event.CoreTracerSpanEncoder
 import com.datadog.android.trace.internal.storage.ContextAwareSerializer
 import com.datadog.android.trace.model.SpanEvent
 import com.datadog.trace.api.sampling.PrioritySampling
@@ -32,9 +33,14 @@ internal class CoreTraceWriter(
     internal val eventMapper: EventMapper<SpanEvent> = NoOpEventMapper(),
     private val serializer: ContextAwareSerializer<SpanEvent>,
     private val internalLogger: InternalLogger,
-    private val rumContextPropagator: RumContextPropagator = RumContextPropagator { sdkCore }
+    private val rumContextPropagator: RumContextPropagator = RumContextPropagator { sdkCore },
+    internal val spanEncoder: CoreTracerSpanEncoder? = null,
+    maxItemSize: Long
 ) : Writer {
 
+    // leaves room for the payload envelope, so that an event never exceeds the max item size
+    internal val maxTracePayloadSize = maxItemSize / 2
+
     // region Writer
     override fun start() {
         // NO - OP
@@ -47,13 +53,19 @@ internal class CoreTraceWriter(
                 val writeSpans = trace
                     .filter { it.getTraceSamplingPriority() !in DROP_SAMPLING_PRIORITIES }
                     .map { it.extractRumContext(rumContextPropagator) }
-                // TODO RUM-4092 Add the capability in the serializer to handle multiple spans in one payload
+                val encoder = spanEncoder
                 writeScope {
-                    writeSpans
-                        .forEach { span ->
-                            @Suppress("ThreadSafety") // called in the worker context
-                            writeSpan(datadogContext, it, span)
-                        }
+                    if (encoder != null) {
+                        @Suppress("ThreadSafety") // called in the worker context
+                        writeEncodedTrace(datadogContext, it, writeSpans, encoder)
+                    } else {
+                        // TODO RUM-4092 Add the capability in the serializer to handle multiple spans in one payload
+                        writeSpans
+                            .forEach { span ->
+                                @Suppress("ThreadSafety") // called in the worker context
+                                writeSpan(datadogContext, it, span)
+                            }
+                    }
                 }
             }
     }
@@ -97,8 +109,79 @@ internal class CoreTraceWriter(
         }
     }
 
+    /**
+     * Writes all the spans of a trace in as few events as possible, each event holding the spans
+     * in the order of the trace, and staying under [maxTracePayloadSize] unless a single span
+     * is bigger than that.
+     */
+    @WorkerThread
+    private fun writeEncodedTrace(
+        datadogContext: DatadogContext,
+        writer: EventBatchWriter,
+        spans: List<DDSpan>,
+        encoder: CoreTracerSpanEncoder
+    ) {
+        var chunk = mutableListOf<ByteArray>()
+        var chunkSize = 0L
+        spans.forEach { span ->
+            val encodedSpan = encodeSpan(datadogContext, span, encoder) ?: return@forEach
+            if (chunk.isNotEmpty() && chunkSize + encodedSpan.size > maxTracePayloadSize) {
+                writeEncodedChunk(datadogContext, writer, chunk, encoder)
+                chunk = mutableListOf()
+                chunkSize = 0L
+            }
+            chunk.add(encodedSpan)
+            // account for the separator between spans
+            chunkSize += encodedSpan.size + 1
+        }
+        if (chunk.isNotEmpty()) {
+            writeEncodedChunk(datadogContext, writer, chunk, encoder)
+        }
+    }
+
+    @WorkerThread
+    private fun encodeSpan(
+        datadogContext: DatadogContext,
+        span: DDSpan,
+        encoder: CoreTracerSpanEncoder
+    ): ByteArray? {
+        return try {
+            encoder.encodeSpan(datadogContext, span)
+        } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
+            logSerializationError(e)
+            null
+        }
+    }
+
+    @WorkerThread
+    private fun writeEncodedChunk(
+        datadogContext: DatadogContext,
+        writer: EventBatchWriter,
+        encodedSpans: List<ByteArray>,
+        encoder: CoreTracerSpanEncoder
+    ) {
+        try {
+            val serialized = encoder.encodePayload(datadogContext, encodedSpans)
+            synchronized(this) {
+                writer.write(RawBatchEvent(data = serialized), batchMetadata = null, eventType = EventType.DEFAULT)
+            }
+        } catch (@Suppress("TooGenericExceptionCaught") e: Throwable) {
+            logSerializationError(e)
+        }
+    }
+
+    private fun logSerializationError(e: Throwable) {
+        internalLogger.log(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            { ERROR_SERIALIZING.format(Locale.US, SpanEvent::class.java.simpleName) },
+            e
+        )
+    }
+
     companion object {
         internal const val ERROR_SERIALIZING = "Error serializing %s model"
+
         internal val DROP_SAMPLING_PRIORITIES = setOf(
             PrioritySampling.SAMPLER_DROP.toInt(),
             PrioritySampling.USER_DROP.toInt()
@@ -0,0 +1,250 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.trace.internal.domain.event
+
+import androidx.annotation.WorkerThread
+import com.datadog.android.api.context.DatadogContext
+import com.datadog.android.log.LogAttributes
+import com.datadog.android.trace.internal.domain.event.CoreTracerSpanToSpanEventMapper.Companion.SPAN_LINKS_KEY
+import com.datadog.android.trace.model.SpanEvent
+import com.datadog.trace.core.DDSpan
+import com.google.gson.stream.JsonWriter
+import java.io.ByteArrayOutputStream
+import java.io.OutputStreamWriter
+
+/**
+ * Encodes a [DDSpan] straight into the JSON payload written in the batch files, producing the
+ * same payload as mapping it with [CoreTracerSpanToSpanEventMapper] and serializing the resulting
+ * [SpanEvent] with [SpanEventSerializer], but without building the intermediate models.
+ *
+ * The part of the metadata which only depends on the [DatadogContext] (user, account, device, …)
+ * is resolved and sanitized once per context, and reused for all the spans written with it.
+ *
+ * Spans can be encoded one by one with [encodeSpan], and then grouped in a single payload with
+ * [encodePayload], so that all the spans of a trace can be written in a single event.
+ *
+ * This can only be used when no [com.datadog.android.trace.event.SpanEventMapper] is set, as the
+ * mapper needs a [SpanEvent] instance.
+ */
+internal class CoreTracerSpanEncoder(
+    internal val spanMapper: CoreTracerSpanToSpanEventMapper,
+    internal val serializer: SpanEventSerializer
+) {
+
+    @Volatile
+    private var lastContextMeta: ContextMeta? = null
+
+    /**
+     * @param datadogContext the context the span is written with
+     * @param span the span to encode
+     * @return the UTF-8 encoded JSON object of the span alone, to be wrapped with [encodePayload]
+     */
+    @WorkerThread
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    fun encodeSpan(datadogContext: DatadogContext, span: DDSpan): ByteArray {
+        val outputStream = ByteArrayOutputStream()
+        val jsonWriter = JsonWriter(OutputStreamWriter(outputStream, Charsets.UTF_8)).apply { isLenient = true }
+
+        writeSpan(jsonWriter, datadogContext, span)
+        jsonWriter.flush()
+
+        return outputStream.toByteArray()
+    }
+
+    /**
+     * @param datadogContext the context the spans were encoded with
+     * @param encodedSpans the spans returned by [encodeSpan], in the order they must be written
+     * @return the UTF-8 encoded JSON payload holding all the spans
+     */
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    fun encodePayload(datadogContext: DatadogContext, encodedSpans: List<ByteArray>): ByteArray {
+        val outputStream = ByteArrayOutputStream(
+            encodedSpans.sumOf { it.size + 1 } + PAYLOAD_PREFIX.size + PAYLOAD_ENV_PREFIX.size
+        )
+
+        outputStream.write(PAYLOAD_PREFIX)
+        encodedSpans.forEachIndexed { index, encodedSpan ->
+            if (index > 0) outputStream.write(SPAN_SEPARATOR)
+            outputStream.write(encodedSpan)
+        }
+        outputStream.write(PAYLOAD_ENV_PREFIX)
+        val jsonWriter = JsonWriter(OutputStreamWriter(outputStream, Charsets.UTF_8)).apply { isLenient = true }
+        jsonWriter.value(datadogContext.env)
+        jsonWriter.flush()
+        outputStream.write(PAYLOAD_SUFFIX)
+
+        return outputStream.toByteArray()
+    }
+
+    // region Internal
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    private fun writeSpan(writer: JsonWriter, datadogContext: DatadogContext, span: DDSpan) {
+        val tags = span.tags
+
+        writer.beginObject()
+        writer.name(KEY_TRACE_ID).value(spanMapper.resolveLeastSignificantTraceId(span))
+        writer.name(KEY_SPAN_ID).value(spanMapper.resolveSpanId(span))
+        writer.name(KEY_PARENT_ID).value(spanMapper.resolveParentId(span))
+        writer.name(KEY_RESOURCE).value(span.resourceName.toString())
+        writer.name(KEY_NAME).value(span.operationName.toString())
+        writer.name(KEY_SERVICE).value(span.serviceName)
+        writer.name(KEY_DURATION).value(span.durationNano)
+        writer.name(KEY_START).value(span.startTime + datadogContext.time.serverTimeOffsetNs)
+        writer.name(KEY_ERROR).value(span.error.toLong())
+        writer.name(KEY_TYPE).value(SPAN_TYPE_CUSTOM)
+        writer.name(KEY_METRICS)
+        writeMetrics(writer, span, tags)
+        writer.name(KEY_META)
+        writeMeta(writer, datadogContext, span, tags)
+        writer.endObject()
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    private fun writeMetrics(writer: JsonWriter, span: DDSpan, tags: Map<String, Any>) {
+        val metrics = serializer.sanitizeMetricValues(spanMapper.resolveMetricValues(span, tags))
+
+        writer.beginObject()
+        if (span.parentId == 0L) {
+            writer.name(KEY_TOP_LEVEL).value(1L)
+        }
+        metrics.forEach { (key, value) ->
+            if (key !in SpanEvent.Metrics.RESERVED_PROPERTIES) {
+                writer.name(key).value(value)
+            }
+        }
+        writer.endObject()
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    private fun writeMeta(
+        writer: JsonWriter,
+        datadogContext: DatadogContext,
+        span: DDSpan,
+        tags: Map<String, Any>
+    ) {
+        val contextMeta = resolveContextMeta(datadogContext)
+        val spanLinks = spanMapper.resolveSpanLinks(span)
+
+        writer.beginObject()
+        writer.name(KEY_VERSION).value(contextMeta.version)
+        writer.name(KEY_DD)
+        writeDd(writer, contextMeta.dd.source, tags)
+        writer.name(KEY_SPAN)
+        contextMeta.span.writeTo(writer)
+        writer.name(KEY_TRACER)
+        contextMeta.tracer.writeTo(writer)
+        writer.name(KEY_USR)
+        contextMeta.usr.writeTo(writer)
+        contextMeta.account?.let {
+            writer.name(KEY_ACCOUNT)
+            it.writeTo(writer)
+        }
+        contextMeta.network?.let {
+            writer.name(KEY_NETWORK)
+            it.writeTo(writer)
+        }
+        writer.name(KEY_DEVICE)
+        contextMeta.device.writeTo(writer)
+        writer.name(KEY_OS)
+        contextMeta.os.writeTo(writer)
+
+        // same precedence as the mapper: baggage < tags < span level metadata
+        span.baggage.forEach { (key, value) ->
+            if (key !in tags && isAdditionalMetaKey(key, spanLinks)) {
+                writer.name(key).value(value)
+            }
+        }
+        tags.forEach { (key, value) ->
+            if (isAdditionalMetaKey(key, spanLinks)) {
+                writer.name(key).value(value.toString())
+            }
+        }
+        writer.name(TRACE_ID_META_KEY).value(spanMapper.resolveMostSignificantTraceId(span))
+        writer.name(APPLICATION_VARIANT_KEY).value(datadogContext.variant)
+        spanLinks?.let { writer.name(SPAN_LINKS_KEY).value(it) }
+        writer.endObject()
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    private fun writeDd(writer: JsonWriter, source: String?, tags: Map<String, Any>) {
+        writer.beginObject()
+        source?.let { writer.name(KEY_SOURCE).value(it) }
+        writeIdObject(writer, KEY_APPLICATION, tags[LogAttributes.RUM_APPLICATION_ID])
+        writeIdObject(writer, KEY_SESSION, tags[LogAttributes.RUM_SESSION_ID])
+        writeIdObject(writer, KEY_VIEW, tags[LogAttributes.RUM_VIEW_ID])
+        writer.endObject()
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
+    private fun writeIdObject(writer: JsonWriter, name: String, id: Any?) {
+        if (id == null) return
+        writer.name(name).beginObject()
+        (id as? String)?.let { writer.name(KEY_ID).value(it) }
+        writer.endObject()
+    }
+
+    private fun isAdditionalMetaKey(key: String, spanLinks: String?): Boolean {
+        return key !in SpanEvent.Meta.RESERVED_PROPERTIES &&
+            key != TRACE_ID_META_KEY &&
+            key != APPLICATION_VARIANT_KEY &&
+            (spanLinks == null || key != SPAN_LINKS_KEY)
+    }
+
+    private fun resolveContextMeta(datadogContext: DatadogContext): SpanEvent.Meta {
+        lastContextMeta?.let {
+            if (it.datadogContext === datadogContext) return it.meta
+        }
+        val meta = serializer.sanitizeContextMeta(spanMapper.resolveContextMeta(datadogContext))
+        lastContextMeta = ContextMeta(datadogContext, meta)
+        return meta
+    }
+
+    // endregion
+
+    private class ContextMeta(
+        val datadogContext: DatadogContext,
+        val meta: SpanEvent.Meta
+    )
+
+    companion object {
+        private const val SPAN_TYPE_CUSTOM = "custom"
+
+        private val PAYLOAD_PREFIX = "{\"${SpanEventSerializer.TAG_SPANS}\":[".toByteArray(Charsets.UTF_8)
+        private val PAYLOAD_ENV_PREFIX = "],\"${SpanEventSerializer.TAG_ENV}\":".toByteArray(Charsets.UTF_8)
+        private val SPAN_SEPARATOR = ','.code
+        private val PAYLOAD_SUFFIX = '}'.code
+
+        private const val KEY_TRACE_ID = "trace_id"
+        private const val KEY_SPAN_ID = "span_id"
+        private const val KEY_PARENT_ID = "parent_id"
+        private const val KEY_RESOURCE = "resource"
+        private const val KEY_NAME = "name"
+        private const val KEY_SERVICE = "service"
+        private const val KEY_DURATION = "duration"
+        private const val KEY_START = "start"
+        private const val KEY_ERROR = "error"
+        private const val KEY_TYPE = "type"
+        private const val KEY_METRICS = "metrics"
+        private const val KEY_TOP_LEVEL = "_top_level"
+        private const val KEY_META = "meta"
+        private const val KEY_VERSION = "version"
+        private const val KEY_DD = "_dd"
+        private const val KEY_SOURCE = "source"
+        private const val KEY_APPLICATION = "application"
+        private const val KEY_SESSION = "session"
+        private const val KEY_VIEW = "view"
+        private const val KEY_ID = "id"
+        private const val KEY_SPAN = "span"
+        private const val KEY_TRACER = "tracer"
+        private const val KEY_USR = "usr"
+        private const val KEY_ACCOUNT = "account"
+        private const val KEY_NETWORK = "network"
+        private const val KEY_DEVICE = "device"
+        private const val KEY_OS = "os"
+    }
+}
@@ -27,11 +27,11 @@ internal class CoreTracerSpanToSpanEventMapper(
 
     override fun map(datadogContext: DatadogContext, model: DDSpan): SpanEvent {
         val serverOffset = datadogContext.time.serverTimeOffsetNs
-        val metrics = resolveMetrics(model)
-        val metadata = resolveMeta(datadogContext, model)
-        val lessSignificantTraceId = LongStringUtils.toHexStringPadded(model.traceId.toLong(), TRACE_ID_HEXA_SIZE)
+        val tags = model.tags
+        val metrics = resolveMetrics(model, tags)
+        val metadata = resolveMeta(datadogContext, model, tags)
         return SpanEvent(
-            traceId = lessSignificantTraceId,
+            traceId = resolveLeastSignificantTraceId(model),
             spanId = resolveSpanId(model),
             parentId = resolveParentId(model),
             resource = model.resourceName.toString(),
@@ -47,77 +47,53 @@ internal class CoreTracerSpanToSpanEventMapper(
 
     // endregion
 
-    // region internal
-
-    private fun resolveSpanId(model: DDSpan): String {
-        // the span id is always 64 bits long so we can pad it with zeros
-        return DDSpanId.toHexStringPadded(model.spanId)
-    }
-
-    private fun resolveParentId(model: DDSpan): String {
-        return DDSpanId.toHexStringPadded(model.parentId)
-    }
-
-    private fun resolveMetrics(event: DDSpan): SpanEvent.Metrics {
-        val metrics = resolveMetricsFromSpanContext(event).apply {
-            val spanSamplingPriority = event.spanSamplingPriority
-            if (spanSamplingPriority != PrioritySampling.UNSET.toInt()) {
-                // This required for backward compatibility with AndroidTracer that
-                // don't add the sampling priority if it not set for current span.
-                this[DDSpanContext.PRIORITY_SAMPLING_KEY] = spanSamplingPriority
-            }
-        }
-        return SpanEvent.Metrics(
-            topLevel = if (event.parentId == 0L) 1 else null,
-            additionalProperties = metrics
-        )
-    }
+    // region Span Encoding
 
-    private fun resolveMeta(datadogContext: DatadogContext, event: DDSpan): SpanEvent.Meta {
-        val deviceInfo = resolveDeviceInfo(datadogContext.deviceInfo)
-        val osInfo = resolveOsInfo(datadogContext.deviceInfo)
+    /**
+     * Resolves the part of the [SpanEvent.Meta] which only depends on the [DatadogContext] (i.e.:
+     * the same for all the spans written with this context), without any span attributes.
+     */
+    internal fun resolveContextMeta(datadogContext: DatadogContext): SpanEvent.Meta {
         val networkInfoMeta = if (networkInfoEnabled) resolveNetworkInfo(datadogContext.networkInfo) else null
         val userInfo = datadogContext.userInfo
-        val accountInfo = datadogContext.accountInfo
         val usrMeta = SpanEvent.Usr(
             id = userInfo.id,
             name = userInfo.name,
             email = userInfo.email,
             additionalProperties = userInfo.additionalProperties.toMutableMap()
         )
-        val accountMeta = accountInfo?.let { resolveAccountInfo(it) }
-        val dd = SpanEvent.Dd(
-            source = datadogContext.source,
-            application = event.tags[LogAttributes.RUM_APPLICATION_ID]?.let { SpanEvent.Application(it as? String) },
-            session = event.tags[LogAttributes.RUM_SESSION_ID]?.let { SpanEvent.Session(it as? String) },
-            view = event.tags[LogAttributes.RUM_VIEW_ID]?.let { SpanEvent.View(it as? String) }
-        )
-        val mostSignificantTraceId =
-            LongStringUtils.toHexStringPadded(event.traceId.toHighOrderLong(), TRACE_ID_HEXA_SIZE)
-        val tags = event.tags.mapValues { it.value.toString() }
-        val meta = mutableMapOf<String, String>()
-        meta.putAll(event.baggage)
-        meta.putAll(tags)
-        meta[TRACE_ID_META_KEY] = mostSignificantTraceId
-        meta[APPLICATION_VARIANT_KEY] = datadogContext.variant
-        resolveSpanLinks(event)?.let { meta[SPAN_LINKS_KEY] = it }
         return SpanEvent.Meta(
             version = datadogContext.version,
-            dd = dd,
+            dd = SpanEvent.Dd(source = datadogContext.source),
             span = SpanEvent.Span(),
             tracer = SpanEvent.Tracer(
                 version = datadogContext.sdkVersion
             ),
             usr = usrMeta,
-            account = accountMeta,
+            account = datadogContext.accountInfo?.let { resolveAccountInfo(it) },
             network = networkInfoMeta,
-            device = deviceInfo,
-            os = osInfo,
-            additionalProperties = meta
+            device = resolveDeviceInfo(datadogContext.deviceInfo),
+            os = resolveOsInfo(datadogContext.deviceInfo)
         )
     }
 
-    private fun resolveSpanLinks(model: DDSpan): String? {
+    internal fun resolveMetricValues(span: DDSpan, tags: Map<String, Any?>): MutableMap<String, Number> {
+        val metrics = mutableMapOf<String, Number>()
+        tags.forEach { (key, value) ->
+            if (value is Number) {
+                metrics[key] = value
+            }
+        }
+        val spanSamplingPriority = span.spanSamplingPriority
+        if (spanSamplingPriority != PrioritySampling.UNSET.toInt()) {
+            // This required for backward compatibility with AndroidTracer that
+            // don't add the sampling priority if it not set for current span.
+            metrics[DDSpanContext.PRIORITY_SAMPLING_KEY] = spanSamplingPriority
+        }
+        return metrics
+    }
+
+    internal fun resolveSpanLinks(model: DDSpan): String? {
         if (model.links.isEmpty()) return null
         return model.links.map { resolveSpanLink(it) }.fold(JsonArray()) { acc, link ->
             acc.add(link)
@@ -125,6 +101,57 @@ internal class CoreTracerSpanToSpanEventMapper(
         }.toString()
     }
 
+    internal fun resolveLeastSignificantTraceId(model: DDSpan): String {
+        return LongStringUtils.toHexStringPadded(model.traceId.toLong(), TRACE_ID_HEXA_SIZE)
+    }
+
+    internal fun resolveMostSignificantTraceId(model: DDSpan): String {
+        return LongStringUtils.toHexStringPadded(model.traceId.toHighOrderLong(), TRACE_ID_HEXA_SIZE)
+    }
+
+    internal fun resolveSpanId(model: DDSpan): String {
+        // the span id is always 64 bits long so we can pad it with zeros
+        return DDSpanId.toHexStringPadded(model.spanId)
+    }
+
+    internal fun resolveParentId(model: DDSpan): String {
+        return DDSpanId.toHexStringPadded(model.parentId)
+    }
+
+    // endregion
+
+    // region internal
+
+    private fun resolveMetrics(event: DDSpan, tags: Map<String, Any?>): SpanEvent.Metrics {
+        return SpanEvent.Metrics(
+            topLevel = if (event.parentId == 0L) 1 else null,
+            additionalProperties = resolveMetricValues(event, tags)
+        )
+    }
+
+    private fun resolveMeta(
+        datadogContext: DatadogContext,
+        event: DDSpan,
+        tags: Map<String, Any>
+    ): SpanEvent.Meta {
+        val contextMeta = resolveContextMeta(datadogContext)
+        val dd = contextMeta.dd.copy(
+            application = tags[LogAttributes.RUM_APPLICATION_ID]?.let { SpanEvent.Application(it as? String) },
+            session = tags[LogAttributes.RUM_SESSION_ID]?.let { SpanEvent.Session(it as? String) },
+            view = tags[LogAttributes.RUM_VIEW_ID]?.let { SpanEvent.View(it as? String) }
+        )
+        val meta = mutableMapOf<String, String>()
+        meta.putAll(event.baggage)
+        tags.forEach { (key, value) -> meta[key] = value.toString() }
+        meta[TRACE_ID_META_KEY] = resolveMostSignificantTraceId(event)
+        meta[APPLICATION_VARIANT_KEY] = datadogContext.variant
+        resolveSpanLinks(event)?.let { meta[SPAN_LINKS_KEY] = it }
+        return contextMeta.copy(
+            dd = dd,
+            additionalProperties = meta
+        )
+    }
+
     private fun resolveSpanLink(link: AgentSpanLink): JsonObject {
         // The SpanLinks support the full 128 bits trace so we can use the full hex string
         val linkedTraceId = link.traceId().toHexString()
@@ -146,13 +173,6 @@ internal class CoreTracerSpanToSpanEventMapper(
         return spanLink
     }
 
-    private fun resolveMetricsFromSpanContext(span: DDSpan): MutableMap<String, Number> {
-        return span.tags
-            .filterValues { it is Number }
-            .mapValues { it.value as Number }
-            .toMutableMap()
-    }
-
     private fun toJson(map: Map<String, String>): JsonObject {
         val jsonObject = JsonObject()
         map.forEach { (key, value) ->
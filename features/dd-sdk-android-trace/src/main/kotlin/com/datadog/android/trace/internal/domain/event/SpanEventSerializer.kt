@@ -13,9 +13,9 @@ import com.datadog.android.core.constraints.DatadogDataConstraints
 import com.datadog.android.internal.utils.NULL_MAP_VALUE
 import com.datadog.android.trace.internal.storage.ContextAwareSerializer
 import com.datadog.android.trace.model.SpanEvent
-import com.google.gson.JsonArray
-import com.google.gson.JsonObject
 import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonWriter
+import java.io.StringWriter
 import java.util.Date
 
 internal class SpanEventSerializer(
@@ -25,16 +25,40 @@ internal class SpanEventSerializer(
 
     // region Serializer
 
+    @Suppress("UnsafeThirdPartyFunctionCall") // writing in memory, no IOException expected
     override fun serialize(datadogContext: DatadogContext, model: SpanEvent): String {
-        val span = sanitizeKeys(model).toJson()
-        val spans = JsonArray(1)
-        spans.add(span)
+        val span = sanitizeKeys(model)
+        val stringWriter = StringWriter()
+        val jsonWriter = JsonWriter(stringWriter).apply { isLenient = true }
+
+        jsonWriter.beginObject()
+        jsonWriter.name(TAG_SPANS).beginArray()
+        span.writeTo(jsonWriter)
+        jsonWriter.endArray()
+        jsonWriter.name(TAG_ENV).value(datadogContext.env)
+        jsonWriter.endObject()
+        jsonWriter.flush()
+
+        return stringWriter.toString()
+    }
+
+    // endregion
 
-        val jsonObject = JsonObject()
-        jsonObject.add(TAG_SPANS, spans)
-        jsonObject.addProperty(TAG_ENV, datadogContext.env)
+    // region Span Encoding
 
-        return jsonObject.toString()
+    internal fun sanitizeContextMeta(meta: SpanEvent.Meta): SpanEvent.Meta {
+        val newUserObject = sanitizeUserAttributes(meta.usr)
+        val newAccountObject = meta.account?.let {
+            sanitizeAccountAttributes(it)
+        }
+        return meta.copy(usr = newUserObject, account = newAccountObject)
+    }
+
+    internal fun sanitizeMetricValues(metrics: Map<String, Number>): MutableMap<String, Number> {
+        return dataConstraints.validateAttributes(
+            metrics,
+            METRICS_KEY_PREFIX
+        )
     }
 
     // endregion
@@ -42,14 +66,11 @@ internal class SpanEventSerializer(
     // region Internal
 
     private fun sanitizeKeys(model: SpanEvent): SpanEvent {
-        val newUserObject = sanitizeUserAttributes(model.meta.usr)
-        val newAccountObject = model.meta.account?.let {
-            sanitizeAccountAttributes(it)
-        }
-        val newMetricsObject = sanitizeMetrics(model.metrics)
         return model.copy(
-            meta = model.meta.copy(usr = newUserObject, account = newAccountObject),
-            metrics = newMetricsObject
+            meta = sanitizeContextMeta(model.meta),
+            metrics = model.metrics.copy(
+                additionalProperties = sanitizeMetricValues(model.metrics.additionalProperties)
+            )
         )
     }
 
@@ -96,16 +117,6 @@ internal class SpanEventSerializer(
         }
     }
 
-    private fun sanitizeMetrics(metrics: SpanEvent.Metrics): SpanEvent.Metrics {
-        val transformedMetrics = dataConstraints.validateAttributes(
-            metrics.additionalProperties,
-            METRICS_KEY_PREFIX
-        )
-        return metrics.copy(
-            additionalProperties = transformedMetrics
-        )
-    }
-
     private fun toMetaString(element: Any?): String? {
         return when (element) {
             NULL_MAP_VALUE -> null
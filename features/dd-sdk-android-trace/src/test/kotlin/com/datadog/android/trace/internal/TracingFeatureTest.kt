@@ -10,6 +10,7 @@ import com.datadog.android.api.InternalLogger
 import com.datadog.android.api.feature.Feature
 import com.datadog.android.api.feature.FeatureSdkCore
 import com.datadog.android.api.storage.FeatureStorageConfiguration
+import com.datadog.android.trace.event.NoOpSpanEventMapper
 import com.datadog.android.trace.event.SpanEventMapper
 import com.datadog.android.trace.internal.data.CoreTraceWriter
 import com.datadog.android.trace.internal.domain.event.CoreTracerSpanToSpanEventMapper
@@ -81,6 +82,8 @@ internal class TracingFeatureTest {
         assertThat(ddSpanToSpanEventMapper).isInstanceOf(CoreTracerSpanToSpanEventMapper::class.java)
         assertThat((ddSpanToSpanEventMapper as CoreTracerSpanToSpanEventMapper).networkInfoEnabled)
             .isEqualTo(fakeNetworkInfoEnabled)
+        assertThat(traceWriter.maxTracePayloadSize)
+            .isEqualTo(testedFeature.storageConfiguration.maxItemSize / 2)
     }
 
     @Test
@@ -95,6 +98,36 @@ internal class TracingFeatureTest {
         assertThat(spanEventMapper).isSameAs(mockSpanEventMapper)
     }
 
+    @Test
+    fun `M not use the span encoder W initialize() {custom eventMapper}`() {
+        // When
+        testedFeature.onInitialize(mock())
+
+        // Then
+        val dataWriter = testedFeature.coreTracerDataWriter as? CoreTraceWriter
+        assertThat(dataWriter?.spanEncoder).isNull()
+    }
+
+    @Test
+    fun `M use the span encoder W initialize() {no-op eventMapper}`() {
+        // Given
+        testedFeature = TracingFeature(
+            mockSdkCore,
+            fakeEndpointUrl,
+            NoOpSpanEventMapper(),
+            fakeNetworkInfoEnabled
+        )
+
+        // When
+        testedFeature.onInitialize(mock())
+
+        // Then
+        val dataWriter = testedFeature.coreTracerDataWriter as CoreTraceWriter
+        val spanEncoder = dataWriter.spanEncoder
+        assertThat(spanEncoder).isNotNull
+        assertThat(spanEncoder?.spanMapper).isSameAs(dataWriter.ddSpanToSpanEventMapper)
+    }
+
     @Test
     fun `M provide tracing feature name W name()`() {
         // When+Then
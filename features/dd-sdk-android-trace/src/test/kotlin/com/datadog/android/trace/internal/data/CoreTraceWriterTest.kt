@@ -19,6 +19,7 @@ import com.datadog.android.event.EventMapper
 import com.datadog.android.log.LogAttributes
 import com.datadog.android.trace.internal.RumContextPropagator
 import com.datadog.android.trace.internal.domain.event.ContextAwareMapper
+import com.datadog.android.trace.internal.domain.event.CoreTracerSpanEncoder
 import com.datadog.android.trace.internal.storage.ContextAwareSerializer
 import com.datadog.android.trace.model.SpanEvent
 import com.datadog.android.trace.utils.RumContextTestsUtils.RUM_CONTEXT_ACTION_ID
@@ -31,6 +32,7 @@ import com.datadog.android.utils.forge.Configurator
 import com.datadog.android.utils.verifyLog
 import com.datadog.tools.unit.completedFutureMock
 import com.datadog.tools.unit.forge.aThrowable
+import com.datadog.trace.api.sampling.PrioritySampling
 import com.datadog.trace.core.DDSpan
 import fr.xgouchet.elmyr.Forge
 import fr.xgouchet.elmyr.annotation.Forgery
@@ -50,6 +52,7 @@ import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.doThrow
 import org.mockito.kotlin.eq
+import org.mockito.kotlin.inOrder
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.never
 import org.mockito.kotlin.times
@@ -98,10 +101,14 @@ internal class CoreTraceWriterTest {
     @Forgery
     lateinit var fakeDatadogContext: DatadogContext
 
+    private var fakeMaxItemSize: Long = 0L
+
     // region Unit Tests
 
     @BeforeEach
     fun `set up`(forge: Forge) {
+        fakeMaxItemSize = forge.aLong(min = 3_000L, max = 3_000_000L)
+
         whenever(
             mockSdkCore.getFeature(Feature.TRACING_FEATURE_NAME)
         ) doReturn mockTracingFeatureScope
@@ -127,7 +134,8 @@ internal class CoreTraceWriterTest {
             ddSpanToSpanEventMapper = mockLegacyMapper,
             eventMapper = mockEventMapper,
             serializer = mockSerializer,
-            internalLogger = mockInternalLogger
+            internalLogger = mockInternalLogger,
+            maxItemSize = fakeMaxItemSize
         )
     }
 
@@ -473,6 +481,179 @@ internal class CoreTraceWriterTest {
         verifyNoMoreInteractions(mockSdkCore, mockTracingFeatureScope)
     }
 
+    @Test
+    fun `M write all the spans in a single event W write() { span encoder }`(forge: Forge) {
+        // GIVEN
+        val mockSpanEncoder = mock<CoreTracerSpanEncoder>()
+        testedWriter = createWriterWithEncoder(mockSpanEncoder)
+        val ddSpans = createNonEmptyDdSpans(
+            forge = forge,
+            includeDropSamplingPriority = false
+        )
+        val encodedSpans = ddSpans.map { forge.aString().toByteArray() }
+        ddSpans.forEachIndexed { index, ddSpan ->
+            whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, ddSpan)) doReturn encodedSpans[index]
+        }
+        val fakePayload = forge.aString().toByteArray()
+        whenever(mockSpanEncoder.encodePayload(fakeDatadogContext, encodedSpans)) doReturn fakePayload
+
+        // WHEN
+        testedWriter.write(ddSpans)
+
+        // THEN
+        verify(mockEventBatchWriter)
+            .write(RawBatchEvent(data = fakePayload), null, EventType.DEFAULT)
+        verifyNoMoreInteractions(mockEventBatchWriter)
+        verifyNoInteractions(mockLegacyMapper, mockEventMapper, mockSerializer)
+    }
+
+    @Test
+    fun `M not encode spans with drop sampling priority W write() { span encoder }`(forge: Forge) {
+        // GIVEN
+        val mockSpanEncoder = mock<CoreTracerSpanEncoder>()
+        testedWriter = createWriterWithEncoder(mockSpanEncoder)
+        val keptSpans = createNonEmptyDdSpans(
+            forge = forge,
+            includeDropSamplingPriority = false
+        )
+        val droppedSpans = createNonEmptyDdSpans(
+            forge = forge,
+            includeDropSamplingPriority = true
+        )
+        val encodedSpans = keptSpans.map { forge.aString().toByteArray() }
+        keptSpans.forEachIndexed { index, ddSpan ->
+            whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, ddSpan)) doReturn encodedSpans[index]
+        }
+        val fakePayload = forge.aString().toByteArray()
+        whenever(mockSpanEncoder.encodePayload(fakeDatadogContext, encodedSpans)) doReturn fakePayload
+
+        // WHEN
+        testedWriter.write(droppedSpans + keptSpans)
+
+        // THEN
+        droppedSpans.forEach {
+            verify(mockSpanEncoder, never()).encodeSpan(fakeDatadogContext, it)
+        }
+        verify(mockEventBatchWriter)
+            .write(RawBatchEvent(data = fakePayload), null, EventType.DEFAULT)
+        verifyNoMoreInteractions(mockEventBatchWriter)
+    }
+
+    @Test
+    fun `M split the trace in several events W write() { span encoder, trace bigger than max payload size }`(
+        forge: Forge
+    ) {
+        // GIVEN
+        val mockSpanEncoder = mock<CoreTracerSpanEncoder>()
+        testedWriter = createWriterWithEncoder(mockSpanEncoder)
+        val ddSpans = List(3) { forge.getForgery<DDSpan>() }
+        ddSpans.forEach {
+            whenever(it.getTraceSamplingPriority()) doReturn PrioritySampling.SAMPLER_KEEP.toInt()
+        }
+        val encodedSpans = ddSpans.map { ByteArray((testedWriter.maxTracePayloadSize / 3).toInt()) }
+        ddSpans.forEachIndexed { index, ddSpan ->
+            whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, ddSpan)) doReturn encodedSpans[index]
+        }
+        val fakeFirstPayload = forge.aString().toByteArray()
+        val fakeSecondPayload = forge.aString().toByteArray()
+        whenever(mockSpanEncoder.encodePayload(fakeDatadogContext, encodedSpans.take(2))) doReturn fakeFirstPayload
+        whenever(mockSpanEncoder.encodePayload(fakeDatadogContext, encodedSpans.drop(2))) doReturn fakeSecondPayload
+
+        // WHEN
+        testedWriter.write(ddSpans)
+
+        // THEN
+        inOrder(mockEventBatchWriter) {
+            verify(mockEventBatchWriter)
+                .write(RawBatchEvent(data = fakeFirstPayload), null, EventType.DEFAULT)
+            verify(mockEventBatchWriter)
+                .write(RawBatchEvent(data = fakeSecondPayload), null, EventType.DEFAULT)
+        }
+        verifyNoMoreInteractions(mockEventBatchWriter)
+    }
+
+    @Test
+    fun `M log error and write the other spans W write() { span encoder failed }`(forge: Forge) {
+        // GIVEN
+        val mockSpanEncoder = mock<CoreTracerSpanEncoder>()
+        testedWriter = createWriterWithEncoder(mockSpanEncoder)
+        val ddSpans = createNonEmptyDdSpans(
+            forge = forge,
+            includeDropSamplingPriority = false
+        )
+        val fakeThrowable = forge.aThrowable()
+        val faultySpanIndex = forge.anInt(0, ddSpans.size)
+        val encodedSpans = ddSpans.map { forge.aString().toByteArray() }
+        ddSpans.forEachIndexed { index, ddSpan ->
+            if (index == faultySpanIndex) {
+                whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, ddSpan)) doThrow fakeThrowable
+            } else {
+                whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, ddSpan)) doReturn encodedSpans[index]
+            }
+        }
+        val expectedEncodedSpans = encodedSpans.filterIndexed { index, _ -> index != faultySpanIndex }
+        val fakePayload = forge.aString().toByteArray()
+        whenever(mockSpanEncoder.encodePayload(fakeDatadogContext, expectedEncodedSpans)) doReturn fakePayload
+
+        // WHEN
+        testedWriter.write(ddSpans)
+
+        // THEN
+        if (expectedEncodedSpans.isEmpty()) {
+            verifyNoInteractions(mockEventBatchWriter)
+        } else {
+            verify(mockEventBatchWriter)
+                .write(RawBatchEvent(data = fakePayload), null, EventType.DEFAULT)
+            verifyNoMoreInteractions(mockEventBatchWriter)
+        }
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            CoreTraceWriter.ERROR_SERIALIZING.format(Locale.US, SpanEvent::class.java.simpleName),
+            fakeThrowable
+        )
+    }
+
+    @Test
+    fun `M log error W write() { span encoder failed to encode payload }`(forge: Forge) {
+        // GIVEN
+        val mockSpanEncoder = mock<CoreTracerSpanEncoder>()
+        testedWriter = createWriterWithEncoder(mockSpanEncoder)
+        val ddSpans = createNonEmptyDdSpans(
+            forge = forge,
+            includeDropSamplingPriority = false
+        )
+        val fakeThrowable = forge.aThrowable()
+        ddSpans.forEach {
+            whenever(mockSpanEncoder.encodeSpan(fakeDatadogContext, it)) doReturn forge.aString().toByteArray()
+        }
+        whenever(mockSpanEncoder.encodePayload(eq(fakeDatadogContext), any())) doThrow fakeThrowable
+
+        // WHEN
+        testedWriter.write(ddSpans)
+
+        // THEN
+        verifyNoInteractions(mockEventBatchWriter)
+        mockInternalLogger.verifyLog(
+            InternalLogger.Level.ERROR,
+            listOf(InternalLogger.Target.USER, InternalLogger.Target.TELEMETRY),
+            CoreTraceWriter.ERROR_SERIALIZING.format(Locale.US, SpanEvent::class.java.simpleName),
+            fakeThrowable
+        )
+    }
+
+    private fun createWriterWithEncoder(spanEncoder: CoreTracerSpanEncoder): CoreTraceWriter {
+        return CoreTraceWriter(
+            sdkCore = mockSdkCore,
+            ddSpanToSpanEventMapper = mockLegacyMapper,
+            eventMapper = mockEventMapper,
+            serializer = mockSerializer,
+            internalLogger = mockInternalLogger,
+            spanEncoder = spanEncoder,
+            maxItemSize = fakeMaxItemSize
+        )
+    }
+
     private fun createNonEmptyDdSpans(forge: Forge, includeDropSamplingPriority: Boolean): List<DDSpan> {
         val predicate: (DDSpan) -> Boolean = if (includeDropSamplingPriority) {
             { it.getTraceSamplingPriority() in CoreTraceWriter.DROP_SAMPLING_PRIORITIES }
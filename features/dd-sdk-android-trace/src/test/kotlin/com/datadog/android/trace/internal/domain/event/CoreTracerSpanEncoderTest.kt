@@ -0,0 +1,184 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.trace.internal.domain.event
+
+import com.datadog.android.api.InternalLogger
+import com.datadog.android.api.context.DatadogContext
+import com.datadog.android.log.LogAttributes
+import com.datadog.android.utils.forge.Configurator
+import com.datadog.trace.core.DDSpan
+import com.google.gson.JsonParser
+import fr.xgouchet.elmyr.Forge
+import fr.xgouchet.elmyr.annotation.BoolForgery
+import fr.xgouchet.elmyr.annotation.Forgery
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeConfiguration
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.Mock
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.spy
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ForgeConfiguration(Configurator::class)
+internal class CoreTracerSpanEncoderTest {
+
+    private lateinit var testedEncoder: CoreTracerSpanEncoder
+
+    private lateinit var spanMapper: CoreTracerSpanToSpanEventMapper
+
+    private lateinit var serializer: SpanEventSerializer
+
+    @Mock
+    lateinit var mockInternalLogger: InternalLogger
+
+    @Forgery
+    lateinit var fakeDatadogContext: DatadogContext
+
+    @BoolForgery
+    var fakeNetworkInfoEnabled: Boolean = false
+
+    @BeforeEach
+    fun `set up`() {
+        spanMapper = spy(CoreTracerSpanToSpanEventMapper(fakeNetworkInfoEnabled))
+        serializer = SpanEventSerializer(mockInternalLogger)
+        testedEncoder = CoreTracerSpanEncoder(spanMapper, serializer)
+    }
+
+    @Test
+    fun `M encode the same payload as the mapper and serializer W encodeSpan() + encodePayload()`(
+        @Forgery fakeSpan: DDSpan
+    ) {
+        // Given
+        val expected = serializer.serialize(fakeDatadogContext, spanMapper.map(fakeDatadogContext, fakeSpan))
+
+        // When
+        val result = testedEncoder.encodePayload(
+            fakeDatadogContext,
+            listOf(testedEncoder.encodeSpan(fakeDatadogContext, fakeSpan))
+        )
+
+        // Then
+        assertThat(JsonParser.parseString(String(result, Charsets.UTF_8)))
+            .isEqualTo(JsonParser.parseString(expected))
+    }
+
+    @Test
+    fun `M encode the same payload as the mapper and serializer W encodeSpan() + encodePayload() {RUM info present}`(
+        @Forgery fakeSpan: DDSpan,
+        @StringForgery fakeApplicationId: String,
+        @StringForgery fakeSessionId: String,
+        @StringForgery fakeViewId: String
+    ) {
+        // Given
+        val tags = fakeSpan.tags.toMutableMap().apply {
+            this[LogAttributes.RUM_APPLICATION_ID] = fakeApplicationId
+            this[LogAttributes.RUM_SESSION_ID] = fakeSessionId
+            this[LogAttributes.RUM_VIEW_ID] = fakeViewId
+        }
+        whenever(fakeSpan.tags).thenReturn(tags)
+        val expected = serializer.serialize(fakeDatadogContext, spanMapper.map(fakeDatadogContext, fakeSpan))
+
+        // When
+        val result = testedEncoder.encodePayload(
+            fakeDatadogContext,
+            listOf(testedEncoder.encodeSpan(fakeDatadogContext, fakeSpan))
+        )
+
+        // Then
+        assertThat(JsonParser.parseString(String(result, Charsets.UTF_8)))
+            .isEqualTo(JsonParser.parseString(expected))
+    }
+
+    @Test
+    fun `M encode all the spans in order W encodePayload()`(forge: Forge) {
+        // Given
+        val fakeSpans = forge.aList { getForgery<DDSpan>() }
+        val expectedSpans = fakeSpans.map {
+            JsonParser.parseString(serializer.serialize(fakeDatadogContext, spanMapper.map(fakeDatadogContext, it)))
+                .asJsonObject
+                .getAsJsonArray(SpanEventSerializer.TAG_SPANS)[0]
+        }
+
+        // When
+        val result = testedEncoder.encodePayload(
+            fakeDatadogContext,
+            fakeSpans.map { testedEncoder.encodeSpan(fakeDatadogContext, it) }
+        )
+
+        // Then
+        val payload = JsonParser.parseString(String(result, Charsets.UTF_8)).asJsonObject
+        assertThat(payload.getAsJsonArray(SpanEventSerializer.TAG_SPANS).toList())
+            .containsExactlyElementsOf(expectedSpans)
+        assertThat(payload.get(SpanEventSerializer.TAG_ENV).asString).isEqualTo(fakeDatadogContext.env)
+    }
+
+    @Test
+    fun `M let tags override baggage items W encodeSpan() {same key}`(
+        @Forgery fakeSpan: DDSpan,
+        @StringForgery fakeKey: String,
+        @StringForgery fakeBaggageValue: String,
+        @StringForgery fakeTagValue: String
+    ) {
+        // Given
+        whenever(fakeSpan.baggage).thenReturn(fakeSpan.baggage + (fakeKey to fakeBaggageValue))
+        whenever(fakeSpan.tags).thenReturn(fakeSpan.tags + (fakeKey to fakeTagValue))
+
+        // When
+        val result = testedEncoder.encodeSpan(fakeDatadogContext, fakeSpan)
+
+        // Then
+        val meta = JsonParser.parseString(String(result, Charsets.UTF_8)).asJsonObject
+            .getAsJsonObject("meta")
+        assertThat(meta.get(fakeKey).asString).isEqualTo(fakeTagValue)
+    }
+
+    @Test
+    fun `M resolve the context metadata once W encodeSpan() {spans written with the same context}`(
+        @Forgery fakeSpan: DDSpan,
+        @Forgery fakeOtherSpan: DDSpan
+    ) {
+        // When
+        testedEncoder.encodeSpan(fakeDatadogContext, fakeSpan)
+        testedEncoder.encodeSpan(fakeDatadogContext, fakeOtherSpan)
+
+        // Then
+        verify(spanMapper, times(1)).resolveContextMeta(fakeDatadogContext)
+    }
+
+    @Test
+    fun `M resolve the context metadata again W encodeSpan() + encodePayload() {new context}`(
+        @Forgery fakeSpan: DDSpan,
+        @Forgery fakeOtherDatadogContext: DatadogContext
+    ) {
+        // When
+        testedEncoder.encodeSpan(fakeDatadogContext, fakeSpan)
+        val result = testedEncoder.encodePayload(
+            fakeOtherDatadogContext,
+            listOf(testedEncoder.encodeSpan(fakeOtherDatadogContext, fakeSpan))
+        )
+
+        // Then
+        verify(spanMapper).resolveContextMeta(fakeOtherDatadogContext)
+        val expected = serializer.serialize(fakeOtherDatadogContext, spanMapper.map(fakeOtherDatadogContext, fakeSpan))
+        assertThat(JsonParser.parseString(String(result, Charsets.UTF_8)))
+            .isEqualTo(JsonParser.parseString(expected))
+    }
+}
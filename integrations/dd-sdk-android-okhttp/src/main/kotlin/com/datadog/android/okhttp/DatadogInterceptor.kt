@@ -16,6 +16,8 @@ import com.datadog.android.core.configuration.Configuration
 import com.datadog.android.core.sampling.Sampler
 import com.datadog.android.internal.network.HttpSpec
 import com.datadog.android.internal.telemetry.InternalTelemetryEvent
+import com.datadog.android.okhttp.internal.AbandonedResponseBodyTracker
+import com.datadog.android.okhttp.internal.CountingResponseBody
 import com.datadog.android.okhttp.internal.RumResourceAttributesProviderCompatibilityAdapter
 import com.datadog.android.okhttp.internal.buildResourceId
 import com.datadog.android.okhttp.internal.graphql.OkHttpGraphQLAdapter
@@ -33,6 +35,7 @@ import com.datadog.android.rum._RumInternalProxy
 import com.datadog.android.rum.internal.monitor.AdvancedNetworkRumMonitor
 import com.datadog.android.rum.internal.net.reportNetworkInstrumentationConfigured
 import com.datadog.android.rum.resource.ResourceHeadersExtractor
+import com.datadog.android.rum.resource.ResourceId
 import com.datadog.android.rum.tracking.ViewTrackingStrategy
 import com.datadog.android.trace.TraceContextInjection
 import com.datadog.android.trace.TracingHeaderType
@@ -43,9 +46,9 @@ import okhttp3.OkHttpClient
 import okhttp3.Request
 import okhttp3.Response
 import okhttp3.ResponseBody
-import java.io.IOException
 import java.util.Locale
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Provides automatic RUM & APM integration for [OkHttpClient] by way of the [Interceptor] system.
@@ -110,6 +113,10 @@ open class DatadogInterceptor internal constructor(
 
     private val okHttpGraphQLAdapter = OkHttpGraphQLAdapter()
 
+    private val pendingResourceStops = ConcurrentHashMap<ResourceId, (Long?) -> Unit>()
+
+    private val abandonedResponseBodyTracker = AbandonedResponseBodyTracker()
+
     // region Interceptor
 
     /** @inheritdoc */
@@ -118,6 +125,9 @@ open class DatadogInterceptor internal constructor(
         val sdkCore = sdkCoreReference.get() as? FeatureSdkCore
         val rumFeature = sdkCore?.getFeature(Feature.RUM_FEATURE_NAME)
 
+        // resources which response body was never closed are stopped once the body is collected
+        abandonedResponseBodyTracker.reportAbandonedBodies()
+
         val request = chain.request()
             .newBuilder()
             .apply {
@@ -126,13 +136,13 @@ open class DatadogInterceptor internal constructor(
             }
             .safeBuild() ?: chain.request()
 
-        if (rumFeature != null) {
+        @Suppress("DEPRECATION")
+        val requestId = if (rumFeature != null) request.buildResourceId(generateUuid = false) else null
+
+        if (rumFeature != null && requestId != null) {
             val url = request.url.toString()
             val method = toHttpMethod(request.method, sdkCore.internalLogger)
 
-            @Suppress("DEPRECATION")
-            val requestId = request.buildResourceId(generateUuid = false)
-
             (GlobalRumMonitor.get(sdkCore) as? AdvancedNetworkRumMonitor)?.startResource(requestId, method, url)
         } else {
             val prefix = if (sdkInstanceName == null) {
@@ -150,7 +160,19 @@ open class DatadogInterceptor internal constructor(
         val internalLogger = (sdkCore?.internalLogger ?: InternalLogger.UNBOUND)
         val localChain = okHttpGraphQLAdapter.wrapChainWithoutDDHeaders(internalLogger, chain)
 
-        return doIntercept(localChain, request)
+        try {
+            val response = doIntercept(localChain, request)
+            val pendingStop = requestId?.let { pendingResourceStops.remove(it) }
+            return if (pendingStop != null) {
+                response.withCountingBody(pendingStop)
+            } else {
+                response
+            }
+        } finally {
+            // if the request failed after the response was handled, the body never reaches the app:
+            // the resource is stopped right away, with an unknown size
+            requestId?.let { pendingResourceStops.remove(it) }?.invoke(null)
+        }
     }
 
     // endregion
@@ -242,16 +264,38 @@ open class DatadogInterceptor internal constructor(
             )
         } ?: emptyMap()
 
-        @Suppress("DEPRECATION")
-        (GlobalRumMonitor.get(sdkCore) as? AdvancedNetworkRumMonitor)?.stopResource(
-            requestId,
-            statusCode,
-            getBodyLength(response, sdkCore.internalLogger),
-            kind,
-            attributes +
-                rumResourceAttributesProvider.onProvideAttributes(request, response, null) +
-                resourceHeaderAttributes
-        )
+        val stopAttributes = attributes +
+            rumResourceAttributesProvider.onProvideAttributes(request, response, null) +
+            resourceHeaderAttributes
+        val stopResource = { size: Long? ->
+            @Suppress("DEPRECATION")
+            (GlobalRumMonitor.get(sdkCore) as? AdvancedNetworkRumMonitor)?.stopResource(
+                requestId,
+                statusCode,
+                size,
+                kind,
+                stopAttributes
+            )
+        }
+
+        val bodyLength = getBodyLength(response, sdkCore.internalLogger)
+        if (bodyLength == UNKNOWN_BODY_LENGTH) {
+            // the size is only known once the app consumed the body: the resource is stopped when the
+            // body is exhausted or closed, which also reflects the actual download end
+            pendingResourceStops[requestId] = stopResource
+        } else {
+            stopResource(bodyLength)
+        }
+    }
+
+    @Suppress("UnsafeThirdPartyFunctionCall") // the builder is initialized from a valid response
+    private fun Response.withCountingBody(onBodyConsumed: (Long?) -> Unit): Response {
+        val originalBody = body ?: return this.also { onBodyConsumed(null) }
+        val countingBody = CountingResponseBody(originalBody, onBodyConsumed)
+        abandonedResponseBodyTracker.track(countingBody)
+        return newBuilder()
+            .body(countingBody)
+            .build()
     }
 
     private fun Request.Builder.safeBuild(): Request? {
@@ -282,6 +326,10 @@ open class DatadogInterceptor internal constructor(
         )
     }
 
+    /**
+     * @return the size of the body, null if it cannot be measured, or [UNKNOWN_BODY_LENGTH] if it
+     * has to be counted while being consumed
+     */
     private fun getBodyLength(response: Response, internalLogger: InternalLogger): Long? {
         return try {
             val body = response.body
@@ -296,17 +344,9 @@ open class DatadogInterceptor internal constructor(
             }
             // if there is a Content-Length available, we can read it directly
             // however, OkHttp will drop Content-Length header if transparent compression is
-            // used (since the value reported cannot be applied to decompressed body), so to be
-            // able to still read it, we force decompression by calling peekBody
-            body.contentLengthOrNull() ?: response.peekBody(MAX_BODY_PEEK).contentLengthOrNull()
-        } catch (e: IOException) {
-            internalLogger.log(
-                InternalLogger.Level.ERROR,
-                InternalLogger.Target.MAINTAINER,
-                { ERROR_PEEK_BODY },
-                e
-            )
-            null
+            // used (since the value reported cannot be applied to decompressed body), in which case
+            // the body is counted as it is consumed
+            body.contentLengthOrNull() ?: UNKNOWN_BODY_LENGTH
         } catch (e: IllegalStateException) {
             // this happens if we cannot read body at all (ex. WebSocket, etc.), no need to report to telemetry
             internalLogger.log(
@@ -450,8 +490,7 @@ open class DatadogInterceptor internal constructor(
 
         internal const val ORIGIN_RUM = "rum"
 
-        // We need to limit this value as the body will be loaded in memory
-        private const val MAX_BODY_PEEK: Long = 32 * 1024L * 1024L
+        private const val UNKNOWN_BODY_LENGTH: Long = -1L
 
         private const val ALL_IN_SAMPLE_RATE: Float = 100f
         private const val ZERO_SAMPLE_RATE: Float = 0f
@@ -0,0 +1,50 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.okhttp.internal
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keeps track of the [CountingResponseBody] handed to the application, to report the bodies which
+ * were garbage collected without being exhausted nor closed (i.e.: abandoned responses, which
+ * OkHttp itself reports as leaked). Such bodies are reported with an unknown size, the next time
+ * [reportAbandonedBodies] is called.
+ */
+internal class AbandonedResponseBodyTracker {
+
+    private val queue = ReferenceQueue<CountingResponseBody>()
+
+    // the references must be reachable to be enqueued once their body is collected
+    internal val references: MutableSet<BodyReference> =
+        Collections.newSetFromMap(ConcurrentHashMap<BodyReference, Boolean>())
+
+    fun track(body: CountingResponseBody) {
+        references.add(BodyReference(body, queue))
+    }
+
+    fun reportAbandonedBodies() {
+        var reference = queue.poll()
+        while (reference != null) {
+            (reference as? BodyReference)?.let {
+                references.remove(it)
+                // a no-op if the body was consumed before being collected
+                it.consumption.report(null)
+            }
+            reference = queue.poll()
+        }
+    }
+
+    internal class BodyReference(
+        body: CountingResponseBody,
+        queue: ReferenceQueue<CountingResponseBody>
+    ) : WeakReference<CountingResponseBody>(body, queue) {
+        val consumption: CountingResponseBody.Consumption = body.consumption
+    }
+}
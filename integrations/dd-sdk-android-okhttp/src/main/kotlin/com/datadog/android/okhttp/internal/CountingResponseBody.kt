@@ -0,0 +1,91 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.okhttp.internal
+
+import okhttp3.MediaType
+import okhttp3.ResponseBody
+import okio.Buffer
+import okio.BufferedSource
+import okio.ForwardingSource
+import okio.Source
+import okio.buffer
+import java.io.IOException
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * A [ResponseBody] counting the bytes as they are consumed by the application, for bodies which
+ * size is not known upfront (e.g.: chunked or transparently decompressed). Nothing is buffered on
+ * top of what the application reads.
+ *
+ * @param delegate the original body
+ * @param onBodyConsumed called once, when the body is exhausted or closed, with the number of
+ * bytes read, or null if reading the body failed
+ */
+internal class CountingResponseBody(
+    private val delegate: ResponseBody,
+    onBodyConsumed: (Long?) -> Unit
+) : ResponseBody() {
+
+    /**
+     * The consumption state is kept apart from the body, so that it can still be reported once
+     * the body was garbage collected without being closed (see [AbandonedResponseBodyTracker]).
+     */
+    internal val consumption = Consumption(onBodyConsumed)
+
+    private val countingSource: BufferedSource by lazy {
+        CountingSource(delegate.source()).buffer()
+    }
+
+    override fun contentType(): MediaType? = delegate.contentType()
+
+    override fun contentLength(): Long = delegate.contentLength()
+
+    override fun source(): BufferedSource = countingSource
+
+    internal class Consumption(private val onBodyConsumed: (Long?) -> Unit) {
+
+        private val isReported = AtomicBoolean(false)
+
+        // only written from the thread reading the body
+        @Volatile
+        internal var bytesRead = 0L
+
+        internal fun report(size: Long?) {
+            if (isReported.compareAndSet(false, true)) {
+                onBodyConsumed(size)
+            }
+        }
+    }
+
+    private inner class CountingSource(source: Source) : ForwardingSource(source) {
+
+        @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+        override fun read(sink: Buffer, byteCount: Long): Long {
+            val read = try {
+                super.read(sink, byteCount)
+            } catch (e: IOException) {
+                consumption.report(null)
+                throw e
+            }
+            if (read < 0L) {
+                consumption.report(consumption.bytesRead)
+            } else {
+                consumption.bytesRead += read
+            }
+            return read
+        }
+
+        @Suppress("UnsafeThirdPartyFunctionCall") // IOException is propagated to the caller
+        override fun close() {
+            try {
+                super.close()
+            } finally {
+                consumption.report(consumption.bytesRead)
+            }
+        }
+    }
+}
@@ -810,7 +810,7 @@ internal class DatadogInterceptorTest : TracingInterceptorNotSendingSpanTest() {
                 override fun source(): BufferedSource {
                     val buffer = Buffer()
                     return spy(buffer).apply {
-                        whenever(request(any())) doThrow IOException()
+                        whenever(read(any(), any())) doThrow IOException()
                     }
                 }
             })
@@ -828,7 +828,11 @@ internal class DatadogInterceptorTest : TracingInterceptorNotSendingSpanTest() {
         }
 
         // When
-        testedInterceptor.intercept(mockChain)
+        val response = testedInterceptor.intercept(mockChain)
+        assertThrows<IOException> {
+            response.body?.string()
+        }
+        response.close()
 
         // Then
         inOrder(rumMonitor.mockInstance) {
@@ -852,6 +856,88 @@ internal class DatadogInterceptorTest : TracingInterceptorNotSendingSpanTest() {
         }
     }
 
+    @Test
+    fun `M stop RUM Resource with read size W intercept() + body consumed {unknown body length}`(
+        @IntForgery(min = 200, max = 300) statusCode: Int
+    ) {
+        // Given
+        stubChain(mockChain, statusCode) {
+            header(TracingInterceptor.HEADER_CT, fakeMediaType?.type.orEmpty())
+            body(object : ResponseBody() {
+                override fun contentType(): MediaType? = fakeMediaType
+
+                override fun contentLength(): Long = -1L
+
+                override fun source(): BufferedSource {
+                    return Buffer().writeUtf8(fakeResponseBody)
+                }
+            })
+        }
+        val expectedStopAttrs = mapOf(
+            RumAttributes.TRACE_ID to fakeTraceIdAsString,
+            RumAttributes.SPAN_ID to fakeSpanId.toString(),
+            RumAttributes.RULE_PSR to fakeTracingSampleRate / 100
+        ) + fakeAttributes
+        val mimeType = fakeMediaType?.type
+        val kind = when {
+            mimeType != null -> RumResourceKind.fromMimeType(mimeType)
+            else -> RumResourceKind.NATIVE
+        }
+
+        // When
+        val response = testedInterceptor.intercept(mockChain)
+        verify(rumMonitor.mockInstance, never()).stopResource(any<ResourceId>(), any(), any(), any(), any())
+        val body = response.body?.string()
+
+        // Then
+        assertThat(body).isEqualTo(fakeResponseBody)
+        verify(rumMonitor.mockInstance).stopResource(
+            any<ResourceId>(),
+            eq(statusCode),
+            eq(fakeResponseBody.toByteArray().size.toLong()),
+            eq(kind),
+            eq(expectedStopAttrs)
+        )
+    }
+
+    @Test
+    fun `M stop RUM Resource with read size W intercept() + body closed {unknown body length}`(
+        @IntForgery(min = 200, max = 300) statusCode: Int
+    ) {
+        // Given
+        stubChain(mockChain, statusCode) {
+            header(TracingInterceptor.HEADER_CT, fakeMediaType?.type.orEmpty())
+            body(object : ResponseBody() {
+                override fun contentType(): MediaType? = fakeMediaType
+
+                override fun contentLength(): Long = -1L
+
+                override fun source(): BufferedSource {
+                    return Buffer().writeUtf8(fakeResponseBody)
+                }
+            })
+        }
+        val mimeType = fakeMediaType?.type
+        val kind = when {
+            mimeType != null -> RumResourceKind.fromMimeType(mimeType)
+            else -> RumResourceKind.NATIVE
+        }
+
+        // When
+        val response = testedInterceptor.intercept(mockChain)
+        response.close()
+        response.close()
+
+        // Then
+        verify(rumMonitor.mockInstance).stopResource(
+            any<ResourceId>(),
+            eq(statusCode),
+            eq(0L),
+            eq(kind),
+            any()
+        )
+    }
+
     @Test
     fun `M start and stop RUM Resource W intercept() {success request throwing response + !smp}`(
         @IntForgery(min = 200, max = 300) statusCode: Int
@@ -868,7 +954,7 @@ internal class DatadogInterceptorTest : TracingInterceptorNotSendingSpanTest() {
                 override fun source(): BufferedSource {
                     val buffer = Buffer()
                     return spy(buffer).apply {
-                        whenever(request(any())) doThrow IOException()
+                        whenever(read(any(), any())) doThrow IOException()
                     }
                 }
             })
@@ -883,7 +969,11 @@ internal class DatadogInterceptorTest : TracingInterceptorNotSendingSpanTest() {
         }
 
         // When
-        testedInterceptor.intercept(mockChain)
+        val response = testedInterceptor.intercept(mockChain)
+        assertThrows<IOException> {
+            response.body?.string()
+        }
+        response.close()
 
         // Then
         inOrder(rumMonitor.mockInstance) {
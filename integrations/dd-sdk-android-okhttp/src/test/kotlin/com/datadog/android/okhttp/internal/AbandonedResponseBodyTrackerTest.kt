@@ -0,0 +1,101 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.okhttp.internal
+
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.quality.Strictness
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+internal class AbandonedResponseBodyTrackerTest {
+
+    private lateinit var testedTracker: AbandonedResponseBodyTracker
+
+    private val reportedSizes = mutableListOf<Long?>()
+
+    @BeforeEach
+    fun `set up`() {
+        testedTracker = AbandonedResponseBodyTracker()
+    }
+
+    @Test
+    fun `M report null W reportAbandonedBodies() {body collected without being consumed}`(
+        @StringForgery fakeContent: String
+    ) {
+        // Given
+        val body = CountingResponseBody(fakeContent.toResponseBody()) { reportedSizes.add(it) }
+        testedTracker.track(body)
+        simulateCollection()
+
+        // When
+        testedTracker.reportAbandonedBodies()
+        testedTracker.reportAbandonedBodies()
+
+        // Then
+        assertThat(reportedSizes).containsExactly(null)
+        assertThat(testedTracker.references).isEmpty()
+    }
+
+    @Test
+    fun `M not report again W reportAbandonedBodies() {body consumed before being collected}`(
+        @StringForgery fakeContent: String
+    ) {
+        // Given
+        val body = CountingResponseBody(fakeContent.toResponseBody()) { reportedSizes.add(it) }
+        testedTracker.track(body)
+        body.string()
+        simulateCollection()
+
+        // When
+        testedTracker.reportAbandonedBodies()
+
+        // Then
+        assertThat(reportedSizes).containsExactly(fakeContent.toByteArray().size.toLong())
+        assertThat(testedTracker.references).isEmpty()
+    }
+
+    @Test
+    fun `M not report W reportAbandonedBodies() {body still reachable}`(
+        @StringForgery fakeContent: String
+    ) {
+        // Given
+        val body = CountingResponseBody(fakeContent.toResponseBody()) { reportedSizes.add(it) }
+        testedTracker.track(body)
+
+        // When
+        testedTracker.reportAbandonedBodies()
+
+        // Then
+        assertThat(reportedSizes).isEmpty()
+        assertThat(testedTracker.references).hasSize(1)
+        assertThat(body.contentLength()).isEqualTo(fakeContent.toByteArray().size.toLong())
+    }
+
+    // region Internal
+
+    /** Does what the garbage collector does once a tracked body is no longer reachable. */
+    private fun simulateCollection() {
+        testedTracker.references.forEach {
+            it.clear()
+            it.enqueue()
+        }
+    }
+
+    // endregion
+}
@@ -0,0 +1,112 @@
+/*
+ * Unless explicitly stated otherwise all files in this repository are licensed under the Apache License Version 2.0.
+ * This product includes software developed at Datadog (https://www.datadoghq.com/).
+ * Copyright 2016-Present Datadog, Inc.
+ */
+
+package com.datadog.android.okhttp.internal
+
+import fr.xgouchet.elmyr.annotation.StringForgery
+import fr.xgouchet.elmyr.junit5.ForgeExtension
+import okhttp3.MediaType
+import okhttp3.ResponseBody
+import okhttp3.ResponseBody.Companion.toResponseBody
+import okio.Buffer
+import okio.BufferedSource
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.extension.ExtendWith
+import org.junit.jupiter.api.extension.Extensions
+import org.mockito.junit.jupiter.MockitoExtension
+import org.mockito.junit.jupiter.MockitoSettings
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doThrow
+import org.mockito.kotlin.spy
+import org.mockito.kotlin.whenever
+import org.mockito.quality.Strictness
+import java.io.IOException
+
+@Extensions(
+    ExtendWith(MockitoExtension::class),
+    ExtendWith(ForgeExtension::class)
+)
+@MockitoSettings(strictness = Strictness.LENIENT)
+internal class CountingResponseBodyTest {
+
+    private val reportedSizes = mutableListOf<Long?>()
+
+    @Test
+    fun `M report the read size W body exhausted`(
+        @StringForgery fakeContent: String
+    ) {
+        // Given
+        val testedBody = CountingResponseBody(fakeContent.toResponseBody()) { reportedSizes.add(it) }
+
+        // When
+        val result = testedBody.string()
+
+        // Then
+        assertThat(result).isEqualTo(fakeContent)
+        assertThat(reportedSizes).containsExactly(fakeContent.toByteArray().size.toLong())
+    }
+
+    @Test
+    fun `M report the read size once W body partially read and closed`(
+        @StringForgery(regex = "[a-z]{8,32}") fakeContent: String
+    ) {
+        // Given
+        val testedBody = CountingResponseBody(fakeContent.toResponseBody()) { reportedSizes.add(it) }
+
+        // When
+        val source = testedBody.source()
+        source.readByte()
+        testedBody.close()
+        testedBody.close()
+
+        // Then
+        assertThat(reportedSizes).hasSize(1)
+        assertThat(reportedSizes.first()).isBetween(1L, fakeContent.length.toLong())
+    }
+
+    @Test
+    fun `M report null W body read fails`() {
+        // Given
+        val delegate = object : ResponseBody() {
+            override fun contentType(): MediaType? = null
+
+            override fun contentLength(): Long = -1L
+
+            override fun source(): BufferedSource {
+                return spy(Buffer()).apply {
+                    whenever(read(any(), any())) doThrow IOException()
+                }
+            }
+        }
+        val testedBody = CountingResponseBody(delegate) { reportedSizes.add(it) }
+
+        // When
+        assertThrows<IOException> {
+            testedBody.string()
+        }
+
+        // Then
+        assertThat(reportedSizes).containsExactly(null)
+    }
+
+    @Test
+    fun `M delegate W contentLength() and contentType()`(
+        @StringForgery fakeContent: String
+    ) {
+        // Given
+        val delegate = fakeContent.toResponseBody()
+
+        // When
+        val testedBody = CountingResponseBody(delegate) { reportedSizes.add(it) }
+
+        // Then
+        assertThat(testedBody.contentLength()).isEqualTo(delegate.contentLength())
+        assertThat(testedBody.contentType()).isEqualTo(delegate.contentType())
+        assertThat(reportedSizes).isEmpty()
+    }
+}
@@ -20,6 +20,8 @@ import com.datadog.android.api.context.UserInfo
 import com.datadog.android.api.feature.Feature
 import com.datadog.android.api.feature.FeatureScope
 import com.datadog.android.core.InternalSdkCore
+import com.datadog.android.core.configuration.BackPressureMitigation
+import com.datadog.android.core.configuration.BackPressureStrategy
 import com.datadog.android.core.internal.net.FirstPartyHostHeaderTypeResolver
 import com.datadog.android.internal.time.TimeProvider
 import fr.xgouchet.elmyr.Forge
@@ -168,6 +170,13 @@ class StubSDKCore(
     override val networkInfo: NetworkInfo
         get() = datadogContext.networkInfo
 
+    override val backPressureStrategy: BackPressureStrategy = BackPressureStrategy(
+        capacity = STUB_BACKPRESSURE_CAPACITY,
+        onThresholdReached = {},
+        onItemDropped = {},
+        backpressureMitigation = BackPressureMitigation.IGNORE_NEWEST
+    )
+
     // endregion
 
     // region FeatureSdkCore
@@ -255,4 +264,8 @@ class StubSDKCore(
     }
 
     // endregion
+
+    companion object {
+        private const val STUB_BACKPRESSURE_CAPACITY = 1024
+    }
 }